@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.compiler;
+
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * The <code>ClassFileCache</code> provides the class files of the
+ * classes referenced by compiled sources. The class files provided by
+ * bundles and by the JVM are cached across compilations, so compilers
+ * do not read the same classes over and over again. The class files
+ * of a bundle are cached until the bundle is updated or uninstalled.
+ * @since 2.2
+ */
+@ProviderType
+public interface ClassFileCache {
+
+    /**
+     * Get the class file of a class.
+     * The class file is located through the class loader. Class files
+     * of other origins than bundles and the JVM, e.g. classes written
+     * through a class loader writer, are read on every call.
+     *
+     * @param classLoader The class loader to locate the class file.
+     * @param className The fully qualified class name.
+     * @return The content of the class file, which must not be modified,
+     *         or <code>null</code> if the class can't be found.
+     */
+    byte[] getClassFile(ClassLoader classLoader, String className);
+}
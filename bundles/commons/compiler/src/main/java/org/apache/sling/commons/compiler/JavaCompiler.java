@@ -40,4 +40,22 @@ public interface JavaCompiler {
      */
     CompilationResult compile(CompilationUnit[] units,
                               Options options);
+
+    /**
+     * Compile a batch of independent compilation units.
+     * Each unit is compiled on its own, exactly as if it was passed
+     * to {@link #compile(CompilationUnit[], Options)}, including the
+     * last modified check. As the units do not depend on each other,
+     * they are compiled in parallel and the classes referenced by
+     * the units are looked up only once for the whole batch.
+     * Units depending on each other must be compiled together
+     * through {@link #compile(CompilationUnit[], Options)} instead.
+     *
+     * @param units The independent compilation units.
+     * @param options The compilation options - this object is optional
+     * @return The compilation results, one for each unit in the order of the units.
+     * @since 2.2
+     */
+    CompilationResult[] compileBatch(CompilationUnit[] units,
+                                     Options options);
 }
@@ -0,0 +1,403 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.compiler.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.sling.commons.classloader.DynamicClassLoaderManager;
+import org.apache.sling.commons.compiler.ClassFileCache;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.wiring.BundleRevision;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The <code>ClassFileCacheImpl</code> caches the class files located
+ * through the class loaders of the compilations, together with the
+ * class file readers parsed from them for the {@link EclipseJavaCompiler}.
+ *
+ * Only class files of bundles and of the JVM are cached. They are keyed
+ * by the class name and the providing bundle and remember the bundle
+ * revision they were read from, so class files of bundles which did not
+ * change survive a refresh of other bundles. The class loader is only
+ * asked for the class file the first time it looks up a class after the
+ * dynamic class loader manager changed, which happens whenever bundles
+ * are resolved or unresolved. Later lookups of the class through the same
+ * class loader are answered from an index per class loader, as different
+ * class loaders might see different classes of the same name.
+ *
+ * The cache is bounded and evicts incrementally: class files which were
+ * not used since the last pass over the cache are removed first.
+ */
+@Component(metatype = true,
+        label = "Apache Sling Java Compiler Class File Cache",
+        description = "Caches the class files of the classes referenced by compiled sources.")
+@Service(value = ClassFileCache.class)
+@Reference(name = "dynamicClassLoaderManager",
+        referenceInterface = DynamicClassLoaderManager.class,
+        cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+        policy = ReferencePolicy.DYNAMIC)
+public class ClassFileCacheImpl implements ClassFileCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 5000;
+
+    @Property(intValue = DEFAULT_MAX_ENTRIES,
+            label = "Maximum Entries",
+            description = "The maximum number of cached class files.")
+    public static final String PROP_MAX_ENTRIES = "max.entries";
+
+    /** The maximum number of entries inspected for a single eviction. */
+    static final int MAX_SCAN = 32;
+
+    /** Logger instance */
+    private final Logger logger = LoggerFactory.getLogger(ClassFileCacheImpl.class);
+
+    private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    private volatile BundleContext bundleContext;
+
+    /** The cached class files by class name and revision. */
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /** The keys of the cached class files in insertion order, for the eviction. */
+    private final Queue<String> evictionQueue = new ConcurrentLinkedQueue<String>();
+
+    /** The number of keys in the eviction queue. */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /** The origin of the class files of the JVM. */
+    private static final String JVM = "jvm";
+
+    /** The locations of the boot class path as URIs, empty on Java 9 and later. */
+    private static final Set<String> BOOT_CLASS_PATH = getBootClassPath();
+
+    /**
+     * The keys of the class files by class name per class loader, replaced
+     * whenever the class loaders change - guarded by itself.
+     */
+    private volatile Map<ClassLoader, ConcurrentMap<String, String>> index = newIndex();
+
+    @Activate
+    protected void activate(final BundleContext bundleContext, final Map<String, Object> props) {
+        this.bundleContext = bundleContext;
+        this.configure(props);
+    }
+
+    @Modified
+    protected void configure(final Map<String, Object> props) {
+        int max = DEFAULT_MAX_ENTRIES;
+        final Object value = props.get(PROP_MAX_ENTRIES);
+        if ( value != null ) {
+            try {
+                max = Integer.parseInt(value.toString());
+            } catch (final NumberFormatException nfe) {
+                logger.warn("Invalid value for {}: {}", PROP_MAX_ENTRIES, value);
+            }
+        }
+        this.maxEntries = Math.max(1, max);
+        this.clear();
+    }
+
+    protected void bindDynamicClassLoaderManager(final DynamicClassLoaderManager manager) {
+        this.index = newIndex();
+    }
+
+    protected void unbindDynamicClassLoaderManager(final DynamicClassLoaderManager manager) {
+        this.index = newIndex();
+    }
+
+    private static Map<ClassLoader, ConcurrentMap<String, String>> newIndex() {
+        return new WeakHashMap<ClassLoader, ConcurrentMap<String, String>>();
+    }
+
+    /**
+     * Get the index of the class loader, the class loader is only weakly referenced.
+     */
+    private ConcurrentMap<String, String> getIndex(final ClassLoader classLoader) {
+        final Map<ClassLoader, ConcurrentMap<String, String>> current = this.index;
+        synchronized ( current ) {
+            ConcurrentMap<String, String> result = current.get(classLoader);
+            if ( result == null ) {
+                result = new ConcurrentHashMap<String, String>();
+                current.put(classLoader, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @see org.apache.sling.commons.compiler.ClassFileCache#getClassFile(java.lang.ClassLoader, java.lang.String)
+     */
+    public byte[] getClassFile(final ClassLoader classLoader, final String className) {
+        final Entry entry = this.getEntry(classLoader, className);
+        return entry == null ? null : entry.bytes;
+    }
+
+    /**
+     * Get the parsed class file of a class.
+     * @param classLoader The class loader to locate the class file.
+     * @param className The fully qualified class name.
+     * @return The class file reader or <code>null</code> if the class can't be found or parsed.
+     */
+    public ClassFileReader getClassFileReader(final ClassLoader classLoader, final String className) {
+        final Entry entry = this.getEntry(classLoader, className);
+        return entry == null ? null : entry.getReader(className);
+    }
+
+    /**
+     * Remove all cached class files.
+     */
+    public void clear() {
+        this.index = newIndex();
+        this.entries.clear();
+    }
+
+    /**
+     * The number of cached class files.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    private Entry getEntry(final ClassLoader classLoader, final String className) {
+        final ConcurrentMap<String, String> currentIndex = this.getIndex(classLoader);
+        final String indexedKey = currentIndex.get(className);
+        if ( indexedKey != null ) {
+            final Entry entry = this.entries.get(indexedKey);
+            if ( entry != null ) {
+                entry.touch();
+                return entry;
+            }
+            // evicted in the meantime
+            currentIndex.remove(className, indexedKey);
+        }
+
+        final URL url = classLoader.getResource(className.replace('.', '/') + ".class");
+        if ( url == null ) {
+            return null;
+        }
+        final Object revision = this.getRevision(url);
+        final String key;
+        Entry existing = null;
+        if ( revision == null ) {
+            key = null;
+        } else {
+            key = className + '@' + (revision == JVM ? JVM : ((BundleRevision)revision).getBundle().getBundleId());
+            existing = this.entries.get(key);
+            if ( existing != null && existing.isFrom(revision) ) {
+                existing.touch();
+                currentIndex.put(className, key);
+                return existing;
+            }
+        }
+        final byte[] bytes;
+        try {
+            bytes = read(url);
+        } catch (final IOException ioe) {
+            logger.debug("Unable to read class file " + url, ioe);
+            return null;
+        }
+        final Entry entry = new Entry(bytes, revision);
+        if ( key != null ) {
+            if ( existing != null ) {
+                // the class file of an old revision of the bundle, the key is already queued
+                if ( this.entries.replace(key, existing, entry) ) {
+                    currentIndex.put(className, key);
+                }
+                return entry;
+            }
+            existing = this.entries.putIfAbsent(key, entry);
+            if ( existing != null ) {
+                // added concurrently
+                return entry;
+            }
+            currentIndex.put(className, key);
+            this.evictionQueue.offer(key);
+            this.queued.incrementAndGet();
+            this.evict();
+        }
+        return entry;
+    }
+
+    /**
+     * Get the revision of the origin of a class file. Class files of
+     * bundles and of the JVM don't change without a bundle update or a
+     * restart, other class files, e.g. classes written through a class
+     * loader writer or jar files added to the class path of a class loader,
+     * might change at any time.
+     * @return The {@link BundleRevision}, {@link #JVM} or <code>null</code>
+     *         if the class file must not be cached.
+     */
+    private Object getRevision(final URL url) {
+        final String protocol = url.getProtocol();
+        if ( protocol.startsWith("bundle") ) {
+            // the host starts with the bundle id, e.g. 7.0 or 7.fwk1234
+            final String host = url.getHost();
+            int end = 0;
+            while ( end < host.length() && Character.isDigit(host.charAt(end)) ) {
+                end++;
+            }
+            final BundleContext ctx = this.bundleContext;
+            if ( end > 0 && ctx != null ) {
+                final Bundle bundle = ctx.getBundle(Long.parseLong(host.substring(0, end)));
+                if ( bundle != null ) {
+                    // a new revision is created whenever the bundle is updated
+                    return bundle.adapt(BundleRevision.class);
+                }
+            }
+            return null;
+        }
+        if ( "jrt".equals(protocol) ) {
+            return JVM;
+        }
+        if ( "jar".equals(protocol) ) {
+            final String path = url.getPath();
+            final int pos = path.indexOf("!/");
+            if ( pos != -1 && BOOT_CLASS_PATH.contains(path.substring(0, pos)) ) {
+                return JVM;
+            }
+        }
+        return null;
+    }
+
+    private static Set<String> getBootClassPath() {
+        final Set<String> result = new HashSet<String>();
+        final String path = System.getProperty("sun.boot.class.path");
+        if ( path != null ) {
+            for(final String location : path.split(File.pathSeparator)) {
+                if ( location.length() > 0 ) {
+                    result.add(new File(location).toURI().toString());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove class files until the cache is within its bound. Class files
+     * used since they were last inspected are spared once, but at most
+     * {@link #MAX_SCAN} class files are spared per call. Keys of class
+     * files removed by a clear are dropped on the way.
+     */
+    private void evict() {
+        int spared = 0;
+        while ( this.queued.get() > this.maxEntries ) {
+            final String key = this.evictionQueue.poll();
+            if ( key == null ) {
+                return;
+            }
+            final Entry entry = this.entries.get(key);
+            if ( entry != null && entry.referenced && spared++ < MAX_SCAN ) {
+                entry.referenced = false;
+                this.evictionQueue.offer(key);
+            } else {
+                this.queued.decrementAndGet();
+                if ( entry != null ) {
+                    this.entries.remove(key, entry);
+                }
+            }
+        }
+    }
+
+    private static byte[] read(final URL url) throws IOException {
+        final InputStream is = url.openStream();
+        try {
+            byte[] buf = new byte[8192];
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(buf.length);
+            int count;
+            while ((count = is.read(buf, 0, buf.length)) > 0) {
+                baos.write(buf, 0, count);
+            }
+            return baos.toByteArray();
+        } finally {
+            try {
+                is.close();
+            } catch (IOException ignore) {}
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] bytes;
+
+        /** The bundle revision or {@link ClassFileCacheImpl#JVM}, <code>null</code> if not cached. */
+        private final WeakReference<Object> revision;
+
+        /** Whether the class file was used since the eviction inspected it. */
+        private volatile boolean referenced;
+
+        /** The parsed class file, created on first use. */
+        private volatile ClassFileReader reader;
+
+        /** Whether the class file could not be parsed. */
+        private volatile boolean invalid;
+
+        Entry(final byte[] bytes, final Object revision) {
+            this.bytes = bytes;
+            this.revision = revision == null ? null : new WeakReference<Object>(revision);
+        }
+
+        boolean isFrom(final Object revision) {
+            return this.revision != null && this.revision.get() == revision;
+        }
+
+        void touch() {
+            // avoid writing to the shared entry on every lookup
+            if ( !this.referenced ) {
+                this.referenced = true;
+            }
+        }
+
+        ClassFileReader getReader(final String className) {
+            ClassFileReader result = this.reader;
+            if ( result == null && !this.invalid ) {
+                // concurrent callers might parse the class file twice, which is harmless
+                try {
+                    result = new ClassFileReader(this.bytes, className.toCharArray(), true);
+                    this.reader = result;
+                } catch (final Exception e) {
+                    this.invalid = true;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -17,20 +17,30 @@
 package org.apache.sling.commons.compiler.impl;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.sling.commons.classloader.ClassLoaderWriter;
+import org.apache.sling.commons.compiler.ClassFileCache;
 import org.apache.sling.commons.compiler.CompilationResult;
 import org.apache.sling.commons.compiler.CompilationUnit;
 import org.apache.sling.commons.compiler.CompilationUnitWithSource;
@@ -56,6 +66,8 @@ import org.slf4j.LoggerFactory;
  * The <code>EclipseJavaCompiler</code> provides platform independent
  * Java compilation support using the Eclipse Java Compiler (org.eclipse.jdt).
  *
+ * Batches of independent units are compiled in parallel by the calling
+ * thread and a pool of helper threads, one thread per processor.
  */
 @Component
 @Service(value=JavaCompiler.class)
@@ -67,12 +79,44 @@ public class EclipseJavaCompiler implements JavaCompiler {
     @Reference
     private ClassLoaderWriter classLoaderWriter;
 
+    @Reference
+    private ClassFileCache classFileCache;
+
     /** the static problem factory */
     private IProblemFactory problemFactory = new DefaultProblemFactory(Locale.getDefault());
 
     /** the static policy. */
     private final IErrorHandlingPolicy policy = DefaultErrorHandlingPolicies.proceedWithAllProblems();
 
+    /** The number of units of a batch compiled in parallel. */
+    private final int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /** The helper threads for batch compilations, <code>null</code> if not active. */
+    private volatile ExecutorService executor;
+
+    @Activate
+    protected void activate() {
+        if ( this.parallelism > 1 ) {
+            final AtomicInteger counter = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(this.parallelism - 1, new ThreadFactory() {
+
+                public Thread newThread(final Runnable r) {
+                    final Thread t = new Thread(r, "Java Compiler #" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        if ( this.executor != null ) {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+    }
+
     /**
      * Get the classloader for the compilation.
      */
@@ -170,27 +214,93 @@ public class EclipseJavaCompiler implements JavaCompiler {
             return new CompilationResultImpl("Class loader for compilation is not available.");
         }
 
-        // check sources for compilation
-        boolean needsCompilation = isForceCompilation(options);
-        if ( !needsCompilation ) {
-            for(final CompilationUnit unit : units) {
-                if ( this.isOutDated(unit, writer) ) {
-                    needsCompilation = true;
-                    break;
-                }
+        return this.compile(units, options, this.getSettings(options), writer, new TypeCache(loader, this.classFileCache));
+    }
+
+    /**
+     * @see org.apache.sling.commons.compiler.JavaCompiler#compileBatch(org.apache.sling.commons.compiler.CompilationUnit[], org.apache.sling.commons.compiler.Options)
+     */
+    public CompilationResult[] compileBatch(final CompilationUnit[] units,
+                                            final Options compileOptions) {
+        final CompilationResult[] results = new CompilationResult[units.length];
+
+        // make sure we have an options object (to avoid null checks all over the place)
+        final Options options = (compileOptions != null ? compileOptions : EMPTY_OPTIONS);
+
+        // get classloader and classloader writer
+        final ClassLoaderWriter writer = this.getClassLoaderWriter(options);
+        final ClassLoader loader = (writer == null ? null : this.getClassLoader(options, writer));
+        if ( writer == null || loader == null ) {
+            final String msg = (writer == null ? "Class loader writer" : "Class loader") + " for compilation is not available.";
+            for(int i = 0; i < results.length; i++) {
+                results[i] = new CompilationResultImpl(msg);
             }
+            return results;
         }
-        if ( !needsCompilation ) {
-            logger.debug("All source files are recent - no compilation required.");
-            return new CompilationResultImpl(writer);
+
+        // the units share the settings and the looked up classes
+        final CompilerOptions settings = this.getSettings(options);
+        final TypeCache typeCache = new TypeCache(loader, this.classFileCache);
+
+        // the units are taken one by one by the calling thread and the helper threads
+        final AtomicInteger nextUnit = new AtomicInteger();
+        final Runnable worker = new Runnable() {
+
+            public void run() {
+                int index;
+                while ( (index = nextUnit.getAndIncrement()) < units.length ) {
+                    try {
+                        results[index] = compile(new CompilationUnit[] {units[index]}, options, settings, writer, typeCache);
+                    } catch (final RuntimeException e) {
+                        logger.error("Unable to compile " + units[index].getMainClassName(), e);
+                        results[index] = new CompilationResultImpl("Unable to compile: " + e.getMessage());
+                    }
+                }
+            }
+        };
+
+        final ExecutorService executor = this.executor;
+        final List<Future<?>> helpers = new ArrayList<Future<?>>();
+        if ( executor != null ) {
+            final int helperCount = Math.min(units.length, this.parallelism) - 1;
+            try {
+                for(int i = 0; i < helperCount; i++) {
+                    helpers.add(executor.submit(worker));
+                }
+            } catch (final RejectedExecutionException ree) {
+                // deactivated in the meantime, continue with the helpers submitted so far
+            }
         }
+        worker.run();
 
-        // delete old class files
-        for(final CompilationUnit unit : units) {
-            final String name = '/' + unit.getMainClassName().replace('.', '/') + ".class";
-            writer.delete(name);
+        // all units are taken, helpers which did not start yet are not needed anymore
+        boolean interrupted = false;
+        for(final Future<?> helper : helpers) {
+            if ( !helper.cancel(false) ) {
+                try {
+                    helper.get();
+                } catch (final InterruptedException ie) {
+                    interrupted = true;
+                } catch (final ExecutionException ee) {
+                    // the worker handles all exceptions
+                }
+            }
+        }
+        if ( interrupted ) {
+            Thread.currentThread().interrupt();
         }
+        for(int i = 0; i < results.length; i++) {
+            if ( results[i] == null ) {
+                results[i] = new CompilationResultImpl("Compilation of " + units[i].getMainClassName() + " was interrupted.");
+            }
+        }
+        return results;
+    }
 
+    /**
+     * Create the compiler settings from the options.
+     */
+    private CompilerOptions getSettings(final Options options) {
         // create properties for the settings object
         final Map<String, String> props = new HashMap<String, String>();
         if (options.isGenerateDebugInfo()) {
@@ -210,11 +320,42 @@ public class EclipseJavaCompiler implements JavaCompiler {
         // create the settings
         final CompilerOptions settings = new CompilerOptions(props);
         logger.debug("Compiling with settings {}.", settings);
+        return settings;
+    }
+
+    /**
+     * Compile the units together.
+     */
+    private CompilationResult compile(final CompilationUnit[] units,
+                                      final Options options,
+                                      final CompilerOptions settings,
+                                      final ClassLoaderWriter writer,
+                                      final TypeCache typeCache) {
+        // check sources for compilation
+        boolean needsCompilation = isForceCompilation(options);
+        if ( !needsCompilation ) {
+            for(final CompilationUnit unit : units) {
+                if ( this.isOutDated(unit, writer) ) {
+                    needsCompilation = true;
+                    break;
+                }
+            }
+        }
+        if ( !needsCompilation ) {
+            logger.debug("All source files are recent - no compilation required.");
+            return new CompilationResultImpl(writer);
+        }
+
+        // delete old class files
+        for(final CompilationUnit unit : units) {
+            final String name = '/' + unit.getMainClassName().replace('.', '/') + ".class";
+            writer.delete(name);
+        }
 
         // create the result
         final CompilationResultImpl result = new CompilationResultImpl(isIgnoreWarnings(options), writer);
         // create the context
-        final CompileContext context = new CompileContext(units, result, writer, loader);
+        final CompileContext context = new CompileContext(units, result, writer, typeCache);
 
         // create the compiler
         final org.eclipse.jdt.internal.compiler.Compiler compiler =
@@ -241,12 +382,12 @@ public class EclipseJavaCompiler implements JavaCompiler {
 
         private final CompilationResultImpl errorHandler;
         private final ClassLoaderWriter classLoaderWriter;
-        private final ClassLoader classLoader;
+        private final TypeCache typeCache;
 
         public CompileContext(final CompilationUnit[] units,
          		              final CompilationResultImpl errorHandler,
         		              final ClassLoaderWriter classWriter,
-        		              final ClassLoader classLoader) {
+        		              final TypeCache typeCache) {
         	this.compUnits = new HashMap<String,ICompilationUnit>();
             for (int i = 0; i < units.length; i++) {
                 CompilationUnitAdapter cua = new CompilationUnitAdapter(units[i], errorHandler);
@@ -256,7 +397,7 @@ public class EclipseJavaCompiler implements JavaCompiler {
 
         	this.errorHandler = errorHandler;
             this.classLoaderWriter = classWriter;
-            this.classLoader = classLoader;
+            this.typeCache = typeCache;
         }
 
         public ICompilationUnit[] getSourceUnits() {
@@ -310,17 +451,11 @@ public class EclipseJavaCompiler implements JavaCompiler {
             }
 
             // locate the class through the class loader
-            try {
-                byte[] bytes = this.findClass(CharOperation.toString(compoundTypeName));
-                if (bytes == null) {
-                    return null;
-                }
-                ClassFileReader classFileReader =
-                        new ClassFileReader(bytes, fqn.toCharArray(), true);
-                return new NameEnvironmentAnswer(classFileReader, null);
-            } catch (Exception e) {
+            final ClassFileReader classFileReader = this.typeCache.findType(fqn);
+            if (classFileReader == null) {
                 return null;
             }
+            return new NameEnvironmentAnswer(classFileReader, null);
         }
 
         /**
@@ -336,7 +471,7 @@ public class EclipseJavaCompiler implements JavaCompiler {
         public boolean isPackage(char[][] parentPackageName, char[] packageName) {
             String fqn = CharOperation.toString(
                     CharOperation.arrayConcat(parentPackageName, packageName));
-            return compUnits.get(fqn) == null && this.isPackage(fqn);
+            return compUnits.get(fqn) == null && this.typeCache.isPackage(fqn);
         }
 
         /**
@@ -354,42 +489,6 @@ public class EclipseJavaCompiler implements JavaCompiler {
             os.write(data);
             os.close();
         }
-
-        private boolean isPackage(String result) {
-            String resourceName = result.replace('.', '/') + ".class";
-            if ( resourceName.startsWith("/") ) {
-                resourceName = resourceName.substring(1);
-            }
-            final InputStream is = this.classLoader.getResourceAsStream(resourceName);
-            if ( is != null ) {
-                try {
-                    is.close();
-                } catch (IOException ignore) {}
-            }
-            return is == null;
-        }
-
-        private byte[] findClass(String name) throws Exception {
-            final String resourceName = name.replace('.', '/') + ".class";
-            final InputStream is = this.classLoader.getResourceAsStream(resourceName);
-            if (is != null) {
-                try {
-                    byte[] buf = new byte[8192];
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream(buf.length);
-                    int count;
-                    while ((count = is.read(buf, 0, buf.length)) > 0) {
-                        baos.write(buf, 0, count);
-                    }
-                    baos.flush();
-                    return baos.toByteArray();
-                } finally {
-                    try {
-                        is.close();
-                    } catch (IOException ignore) {}
-                }
-            }
-            return null;
-        }
     }
 
     private class CompilationUnitAdapter implements ICompilationUnit {
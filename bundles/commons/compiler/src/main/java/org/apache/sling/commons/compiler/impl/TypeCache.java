@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.compiler.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.sling.commons.compiler.ClassFileCache;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+
+/**
+ * The <code>TypeCache</code> looks up the class files of the types
+ * referenced by the compiled sources through a class loader and
+ * caches the parsed class files as well as the negative results.
+ * A cache can be shared by concurrent compilations using the same
+ * class loader, e.g. the compilations of a batch. The class files are
+ * taken from the {@link ClassFileCache}, if available, which keeps
+ * them across compilations. The {@link ClassFileCacheImpl} of this
+ * bundle keeps the parsed class files as well.
+ */
+class TypeCache {
+
+    /** Marker for types which could not be found. */
+    private static final Object NOT_FOUND = new Object();
+
+    private final ClassLoader classLoader;
+
+    /** The cache shared by all compilations, might be <code>null</code>. */
+    private final ClassFileCache classFileCache;
+
+    /** The parsed class files or {@link #NOT_FOUND} by class name. */
+    private final ConcurrentMap<String, Object> types = new ConcurrentHashMap<String, Object>();
+
+    /** Whether a name denotes a package (and not a class) by name. */
+    private final ConcurrentMap<String, Boolean> packages = new ConcurrentHashMap<String, Boolean>();
+
+    public TypeCache(final ClassLoader classLoader, final ClassFileCache classFileCache) {
+        this.classLoader = classLoader;
+        this.classFileCache = classFileCache;
+    }
+
+    /**
+     * Find the class file of a type.
+     * @param className The fully qualified class name
+     * @return The parsed class file or <code>null</code> if the class can't be found.
+     */
+    public ClassFileReader findType(final String className) {
+        Object type = this.types.get(className);
+        if ( type == null ) {
+            type = NOT_FOUND;
+            if ( this.classFileCache instanceof ClassFileCacheImpl ) {
+                final ClassFileReader reader = ((ClassFileCacheImpl) this.classFileCache).getClassFileReader(this.classLoader, className);
+                if ( reader != null ) {
+                    type = reader;
+                }
+            } else {
+                try {
+                    final byte[] bytes = this.classFileCache != null
+                            ? this.classFileCache.getClassFile(this.classLoader, className) : this.findClass(className);
+                    if ( bytes != null ) {
+                        type = new ClassFileReader(bytes, className.toCharArray(), true);
+                    }
+                } catch (final Exception e) {
+                    // treat as not found
+                }
+            }
+            final Object existing = this.types.putIfAbsent(className, type);
+            if ( existing != null ) {
+                type = existing;
+            }
+        }
+        return type == NOT_FOUND ? null : (ClassFileReader) type;
+    }
+
+    /**
+     * Check whether a name denotes a package, i.e. no class with that name exists.
+     * @param name The fully qualified name
+     * @return <code>true</code> if there is no class with that name.
+     */
+    public boolean isPackage(final String name) {
+        Boolean result = this.packages.get(name);
+        if ( result == null ) {
+            String resourceName = name.replace('.', '/') + ".class";
+            if ( resourceName.startsWith("/") ) {
+                resourceName = resourceName.substring(1);
+            }
+            final InputStream is = this.classLoader.getResourceAsStream(resourceName);
+            if ( is != null ) {
+                try {
+                    is.close();
+                } catch (IOException ignore) {}
+            }
+            result = is == null;
+            this.packages.put(name, result);
+        }
+        return result;
+    }
+
+    private byte[] findClass(final String name) throws IOException {
+        final String resourceName = name.replace('.', '/') + ".class";
+        final InputStream is = this.classLoader.getResourceAsStream(resourceName);
+        if (is != null) {
+            try {
+                byte[] buf = new byte[8192];
+                ByteArrayOutputStream baos = new ByteArrayOutputStream(buf.length);
+                int count;
+                while ((count = is.read(buf, 0, buf.length)) > 0) {
+                    baos.write(buf, 0, count);
+                }
+                baos.flush();
+                return baos.toByteArray();
+            } finally {
+                try {
+                    is.close();
+                } catch (IOException ignore) {}
+            }
+        }
+        return null;
+    }
+}
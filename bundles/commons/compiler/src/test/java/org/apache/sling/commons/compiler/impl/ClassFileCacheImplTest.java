@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.compiler.impl;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+
+/**
+ * Test case for the class file cache
+ */
+public class ClassFileCacheImplTest extends TestCase {
+
+    private final ClassLoader classLoader = this.getClass().getClassLoader();
+
+    private ClassFileCacheImpl cache;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.cache = new ClassFileCacheImpl();
+        this.cache.configure(Collections.<String, Object>emptyMap());
+    }
+
+    public void testJvmClassesAreCached() {
+        final ClassFileReader reader = this.cache.getClassFileReader(this.classLoader, "java.lang.String");
+        assertNotNull(reader);
+        assertEquals("java/lang/String", CharOperation.charToString(reader.getName()));
+        assertSame(reader, this.cache.getClassFileReader(this.classLoader, "java.lang.String"));
+        assertSame(this.cache.getClassFile(this.classLoader, "java.lang.String"),
+                this.cache.getClassFile(this.classLoader, "java.lang.String"));
+        assertEquals(1, this.cache.size());
+    }
+
+    public void testOtherClassesAreNotCached() {
+        // the test classes are loaded from a directory, like the classes of a class loader writer
+        final String className = ClassFileCacheImplTest.class.getName();
+        final byte[] bytes = this.cache.getClassFile(this.classLoader, className);
+        assertNotNull(bytes);
+        assertNotSame(bytes, this.cache.getClassFile(this.classLoader, className));
+        assertEquals(0, this.cache.size());
+    }
+
+    public void testClassPathJarsAreNotCached() {
+        // junit is loaded from a jar on the class path, not from the boot class path
+        final String className = TestCase.class.getName();
+        assertNotNull(this.cache.getClassFile(this.classLoader, className));
+        assertEquals(0, this.cache.size());
+    }
+
+    public void testMissingClass() {
+        assertNull(this.cache.getClassFile(this.classLoader, "org.apache.sling.Missing"));
+        assertNull(this.cache.getClassFileReader(this.classLoader, "org.apache.sling.Missing"));
+    }
+
+    public void testBounded() {
+        final Map<String, Object> props = Collections.<String, Object>singletonMap(ClassFileCacheImpl.PROP_MAX_ENTRIES, "2");
+        this.cache.configure(props);
+        final byte[] string = this.cache.getClassFile(this.classLoader, "java.lang.String");
+        this.cache.getClassFile(this.classLoader, "java.lang.Integer");
+        // access String, such that Integer is the least recently used class
+        this.cache.getClassFile(this.classLoader, "java.lang.String");
+        this.cache.getClassFile(this.classLoader, "java.lang.Long");
+        assertEquals(2, this.cache.size());
+        assertSame(string, this.cache.getClassFile(this.classLoader, "java.lang.String"));
+    }
+
+    public void testLookupsAnsweredFromIndex() {
+        final CountingClassLoader loader = new CountingClassLoader(this.classLoader);
+        final byte[] bytes = this.cache.getClassFile(loader, "java.lang.String");
+        assertSame(bytes, this.cache.getClassFile(loader, "java.lang.String"));
+        assertNotNull(this.cache.getClassFileReader(loader, "java.lang.String"));
+        assertEquals(1, loader.lookups);
+    }
+
+    public void testIndexPerClassLoader() {
+        final CountingClassLoader loader = new CountingClassLoader(this.classLoader);
+        final CountingClassLoader other = new CountingClassLoader(this.classLoader);
+        final byte[] bytes = this.cache.getClassFile(loader, "java.lang.String");
+        // another class loader locates the class file itself, but shares the class file of the same origin
+        assertSame(bytes, this.cache.getClassFile(other, "java.lang.String"));
+        assertEquals(1, loader.lookups);
+        assertEquals(1, other.lookups);
+        assertEquals(1, this.cache.size());
+    }
+
+    public void testIndexResetOnClassLoaderChange() {
+        final CountingClassLoader loader = new CountingClassLoader(this.classLoader);
+        final byte[] bytes = this.cache.getClassFile(loader, "java.lang.String");
+        this.cache.unbindDynamicClassLoaderManager(null);
+        // the class file is located again, but the class file of the same origin is still cached
+        assertSame(bytes, this.cache.getClassFile(loader, "java.lang.String"));
+        assertEquals(2, loader.lookups);
+        assertEquals(1, this.cache.size());
+    }
+
+    public void testClear() {
+        final byte[] bytes = this.cache.getClassFile(this.classLoader, "java.lang.String");
+        this.cache.clear();
+        assertEquals(0, this.cache.size());
+        assertNotSame(bytes, this.cache.getClassFile(this.classLoader, "java.lang.String"));
+    }
+
+    private static final class CountingClassLoader extends ClassLoader {
+
+        private int lookups;
+
+        CountingClassLoader(final ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        public URL getResource(final String name) {
+            lookups++;
+            return super.getResource(name);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.compiler.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import junit.framework.TestCase;
+
+import org.apache.sling.commons.classloader.ClassLoaderWriter;
+import org.apache.sling.commons.compiler.CompilationResult;
+import org.apache.sling.commons.compiler.CompilationUnit;
+import org.apache.sling.commons.compiler.Options;
+
+/**
+ * Test case for the batch compilation
+ */
+public class CompilerBatchTest extends TestCase
+        implements ClassLoaderWriter {
+
+    private final Map<String, byte[]> classes = new ConcurrentHashMap<String, byte[]>();
+
+    private EclipseJavaCompiler compiler;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        this.compiler = new EclipseJavaCompiler();
+        this.compiler.activate();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        this.compiler.deactivate();
+        super.tearDown();
+    }
+
+    public void testBatch() throws Exception {
+        final CompilationUnit[] units = new CompilationUnit[20];
+        for(int i = 0; i < units.length; i++) {
+            units[i] = createCompileUnit("Batch" + i,
+                    "public class Batch" + i + " { public java.util.List<String> get() { return java.util.Collections.emptyList(); } }");
+        }
+        final CompilationResult[] results = this.compiler.compileBatch(units, this.createOptions());
+        assertEquals(units.length, results.length);
+        for(int i = 0; i < units.length; i++) {
+            assertNull(results[i].getErrors());
+            assertTrue(results[i].didCompile());
+            assertTrue(this.classes.containsKey("/org/apache/sling/commons/compiler/test/Batch" + i + ".class"));
+        }
+    }
+
+    public void testErrorsArePerUnit() throws Exception {
+        final CompilationUnit[] units = new CompilationUnit[] {
+            createCompileUnit("Valid", "public class Valid {}"),
+            createCompileUnit("Invalid", "public class Invalid { UnknownType field; }"),
+            createCompileUnit("AlsoValid", "public class AlsoValid {}")
+        };
+        final CompilationResult[] results = this.compiler.compileBatch(units, this.createOptions());
+        assertNull(results[0].getErrors());
+        assertNotNull(results[1].getErrors());
+        assertEquals(1, results[1].getErrors().size());
+        assertNull(results[2].getErrors());
+    }
+
+    public void testWithoutHelperThreads() throws Exception {
+        this.compiler.deactivate();
+        final CompilationUnit[] units = new CompilationUnit[] {
+            createCompileUnit("First", "public class First {}"),
+            createCompileUnit("Second", "public class Second {}")
+        };
+        final CompilationResult[] results = this.compiler.compileBatch(units, this.createOptions());
+        assertNull(results[0].getErrors());
+        assertNull(results[1].getErrors());
+        assertEquals(2, this.classes.size());
+    }
+
+    //--------------------------------------------------------< misc. helpers >
+
+    private Options createOptions() {
+        final Options options = new Options();
+        options.put(Options.KEY_SOURCE_VERSION, Options.VERSION_1_5);
+        options.put(Options.KEY_CLASS_LOADER_WRITER, this);
+        options.put(Options.KEY_CLASS_LOADER, this.getClass().getClassLoader());
+        return options;
+    }
+
+    private CompilationUnit createCompileUnit(final String className, final String body) {
+        return new CompilationUnit() {
+
+            public String getMainClassName() {
+                return "org.apache.sling.commons.compiler.test." + className;
+            }
+
+            public Reader getSource() throws IOException {
+                return new StringReader("package org.apache.sling.commons.compiler.test;\n" + body);
+            }
+
+            public long getLastModified() {
+                return 0;
+            }
+        };
+    }
+
+    public boolean delete(String path) {
+        return this.classes.remove(path) != null;
+    }
+
+    public InputStream getInputStream(String path) throws IOException {
+        return null;
+    }
+
+    public long getLastModified(String path) {
+        return -1;
+    }
+
+    public OutputStream getOutputStream(final String path) {
+        return new ByteArrayOutputStream() {
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+                classes.put(path, this.toByteArray());
+            }
+        };
+    }
+
+    public boolean rename(String oldPath, String newPath) {
+        return false;
+    }
+
+    public ClassLoader getClassLoader() {
+        return null;
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sling.commons.metrics.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+
+/**
+ * A lock free {@link Reservoir} recording all values in a high dynamic range
+ * histogram with log-linear buckets, similar to HdrHistogram. Values below
+ * 256 are recorded exactly, larger values with a relative error below 0.4%.
+ * Unlike the sampling reservoirs of Dropwizard Metrics no value is dropped,
+ * so the high percentiles remain accurate under load.
+ * <p>
+ * Values are recorded in the histogram of the current interval. Once the
+ * interval has elapsed it becomes the last completed interval, which is
+ * returned by {@link #getIntervalSnapshot()}. The main {@link #getSnapshot()
+ * snapshot} covers the last completed and the current interval, so like the
+ * exponentially decaying reservoir it only reflects recent values.
+ * <p>
+ * The buckets are allocated in chunks covering a power of two when the first
+ * value of that range is recorded, so a metric only uses memory for the range
+ * of values it actually records.
+ */
+class HdrReservoir implements Reservoir {
+    /**
+     * Number of bits of a value which are recorded exactly
+     */
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /**
+     * Larger values are recorded as this value. In nanoseconds this is
+     * about 4.8 hours.
+     */
+    static final long MAX_VALUE = (1L << 44) - 1;
+
+    static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    /**
+     * Number of buckets allocated at once, each chunk above the first two
+     * covers the values between two powers of two.
+     */
+    private static final int CHUNK_SIZE = SUB_BUCKET_HALF_COUNT;
+
+    private static final int CHUNK_COUNT = (BUCKET_COUNT + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+    static final long DEFAULT_INTERVAL_SECONDS = 60;
+
+    private final Clock clock;
+    private final long intervalNanos;
+    private final AtomicReference<Buckets> current;
+    private volatile Buckets last;
+
+    HdrReservoir() {
+        this(DEFAULT_INTERVAL_SECONDS, TimeUnit.SECONDS, Clock.defaultClock());
+    }
+
+    HdrReservoir(long interval, TimeUnit unit, Clock clock) {
+        this.clock = clock;
+        this.intervalNanos = unit.toNanos(interval);
+        this.current = new AtomicReference<Buckets>(new Buckets(clock.getTick()));
+        this.last = new Buckets(0);
+    }
+
+    @Override
+    public int size() {
+        final Buckets buckets = currentInterval();
+        return (int) Math.min(last.count.get() + buckets.count.get(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(long value) {
+        final long v = Math.min(Math.max(value, 0), MAX_VALUE);
+        currentInterval().record(v, indexOf(v));
+    }
+
+    /**
+     * Returns the snapshot of the last completed and the current interval.
+     */
+    @Override
+    public Snapshot getSnapshot() {
+        final Buckets buckets = currentInterval();
+        return snapshot(last, buckets);
+    }
+
+    /**
+     * Returns the snapshot of the last completed interval. If no value was
+     * recorded during that interval the snapshot is empty.
+     */
+    public Snapshot getIntervalSnapshot() {
+        currentInterval();
+        return snapshot(last);
+    }
+
+    /**
+     * Returns the number of buckets allocated for the last completed and
+     * the current interval.
+     */
+    int getAllocatedBucketCount() {
+        final Buckets buckets = currentInterval();
+        return (last.allocatedChunks() + buckets.allocatedChunks()) * CHUNK_SIZE;
+    }
+
+    /**
+     * Returns the buckets of the current interval, starting a new interval
+     * if the current one has elapsed.
+     */
+    private Buckets currentInterval() {
+        final Buckets buckets = current.get();
+        final long now = clock.getTick();
+        final long elapsed = now - buckets.start;
+        if (elapsed < intervalNanos) {
+            return buckets;
+        }
+
+        //Keep the intervals aligned unless a whole interval passed without any recording
+        final Buckets next = new Buckets(elapsed < 2 * intervalNanos ? buckets.start + intervalNanos : now);
+        if (current.compareAndSet(buckets, next)) {
+            last = elapsed < 2 * intervalNanos ? buckets : new Buckets(buckets.start);
+            return next;
+        }
+        //Another thread started the new interval
+        return current.get();
+    }
+
+    /**
+     * Returns a snapshot of the sum of the given buckets. Only the range up
+     * to the highest allocated chunk is copied.
+     */
+    private static Snapshot snapshot(Buckets... buckets) {
+        int chunks = 0;
+        for (Buckets b : buckets) {
+            chunks = Math.max(chunks, b.highestChunk() + 1);
+        }
+        final long[] counts = new long[chunks * CHUNK_SIZE];
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (Buckets b : buckets) {
+            b.addTo(counts);
+            min = Math.min(min, b.min.get());
+            max = Math.max(max, b.max.get());
+        }
+        return new HdrSnapshot(counts, min, max);
+    }
+
+    /**
+     * Returns the index of the bucket for the given non negative value.
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT
+                + (int) ((value >>> shift) - SUB_BUCKET_HALF_COUNT);
+    }
+
+    /**
+     * Returns the lowest value recorded in the bucket with the given index.
+     */
+    static long lowestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int offset = index - SUB_BUCKET_COUNT;
+        final int shift = offset / SUB_BUCKET_HALF_COUNT + 1;
+        return ((long) (offset % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT)) << shift;
+    }
+
+    /**
+     * Returns the highest value recorded in the bucket with the given index.
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        return lowestValue(index) + (1L << shift) - 1;
+    }
+
+    private static final class Buckets {
+        final long start;
+        final AtomicReferenceArray<AtomicLongArray> chunks = new AtomicReferenceArray<AtomicLongArray>(CHUNK_COUNT);
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+        Buckets(long start) {
+            this.start = start;
+        }
+
+        void record(long value, int index) {
+            final int chunk = index / CHUNK_SIZE;
+            AtomicLongArray counts = chunks.get(chunk);
+            if (counts == null) {
+                chunks.compareAndSet(chunk, null, new AtomicLongArray(CHUNK_SIZE));
+                counts = chunks.get(chunk);
+            }
+            counts.incrementAndGet(index % CHUNK_SIZE);
+            count.incrementAndGet();
+
+            long m = min.get();
+            while (value < m && !min.compareAndSet(m, value)) {
+                m = min.get();
+            }
+            m = max.get();
+            while (value > m && !max.compareAndSet(m, value)) {
+                m = max.get();
+            }
+        }
+
+        int highestChunk() {
+            for (int i = CHUNK_COUNT - 1; i >= 0; i--) {
+                if (chunks.get(i) != null) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int allocatedChunks() {
+            int allocated = 0;
+            for (int i = 0; i < CHUNK_COUNT; i++) {
+                if (chunks.get(i) != null) {
+                    allocated++;
+                }
+            }
+            return allocated;
+        }
+
+        void addTo(long[] counts) {
+            final int length = Math.min(CHUNK_COUNT, counts.length / CHUNK_SIZE);
+            for (int i = 0; i < length; i++) {
+                final AtomicLongArray chunk = chunks.get(i);
+                if (chunk != null) {
+                    for (int j = 0; j < CHUNK_SIZE; j++) {
+                        counts[i * CHUNK_SIZE + j] += chunk.get(j);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sling.commons.metrics.internal;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+
+import com.codahale.metrics.Snapshot;
+
+/**
+ * A {@link Snapshot} of the bucket counts of a {@link HdrReservoir}. Each
+ * value is represented by the middle of its bucket, clipped to the exact
+ * minimum and maximum.
+ * <p>
+ * As the values themselves are not kept, {@link #getValues()} returns one
+ * value per non empty bucket while {@link #size()} returns the number of
+ * recorded values.
+ */
+class HdrSnapshot extends Snapshot {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final long[] counts;
+    private final long count;
+    private final long min;
+    private final long max;
+
+    HdrSnapshot(long[] counts, long min, long max) {
+        this.counts = counts;
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        this.count = total;
+        this.min = total == 0 ? 0 : min;
+        this.max = total == 0 ? 0 : max;
+    }
+
+    @Override
+    public double getValue(double quantile) {
+        if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+            throw new IllegalArgumentException(quantile + " is not in [0..1]");
+        }
+        if (count == 0) {
+            return 0.0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return valueOf(i);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public long[] getValues() {
+        int buckets = 0;
+        for (long c : counts) {
+            if (c > 0) {
+                buckets++;
+            }
+        }
+        final long[] values = new long[buckets];
+        int j = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                values[j++] = valueOf(i);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public double getMean() {
+        if (count == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                sum += (double) valueOf(i) * counts[i];
+            }
+        }
+        return sum / count;
+    }
+
+    @Override
+    public long getMin() {
+        return min;
+    }
+
+    @Override
+    public double getStdDev() {
+        if (count <= 1) {
+            return 0;
+        }
+        final double mean = getMean();
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                final double diff = valueOf(i) - mean;
+                sum += diff * diff * counts[i];
+            }
+        }
+        return Math.sqrt(sum / (count - 1));
+    }
+
+    @Override
+    public void dump(OutputStream output) {
+        final PrintWriter out = new PrintWriter(new OutputStreamWriter(output, UTF_8));
+        try {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    out.printf("%d %d%n", valueOf(i), counts[i]);
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private long valueOf(int index) {
+        final long lowest = HdrReservoir.lowestValue(index);
+        final long value = lowest + (HdrReservoir.highestValue(index) - lowest) / 2;
+        return Math.min(Math.max(value, min), max);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sling.commons.metrics.internal;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+/**
+ * Timers and histograms backed by a {@link HdrReservoir}. Their main snapshot
+ * covers the last completed and the current interval, in addition they provide
+ * the snapshot of the last completed interval only.
+ */
+final class IntervalMetrics {
+
+    private IntervalMetrics() {
+    }
+
+    /**
+     * Implemented by metrics providing a snapshot of the last completed interval.
+     */
+    interface IntervalSnapshotProvider {
+        Snapshot getIntervalSnapshot();
+    }
+
+    static class IntervalTimer extends Timer implements IntervalSnapshotProvider {
+        private final HdrReservoir reservoir;
+
+        IntervalTimer(HdrReservoir reservoir) {
+            super(reservoir);
+            this.reservoir = reservoir;
+        }
+
+        @Override
+        public Snapshot getIntervalSnapshot() {
+            return reservoir.getIntervalSnapshot();
+        }
+    }
+
+    static class IntervalHistogram extends Histogram implements IntervalSnapshotProvider {
+        private final HdrReservoir reservoir;
+
+        IntervalHistogram(HdrReservoir reservoir) {
+            super(reservoir);
+            this.reservoir = reservoir;
+        }
+
+        @Override
+        public Snapshot getIntervalSnapshot() {
+            return reservoir.getIntervalSnapshot();
+        }
+    }
+}
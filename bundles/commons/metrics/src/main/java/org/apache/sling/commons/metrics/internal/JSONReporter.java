@@ -37,6 +37,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Reporter;
 import com.codahale.metrics.Snapshot;
 import com.codahale.metrics.Timer;
+import org.apache.sling.commons.metrics.internal.IntervalMetrics.IntervalSnapshotProvider;
 import org.json.JSONException;
 import org.json.JSONWriter;
 
@@ -230,6 +231,10 @@ class JSONReporter implements Reporter, Closeable {
         json.key("duration_units").value(durationUnit);
         json.key("rate_units").value(rateUnit);
 
+        if (timer instanceof IntervalSnapshotProvider) {
+            printInterval(((IntervalSnapshotProvider) timer).getIntervalSnapshot(), durationFactor);
+        }
+
         json.endObject();
     }
 
@@ -261,6 +266,26 @@ class JSONReporter implements Reporter, Closeable {
         json.key("p999").value(snapshot.get999thPercentile());
         json.key("stddev").value(snapshot.getStdDev());
 
+        if (e.getValue() instanceof IntervalSnapshotProvider) {
+            printInterval(((IntervalSnapshotProvider) e.getValue()).getIntervalSnapshot(), 1.0);
+        }
+
+        json.endObject();
+    }
+
+    private void printInterval(Snapshot snapshot, double factor) throws JSONException {
+        json.key("interval").object();
+        json.key("count").value(snapshot.size());
+        json.key("max").value(snapshot.getMax() * factor);
+        json.key("mean").value(snapshot.getMean() * factor);
+        json.key("min").value(snapshot.getMin() * factor);
+        json.key("p50").value(snapshot.getMedian() * factor);
+        json.key("p75").value(snapshot.get75thPercentile() * factor);
+        json.key("p95").value(snapshot.get95thPercentile() * factor);
+        json.key("p98").value(snapshot.get98thPercentile() * factor);
+        json.key("p99").value(snapshot.get99thPercentile() * factor);
+        json.key("p999").value(snapshot.get999thPercentile() * factor);
+        json.key("stddev").value(snapshot.getStdDev() * factor);
         json.endObject();
     }
 
@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.Locale;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
@@ -53,6 +54,7 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.sling.commons.metrics.internal.IntervalMetrics.IntervalSnapshotProvider;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
 import org.osgi.util.tracker.ServiceTracker;
@@ -157,6 +159,7 @@ public class MetricWebConsolePlugin extends HttpServlet implements
         addMeterDetails(pw, registry.getMeters());
         addTimerDetails(pw, registry.getTimers());
         addHistogramDetails(pw, registry.getHistograms());
+        addIntervalDetails(pw, registry.getTimers(), registry.getHistograms());
     }
 
     private static void appendMetricStatus(PrintWriter pw, MetricRegistry registry) {
@@ -357,6 +360,80 @@ public class MetricWebConsolePlugin extends HttpServlet implements
         pw.println("</div>");
     }
 
+    private void addIntervalDetails(PrintWriter pw, SortedMap<String, Timer> timers,
+                                    SortedMap<String, Histogram> histograms) {
+        final SortedMap<String, Metric> metrics = new TreeMap<String, Metric>();
+        for (Map.Entry<String, Timer> e : timers.entrySet()) {
+            if (e.getValue() instanceof IntervalSnapshotProvider) {
+                metrics.put(e.getKey(), e.getValue());
+            }
+        }
+        for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+            if (e.getValue() instanceof IntervalSnapshotProvider) {
+                metrics.put(e.getKey(), e.getValue());
+            }
+        }
+        if (metrics.isEmpty()) {
+            return;
+        }
+
+        pw.println("<br>");
+        pw.println("<div class='table'>");
+        pw.println("<div class='ui-widget-header ui-corner-top buttonGroup'>Last Interval</div>");
+        pw.println("<table class='nicetable' id='data-intervals'>");
+        pw.println("<thead>");
+        pw.println("<tr>");
+        pw.println("<th class='header'>Name</th>");
+        pw.println("<th class='header'>Count</th>");
+        pw.println("<th class='header'>50%</th>");
+        pw.println("<th class='header'>Min</th>");
+        pw.println("<th class='header'>Max</th>");
+        pw.println("<th class='header'>Mean</th>");
+        pw.println("<th class='header'>75%</th>");
+        pw.println("<th class='header'>95%</th>");
+        pw.println("<th class='header'>99%</th>");
+        pw.println("<th class='header'>999%</th>");
+        pw.println("<th>Duration Unit</th>");
+        pw.println("</tr>");
+        pw.println("</thead>");
+        pw.println("<tbody>");
+
+        String rowClass = "odd";
+        for (Map.Entry<String, Metric> e : metrics.entrySet()) {
+            Snapshot s = ((IntervalSnapshotProvider) e.getValue()).getIntervalSnapshot();
+            String name = e.getKey();
+
+            double durationFactor = 1.0;
+            String durationUnit = "";
+            if (e.getValue() instanceof Timer) {
+                durationFactor = 1.0 / timeUnit.durationFor(name).toNanos(1);
+                durationUnit = timeUnit.durationFor(name).toString().toLowerCase(Locale.US);
+            }
+            pw.printf("<tr class='%s ui-state-default'>%n", rowClass);
+
+            pw.printf("<td>%s</td>", name);
+            pw.printf("<td>%d</td>", s.size());
+            pw.printf("<td>%f</td>", s.getMedian() * durationFactor);
+            pw.printf("<td>%f</td>", s.getMin() * durationFactor);
+            pw.printf("<td>%f</td>", s.getMax() * durationFactor);
+            pw.printf("<td>%f</td>", s.getMean() * durationFactor);
+
+            pw.printf("<td>%f</td>", s.get75thPercentile() * durationFactor);
+            pw.printf("<td>%f</td>", s.get95thPercentile() * durationFactor);
+            pw.printf("<td>%f</td>", s.get99thPercentile() * durationFactor);
+            pw.printf("<td>%f</td>", s.get999thPercentile() * durationFactor);
+
+            pw.printf("<td>%s</td>", durationUnit);
+
+            pw.println("</tr>");
+            rowClass = "odd".equals(rowClass) ? "even" : "odd";
+        }
+
+        pw.println("</tbody>");
+        pw.println("</table>");
+        pw.println("</div>");
+    }
+
     private void addCounterDetails(PrintWriter pw, SortedMap<String, Counter> counters) {
         if (counters.isEmpty()) {
             return;
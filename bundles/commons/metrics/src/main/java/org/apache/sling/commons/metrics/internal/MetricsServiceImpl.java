@@ -28,14 +28,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import javax.management.MBeanServer;
 
+import com.codahale.metrics.Clock;
 import com.codahale.metrics.JmxReporter;
 import com.codahale.metrics.MetricRegistry;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.PropertyUnbounded;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.sling.commons.metrics.Meter;
@@ -44,12 +50,40 @@ import org.apache.sling.commons.metrics.Timer;
 import org.apache.sling.commons.metrics.Counter;
 import org.apache.sling.commons.metrics.Histogram;
 import org.apache.sling.commons.metrics.Metric;
+import org.apache.sling.commons.metrics.internal.IntervalMetrics.IntervalHistogram;
+import org.apache.sling.commons.metrics.internal.IntervalMetrics.IntervalTimer;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
 import org.osgi.framework.ServiceRegistration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-@Component
+@Component(metatype = true,
+        label = "Apache Sling Metrics Service",
+        description = "Provides timers, histograms, counters and meters backed by Dropwizard Metrics")
 public class MetricsServiceImpl implements MetricsService {
+    private static final boolean DEFAULT_HDR_ENABLED = false;
+
+    @Property(boolValue = DEFAULT_HDR_ENABLED,
+            label = "HDR Reservoir",
+            description = "If enabled all timers and histograms record their values in a lock free " +
+                    "high dynamic range histogram instead of the default exponentially decaying sample")
+    static final String PROP_HDR_ENABLED = "hdr.enabled";
+
+    @Property(unbounded = PropertyUnbounded.ARRAY, value = {},
+            label = "HDR Metric Names",
+            description = "Regular expressions matching the names of the timers and histograms which record " +
+                    "their values in a high dynamic range histogram, if not enabled for all metrics")
+    static final String PROP_HDR_NAMES = "hdr.names";
+
+    @Property(longValue = HdrReservoir.DEFAULT_INTERVAL_SECONDS,
+            label = "HDR Interval",
+            description = "Length of the interval in seconds for which timers and histograms with a high dynamic " +
+                    "range histogram report an interval snapshot. Their main snapshot covers the last completed " +
+                    "and the current interval")
+    static final String PROP_HDR_INTERVAL = "hdr.interval";
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
     private final List<ServiceRegistration> regs = new ArrayList<ServiceRegistration>();
     private final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<String, Metric>();
     private final MetricRegistry registry = new MetricRegistry();
@@ -59,8 +93,13 @@ public class MetricsServiceImpl implements MetricsService {
 
     private JmxReporter reporter;
 
+    private boolean hdrEnabled;
+    private Pattern[] hdrNames = new Pattern[0];
+    private long hdrInterval = HdrReservoir.DEFAULT_INTERVAL_SECONDS;
+
     @Activate
     private void activate(BundleContext context, Map<String, Object> config) {
+        configureHdrReservoir(config);
         enableJMXReporter();
 
         final Dictionary<String, String> svcProps = new Hashtable<String, String>();
@@ -125,6 +164,7 @@ public class MetricsServiceImpl implements MetricsService {
             return (T) metric;
         } else if (metric == null) {
             try {
+                registerHdrMetric(name, builder);
                 return register(name, builder.newMetric(registry, name));
             } catch (IllegalArgumentException e) {
                 final Metric added = metrics.get(name);
@@ -144,6 +184,80 @@ public class MetricsServiceImpl implements MetricsService {
         return metric;
     }
 
+    /**
+     * Registers a timer or histogram backed by a {@link HdrReservoir} if configured
+     * for the given name. The builder then picks up the registered metric.
+     */
+    private void registerHdrMetric(String name, MetricBuilder<?> builder) {
+        if (builder != MetricBuilder.TIMERS && builder != MetricBuilder.HISTOGRAMS) {
+            return;
+        }
+        if (!useHdrReservoir(name)) {
+            return;
+        }
+        final HdrReservoir reservoir = new HdrReservoir(hdrInterval, TimeUnit.SECONDS, Clock.defaultClock());
+        try {
+            if (builder == MetricBuilder.TIMERS) {
+                registry.register(name, new IntervalTimer(reservoir));
+            } else {
+                registry.register(name, new IntervalHistogram(reservoir));
+            }
+        } catch (IllegalArgumentException e) {
+            //Already registered, the builder uses the existing metric or fails on a type mismatch
+        }
+    }
+
+    private boolean useHdrReservoir(String name) {
+        if (hdrEnabled) {
+            return true;
+        }
+        for (Pattern p : hdrNames) {
+            if (p.matcher(name).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void configureHdrReservoir(Map<String, Object> config) {
+        final Object enabled = config.get(PROP_HDR_ENABLED);
+        hdrEnabled = enabled == null ? DEFAULT_HDR_ENABLED : Boolean.parseBoolean(enabled.toString());
+
+        final List<Pattern> patterns = new ArrayList<Pattern>();
+        for (String name : toStringArray(config.get(PROP_HDR_NAMES))) {
+            if (name != null && name.trim().length() > 0) {
+                try {
+                    patterns.add(Pattern.compile(name.trim()));
+                } catch (PatternSyntaxException e) {
+                    log.warn("Ignoring invalid metric name pattern {}", name, e);
+                }
+            }
+        }
+        hdrNames = patterns.toArray(new Pattern[patterns.size()]);
+
+        final Object interval = config.get(PROP_HDR_INTERVAL);
+        hdrInterval = HdrReservoir.DEFAULT_INTERVAL_SECONDS;
+        if (interval != null) {
+            try {
+                hdrInterval = Long.parseLong(interval.toString().trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid interval {}, using {} seconds", interval, HdrReservoir.DEFAULT_INTERVAL_SECONDS);
+            }
+        }
+        if (hdrInterval <= 0) {
+            hdrInterval = HdrReservoir.DEFAULT_INTERVAL_SECONDS;
+        }
+    }
+
+    private static String[] toStringArray(Object value) {
+        if (value instanceof String[]) {
+            return (String[]) value;
+        } else if (value instanceof String) {
+            return new String[] {(String) value};
+        }
+        return new String[0];
+    }
+
     /**
      * A quick and easy way of capturing the notion of default metrics.
      */
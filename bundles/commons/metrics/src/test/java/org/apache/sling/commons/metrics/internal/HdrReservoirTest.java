@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sling.commons.metrics.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Snapshot;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HdrReservoirTest {
+    private final TestClock clock = new TestClock();
+
+    @Test
+    public void bucketBoundaries() throws Exception{
+        for (long v : new long[]{0, 1, 255, 256, 257, 511, 512, 1000, 123456789L, HdrReservoir.MAX_VALUE}) {
+            int index = HdrReservoir.indexOf(v);
+            assertTrue(HdrReservoir.lowestValue(index) <= v);
+            assertTrue(HdrReservoir.highestValue(index) >= v);
+        }
+        for (int i = 1; i < HdrReservoir.BUCKET_COUNT; i++) {
+            assertEquals(HdrReservoir.highestValue(i - 1) + 1, HdrReservoir.lowestValue(i));
+        }
+    }
+
+    @Test
+    public void percentiles() throws Exception{
+        HdrReservoir reservoir = new HdrReservoir(1, TimeUnit.MINUTES, clock);
+        for (int i = 1; i <= 100000; i++) {
+            reservoir.update(i * 1000L);
+        }
+
+        Snapshot s = reservoir.getSnapshot();
+        assertEquals(100000, s.size());
+        assertEquals(1000, s.getMin());
+        assertEquals(100000000L, s.getMax());
+        assertWithin(50000000, s.getMedian());
+        assertWithin(99000000, s.get99thPercentile());
+        assertWithin(99900000, s.get999thPercentile());
+        assertWithin(50000500, s.getMean());
+    }
+
+    @Test
+    public void smallValuesAreExact() throws Exception{
+        HdrReservoir reservoir = new HdrReservoir(1, TimeUnit.MINUTES, clock);
+        for (int i = 0; i < 100; i++) {
+            reservoir.update(i);
+        }
+
+        Snapshot s = reservoir.getSnapshot();
+        assertEquals(49, s.getMedian(), 0);
+        assertEquals(0, s.getMin());
+        assertEquals(99, s.getMax());
+        assertEquals(100, s.getValues().length);
+    }
+
+    @Test
+    public void intervals() throws Exception{
+        HdrReservoir reservoir = new HdrReservoir(1, TimeUnit.MINUTES, clock);
+        reservoir.update(10);
+        reservoir.update(20);
+
+        //Interval not completed yet
+        assertEquals(0, reservoir.getIntervalSnapshot().size());
+
+        clock.advance(61);
+        reservoir.update(100);
+
+        Snapshot interval = reservoir.getIntervalSnapshot();
+        assertEquals(2, interval.size());
+        assertEquals(20, interval.getMax());
+        assertEquals(3, reservoir.getSnapshot().size());
+
+        clock.advance(60);
+        interval = reservoir.getIntervalSnapshot();
+        assertEquals(1, interval.size());
+        assertEquals(100, interval.getMax());
+
+        //Only the last completed and the current interval are reported
+        assertEquals(1, reservoir.getSnapshot().size());
+
+        //No recording in the last interval
+        clock.advance(120);
+        assertEquals(0, reservoir.getIntervalSnapshot().size());
+        assertEquals(0, reservoir.getSnapshot().size());
+    }
+
+    @Test
+    public void bucketsAllocatedForRecordedRange() throws Exception{
+        HdrReservoir reservoir = new HdrReservoir(1, TimeUnit.MINUTES, clock);
+        assertEquals(0, reservoir.getAllocatedBucketCount());
+        for (int i = 0; i < 100; i++) {
+            reservoir.update(i);
+        }
+        assertEquals(128, reservoir.getAllocatedBucketCount());
+
+        reservoir.update(HdrReservoir.MAX_VALUE);
+        assertEquals(256, reservoir.getAllocatedBucketCount());
+        assertEquals(HdrReservoir.MAX_VALUE, reservoir.getSnapshot().getMax());
+        assertEquals(99, reservoir.getSnapshot().getValue(0.99), 0);
+    }
+
+    private static void assertWithin(double expected, double actual) {
+        assertEquals(expected, actual, expected * 0.005);
+    }
+
+    private static class TestClock extends Clock {
+        private long tick;
+
+        void advance(long seconds) {
+            tick += TimeUnit.SECONDS.toNanos(seconds);
+        }
+
+        @Override
+        public long getTick() {
+            return tick;
+        }
+    }
+}
@@ -44,6 +44,7 @@ import org.junit.Test;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -144,6 +145,19 @@ public class MetricServiceTest {
 
     }
 
+    @Test
+    public void hdrReservoir() throws Exception{
+        MockOsgi.activate(service, context.bundleContext(),
+                Collections.<String, Object>singletonMap(MetricsServiceImpl.PROP_HDR_NAMES, new String[]{"sling\\..*"}));
+        service.timer("sling.timer");
+        service.histogram("sling.histogram");
+        service.timer("other");
+
+        assertTrue(getRegistry().getTimers().get("sling.timer") instanceof IntervalMetrics.IntervalTimer);
+        assertTrue(getRegistry().getHistograms().get("sling.histogram") instanceof IntervalMetrics.IntervalHistogram);
+        assertFalse(getRegistry().getTimers().get("other") instanceof IntervalMetrics.IntervalTimer);
+    }
+
     private MetricRegistry getRegistry(){
         return context.getService(MetricRegistry.class);
     }
@@ -58,6 +58,7 @@ import org.apache.sling.engine.impl.helper.RequestListenerManager;
 import org.apache.sling.engine.impl.helper.SlingServletContext;
 import org.apache.sling.engine.impl.request.RequestData;
 import org.apache.sling.engine.impl.request.RequestHistoryConsolePlugin;
+import org.apache.sling.engine.impl.request.SlingRequestProgressTracker;
 import org.apache.sling.engine.jmx.RequestProcessorMBean;
 import org.apache.sling.engine.servlets.ErrorHandler;
 import org.osgi.framework.BundleContext;
@@ -99,6 +100,9 @@ public class SlingMainServlet extends GenericServlet {
     @Property(intValue = RequestHistoryConsolePlugin.STORED_REQUESTS_COUNT)
     private static final String PROP_MAX_RECORD_REQUESTS = "sling.max.record.requests";
 
+    @Property(boolValue = false)
+    private static final String PROP_RPT_COLLECT_ON_DEMAND = "sling.rpt.collectOnDemand";
+
     @Property(unbounded=PropertyUnbounded.ARRAY)
     private static final String PROP_TRACK_PATTERNS_REQUESTS = "sling.store.pattern.requests";
 
@@ -382,6 +386,10 @@ public class SlingMainServlet extends GenericServlet {
             RequestData.DEFAULT_MAX_CALL_COUNTER));
         RequestData.setSlingMainServlet(this);
 
+        // configure the request progress tracker
+        SlingRequestProgressTracker.setCollectOnDemand(PropertiesUtil.toBoolean(
+            componentConfig.get(PROP_RPT_COLLECT_ON_DEMAND), false));
+
         // Warn about the obsolete parameter encoding configuration
         if (componentConfig.get(PROP_DEFAULT_PARAMETER_ENCODING) != null) {
             log.warn("Please configure the default request parameter encoding using "
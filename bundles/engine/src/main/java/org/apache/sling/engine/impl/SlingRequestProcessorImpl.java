@@ -53,6 +53,7 @@ import org.apache.sling.engine.impl.filter.RequestSlingFilterChain;
 import org.apache.sling.engine.impl.filter.ServletFilterManager;
 import org.apache.sling.engine.impl.filter.ServletFilterManager.FilterChainType;
 import org.apache.sling.engine.impl.filter.SlingComponentFilterChain;
+import org.apache.sling.engine.impl.metrics.RequestRecorder;
 import org.apache.sling.engine.impl.parameters.ParameterSupport;
 import org.apache.sling.engine.impl.request.ContentData;
 import org.apache.sling.engine.impl.request.RequestData;
@@ -123,8 +124,8 @@ public class SlingRequestProcessorImpl implements SlingRequestProcessor {
         final SlingHttpServletRequest request = requestData.getSlingRequest();
         final SlingHttpServletResponse response = requestData.getSlingResponse();
 
-        // record the request for the web console display
-        RequestHistoryConsolePlugin.recordRequest(request);
+        final RequestRecorder metrics = requestData.getRequestMetrics();
+        final long start = (metrics != null) ? System.nanoTime() : 0;
 
         try {
             final ServletResolver sr = this.servletResolver;
@@ -226,9 +227,19 @@ public class SlingRequestProcessorImpl implements SlingRequestProcessor {
             handleError(t, request, response);
 
         } finally {
+            // record the request for the web console display
+            RequestHistoryConsolePlugin.recordRequest(request);
+
             if (mbean != null) {
                 mbean.addRequestData(requestData);
             }
+            if (metrics != null) {
+                final ContentData contentData = requestData.getContentData();
+                metrics.requestProcessed(
+                    (contentData != null) ? contentData.getResource().getResourceType() : null,
+                    (contentData != null) ? contentData.getRequestPathInfo() : null,
+                    System.nanoTime() - start);
+            }
         }
     }
 
@@ -310,10 +321,15 @@ public class SlingRequestProcessorImpl implements SlingRequestProcessor {
         final ContentData oldContentData = requestData.getContentData();
         final ContentData contentData = requestData.setContent(resource, resolvedURL);
 
+        final RequestRecorder metrics = requestData.getRequestMetrics();
+        final long start = (metrics != null) ? System.nanoTime() : 0;
         try {
             // resolve the servlet
             Servlet servlet = servletResolver.resolveServlet(cRequest);
             contentData.setServlet(servlet);
+            if (metrics != null) {
+                metrics.servletResolved(resource.getResourceType(), System.nanoTime() - start);
+            }
 
             FilterChainType type = include
                     ? FilterChainType.INCLUDE
@@ -322,6 +338,9 @@ public class SlingRequestProcessorImpl implements SlingRequestProcessor {
             processComponent(cRequest, cResponse, type);
         } finally {
             requestData.resetContent(oldContentData);
+            if (metrics != null) {
+                metrics.componentProcessed(resource.getResourceType(), System.nanoTime() - start);
+            }
         }
     }
 
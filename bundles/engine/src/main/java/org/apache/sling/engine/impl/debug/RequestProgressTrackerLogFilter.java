@@ -37,6 +37,7 @@ import org.apache.sling.engine.impl.request.SlingRequestProgressTracker;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.metatype.annotations.AttributeDefinition;
 import org.osgi.service.metatype.annotations.Designate;
 import org.osgi.service.metatype.annotations.ObjectClassDefinition;
@@ -55,7 +56,7 @@ import org.slf4j.LoggerFactory;
                    Constants.SERVICE_VENDOR + "=The Apache Software Foundation",
                    EngineConstants.SLING_FILTER_SCOPE + "=" + EngineConstants.FILTER_SCOPE_REQUEST
            })
-public class RequestProgressTrackerLogFilter implements Filter {
+public class RequestProgressTrackerLogFilter implements Filter, SlingRequestProgressTracker.MessageConsumer {
 
     @ObjectClassDefinition(name="Apache Sling Request Progress Tracker Log Filter",
             description="Filter that enables logging of request progress tracker " +
@@ -125,6 +126,11 @@ public class RequestProgressTrackerLogFilter implements Filter {
     public void destroy() {
     }
 
+    @Override
+    public boolean isReadingMessages() {
+        return log.isDebugEnabled();
+    }
+
     private void logCompactFormat(RequestProgressTracker rpt) {
         final Iterator<String> messages = rpt.getMessages();
         final StringBuilder sb = new StringBuilder("\n");
@@ -204,5 +210,11 @@ public class RequestProgressTrackerLogFilter implements Filter {
         this.extensions = sortAndClean(this.configuration.extensions());
         log.debug("activated: extensions = {}, min = {}, max = {}, compact = {}",
                 new Object[]{extensions, configuration.minDurationMs(), configuration.maxDurationMs(), configuration.compactLogFormat()});
+        SlingRequestProgressTracker.addMessageConsumer(this);
+    }
+
+    @Deactivate
+    private void deactivate() {
+        SlingRequestProgressTracker.removeMessageConsumer(this);
     }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import javax.servlet.ServletResponse;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
 import org.apache.sling.api.request.RequestProgressTracker;
+import org.apache.sling.engine.impl.metrics.RequestRecorder;
 import org.apache.sling.engine.impl.request.RequestData;
 
 public abstract class AbstractSlingFilterChain implements FilterChain {
@@ -38,6 +39,15 @@ public abstract class AbstractSlingFilterChain implements FilterChain {
 
     private long[] times;
 
+    /** The recorder of the request metrics, <code>null</code> if not recorded */
+    private RequestRecorder metrics;
+
+    /** The time in nanoseconds spent in the filter and the rest of the chain, only if recorded */
+    private long[] nanos;
+
+    /** Whether the filter has been called or skipped as not selected, only if recorded */
+    private boolean[] called;
+
     protected AbstractSlingFilterChain(FilterHandle[] filters) {
         this.filters = filters;
         this.current = -1;
@@ -56,6 +66,16 @@ public abstract class AbstractSlingFilterChain implements FilterChain {
         SlingHttpServletRequest slingRequest = toSlingRequest(request);
         SlingHttpServletResponse slingResponse = toSlingResponse(response);
 
+        if (filterIdx == 0) {
+            RequestData data = RequestData.getRequestData(slingRequest);
+            this.metrics = (data != null) ? data.getRequestMetrics() : null;
+            if (this.metrics != null) {
+                this.nanos = new long[times.length];
+                this.called = new boolean[filters.length];
+            }
+        }
+        final long startNanos = (this.nanos != null) ? System.nanoTime() : 0;
+
         try {
 
             if (this.current < this.filters.length) {
@@ -64,6 +84,9 @@ public abstract class AbstractSlingFilterChain implements FilterChain {
                 FilterHandle filter = this.filters[this.current];
                 
                 if (filter.select(slingRequest)) {
+                    if (this.called != null) {
+                        this.called[filterIdx] = true;
+                    }
                     trackFilter(slingRequest, filter);
                     filter.getFilter().doFilter(slingRequest, slingResponse, this);
                 } else {
@@ -79,6 +102,9 @@ public abstract class AbstractSlingFilterChain implements FilterChain {
 
         } finally {
             times[filterIdx] = System.currentTimeMillis() - start;
+            if (this.nanos != null) {
+                this.nanos[filterIdx] = System.nanoTime() - startNanos;
+            }
             if (filterIdx == 0) {
                 consolidateFilterTimings(slingRequest);
             }
@@ -113,6 +139,14 @@ public abstract class AbstractSlingFilterChain implements FilterChain {
                         filters[i].getFilter().getClass().getName(), times[i + 1], times[i], (times[i] - times[i + 1]));
                 }
             }
+
+            if (metrics != null) {
+                for (int i = 0; i < filters.length; i++) {
+                    if (called[i]) {
+                        metrics.filterProcessed(filters[i].getFilter().getClass().getName(), nanos[i] - nanos[i + 1]);
+                    }
+                }
+            }
         }
     }
 
@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The <code>AsyncLogWriter</code> writes log messages to a file from a
+ * dedicated thread. Request threads only put the formatted message into a
+ * bounded queue, the writer thread takes all queued messages and writes them
+ * in batches to the file channel.
+ * <p>
+ * If the queue is full, the {@link OverflowPolicy} decides whether the request
+ * thread waits for the writer or whether the message is dropped. Messages are
+ * dropped as well once the writer is closed or its thread has terminated.
+ * Dropped messages are never reported in the file itself, which only contains
+ * the formatted log messages.
+ * <p>
+ * The queue is a lock based <code>ArrayBlockingQueue</code> and not a lock
+ * free multi producer single consumer queue: the JDK does not provide a
+ * bounded lock free queue and the blocking overflow policy as well as the
+ * writer thread waiting for messages require a blocking queue. The lock is
+ * only held to insert a reference, the writer thread drains many messages
+ * per lock acquisition and does the encoding and the I/O without it.
+ * <p>
+ * The file is opened in append mode, so lines written by other writers for
+ * the same file are not overwritten.
+ */
+class AsyncLogWriter {
+
+    /**
+     * What to do with a message if the queue is full.
+     */
+    enum OverflowPolicy {
+        /** Wait until the writer thread has taken messages from the queue. */
+        BLOCK,
+        /** Drop the message. */
+        DROP,
+        /** Drop the message and report the number of dropped messages in the log. */
+        COUNT;
+
+        static OverflowPolicy fromString(final String value, final OverflowPolicy defaultValue) {
+            if (value != null) {
+                for (final OverflowPolicy policy : values()) {
+                    if (policy.name().equalsIgnoreCase(value.trim())) {
+                        return policy;
+                    }
+                }
+            }
+            return defaultValue;
+        }
+    }
+
+    /** The default size of the queue */
+    static final int DEFAULT_QUEUE_SIZE = 4096;
+
+    /** The maximum number of messages written at once */
+    private static final int MAX_BATCH_SIZE = 512;
+
+    /** The line separator, the same as used by PrintWriter.println() */
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator", "\n");
+
+    /** How long the writer thread waits for messages before checking for shutdown */
+    private static final long POLL_TIMEOUT_MS = 500;
+
+    /** How long to wait for the writer thread to write the remaining messages on close */
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+
+    private final Logger log = LoggerFactory.getLogger(AsyncLogWriter.class);
+
+    private final BlockingQueue<String> queue;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final FileOutputStream file;
+
+    private final FileChannel channel;
+
+    private final CharsetEncoder encoder;
+
+    private final Thread writer;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** Dropped messages not reported in the log yet, only used by the COUNT policy */
+    private final AtomicLong unreported = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    /** The buffer used by the writer thread, written whenever it is full */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    AsyncLogWriter(final File logFile, final int queueSize, final OverflowPolicy overflowPolicy) throws IOException {
+        this.queue = new ArrayBlockingQueue<String>(queueSize > 0 ? queueSize : DEFAULT_QUEUE_SIZE);
+        this.overflowPolicy = overflowPolicy;
+        this.file = new FileOutputStream(logFile, true);
+        this.channel = this.file.getChannel();
+        this.encoder = Charset.defaultCharset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        this.writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "Apache Sling Request Log Writer (" + logFile.getName() + ")");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues the message to be written by the writer thread.
+     */
+    void write(final String message) {
+        if (!this.running) {
+            return;
+        }
+        if (this.overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                // don't wait for a writer which has been closed meanwhile or has died
+                while (!this.queue.offer(message, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    if (!this.running || !this.writer.isAlive()) {
+                        this.dropped.incrementAndGet();
+                        return;
+                    }
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                this.dropped.incrementAndGet();
+            }
+        } else if (!this.queue.offer(message)) {
+            this.dropped.incrementAndGet();
+            if (this.overflowPolicy == OverflowPolicy.COUNT) {
+                this.unreported.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of messages dropped because the queue was full.
+     */
+    long getDroppedCount() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Stops the writer thread after writing the queued messages and closes
+     * the file once the writer thread has terminated.
+     */
+    void close() {
+        this.running = false;
+        try {
+            this.writer.join(CLOSE_TIMEOUT_MS);
+            if (this.writer.isAlive()) {
+                // interrupting the writer closes the channel
+                this.writer.interrupt();
+                this.writer.join(CLOSE_TIMEOUT_MS);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        this.reportDropped();
+        if (!this.writer.isAlive() && this.channel.isOpen() && !this.queue.isEmpty()) {
+            // the writer thread died, write the remaining messages
+            final List<String> batch = new ArrayList<String>(this.queue.size());
+            this.queue.drainTo(batch);
+            try {
+                this.writeBatch(batch);
+            } catch (IOException ioe) {
+                log.error("Cannot write request log messages", ioe);
+            }
+        }
+        try {
+            this.file.close();
+        } catch (IOException ioe) {
+            // don't care
+        }
+    }
+
+    private void writeLoop() {
+        final List<String> batch = new ArrayList<String>(MAX_BATCH_SIZE);
+        while (this.running || !this.queue.isEmpty()) {
+            try {
+                final String first = this.queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    this.queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                }
+                this.writeBatch(batch);
+                this.reportDropped();
+            } catch (InterruptedException ie) {
+                // closing
+                break;
+            } catch (IOException ioe) {
+                log.error("Cannot write request log messages", ioe);
+            }
+            batch.clear();
+        }
+
+        // report messages dropped after the last batch
+        this.reportDropped();
+    }
+
+    /**
+     * Logs the number of messages dropped since the last report, if any.
+     */
+    private void reportDropped() {
+        final long count = this.unreported.getAndSet(0);
+        if (count > 0) {
+            log.warn("{} request log messages dropped as the queue was full, {} in total", count, this.dropped.get());
+        }
+    }
+
+    /**
+     * Writes the messages of the batch.
+     */
+    private void writeBatch(final List<String> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // drop anything left over from a failed write
+        this.buffer.clear();
+        for (final String message : batch) {
+            this.encode(message);
+            this.encode(LINE_SEPARATOR);
+        }
+        this.flushBuffer();
+    }
+
+    private void encode(final String value) throws IOException {
+        final CharBuffer chars = CharBuffer.wrap(value);
+        this.encoder.reset();
+        while (this.encoder.encode(chars, this.buffer, true).isOverflow()) {
+            this.flushBuffer();
+        }
+        while (this.encoder.flush(this.buffer).isOverflow()) {
+            this.flushBuffer();
+        }
+    }
+
+    /** Writes the buffer content to the file, leaving the buffer empty */
+    private void flushBuffer() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+}
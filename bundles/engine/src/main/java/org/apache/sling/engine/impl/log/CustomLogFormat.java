@@ -49,6 +49,11 @@ class CustomLogFormat {
      * /Client+Request+Logging should be kept in sync with this class !
      */
 
+    /**
+     * The initial capacity of the buffer the log message is built in.
+     */
+    private static final int INITIAL_BUFFER_CAPACITY = 256;
+
     /**
      * The parsed list of log format parts whose <code>print</code> method is
      * called when building the log message line.
@@ -82,7 +87,7 @@ class CustomLogFormat {
      */
     String format(RequestLoggerRequest request, RequestLoggerResponse response) {
         if (this.logParameters != null) {
-            StringBuilder buf = new StringBuilder();
+            final StringBuilder buf = new StringBuilder(INITIAL_BUFFER_CAPACITY);
             for (int i = 0; i < this.logParameters.length; i++) {
                 this.logParameters[i].print(buf, request, response);
             }
@@ -411,11 +416,20 @@ class CustomLogFormat {
 
         public final void print(StringBuilder dest, RequestLoggerRequest request, RequestLoggerResponse response) {
             if (this.printOk(response.getStatus())) {
-                String value = this.isRequest ? this.getValue(request) : this.getValue(response);
-                dest.append((value == null) ? "-" : value);
+                this.printValue(dest, request, response);
             }
         }
 
+        /**
+         * Appends the value to the log message, parameters with numeric or
+         * composed values overwrite this to append them without creating an
+         * intermediate string.
+         */
+        protected void printValue(StringBuilder dest, RequestLoggerRequest request, RequestLoggerResponse response) {
+            String value = this.isRequest ? this.getValue(request) : this.getValue(response);
+            dest.append((value == null) ? "-" : value);
+        }
+
         protected boolean printOk(int status) {
             if (this.statusLimits == null) {
                 return true;
@@ -583,6 +597,11 @@ class CustomLogFormat {
         protected String getValue(RequestLoggerResponse response) {
             return String.valueOf(response.getRequestId());
         }
+
+        @Override
+        protected void printValue(StringBuilder dest, RequestLoggerRequest request, RequestLoggerResponse response) {
+            dest.append(response.getRequestId());
+        }
     }
 
     static class ByteCountParameter extends BaseParameter {
@@ -602,6 +621,16 @@ class CustomLogFormat {
 
             return String.valueOf(count);
         }
+
+        @Override
+        protected void printValue(StringBuilder dest, RequestLoggerRequest request, RequestLoggerResponse response) {
+            int count = response.getCount();
+            if (count == 0) {
+                dest.append((this.getParName() == 'b') ? '-' : '0');
+            } else {
+                dest.append(count);
+            }
+        }
     }
 
     static class TimeParameter extends BaseParameter {
@@ -685,6 +714,15 @@ class CustomLogFormat {
             }
             return String.valueOf(time);
         }
+
+        @Override
+        protected void printValue(StringBuilder dest, RequestLoggerRequest request, RequestLoggerResponse response) {
+            long time = response.getRequestDuration();
+            if (this.seconds) {
+                time /= 1000;
+            }
+            dest.append(time);
+        }
     }
 
     static class RemoteIPParameter extends BaseParameter {
@@ -738,6 +776,11 @@ class CustomLogFormat {
             return String.valueOf(request.getServerPort());
         }
 
+        @Override
+        protected void printValue(StringBuilder dest, RequestLoggerRequest request, RequestLoggerResponse response) {
+            dest.append(request.getServerPort());
+        }
+
         protected String getValue(RequestLoggerResponse response) {
             return null;
         }
@@ -787,6 +830,16 @@ class CustomLogFormat {
             return request.getMethod() + " " + request.getRequestURI() + query + " " + request.getProtocol();
         }
 
+        @Override
+        protected void printValue(StringBuilder dest, RequestLoggerRequest request, RequestLoggerResponse response) {
+            dest.append(request.getMethod()).append(' ').append(request.getRequestURI());
+            final String query = request.getQueryString();
+            if (query != null && query.length() > 0) {
+                dest.append('?').append(query);
+            }
+            dest.append(' ').append(request.getProtocol());
+        }
+
         protected String getValue(RequestLoggerResponse response) {
             return null;
         }
@@ -844,6 +897,14 @@ class CustomLogFormat {
             return (query == null || query.length() == 0) ? "" : "?" + query;
         }
 
+        @Override
+        protected void printValue(StringBuilder dest, RequestLoggerRequest request, RequestLoggerResponse response) {
+            final String query = request.getQueryString();
+            if (query != null && query.length() > 0) {
+                dest.append('?').append(query);
+            }
+        }
+
         protected String getValue(RequestLoggerResponse response) {
             return null;
         }
@@ -891,6 +952,11 @@ class CustomLogFormat {
         protected String getValue(RequestLoggerResponse response) {
             return String.valueOf(response.getStatus());
         }
+
+        @Override
+        protected void printValue(StringBuilder dest, RequestLoggerRequest request, RequestLoggerResponse response) {
+            dest.append(response.getStatus());
+        }
     }
 
     static class CookieParameter extends BaseParameter {
@@ -929,11 +995,15 @@ class CustomLogFormat {
                 return null;
             }
 
-            String value = (String) values.nextElement();
+            final String first = (String) values.nextElement();
+            if (!values.hasMoreElements()) {
+                return escape(first);
+            }
+            final StringBuilder value = new StringBuilder(first);
             while (values.hasMoreElements()) {
-                value += "," + values.nextElement();
+                value.append(',').append(values.nextElement());
             }
-            return escape(value);
+            return escape(value.toString());
         }
 
         protected String getValue(RequestLoggerResponse response) {
@@ -50,36 +50,76 @@ import org.apache.sling.engine.RequestLog;
  * flushed after each log message written. Future development should probably
  * implement better buffering in conjunction with the temporary open/close
  * cycles of the files.
+ * <p>
+ * Alternatively the messages can be written asynchronously by an
+ * {@link AsyncLogWriter}, which is shared for the file as well. In this case
+ * the request thread only queues the message. There is a single writer per
+ * file: the first log opening the file decides whether it is written
+ * synchronously or asynchronously, later logs for the file use the same writer.
  */
 class FileRequestLog implements RequestLog {
 
     // The map of shared open files (actually PrintWriter instances)
     private static Map<String, PrintWriter> logFiles = new HashMap<String, PrintWriter>();
 
+    // The map of shared asynchronously written files
+    private static Map<String, AsyncLogWriter> asyncLogFiles = new HashMap<String, AsyncLogWriter>();
+
     // Dispose class by closing all open PrintWeiter instances
     static void dispose() {
-        for (final Writer w : logFiles.values()) {
-            try {
+        synchronized (logFiles) {
+            for (final Writer w : logFiles.values()) {
+                try {
+                    w.close();
+                } catch (IOException ioe) {
+                    // don't care
+                }
+            }
+            logFiles.clear();
+
+            for (final AsyncLogWriter w : asyncLogFiles.values()) {
                 w.close();
-            } catch (IOException ioe) {
-                // don't care
             }
+            asyncLogFiles.clear();
         }
-        logFiles.clear();
     }
 
     // The PrintWriter used by this instance to write the messages
     private PrintWriter output;
 
+    // The AsyncLogWriter used by this instance to write the messages
+    private AsyncLogWriter asyncOutput;
+
     FileRequestLog(File logFile) throws IOException {
         synchronized (logFiles) {
             final String fileName = logFile.getAbsolutePath();
             this.output = logFiles.get(fileName);
-            if (this.output == null) {
+            if (this.output != null) {
+                return;
+            }
+            this.asyncOutput = asyncLogFiles.get(fileName);
+            if (this.asyncOutput != null) {
+                return;
+            }
+            logFile.getParentFile().mkdirs();
+            FileWriter fw = new FileWriter(logFile, true);
+            this.output = new PrintWriter(fw);
+            logFiles.put(fileName, this.output);
+        }
+    }
+
+    FileRequestLog(File logFile, int queueSize, AsyncLogWriter.OverflowPolicy overflowPolicy) throws IOException {
+        synchronized (logFiles) {
+            final String fileName = logFile.getAbsolutePath();
+            this.output = logFiles.get(fileName);
+            if (this.output != null) {
+                return;
+            }
+            this.asyncOutput = asyncLogFiles.get(fileName);
+            if (this.asyncOutput == null) {
                 logFile.getParentFile().mkdirs();
-                FileWriter fw = new FileWriter(logFile, true);
-                this.output = new PrintWriter(fw);
-                logFiles.put(fileName, this.output);
+                this.asyncOutput = new AsyncLogWriter(logFile, queueSize, overflowPolicy);
+                asyncLogFiles.put(fileName, this.asyncOutput);
             }
         }
     }
@@ -88,6 +128,12 @@ class FileRequestLog implements RequestLog {
      * @see org.apache.sling.engine.RequestLog#write(java.lang.String)
      */
     public void write(String message) {
+        final AsyncLogWriter asyncWriter = this.asyncOutput;
+        if (asyncWriter != null) {
+            asyncWriter.write(message);
+            return;
+        }
+
         // use a local copy of the reference to not encounter NPE when this
         // log happens to be closed asynchronously while at the same time not
         // requiring synchronization
@@ -103,5 +149,6 @@ class FileRequestLog implements RequestLog {
     public void close() {
         // just drop the reference to the output
         this.output = null;
+        this.asyncOutput = null;
     }
 }
@@ -68,6 +68,18 @@ public class RequestLogger {
     @Property(boolValue = true)
     public static final String PROP_ACCESS_LOG_ENABLED = "access.log.enabled";
 
+    @Property(boolValue = false)
+    public static final String PROP_ASYNC = "request.log.async";
+
+    @Property(intValue = AsyncLogWriter.DEFAULT_QUEUE_SIZE)
+    public static final String PROP_QUEUE_SIZE = "request.log.queuesize";
+
+    @Property(value = "BLOCK", options = {
+        @PropertyOption(name = "BLOCK", value = "Block"), @PropertyOption(name = "DROP", value = "Drop"),
+        @PropertyOption(name = "COUNT", value = "Drop and Count")
+    })
+    public static final String PROP_OVERFLOW = "request.log.overflow";
+
     /**
      * The log format string for the request log entry message (value is "%t
      * [%R] -> %m %U%q %H").
@@ -98,14 +110,18 @@ public class RequestLogger {
     @Activate
     protected void activate(BundleContext bundleContext, Map<String, Object> props) {
 
+        final boolean async = PropertiesUtil.toBoolean(props.get(PROP_ASYNC), false);
+        final int queueSize = PropertiesUtil.toInteger(props.get(PROP_QUEUE_SIZE), AsyncLogWriter.DEFAULT_QUEUE_SIZE);
+        final String overflow = PropertiesUtil.toString(props.get(PROP_OVERFLOW), AsyncLogWriter.OverflowPolicy.BLOCK.name());
+
         // prepare the request loggers if a name is configured and the
         // request loggers are enabled
         final String requestLogName = PropertiesUtil.toString(props.get(PROP_REQUEST_LOG_OUTPUT), null);
         final boolean requestLogEnabled = PropertiesUtil.toBoolean(props.get(PROP_REQUEST_LOG_ENABLED), false);
         if (requestLogName != null && requestLogEnabled) {
             final int requestLogType = PropertiesUtil.toInteger(props.get(PROP_REQUEST_LOG_OUTPUT_TYPE), 0);
-            createRequestLoggerService(services, bundleContext, true, REQUEST_LOG_ENTRY_FORMAT, requestLogName, requestLogType);
-            createRequestLoggerService(services, bundleContext, false, REQUEST_LOG_EXIT_FORMAT, requestLogName, requestLogType);
+            createRequestLoggerService(services, bundleContext, true, REQUEST_LOG_ENTRY_FORMAT, requestLogName, requestLogType, async, queueSize, overflow);
+            createRequestLoggerService(services, bundleContext, false, REQUEST_LOG_EXIT_FORMAT, requestLogName, requestLogType, async, queueSize, overflow);
         }
 
         // prepare the access logger if a name is configured and the
@@ -114,7 +130,7 @@ public class RequestLogger {
         final boolean accessLogEnabled = PropertiesUtil.toBoolean(props.get(PROP_ACCESS_LOG_ENABLED), false);
         if (accessLogName != null && accessLogEnabled) {
             final int accessLogType = PropertiesUtil.toInteger(props.get(PROP_ACCESS_LOG_OUTPUT_TYPE), 0);
-            createRequestLoggerService(services, bundleContext, false, ACCESS_LOG_FORMAT, accessLogName, accessLogType);
+            createRequestLoggerService(services, bundleContext, false, ACCESS_LOG_FORMAT, accessLogName, accessLogType, async, queueSize, overflow);
         }
     }
 
@@ -127,12 +143,15 @@ public class RequestLogger {
         services.clear();
     }
 
-    private static void createRequestLoggerService(Map<ServiceRegistration, RequestLoggerService> services, BundleContext bundleContext, boolean onEntry, Object format, String output, Object outputType) {
+    private static void createRequestLoggerService(Map<ServiceRegistration, RequestLoggerService> services, BundleContext bundleContext, boolean onEntry, Object format, String output, Object outputType, boolean async, int queueSize, String overflow) {
         final Hashtable<String, Object> config = new Hashtable<String, Object>();
         config.put(RequestLoggerService.PARAM_ON_ENTRY, onEntry ? Boolean.TRUE : Boolean.FALSE);
         config.put(RequestLoggerService.PARAM_FORMAT, format);
         config.put(RequestLoggerService.PARAM_OUTPUT, output);
         config.put(RequestLoggerService.PARAM_OUTPUT_TYPE, outputType);
+        config.put(RequestLoggerService.PARAM_ASYNC, async ? Boolean.TRUE : Boolean.FALSE);
+        config.put(RequestLoggerService.PARAM_QUEUE_SIZE, queueSize);
+        config.put(RequestLoggerService.PARAM_OVERFLOW, overflow);
 
         final RequestLoggerService service = new RequestLoggerService(bundleContext, config);
         final ServiceRegistration reg = bundleContext.registerService(service.getClass().getName(), service, config);
@@ -66,6 +66,18 @@ public class RequestLoggerService {
     @Property(boolValue = false)
     public static final String PARAM_ON_ENTRY = "request.log.service.onentry";
 
+    @Property(boolValue = false)
+    public static final String PARAM_ASYNC = "request.log.service.async";
+
+    @Property(intValue = AsyncLogWriter.DEFAULT_QUEUE_SIZE)
+    public static final String PARAM_QUEUE_SIZE = "request.log.service.queuesize";
+
+    @Property(value = "BLOCK", options = {
+        @PropertyOption(name = "BLOCK", value = "Block"), @PropertyOption(name = "DROP", value = "Drop"),
+        @PropertyOption(name = "COUNT", value = "Drop and Count")
+    })
+    public static final String PARAM_OVERFLOW = "request.log.service.overflow";
+
     private static final int OUTPUT_TYPE_LOGGER = 0;
 
     private static final int OUTPUT_TYPE_FILE = 1;
@@ -103,7 +115,7 @@ public class RequestLoggerService {
         final String output = PropertiesUtil.toString(configuration.get(PARAM_OUTPUT), null);
         if (output != null) {
             final int outputType = PropertiesUtil.toInteger(configuration.get(PARAM_OUTPUT_TYPE), OUTPUT_TYPE_LOGGER);
-            this.log = this.getLog(bundleContext, output, outputType);
+            this.log = this.getLog(bundleContext, output, outputType, configuration);
         }
     }
 
@@ -127,7 +139,8 @@ public class RequestLoggerService {
         return this.onEntry;
     }
 
-    private RequestLog getLog(BundleContext bundleContext, String output, int outputType) {
+    private RequestLog getLog(BundleContext bundleContext, String output, int outputType,
+            Map<String, Object> configuration) {
         switch (outputType) {
             case OUTPUT_TYPE_FILE:
                 // file logging
@@ -142,6 +155,14 @@ public class RequestLoggerService {
                         file = file.getAbsoluteFile();
                     }
 
+                    if (PropertiesUtil.toBoolean(configuration.get(PARAM_ASYNC), false)) {
+                        final int queueSize = PropertiesUtil.toInteger(configuration.get(PARAM_QUEUE_SIZE),
+                            AsyncLogWriter.DEFAULT_QUEUE_SIZE);
+                        final AsyncLogWriter.OverflowPolicy overflowPolicy = AsyncLogWriter.OverflowPolicy.fromString(
+                            PropertiesUtil.toString(configuration.get(PARAM_OVERFLOW), null),
+                            AsyncLogWriter.OverflowPolicy.BLOCK);
+                        return new FileRequestLog(file, queueSize, overflowPolicy);
+                    }
                     return new FileRequestLog(file);
                 } catch (IOException ioe) {
                     // TODO: log
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.metrics;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Properties;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.sling.api.request.RequestPathInfo;
+import org.apache.sling.commons.metrics.MetricsService;
+import org.apache.sling.commons.metrics.Timer;
+import org.apache.sling.commons.osgi.PropertiesUtil;
+
+/**
+ * The <code>RequestMetrics</code> records the time spent processing
+ * requests in {@link MetricsService} timers. Besides the total request time
+ * the request time is recorded per resource type and per selectors and
+ * extension, the servlet resolution and the processing of included or
+ * forwarded components per resource type and the time spent in each filter
+ * per filter name.
+ * <p>
+ * Only a configurable share of the requests is recorded. The decision is
+ * taken once per request by calling {@link RequestRecording#sample()} which
+ * returns <code>null</code> if the request is not recorded. The engine only
+ * refers to the {@link RequestRecorder} interface, so this class and the
+ * Sling Metrics API are only loaded if the API is available. The number of distinct
+ * resource types, selectors and extensions and filter names recorded is
+ * limited, see {@link TimerGroup}.
+ */
+@Component(metatype = true, label = "%metrics.name", description = "%metrics.description")
+@Properties({
+    @Property(name = "service.description", value = "Request Metrics"),
+    @Property(name = "service.vendor", value = "The Apache Software Foundation")
+})
+public class RequestMetrics implements RequestRecorder {
+
+    public static final boolean DEFAULT_ENABLED = false;
+
+    public static final double DEFAULT_SAMPLING_RATE = 1.0;
+
+    public static final int DEFAULT_MAX_TAG_VALUES = 100;
+
+    @Property(boolValue = DEFAULT_ENABLED)
+    public static final String PROP_ENABLED = "metrics.enabled";
+
+    @Property(doubleValue = DEFAULT_SAMPLING_RATE)
+    public static final String PROP_SAMPLING_RATE = "metrics.sampling.rate";
+
+    @Property(intValue = DEFAULT_MAX_TAG_VALUES)
+    public static final String PROP_MAX_TAG_VALUES = "metrics.max.tag.values";
+
+    /** The prefix of all timer names */
+    static final String PREFIX = "sling.engine.";
+
+    @Reference
+    private MetricsService metricsService;
+
+    private volatile Timer requests;
+
+    private volatile TimerGroup requestsByResourceType;
+
+    private volatile TimerGroup requestsByExtension;
+
+    private volatile TimerGroup servletResolution;
+
+    private volatile TimerGroup components;
+
+    private volatile TimerGroup filters;
+
+    // ---------- SCR Integration ----------------------------------------------
+
+    @Activate
+    @Modified
+    protected void configure(final Map<String, Object> props) {
+        final int maxValues = Math.max(1, PropertiesUtil.toInteger(props.get(PROP_MAX_TAG_VALUES),
+            DEFAULT_MAX_TAG_VALUES));
+        this.requests = this.metricsService.timer(PREFIX + "request");
+        this.requestsByResourceType = new TimerGroup(this.metricsService, PREFIX + "request.resourceType", maxValues);
+        this.requestsByExtension = new TimerGroup(this.metricsService, PREFIX + "request.extension", maxValues);
+        this.servletResolution = new TimerGroup(this.metricsService, PREFIX + "servletResolution.resourceType", maxValues);
+        this.components = new TimerGroup(this.metricsService, PREFIX + "component.resourceType", maxValues);
+        this.filters = new TimerGroup(this.metricsService, PREFIX + "filter", maxValues);
+
+        if (PropertiesUtil.toBoolean(props.get(PROP_ENABLED), DEFAULT_ENABLED)) {
+            RequestRecording.setRecorder(this,
+                PropertiesUtil.toDouble(props.get(PROP_SAMPLING_RATE), DEFAULT_SAMPLING_RATE));
+        } else {
+            RequestRecording.unsetRecorder(this);
+        }
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        RequestRecording.unsetRecorder(this);
+    }
+
+    // ---------- recording ----------------------------------------------------
+
+    @Override
+    public void requestProcessed(final String resourceType, final RequestPathInfo pathInfo, final long nanos) {
+        this.requests.update(nanos, TimeUnit.NANOSECONDS);
+        this.requestsByResourceType.update(resourceType, nanos);
+        this.requestsByExtension.update(toExtensionTag(pathInfo), nanos);
+    }
+
+    @Override
+    public void servletResolved(final String resourceType, final long nanos) {
+        this.servletResolution.update(resourceType, nanos);
+    }
+
+    @Override
+    public void componentProcessed(final String resourceType, final long nanos) {
+        this.components.update(resourceType, nanos);
+    }
+
+    @Override
+    public void filterProcessed(final String filterName, final long nanos) {
+        this.filters.update(filterName, nanos);
+    }
+
+    /**
+     * Returns the selectors and the extension of the request, e.g.
+     * <code>print.a4.html</code>
+     */
+    static String toExtensionTag(final RequestPathInfo pathInfo) {
+        if (pathInfo == null) {
+            return null;
+        }
+        final String selectors = pathInfo.getSelectorString();
+        final String extension = pathInfo.getExtension();
+        if (selectors == null) {
+            return extension;
+        } else if (extension == null) {
+            return selectors + ".";
+        }
+        return selectors + "." + extension;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.metrics;
+
+import org.apache.sling.api.request.RequestPathInfo;
+
+/**
+ * The <code>RequestRecorder</code> records the processing times of a
+ * request. The engine only refers to this interface and to
+ * {@link RequestRecording}, so the Sling Metrics API is only loaded by the
+ * {@link RequestMetrics} component, if the API is available.
+ */
+public interface RequestRecorder {
+
+    /**
+     * Records the time spent processing a request.
+     *
+     * @param resourceType The resource type of the requested resource, may be
+     *            <code>null</code> if the resource could not be resolved.
+     * @param pathInfo The request path info, may be <code>null</code>.
+     * @param nanos The processing time in nanoseconds
+     */
+    void requestProcessed(String resourceType, RequestPathInfo pathInfo, long nanos);
+
+    /**
+     * Records the time spent resolving the servlet for a resource.
+     */
+    void servletResolved(String resourceType, long nanos);
+
+    /**
+     * Records the time spent processing an included or forwarded component.
+     */
+    void componentProcessed(String resourceType, long nanos);
+
+    /**
+     * Records the time spent in a filter, excluding the rest of the chain.
+     */
+    void filterProcessed(String filterName, long nanos);
+}
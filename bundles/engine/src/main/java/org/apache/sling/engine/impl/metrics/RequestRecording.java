@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The <code>RequestRecording</code> decides whether a request is recorded
+ * by the active {@link RequestRecorder}. This class does not depend on the
+ * Sling Metrics API, so it can be used by the engine whether the API is
+ * available or not.
+ */
+public final class RequestRecording {
+
+    /** The active recorder, <code>null</code> if requests are not recorded */
+    private static volatile RequestRecorder RECORDER;
+
+    /** The share of the requests recorded */
+    private static volatile double SAMPLING_RATE;
+
+    private RequestRecording() {
+    }
+
+    /**
+     * Decides whether the current request is recorded.
+     *
+     * @return The <code>RequestRecorder</code> to record the request with or
+     *         <code>null</code> if the request is not recorded.
+     */
+    public static RequestRecorder sample() {
+        final RequestRecorder recorder = RECORDER;
+        if (recorder == null) {
+            return null;
+        }
+        final double rate = SAMPLING_RATE;
+        if (rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate)) {
+            return recorder;
+        }
+        return null;
+    }
+
+    /**
+     * Sets the recorder recording the given share of the requests.
+     */
+    static synchronized void setRecorder(final RequestRecorder recorder, final double samplingRate) {
+        SAMPLING_RATE = samplingRate;
+        RECORDER = recorder;
+    }
+
+    /**
+     * Removes the recorder if it is the active one.
+     */
+    static synchronized void unsetRecorder(final RequestRecorder recorder) {
+        if (RECORDER == recorder) {
+            RECORDER = null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.commons.metrics.MetricsService;
+import org.apache.sling.commons.metrics.Timer;
+
+/**
+ * The <code>TimerGroup</code> provides the timers of one dimension, for
+ * example the timers per resource type. The timer names are made of the
+ * name of the group followed by the tag value, e.g.
+ * <code>sling.engine.request.resourceType.sling/servlet/default</code>.
+ * <p>
+ * To bound the number of metrics, only the first <code>maxValues</code>
+ * distinct tag values get their own timer. All other values are recorded
+ * in a single timer with the tag value {@link #OTHER}.
+ */
+class TimerGroup {
+
+    /** The tag value used once the maximum number of values is reached */
+    static final String OTHER = "_other";
+
+    /** The tag value used if the value is not known */
+    static final String NONE = "_none";
+
+    private final MetricsService metricsService;
+
+    private final String name;
+
+    private final int maxValues;
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+
+    private final Timer other;
+
+    TimerGroup(final MetricsService metricsService, final String name, final int maxValues) {
+        this.metricsService = metricsService;
+        this.name = name;
+        this.maxValues = maxValues;
+        this.other = metricsService.timer(name + "." + OTHER);
+    }
+
+    void update(final String value, final long nanos) {
+        getTimer(value).update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    Timer getTimer(String value) {
+        if (value == null || value.length() == 0) {
+            value = NONE;
+        }
+        Timer timer = this.timers.get(value);
+        if (timer == null) {
+            // the size check is not atomic, at worst a few more timers are created
+            if (this.timers.size() >= this.maxValues) {
+                return this.other;
+            }
+            timer = this.metricsService.timer(this.name + "." + value);
+            final Timer existing = this.timers.putIfAbsent(value, timer);
+            if (existing != null) {
+                timer = existing;
+            }
+        }
+        return timer;
+    }
+
+    /** The number of tag values with their own timer */
+    int size() {
+        return this.timers.size();
+    }
+}
@@ -28,6 +28,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
@@ -113,6 +114,11 @@ public class ParameterSupport {
      */
     private static boolean checkForAdditionalParameters = false;
 
+    /**
+     * Request paths for which multipart requests are always streamed
+     */
+    private static Pattern[] streamUploadPaths = new Pattern[0];
+
     private final HttpServletRequest servletRequest;
 
     private ParameterMap postParameterMap;
@@ -155,12 +161,14 @@ public class ParameterSupport {
 
     static void configure(final long maxRequestSize, final String location, final long maxFileSize,
             final int fileSizeThreshold,
-            final boolean checkForAdditionalParameters) {
+            final boolean checkForAdditionalParameters,
+            final Pattern[] streamUploadPaths) {
         ParameterSupport.maxRequestSize = (maxRequestSize > 0) ? maxRequestSize : -1;
         ParameterSupport.location = (location != null) ? new File(location) : null;
         ParameterSupport.maxFileSize = (maxFileSize > 0) ? maxFileSize : -1;
         ParameterSupport.fileSizeThreshold = (fileSizeThreshold > 0) ? fileSizeThreshold : 256000;
         ParameterSupport.checkForAdditionalParameters = checkForAdditionalParameters;
+        ParameterSupport.streamUploadPaths = (streamUploadPaths != null) ? streamUploadPaths : new Pattern[0];
     }
 
     private ParameterSupport(HttpServletRequest servletRequest) {
@@ -293,12 +301,13 @@ public class ParameterSupport {
                     if (isStreamed(parameters, this.getServletRequest())) {
                         // special case, the request is Mutipart and streamed processing has been requested
                         try {
-                            this.getServletRequest().setAttribute(REQUEST_PARTS_ITERATOR_ATTRIBUTE, new RequestPartsIterator(this.getServletRequest()));
+                            this.getServletRequest().setAttribute(REQUEST_PARTS_ITERATOR_ATTRIBUTE, new RequestPartsIterator(this.getServletRequest(),
+                                    ParameterSupport.maxRequestSize, ParameterSupport.maxFileSize));
                             this.log.debug("getRequestParameterMapInternal: Iterator<javax.servlet.http.Part> available as request attribute  named request-parts-iterator");
                         } catch (IOException e) {
-                            this.log.error("getRequestParameterMapInternal: Error parsing mulmultipart streamed requesttipart streamed request", e);
+                            this.log.error("getRequestParameterMapInternal: Error parsing multipart streamed request", e);
                         } catch (FileUploadException e) {
-                            this.log.error("getRequestParameterMapInternal: Error parsing mulmultipart streamed request", e);
+                            this.log.error("getRequestParameterMapInternal: Error parsing multipart streamed request", e);
                         }
                         // The request data has been passed to the RequestPartsIterator, hence from a RequestParameter pov its been used, and must not be used again.
                         this.requestDataUsed = true;
@@ -329,7 +338,7 @@ public class ParameterSupport {
 
     /**
      * Checks to see if there is an upload mode header or uploadmode parameter indicating the request is
-     * to be streamed from the client to the server.
+     * to be streamed from the client to the server or if the request path is configured to always be streamed.
      * @param parameters parameters processed from the query string only.
      * @param servletRequest the servlet request, where the body has not been processed.
      * @return true if the request was made with streaming in mind.
@@ -338,6 +347,17 @@ public class ParameterSupport {
         if ( STREAM_UPLOAD.equals(servletRequest.getHeader(SLING_UPLOADMODE_HEADER)) ) {
             return true;
         }
+        final Pattern[] paths = ParameterSupport.streamUploadPaths;
+        if ( paths.length > 0 ) {
+            final String path = servletRequest.getPathInfo();
+            if ( path != null ) {
+                for (final Pattern pattern : paths) {
+                    if ( pattern.matcher(path).matches() ) {
+                        return true;
+                    }
+                }
+            }
+        }
         RequestParameter[] rp = parameters.get(UPLOADMODE_PARAM);
         return ( rp != null && rp.length == 1 && STREAM_UPLOAD.equals(rp[0].getString()));
     }
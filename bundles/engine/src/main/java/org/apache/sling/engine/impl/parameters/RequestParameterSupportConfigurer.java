@@ -19,12 +19,18 @@
 package org.apache.sling.engine.impl.parameters;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Dictionary;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.PropertyUnbounded;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.sling.commons.osgi.PropertiesUtil;
 import org.apache.sling.settings.SlingSettingsService;
@@ -95,6 +101,15 @@ public class RequestParameterSupportConfigurer {
             description = "Enable this if you want to include request parameters added through the container, e.g through a valve.")
     private static final String PROP_CHECK_ADDITIONAL_PARAMETERS = "sling.default.parameter.checkForAdditionalContainerParameters";
 
+    @Property(
+            unbounded = PropertyUnbounded.ARRAY,
+            label = "Streamed Upload Paths",
+            description = "Regular expressions matching the request paths of multipart/form-data POST requests "
+                + "which are always streamed, as if the 'Sling-uploadmode: stream' header had been sent. The parts "
+                + "of such requests are neither buffered nor written to temporary files but handed out in the order "
+                + "they arrive; they are not available as request parameters. Empty by default.")
+    private static final String PROP_STREAM_UPLOAD_PATHS = "request.stream.paths";
+
     @Reference
     private SlingSettingsService settignsService;
 
@@ -112,6 +127,7 @@ public class RequestParameterSupportConfigurer {
         final long maxFileSize = PropertiesUtil.toLong(props.get(PROP_FILE_SIZE_MAX), -1);
         final int fileSizeThreshold = PropertiesUtil.toInteger(props.get(PROP_FILE_SIZE_THRESHOLD), -1);
         final boolean checkAddParameters = PropertiesUtil.toBoolean(props.get(PROP_CHECK_ADDITIONAL_PARAMETERS), false);
+        final Pattern[] streamUploadPaths = getPatterns(PropertiesUtil.toStringArray(props.get(PROP_STREAM_UPLOAD_PATHS)));
 
         if (log.isInfoEnabled()) {
             log.info("Default Character Encoding: {}", fixEncoding);
@@ -121,12 +137,29 @@ public class RequestParameterSupportConfigurer {
             log.info("Maximum File Size: {}", maxFileSize);
             log.info("Tempory File Creation Threshold: {}", fileSizeThreshold);
             log.info("Check for additional container parameters: {}", checkAddParameters);
+            log.info("Streamed Upload Paths: {}", Arrays.toString(streamUploadPaths));
         }
 
         Util.setDefaultFixEncoding(fixEncoding);
         ParameterMap.setMaxParameters(maxParams);
         ParameterSupport.configure(maxRequestSize, fileLocation, maxFileSize,
-                fileSizeThreshold, checkAddParameters);
+                fileSizeThreshold, checkAddParameters, streamUploadPaths);
+    }
+
+    private Pattern[] getPatterns(final String[] expressions) {
+        final List<Pattern> patterns = new ArrayList<Pattern>();
+        if (expressions != null) {
+            for (final String expression : expressions) {
+                if (expression != null && expression.trim().length() > 0) {
+                    try {
+                        patterns.add(Pattern.compile(expression.trim()));
+                    } catch (PatternSyntaxException pse) {
+                        log.error("Ignoring invalid streamed upload path {}", expression, pse);
+                    }
+                }
+            }
+        }
+        return patterns.toArray(new Pattern[patterns.size()]);
     }
 
     private String getFileLocation(final ComponentContext context, String fileLocation) {
@@ -22,7 +22,9 @@ package org.apache.sling.engine.impl.parameters;
 import org.apache.commons.fileupload.FileItemIterator;
 import org.apache.commons.fileupload.FileItemStream;
 import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.RequestContext;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.apache.commons.fileupload.servlet.ServletRequestContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +40,12 @@ import java.util.List;
 
 /**
  * Contains a Lazy iterator of Parts from the request stream loaded as the request is streamed using the Commons FileUpload API.
+ * The parts are returned in the order they arrive, nothing is buffered in memory or written to temporary files. The input
+ * stream of a part must therefore be consumed before the next part is requested, the remaining content of a part is
+ * skipped when moving to the next part.
+ * <p>
+ * The maximum request and file sizes configured for request parameter handling apply, exceeding them fails reading
+ * the input stream of the part with an {@code IOException}.
  */
 public class RequestPartsIterator implements Iterator<Part> {
     private static final Logger LOG = LoggerFactory.getLogger(RequestPartsIterator.class);
@@ -53,8 +61,30 @@ public class RequestPartsIterator implements Iterator<Part> {
      * @throws FileUploadException when there is a problem parsing the request.
      */
     public RequestPartsIterator(HttpServletRequest servletRequest) throws IOException, FileUploadException {
+        this(servletRequest, -1, -1);
+    }
+
+    /**
+     * Create and initialse the iterator using the request applying size limits.
+     * @param servletRequest the request
+     * @param maxRequestSize the maximum size of the request, -1 for unlimited
+     * @param maxFileSize the maximum size of a single part, -1 for unlimited
+     * @throws IOException when there is a problem reading the request.
+     * @throws FileUploadException when there is a problem parsing the request.
+     */
+    public RequestPartsIterator(HttpServletRequest servletRequest, long maxRequestSize, long maxFileSize)
+            throws IOException, FileUploadException {
         ServletFileUpload upload = new ServletFileUpload();
-        itemIterator = upload.getItemIterator(servletRequest);
+        upload.setSizeMax(maxRequestSize);
+        upload.setFileSizeMax(maxFileSize);
+        RequestContext rc = new ServletRequestContext(servletRequest) {
+            @Override
+            public String getCharacterEncoding() {
+                String enc = super.getCharacterEncoding();
+                return (enc != null) ? enc : Util.ENCODING_DIRECT;
+            }
+        };
+        itemIterator = upload.getItemIterator(rc);
     }
 
     @Override
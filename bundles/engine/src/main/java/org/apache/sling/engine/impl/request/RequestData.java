@@ -55,6 +55,8 @@ import org.apache.sling.engine.impl.SlingRequestProcessorImpl;
 import org.apache.sling.engine.impl.StaticResponseHeader;
 import org.apache.sling.engine.impl.adapter.SlingServletRequestAdapter;
 import org.apache.sling.engine.impl.adapter.SlingServletResponseAdapter;
+import org.apache.sling.engine.impl.metrics.RequestRecorder;
+import org.apache.sling.engine.impl.metrics.RequestRecording;
 import org.apache.sling.engine.impl.parameters.ParameterSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -147,6 +149,9 @@ public class RequestData {
 
     private RequestProgressTracker requestProgressTracker;
 
+    /** The metrics to record this request, <code>null</code> if not recorded */
+    private final RequestRecorder requestMetrics;
+
     /** the current ContentData */
     private ContentData currentContentData;
 
@@ -206,6 +211,7 @@ public class RequestData {
     public RequestData(SlingRequestProcessorImpl slingRequestProcessor,
             HttpServletRequest request, HttpServletResponse response) {
         this.startTimestamp = System.currentTimeMillis();
+        this.requestMetrics = RequestRecording.sample();
 
         this.slingRequestProcessor = slingRequestProcessor;
 
@@ -269,13 +275,25 @@ public class RequestData {
 
         // finally resolve the servlet for the resource
         requestProgressTracker.startTimer("ServletResolution");
+        final long start = (requestMetrics != null) ? System.nanoTime() : 0;
         Servlet servlet = sr.resolveServlet(slingRequest);
+        if (requestMetrics != null) {
+            requestMetrics.servletResolved(resource.getResourceType(), System.nanoTime() - start);
+        }
         requestProgressTracker.logTimer("ServletResolution",
             "URI={0} handled by Servlet={1}",
             getServletRequest().getRequestURI(), (servlet == null ? "-none-" : RequestUtil.getServletName(servlet)));
         contentData.setServlet(servlet);
     }
 
+    /**
+     * Returns the metrics to record this request with or <code>null</code>
+     * if this request is not recorded.
+     */
+    public RequestRecorder getRequestMetrics() {
+        return requestMetrics;
+    }
+
     public SlingRequestProcessorImpl getSlingRequestProcessor() {
         return slingRequestProcessor;
     }
@@ -62,6 +62,12 @@ public class RequestHistoryConsolePlugin {
 
     public static final int STORED_REQUESTS_COUNT = 20;
 
+    /**
+     * The number of milliseconds requests are recorded after the plugin has
+     * been viewed if the request progress is only collected on demand.
+     */
+    public static final long RECORDING_PERIOD = 10 * 60 * 1000L;
+
     private RequestHistoryConsolePlugin() {
     }
 
@@ -87,11 +93,13 @@ public class RequestHistoryConsolePlugin {
             serviceRegistration = context.registerService(
                 "javax.servlet.Servlet", tmp, props);
             instance = tmp;
+            SlingRequestProgressTracker.addMessageConsumer(tmp);
         }
     }
 
     public static void destroyPlugin() {
         if (instance != null) {
+            SlingRequestProgressTracker.removeMessageConsumer(instance);
             try {
                 if (serviceRegistration != null) {
                     serviceRegistration.unregister();
@@ -103,12 +111,18 @@ public class RequestHistoryConsolePlugin {
         }
     }
 
-    public static final class Plugin extends HttpServlet {
+    public static final class Plugin extends HttpServlet implements SlingRequestProgressTracker.MessageConsumer {
 
         private final RequestInfoMap requests;
 
         private final List<Pattern> storePatterns;
 
+        /**
+         * The time until which the messages of new requests are read, as
+         * the plugin has been viewed recently.
+         */
+        private volatile long recordingEnd;
+
         Plugin(int maxRequests, List<Pattern> storePatterns) {
             this.requests = (maxRequests > 0)
                     ? new RequestInfoMap(maxRequests)
@@ -125,7 +139,18 @@ public class RequestHistoryConsolePlugin {
             clear();
         }
 
+        @Override
+        public boolean isReadingMessages() {
+            return requests != null && System.currentTimeMillis() < recordingEnd;
+        }
+
         private void addRequest(SlingHttpServletRequest r) {
+            final RequestProgressTracker tracker = r.getRequestProgressTracker();
+            if (tracker instanceof SlingRequestProgressTracker
+                    && !((SlingRequestProgressTracker) tracker).isCollecting()) {
+                // nothing has been recorded, as the plugin was not viewed recently
+                return;
+            }
             if (requests != null) {
                 String requestPath = r.getPathInfo();
                 boolean accept = true;
@@ -213,6 +238,9 @@ public class RequestHistoryConsolePlugin {
         protected void doGet(HttpServletRequest req, HttpServletResponse resp)
                 throws ServletException, IOException {
 
+            // record the requests for a while, if they are collected on demand
+            recordingEnd = System.currentTimeMillis() + RECORDING_PERIOD;
+
             // Select request to display
             RequestInfo info = null;
             String key = req.getParameter(INDEX);
@@ -258,7 +286,7 @@ public class RequestHistoryConsolePlugin {
 
                 // Request Progress Tracker Info
                 pw.println("<tr><td>");
-                final Iterator<String> it = info.getTracker().getMessages();
+                final Iterator<String> it = info.getMessages().iterator();
                 pw.print("<pre>");
                 while (it.hasNext()) {
                     pw.print(ResponseUtil.escapeXml(it.next()));
@@ -290,14 +318,20 @@ public class RequestHistoryConsolePlugin {
 
         private final String user;
 
-        private final RequestProgressTracker tracker;
+        private final List<String> messages;
 
         RequestInfo(SlingHttpServletRequest request) {
             this.key = String.valueOf(requestCounter.incrementAndGet());
             this.method = request.getMethod();
             this.pathInfo = request.getPathInfo();
             this.user = request.getRemoteUser();
-            this.tracker = request.getRequestProgressTracker();
+
+            // copy the messages, the tracker does not keep formatted messages
+            this.messages = new ArrayList<String>();
+            final Iterator<String> it = request.getRequestProgressTracker().getMessages();
+            while (it.hasNext()) {
+                this.messages.add(it.next());
+            }
         }
 
         public String getKey() {
@@ -332,8 +366,8 @@ public class RequestHistoryConsolePlugin {
             return sb.toString();
         }
 
-        public RequestProgressTracker getTracker() {
-            return tracker;
+        public List<String> getMessages() {
+            return messages;
         }
     }
 
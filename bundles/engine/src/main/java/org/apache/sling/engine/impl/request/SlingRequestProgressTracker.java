@@ -19,11 +19,10 @@
 package org.apache.sling.engine.impl.request;
 
 import java.io.PrintWriter;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -89,9 +88,43 @@ import org.apache.sling.api.request.RequestProgressTracker;
  * <li>The absolute time of the timer in parenthesis.
  * <li>The entry message
  * </ol>
+ * <p>
+ * <b>Recording Entries</b>
+ * <p>
+ * Entries are recorded into preallocated arrays as the time stamp, the message
+ * template and its arguments. The messages are only formatted when they are
+ * read through {@link #getMessages()} or {@link #dump(PrintWriter)}, so the
+ * arguments should not change after they have been logged and a tracker kept
+ * after the request should only be kept as a copy of its messages. Once
+ * {@link #MAX_ENTRIES} entries have been recorded, the buffer is used as a ring
+ * and the oldest entries are overwritten, except for the initial entries
+ * recorded on creation or {@link #reset()}.
+ * <p>
+ * If {@link #setCollectOnDemand(boolean) collect on demand} is enabled, entries
+ * are only recorded if a registered {@link MessageConsumer} is going to read
+ * them. Timers and the request duration are tracked in any case.
  */
 public class SlingRequestProgressTracker implements RequestProgressTracker {
 
+    /**
+     * A component reading the messages of the trackers, like the request
+     * progress tracker log filter or the recent requests console plugin.
+     */
+    public interface MessageConsumer {
+
+        /**
+         * Whether the messages of a request starting now will be read.
+         * This method is called for each request and must be cheap.
+         */
+        boolean isReadingMessages();
+    }
+
+    /**
+     * The maximum number of entries recorded, once this number is reached
+     * the oldest entries are overwritten.
+     */
+    public static final int MAX_ENTRIES = 4096;
+
     /**
      * The name of the timer tracking the processing time of the complete
      * process.
@@ -110,6 +143,21 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
     /** The leading nanosecond number is left-padded with white-space to this width. */
     private static final int PADDING_WIDTH = 7;
 
+    /** The initial number of entries and timers. */
+    private static final int INITIAL_CAPACITY = 32;
+
+    /** Entry types */
+    private static final byte TYPE_COMMENT = 0;
+    private static final byte TYPE_LOG = 1;
+    private static final byte TYPE_TIMER_START = 2;
+    private static final byte TYPE_TIMER_END = 3;
+
+    /** The registered message consumers. */
+    private static final CopyOnWriteArrayList<MessageConsumer> CONSUMERS = new CopyOnWriteArrayList<MessageConsumer>();
+
+    /** Whether entries are only recorded if a consumer is reading them. */
+    private static volatile boolean collectOnDemand;
+
     /**
      * The system time at creation of this instance or the last {@link #reset()}.
      */
@@ -121,16 +169,37 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
     private long processingEnd;
 
     /**
-     * The list of tracking entries.
+     * Whether entries are recorded for this request.
+     */
+    private boolean collecting;
+
+    /**
+     * The recorded entries.
+     */
+    private volatile Entries entries = new Entries(INITIAL_CAPACITY);
+
+    /**
+     * The number of entries recorded since the last {@link #reset()}, this
+     * might be more than the capacity of the entries once the ring is used.
+     * The count is written after the entry to publish it to readers.
+     */
+    private volatile int entryCount;
+
+    /**
+     * The number of initial entries, which are never overwritten.
      */
-    private final List<TrackingEntry> entries = new ArrayList<TrackingEntry>();
+    private int pinnedCount;
+
     /**
-     * Map of named timers indexed by timer name storing the system time of
-     * start of the respective timer.
+     * The names of the named timers and the system time of the start of
+     * the respective timer. There are usually only a few timers per request,
+     * so they are looked up linearly.
      */
-    private final Map<String, Long> namedTimerEntries = new HashMap<String, Long>();
+    private String[] timerNames = new String[INITIAL_CAPACITY];
+
+    private long[] timerStarts = new long[INITIAL_CAPACITY];
 
-    private final FastMessageFormat messageFormat = new FastMessageFormat();
+    private int timerCount;
 
     /**
      * Creates a new request progress tracker.
@@ -146,7 +215,35 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
         reset();
         if(request != null) {
             log("Method={0}, PathInfo={1}", request.getMethod(), request.getPathInfo());
+            pinnedCount = entryCount;
+        }
+    }
+
+    /**
+     * Only record entries if a registered consumer is reading them.
+     */
+    public static void setCollectOnDemand(final boolean onDemand) {
+        collectOnDemand = onDemand;
+    }
+
+    public static void addMessageConsumer(final MessageConsumer consumer) {
+        CONSUMERS.addIfAbsent(consumer);
+    }
+
+    public static void removeMessageConsumer(final MessageConsumer consumer) {
+        CONSUMERS.remove(consumer);
+    }
+
+    private static boolean isCollectingRequired() {
+        if (!collectOnDemand) {
+            return true;
+        }
+        for (final MessageConsumer consumer : CONSUMERS) {
+            if (consumer.isReadingMessages()) {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
@@ -155,32 +252,58 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
      */
     public void reset() {
         // remove all entries
-        entries.clear();
-        namedTimerEntries.clear();
+        entries.clear(Math.min(entryCount, entries.capacity()));
+        entryCount = 0;
+        pinnedCount = 0;
+        Arrays.fill(timerNames, 0, timerCount, null);
+        timerCount = 0;
+        collecting = isCollectingRequired();
 
         // enter initial messages
         processingStart = startTimerInternal(REQUEST_PROCESSING_TIMER);
         processingEnd = -1;
 
-        entries.add(new TrackingEntry(COMMENT_PREFIX + "timer_end format is " + TIMER_END_FORMAT));
+        if (collecting) {
+            addEntry(System.nanoTime(), TYPE_COMMENT, "timer_end format is " + TIMER_END_FORMAT, null, 0, null);
+        }
+        pinnedCount = entryCount;
+    }
+
+    /**
+     * Whether entries are recorded for the current request.
+     */
+    public boolean isCollecting() {
+        return collecting;
     }
 
     /**
      * @see org.apache.sling.api.request.RequestProgressTracker#getMessages()
      */
     public Iterator<String> getMessages() {
+        final int count = entryCount;
+        final Entries snapshot = entries;
+        final int pinned = pinnedCount;
+        final int size = Math.min(count, snapshot.capacity());
+        final int skipped = count - size;
         return new Iterator<String>() {
-            private final Iterator<TrackingEntry> entryIter = entries.iterator();
+            // not thread-safe, therefore one per iterator
+            private final FastMessageFormat messageFormat = new FastMessageFormat();
+
+            private int index;
 
             public boolean hasNext() {
-                return entryIter.hasNext();
+                return index < size;
             }
 
             public String next() {
-                // throws NoSuchElementException if no entries any more
-                final TrackingEntry entry = entryIter.next();
-                final long offset = entry.getTimeStamp() - getTimeStamp();
-                return formatMessage(offset, entry.getMessage());
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                // the pinned entries come first, the overwritten entries are skipped
+                final int slot = snapshot.slot(index < pinned ? index : index + skipped, pinned);
+                index++;
+                final long offset = snapshot.timeStamps[slot] - getTimeStamp();
+                return formatMessage(offset, snapshot.getMessage(slot, messageFormat));
             }
 
             public void remove() {
@@ -218,13 +341,16 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
 
     /** Creates an entry with the given message. */
     public void log(String message) {
-        entries.add(new TrackingEntry(LOG_PREFIX + message));
+        if (collecting) {
+            addEntry(System.nanoTime(), TYPE_LOG, message, null, 0, null);
+        }
     }
 
     /** Creates an entry with the given entry tag and message */
     public void log(String format, Object... args) {
-        String message = messageFormat.format(format, args);
-        entries.add(new TrackingEntry(LOG_PREFIX + message));
+        if (collecting) {
+            addEntry(System.nanoTime(), TYPE_LOG, format, args, 0, null);
+        }
     }
 
     /**
@@ -244,44 +370,80 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
      */
     private long startTimerInternal(String name) {
         long timer = System.nanoTime();
-        namedTimerEntries.put(name, timer);
-        entries.add(new TrackingEntry(timer, "TIMER_START{" + name + "}"));
+        final int index = findTimer(name);
+        if (index >= 0) {
+            timerStarts[index] = timer;
+        } else {
+            if (timerCount == timerNames.length) {
+                timerNames = Arrays.copyOf(timerNames, timerCount * 2);
+                timerStarts = Arrays.copyOf(timerStarts, timerCount * 2);
+            }
+            timerNames[timerCount] = name;
+            timerStarts[timerCount] = timer;
+            timerCount++;
+        }
+        if (collecting) {
+            addEntry(timer, TYPE_TIMER_START, name, null, 0, null);
+        }
         return timer;
     }
 
+    private int findTimer(final String name) {
+        for (int i = 0; i < timerCount; i++) {
+            if (timerNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Log a timer entry, including start, end and elapsed time.
      */
     public void logTimer(String name) {
-        if (namedTimerEntries.containsKey(name)) {
-            logTimerInternal(name, null, namedTimerEntries.get(name));
-        }
+        logTimerInternal(name, null, null);
     }
 
     /**
      * Log a timer entry, including start, end and elapsed time.
      */
     public void logTimer(String name, String format, Object... args) {
-        if (namedTimerEntries.containsKey(name)) {
-            logTimerInternal(name, messageFormat.format(format, args), namedTimerEntries.get(name));
-        }
+        logTimerInternal(name, format, args);
     }
 
     /**
      * Log a timer entry, including start, end and elapsed time using TIMER_END_FORMAT
      */
-    private void logTimerInternal(String name, String msg, long startTime) {
-        final StringBuilder sb = new StringBuilder();
-        sb.append("TIMER_END{");
-        sb.append((System.nanoTime() - startTime) / 1000);
-        sb.append(',');
-        sb.append(name);
-        sb.append('}');
-        if(msg != null) {
-            sb.append(' ');
-            sb.append(msg);
+    private void logTimerInternal(String name, String format, Object[] args) {
+        if (collecting) {
+            final int index = findTimer(name);
+            if (index >= 0) {
+                final long now = System.nanoTime();
+                addEntry(now, TYPE_TIMER_END, name, args, (now - timerStarts[index]) / 1000, format);
+            }
+        }
+    }
+
+    /**
+     * Record an entry, growing the entries up to {@link #MAX_ENTRIES} and
+     * overwriting the oldest entry which is not pinned afterwards.
+     */
+    private void addEntry(final long timeStamp, final byte type, final String text,
+            final Object[] args, final long elapsed, final String format) {
+        final int count = entryCount;
+        Entries current = entries;
+        if (count == current.capacity() && count < MAX_ENTRIES) {
+            current = current.grow(Math.min(count * 2, MAX_ENTRIES));
+            entries = current;
         }
-        entries.add(new TrackingEntry(sb.toString()));
+        final int slot = current.slot(count, pinnedCount);
+        current.timeStamps[slot] = timeStamp;
+        current.types[slot] = type;
+        current.texts[slot] = text;
+        current.args[slot] = args;
+        current.elapsed[slot] = elapsed;
+        current.formats[slot] = format;
+        entryCount = count + 1;
     }
 
     public void done() {
@@ -301,31 +463,92 @@ public class SlingRequestProgressTracker implements RequestProgressTracker {
         return System.nanoTime() - processingStart;
     }
 
-    /** Process tracker entry keeping timestamp, tag and message */
-    private static class TrackingEntry {
+    /**
+     * The recorded entries: for each entry the time stamp, the type, the
+     * message template or timer name, the arguments and for timer end
+     * entries the elapsed microseconds and the optional message template.
+     */
+    private static final class Entries {
+
+        final long[] timeStamps;
 
-        // creation time stamp
-        private final long timeStamp;
+        final byte[] types;
 
-        // tracking message
-        private final String message;
+        final String[] texts;
 
-        TrackingEntry(String message) {
-            this.timeStamp = System.nanoTime();
-            this.message = message;
+        final Object[][] args;
+
+        final long[] elapsed;
+
+        final String[] formats;
+
+        Entries(final int capacity) {
+            this.timeStamps = new long[capacity];
+            this.types = new byte[capacity];
+            this.texts = new String[capacity];
+            this.args = new Object[capacity][];
+            this.elapsed = new long[capacity];
+            this.formats = new String[capacity];
         }
 
-        TrackingEntry(long timeStamp, String message) {
-            this.timeStamp = timeStamp;
-            this.message = message;
+        int capacity() {
+            return timeStamps.length;
         }
 
-        long getTimeStamp() {
-            return timeStamp;
+        /**
+         * The slot of the entry with the given number, once the capacity is
+         * reached the slots after the pinned entries are used as a ring.
+         */
+        int slot(final int number, final int pinned) {
+            if (number < pinned) {
+                return number;
+            }
+            return pinned + (number - pinned) % (capacity() - pinned);
         }
 
-        String getMessage() {
-            return message;
+        Entries grow(final int capacity) {
+            final Entries e = new Entries(capacity);
+            final int size = capacity();
+            System.arraycopy(timeStamps, 0, e.timeStamps, 0, size);
+            System.arraycopy(types, 0, e.types, 0, size);
+            System.arraycopy(texts, 0, e.texts, 0, size);
+            System.arraycopy(args, 0, e.args, 0, size);
+            System.arraycopy(elapsed, 0, e.elapsed, 0, size);
+            System.arraycopy(formats, 0, e.formats, 0, size);
+            return e;
+        }
+
+        /** Remove the references to messages and arguments. */
+        void clear(final int size) {
+            Arrays.fill(texts, 0, size, null);
+            Arrays.fill(args, 0, size, null);
+            Arrays.fill(formats, 0, size, null);
+        }
+
+        String getMessage(final int slot, final FastMessageFormat messageFormat) {
+            switch (types[slot]) {
+                case TYPE_COMMENT:
+                    return COMMENT_PREFIX + texts[slot];
+                case TYPE_LOG:
+                    if (args[slot] == null) {
+                        return LOG_PREFIX + texts[slot];
+                    }
+                    return LOG_PREFIX + messageFormat.format(texts[slot], args[slot]);
+                case TYPE_TIMER_START:
+                    return "TIMER_START{" + texts[slot] + "}";
+                default:
+                    final StringBuilder sb = new StringBuilder();
+                    sb.append("TIMER_END{");
+                    sb.append(elapsed[slot]);
+                    sb.append(',');
+                    sb.append(texts[slot]);
+                    sb.append('}');
+                    if (formats[slot] != null) {
+                        sb.append(' ');
+                        sb.append(messageFormat.format(formats[slot], args[slot]));
+                    }
+                    return sb.toString();
+            }
         }
     }
 }
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncLogWriterTest {
+
+    private File logFile;
+
+    @Before
+    public void setup() throws IOException {
+        logFile = File.createTempFile("request", ".log");
+    }
+
+    @After
+    public void cleanup() {
+        logFile.delete();
+    }
+
+    private List<String> readLines() throws IOException {
+        final List<String> lines = new ArrayList<String>();
+        final BufferedReader reader = new BufferedReader(new FileReader(logFile));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        return lines;
+    }
+
+    @Test
+    public void writesAllMessagesInOrder() throws IOException {
+        final FileWriter existing = new FileWriter(logFile);
+        existing.write("existing\n");
+        existing.close();
+
+        final AsyncLogWriter writer = new AsyncLogWriter(logFile, 16, AsyncLogWriter.OverflowPolicy.BLOCK);
+        for (int i = 0; i < 1000; i++) {
+            writer.write("message " + i);
+        }
+        writer.close();
+
+        final List<String> lines = readLines();
+        assertEquals(1001, lines.size());
+        assertEquals("existing", lines.get(0));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("message " + i, lines.get(i + 1));
+        }
+        assertEquals(0, writer.getDroppedCount());
+    }
+
+    @Test
+    public void appendsToLinesWrittenByOthers() throws IOException {
+        final AsyncLogWriter writer = new AsyncLogWriter(logFile, 16, AsyncLogWriter.OverflowPolicy.BLOCK);
+        final FileWriter other = new FileWriter(logFile, true);
+        other.write("other\n");
+        other.close();
+        writer.write("message");
+        writer.close();
+
+        final List<String> lines = readLines();
+        assertEquals(2, lines.size());
+        assertEquals("other", lines.get(0));
+        assertEquals("message", lines.get(1));
+    }
+
+    @Test
+    public void countsDroppedMessages() throws IOException {
+        final AsyncLogWriter writer = new AsyncLogWriter(logFile, 1, AsyncLogWriter.OverflowPolicy.COUNT);
+        for (int i = 0; i < 10000; i++) {
+            writer.write("message " + i);
+        }
+        writer.close();
+
+        // the dropped messages are not reported in the file
+        final List<String> lines = readLines();
+        for (final String line : lines) {
+            assertTrue(line, line.startsWith("message "));
+        }
+        assertEquals(10000, lines.size() + writer.getDroppedCount());
+    }
+
+    @Test
+    public void ignoresMessagesAfterClose() throws IOException {
+        final AsyncLogWriter writer = new AsyncLogWriter(logFile, 16, AsyncLogWriter.OverflowPolicy.DROP);
+        writer.write("before");
+        writer.close();
+        writer.write("after");
+
+        final List<String> lines = readLines();
+        assertEquals(1, lines.size());
+        assertEquals("before", lines.get(0));
+    }
+
+    @Test
+    public void policyFromString() {
+        assertEquals(AsyncLogWriter.OverflowPolicy.DROP, AsyncLogWriter.OverflowPolicy.fromString(" drop ", null));
+        assertEquals(AsyncLogWriter.OverflowPolicy.BLOCK,
+            AsyncLogWriter.OverflowPolicy.fromString("unknown", AsyncLogWriter.OverflowPolicy.BLOCK));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.metrics;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.apache.sling.api.request.RequestPathInfo;
+import org.junit.After;
+import org.junit.Test;
+
+public class RequestRecordingTest {
+
+    private final RequestRecorder recorder = new TestRecorder();
+
+    @After
+    public void cleanup() {
+        RequestRecording.unsetRecorder(recorder);
+    }
+
+    @Test
+    public void notRecordedWithoutRecorder() {
+        assertNull(RequestRecording.sample());
+    }
+
+    @Test
+    public void samplingRate() {
+        RequestRecording.setRecorder(recorder, 1.0);
+        assertSame(recorder, RequestRecording.sample());
+
+        RequestRecording.setRecorder(recorder, 0.0);
+        assertNull(RequestRecording.sample());
+    }
+
+    @Test
+    public void unsetOtherRecorder() {
+        RequestRecording.setRecorder(recorder, 1.0);
+        RequestRecording.unsetRecorder(new TestRecorder());
+        assertSame(recorder, RequestRecording.sample());
+
+        RequestRecording.unsetRecorder(recorder);
+        assertNull(RequestRecording.sample());
+    }
+
+    private static class TestRecorder implements RequestRecorder {
+
+        public void requestProcessed(String resourceType, RequestPathInfo pathInfo, long nanos) {
+        }
+
+        public void servletResolved(String resourceType, long nanos) {
+        }
+
+        public void componentProcessed(String resourceType, long nanos) {
+        }
+
+        public void filterProcessed(String filterName, long nanos) {
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.sling.api.request.RequestPathInfo;
+import org.apache.sling.commons.metrics.MetricsService;
+import org.apache.sling.commons.metrics.Timer;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.api.Action;
+import org.jmock.api.Invocation;
+import org.jmock.lib.action.CustomAction;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TimerGroupTest {
+
+    private final Mockery context = new Mockery();
+
+    private final Map<String, Timer> timers = new HashMap<String, Timer>();
+
+    private MetricsService metricsService;
+
+    @Before
+    public void setup() {
+        metricsService = context.mock(MetricsService.class);
+        final Action createTimer = new CustomAction("create timer") {
+            @Override
+            public Object invoke(Invocation invocation) {
+                final String name = (String) invocation.getParameter(0);
+                final Timer timer = context.mock(Timer.class, name);
+                timers.put(name, timer);
+                return timer;
+            }
+        };
+        context.checking(new Expectations() {{
+            allowing(metricsService).timer(with(any(String.class)));
+            will(createTimer);
+        }});
+    }
+
+    @Test
+    public void boundedNumberOfTimers() {
+        final TimerGroup group = new TimerGroup(metricsService, "sling.engine.filter", 2);
+        final Timer first = group.getTimer("a.Filter");
+        assertSame(first, group.getTimer("a.Filter"));
+        assertSame(timers.get("sling.engine.filter.a.Filter"), first);
+        group.getTimer("b.Filter");
+
+        final Timer other = timers.get("sling.engine.filter." + TimerGroup.OTHER);
+        assertSame(other, group.getTimer("c.Filter"));
+        assertSame(other, group.getTimer("d.Filter"));
+        assertSame(first, group.getTimer("a.Filter"));
+        assertEquals(2, group.size());
+    }
+
+    @Test
+    public void missingValue() {
+        final TimerGroup group = new TimerGroup(metricsService, "sling.engine.request.resourceType", 10);
+        assertSame(group.getTimer(null), group.getTimer(""));
+        assertSame(timers.get("sling.engine.request.resourceType." + TimerGroup.NONE), group.getTimer(null));
+    }
+
+    @Test
+    public void extensionTag() {
+        assertNull(RequestMetrics.toExtensionTag(null));
+        assertEquals("html", RequestMetrics.toExtensionTag(pathInfo(null, "html")));
+        assertEquals("print.a4.html", RequestMetrics.toExtensionTag(pathInfo("print.a4", "html")));
+        assertNull(RequestMetrics.toExtensionTag(pathInfo(null, null)));
+    }
+
+    private RequestPathInfo pathInfo(final String selectors, final String extension) {
+        final RequestPathInfo info = context.mock(RequestPathInfo.class, "pathInfo " + selectors + "/" + extension);
+        context.checking(new Expectations() {{
+            allowing(info).getSelectorString();
+            will(returnValue(selectors));
+            allowing(info).getExtension();
+            will(returnValue(extension));
+        }});
+        return info;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.engine.impl.parameters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.Part;
+
+import org.apache.commons.io.IOUtils;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.junit.Test;
+
+public class RequestPartsIteratorTest {
+
+    private static final String BOUNDARY = "----boundary";
+
+    private final Mockery context = new Mockery();
+
+    private HttpServletRequest createRequest(final byte[] body) throws IOException {
+        final HttpServletRequest request = context.mock(HttpServletRequest.class);
+        final ByteArrayInputStream input = new ByteArrayInputStream(body);
+        final ServletInputStream stream = new ServletInputStream() {
+            @Override
+            public int read() throws IOException {
+                return input.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return input.read(b, off, len);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return input.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                // not used
+            }
+        };
+        context.checking(new Expectations() {{
+            allowing(request).getContentType();
+            will(returnValue("multipart/form-data; boundary=" + BOUNDARY));
+            allowing(request).getCharacterEncoding();
+            will(returnValue(null));
+            allowing(request).getContentLength();
+            will(returnValue(body.length));
+            allowing(request).getHeader(with(any(String.class)));
+            will(returnValue(null));
+            allowing(request).getMethod();
+            will(returnValue("POST"));
+            allowing(request).getInputStream();
+            will(returnValue(stream));
+        }});
+        return request;
+    }
+
+    private byte[] createBody(final int fileSize) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(("--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"title\"\r\n\r\n"
+            + "a title\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"*\"; filename=\"data.bin\"\r\n"
+            + "Content-Type: application/octet-stream\r\n\r\n").getBytes("ISO-8859-1"));
+        for (int i = 0; i < fileSize; i++) {
+            out.write(i % 256);
+        }
+        out.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes("ISO-8859-1"));
+        return out.toByteArray();
+    }
+
+    @Test
+    public void partsInArrivalOrder() throws Exception {
+        final RequestPartsIterator parts = new RequestPartsIterator(createRequest(createBody(100000)));
+
+        assertTrue(parts.hasNext());
+        final Part field = parts.next();
+        assertEquals("title", field.getName());
+        assertNull(field.getSubmittedFileName());
+        assertEquals("a title", IOUtils.toString(field.getInputStream(), "UTF-8"));
+
+        assertTrue(parts.hasNext());
+        final Part file = parts.next();
+        assertEquals("data.bin", file.getSubmittedFileName());
+        assertEquals("application/octet-stream", file.getContentType());
+        final byte[] data = IOUtils.toByteArray(file.getInputStream());
+        assertEquals(100000, data.length);
+        for (int i = 0; i < data.length; i++) {
+            assertEquals((byte) (i % 256), data[i]);
+        }
+
+        assertFalse(parts.hasNext());
+    }
+
+    @Test
+    public void skipsUnreadParts() throws Exception {
+        final RequestPartsIterator parts = new RequestPartsIterator(createRequest(createBody(1000)));
+        assertEquals("title", parts.next().getName());
+        assertEquals("data.bin", parts.next().getSubmittedFileName());
+        assertFalse(parts.hasNext());
+    }
+
+    @Test
+    public void maxFileSize() throws Exception {
+        final RequestPartsIterator parts = new RequestPartsIterator(createRequest(createBody(1000)), -1, 100);
+        assertEquals("a title", IOUtils.toString(parts.next().getInputStream(), "UTF-8"));
+        final InputStream file = parts.next().getInputStream();
+        try {
+            IOUtils.toByteArray(file);
+            fail("Expected the file size limit to be exceeded");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+}
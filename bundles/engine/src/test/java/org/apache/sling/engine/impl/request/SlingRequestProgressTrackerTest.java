@@ -16,6 +16,7 @@
  */
 package org.apache.sling.engine.impl.request;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.Assert.assertEquals;
@@ -129,6 +130,72 @@ public class SlingRequestProgressTrackerTest {
         tracker.getMessages().remove();
     }
 
+    @Test
+    public void ringBuffer() {
+        for (int i = 0; i < SlingRequestProgressTracker.MAX_ENTRIES + 10; i++) {
+            tracker.log("entry {0}", String.valueOf(i));
+        }
+        final Iterator<String> messages = tracker.getMessages();
+        int count = 0;
+        String last = null;
+        while (messages.hasNext()) {
+            last = messages.next();
+            if (count == 0) {
+                // the two initial entries are kept
+                assertTrue(last.endsWith("TIMER_START{Request Processing}\n"));
+            } else if (count == 2) {
+                // the oldest twelve entries have been overwritten
+                assertTrue(last.endsWith("LOG entry 12\n"));
+            }
+            count++;
+        }
+        assertEquals(SlingRequestProgressTracker.MAX_ENTRIES, count);
+        assertTrue(last.endsWith("LOG entry " + (SlingRequestProgressTracker.MAX_ENTRIES + 9) + "\n"));
+    }
+
+    @Test
+    public void argumentsFormattedWhenRead() {
+        final StringBuilder argument = new StringBuilder("before");
+        tracker.log("argument {0}", argument);
+        argument.setLength(0);
+        argument.append("after");
+        final Iterator<String> messages = tracker.getMessages();
+        String last = null;
+        while (messages.hasNext()) {
+            last = messages.next();
+        }
+        assertTrue(last.endsWith("LOG argument after\n"));
+    }
+
+    @Test
+    public void collectOnDemand() {
+        final boolean[] reading = new boolean[1];
+        final SlingRequestProgressTracker.MessageConsumer consumer = new SlingRequestProgressTracker.MessageConsumer() {
+            @Override
+            public boolean isReadingMessages() {
+                return reading[0];
+            }
+        };
+        SlingRequestProgressTracker.setCollectOnDemand(true);
+        SlingRequestProgressTracker.addMessageConsumer(consumer);
+        try {
+            tracker = new SlingRequestProgressTracker();
+            assertFalse(tracker.isCollecting());
+            addTestData();
+            assertFalse(tracker.getMessages().hasNext());
+            assertTrue(tracker.getDuration() >= 0);
+
+            reading[0] = true;
+            tracker = new SlingRequestProgressTracker();
+            assertTrue(tracker.isCollecting());
+            addTestData();
+            assertTrue(tracker.getMessages().hasNext());
+        } finally {
+            SlingRequestProgressTracker.removeMessageConsumer(consumer);
+            SlingRequestProgressTracker.setCollectOnDemand(false);
+        }
+    }
+
     private String substringAfter(String string, char ch) {
         final int pos = string.indexOf(ch);
         return string.substring(pos);
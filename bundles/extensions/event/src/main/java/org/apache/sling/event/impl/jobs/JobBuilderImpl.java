@@ -18,6 +18,8 @@
  */
 package org.apache.sling.event.impl.jobs;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -59,6 +61,29 @@ public class JobBuilderImpl implements JobBuilder {
         return this.jobManager.addJob(this.topic, this.properties, errors);
     }
 
+    @Override
+    public List<Job> addAll(final List<Map<String, Object>> props) {
+        return this.addAll(props, null);
+    }
+
+    @Override
+    public List<Job> addAll(final List<Map<String, Object>> props, final List<String> errors) {
+        final List<Map<String, Object>> jobProperties;
+        if ( this.properties == null ) {
+            jobProperties = props;
+        } else {
+            jobProperties = new ArrayList<Map<String, Object>>(props.size());
+            for(final Map<String, Object> p : props) {
+                final Map<String, Object> merged = new HashMap<String, Object>(this.properties);
+                if ( p != null ) {
+                    merged.putAll(p);
+                }
+                jobProperties.add(merged);
+            }
+        }
+        return this.jobManager.addJobs(this.topic, jobProperties, errors);
+    }
+
     @Override
     public ScheduleBuilder schedule() {
         return new JobScheduleBuilderImpl(
@@ -33,7 +33,6 @@ import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
-import org.apache.jackrabbit.util.ISO9075;
 import org.apache.sling.api.SlingConstants;
 import org.apache.sling.api.resource.LoginException;
 import org.apache.sling.api.resource.PersistenceException;
@@ -92,6 +91,9 @@ public class JobManagerImpl
     /** Default logger. */
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    /** Maximum number of jobs persisted with a single commit by {@link #addJobs(String, List, List)}. */
+    private static final int BATCH_COMMIT_SIZE = 1000;
+
     @Reference
     private EventAdmin eventAdmin;
 
@@ -340,14 +342,6 @@ public class JobManagerImpl
         return this.internalRemoveJobById(jobId, true);
     }
 
-    private enum Operation {
-        LESS,
-        LESS_OR_EQUALS,
-        EQUALS,
-        GREATER_OR_EQUALS,
-        GREATER
-    }
-
     /**
      * @see org.apache.sling.event.jobs.JobManager#findJobs(org.apache.sling.event.jobs.JobManager.QueryType, java.lang.String, long, java.util.Map[])
      */
@@ -356,172 +350,12 @@ public class JobManagerImpl
             final String topic,
             final long limit,
             final Map<String, Object>... templates) {
-        final boolean isHistoryQuery = type == QueryType.HISTORY
-                                       || type == QueryType.SUCCEEDED
-                                       || type == QueryType.CANCELLED
-                                       || type == QueryType.DROPPED
-                                       || type == QueryType.ERROR
-                                       || type == QueryType.GIVEN_UP
-                                       || type == QueryType.STOPPED;
-        final List<Job> result = new ArrayList<Job>();
         final ResourceResolver resolver = this.configuration.createResourceResolver();
-        final StringBuilder buf = new StringBuilder(64);
         try {
-
-            buf.append("/jcr:root");
-            buf.append(this.configuration.getJobsBasePathWithSlash());
-            buf.append("/element(*,");
-            buf.append(ResourceHelper.RESOURCE_TYPE_JOB);
-            buf.append(")[@");
-            buf.append(ISO9075.encode(ResourceHelper.PROPERTY_JOB_TOPIC));
-            if (topic != null) {
-                buf.append(" = '");
-                buf.append(topic);
-                buf.append("'");
-            }
-
-            // restricting on the type - history or unfinished
-            if ( isHistoryQuery ) {
-                buf.append(" and @");
-                buf.append(ISO9075.encode(JobImpl.PROPERTY_FINISHED_STATE));
-                if ( type == QueryType.SUCCEEDED || type == QueryType.DROPPED || type == QueryType.ERROR || type == QueryType.GIVEN_UP || type == QueryType.STOPPED ) {
-                    buf.append(" = '");
-                    buf.append(type.name());
-                    buf.append("'");
-                } else if ( type == QueryType.CANCELLED ) {
-                    buf.append(" and (@");
-                    buf.append(ISO9075.encode(JobImpl.PROPERTY_FINISHED_STATE));
-                    buf.append(" = '");
-                    buf.append(QueryType.DROPPED.name());
-                    buf.append("' or @");
-                    buf.append(ISO9075.encode(JobImpl.PROPERTY_FINISHED_STATE));
-                    buf.append(" = '");
-                    buf.append(QueryType.ERROR.name());
-                    buf.append("' or @");
-                    buf.append(ISO9075.encode(JobImpl.PROPERTY_FINISHED_STATE));
-                    buf.append(" = '");
-                    buf.append(QueryType.GIVEN_UP.name());
-                    buf.append("' or @");
-                    buf.append(ISO9075.encode(JobImpl.PROPERTY_FINISHED_STATE));
-                    buf.append(" = '");
-                    buf.append(QueryType.STOPPED.name());
-                    buf.append("')");
-                }
-            } else {
-                buf.append(" and not(@");
-                buf.append(ISO9075.encode(JobImpl.PROPERTY_FINISHED_STATE));
-                buf.append(")");
-                if ( type == QueryType.ACTIVE ) {
-                    buf.append(" and @");
-                    buf.append(ISO9075.encode(Job.PROPERTY_JOB_STARTED_TIME));
-                } else if ( type == QueryType.QUEUED ) {
-                    buf.append(" and not(@");
-                    buf.append(ISO9075.encode(Job.PROPERTY_JOB_STARTED_TIME));
-                    buf.append(")");
-                }
-            }
-
-            if ( templates != null && templates.length > 0 ) {
-                int index = 0;
-                for (final Map<String,Object> template : templates) {
-                    // skip empty templates
-                    if ( template.size() == 0 ) {
-                        continue;
-                    }
-                    if ( index == 0 ) {
-                        buf.append(" and (");
-                    } else {
-                        buf.append(" or ");
-                    }
-                    buf.append('(');
-                    final Iterator<Map.Entry<String, Object>> i = template.entrySet().iterator();
-                    boolean first = true;
-                    while ( i.hasNext() ) {
-                        final Map.Entry<String, Object> current = i.next();
-                        final String key = ISO9075.encode(current.getKey());
-                        final char firstChar = key.length() > 0 ? key.charAt(0) : 0;
-                        final String propName;
-                        final Operation op;
-                        if ( firstChar == '=' ) {
-                            propName = key.substring(1);
-                            op  = Operation.EQUALS;
-                        } else if ( firstChar == '<' ) {
-                            final char secondChar = key.length() > 1 ? key.charAt(1) : 0;
-                            if ( secondChar == '=' ) {
-                                op = Operation.LESS_OR_EQUALS;
-                                propName = key.substring(2);
-                            } else {
-                                op = Operation.LESS;
-                                propName = key.substring(1);
-                            }
-                        } else if ( firstChar == '>' ) {
-                            final char secondChar = key.length() > 1 ? key.charAt(1) : 0;
-                            if ( secondChar == '=' ) {
-                                op = Operation.GREATER_OR_EQUALS;
-                                propName = key.substring(2);
-                            } else {
-                                op = Operation.GREATER;
-                                propName = key.substring(1);
-                            }
-                        } else {
-                            propName = key;
-                            op  = Operation.EQUALS;
-                        }
-
-                        if ( first ) {
-                            first = false;
-                            buf.append('@');
-                        } else {
-                            buf.append(" and @");
-                        }
-                        buf.append(propName);
-                        buf.append(' ');
-                        switch ( op ) {
-                            case EQUALS : buf.append('=');break;
-                            case LESS : buf.append('<'); break;
-                            case LESS_OR_EQUALS : buf.append("<="); break;
-                            case GREATER : buf.append('>'); break;
-                            case GREATER_OR_EQUALS : buf.append(">="); break;
-                        }
-                        buf.append(" '");
-                        buf.append(current.getValue());
-                        buf.append("'");
-                    }
-                    buf.append(')');
-                    index++;
-                }
-                if ( index > 0 ) {
-                    buf.append(')');
-                }
-            }
-            buf.append("] order by @");
-            if ( isHistoryQuery ) {
-                buf.append(JobImpl.PROPERTY_FINISHED_DATE);
-                buf.append(" descending");
-            } else {
-                buf.append(Job.PROPERTY_JOB_CREATED);
-                buf.append(" ascending");
-            }
-            final Iterator<Resource> iter = resolver.findResources(buf.toString(), "xpath");
-            long count = 0;
-
-            while ( iter.hasNext() && (limit < 1 || count < limit) ) {
-                final Resource jobResource = iter.next();
-                // sanity check for the path
-                if ( this.configuration.isJob(jobResource.getPath()) ) {
-                    final JobImpl job = Utility.readJob(logger, jobResource);
-                    if ( job != null ) {
-                        count++;
-                        result.add(job);
-                    }
-                }
-             }
-        } catch (final QuerySyntaxException qse) {
-            logger.warn("Query syntax wrong " + buf.toString(), qse);
+            return this.statisticsManager.getJobIndex().find(resolver, type, topic, limit, templates);
         } finally {
             resolver.close();
         }
-        return result;
     }
 
     /**
@@ -546,12 +380,15 @@ public class JobManagerImpl
                 logger.debug("Persisting job {} into queue {}", Utility.toString(jobTopic, jobProperties), info.queueName);
             }
         }
+        final long traversalCount = this.configuration.getPendingJobIndex().getTraversalCount(jobTopic);
         final ResourceResolver resolver = this.configuration.createResourceResolver();
         try {
             final JobImpl job = this.writeJob(resolver,
                     jobTopic,
                     jobProperties,
-                    info);
+                    info,
+                    true);
+            this.indexJob(job, traversalCount);
             if ( info.targetId != null ) {
                 this.configuration.getAuditLogger().debug("ASSIGN OK {} : {}",
                         info.targetId, job.getId());
@@ -578,12 +415,14 @@ public class JobManagerImpl
      * @param resolver The resolver resolver
      * @param event The event
      * @param info The queue information (queue name etc.)
+     * @param commit Whether the job should be committed
      * @throws PersistenceException
      */
     private JobImpl writeJob(final ResourceResolver resolver,
             final String jobTopic,
             final Map<String, Object> jobProperties,
-            final QueueInfo info)
+            final QueueInfo info,
+            final boolean commit)
     throws PersistenceException {
         final String jobId = this.configuration.getUniqueId(jobTopic);
         final String path = this.configuration.getUniquePath(info.targetId, jobTopic, jobId, jobProperties);
@@ -620,9 +459,15 @@ public class JobManagerImpl
         if ( logger.isDebugEnabled() ) {
             logger.debug("Storing new job {} at {}", Utility.toString(jobTopic, properties), path);
         }
-        ResourceHelper.getOrCreateResource(resolver,
-                path,
-                properties);
+        if ( commit ) {
+            ResourceHelper.getOrCreateResource(resolver,
+                    path,
+                    properties);
+        } else {
+            ResourceHelper.getOrCreateUncommittedResource(resolver,
+                    path,
+                    properties);
+        }
 
         // update property types - priority, add path and create job
         properties.put(JobImpl.PROPERTY_RESOURCE_PATH, path);
@@ -720,6 +565,117 @@ public class JobManagerImpl
         return result;
     }
 
+    /**
+     * @see org.apache.sling.event.jobs.JobManager#addJobs(java.lang.String, java.util.List)
+     */
+    @Override
+    public List<Job> addJobs(final String topic, final List<Map<String, Object>> jobProperties) {
+        return this.addJobs(topic, jobProperties, null);
+    }
+
+    /**
+     * Internal method to add several jobs of the same topic.
+     * The jobs are persisted in chunks of {@link #BATCH_COMMIT_SIZE} jobs, each chunk
+     * with a single commit. The job added notification is still sent for each job
+     * once the resource event for it arrives.
+     */
+    public List<Job> addJobs(final String topic,
+            final List<Map<String, Object>> jobProperties,
+            final List<String> errors) {
+        final List<Job> result = new ArrayList<Job>(jobProperties.size());
+        final List<Integer> validJobs = new ArrayList<Integer>();
+        for(int i = 0; i < jobProperties.size(); i++) {
+            result.add(null);
+            final String errorMessage = Utility.checkJob(topic, jobProperties.get(i));
+            if ( errorMessage != null ) {
+                logger.warn("{}", errorMessage);
+                if ( errors != null ) {
+                    errors.add(errorMessage);
+                }
+                this.configuration.getAuditLogger().debug("ADD FAILED topic={}, properties={} : {}",
+                        new Object[] {topic,
+                                      jobProperties.get(i),
+                                      errorMessage});
+            } else {
+                validJobs.add(i);
+            }
+        }
+        if ( validJobs.isEmpty() ) {
+            return result;
+        }
+
+        final QueueInfo info = this.configuration.getQueueConfigurationManager().getQueueInfo(topic);
+        final TopologyCapabilities caps = this.configuration.getTopologyCapabilities();
+
+        final ResourceResolver resolver = this.configuration.createResourceResolver();
+        try {
+            for(int start = 0; start < validJobs.size(); start += BATCH_COMMIT_SIZE) {
+                final List<Integer> chunk = validJobs.subList(start, Math.min(start + BATCH_COMMIT_SIZE, validJobs.size()));
+                final List<JobImpl> jobs = new ArrayList<JobImpl>(chunk.size());
+                final long traversalCount = this.configuration.getPendingJobIndex().getTraversalCount(topic);
+                try {
+                    for(final Integer index : chunk) {
+                        final Map<String, Object> properties = jobProperties.get(index);
+                        info.targetId = (caps == null ? null : caps.detectTarget(topic, properties, info));
+                        final JobImpl job = this.writeJob(resolver, topic, properties, info, false);
+                        jobs.add(job);
+                    }
+                    resolver.commit();
+                } catch ( final PersistenceException pe ) {
+                    resolver.revert();
+                    resolver.refresh();
+                    this.logger.error("Exception during persisting " + chunk.size() + " new jobs for topic " + topic, pe);
+                    for(final Integer index : chunk) {
+                        if ( errors != null ) {
+                            errors.add("Unable to persist new job.");
+                        }
+                        this.configuration.getAuditLogger().debug("ADD FAILED topic={}, properties={} : {}",
+                                new Object[] {topic,
+                                              jobProperties.get(index),
+                                              pe.getMessage()});
+                    }
+                    continue;
+                }
+                for(int i = 0; i < chunk.size(); i++) {
+                    final JobImpl job = jobs.get(i);
+                    result.set(chunk.get(i), job);
+                    this.indexJob(job, traversalCount);
+                    if ( job.getTargetInstance() != null ) {
+                        this.configuration.getAuditLogger().debug("ASSIGN OK {} : {}",
+                                job.getTargetInstance(), job.getId());
+                    } else {
+                        this.configuration.getAuditLogger().debug("UNASSIGN OK : {}",
+                                job.getId());
+                    }
+                    this.configuration.getAuditLogger().debug("ADD OK topic={}, properties={} : {}",
+                            new Object[] {topic,
+                                          jobProperties.get(chunk.get(i)),
+                                          job.getId()});
+                }
+            }
+        } finally {
+            resolver.close();
+        }
+        return result;
+    }
+
+    /**
+     * Add a new job to the job index and, if it is processed by this instance,
+     * to the pending job index. The pending job index gets its own copy as the
+     * job object is returned to the caller.
+     * @param job The new job
+     * @param traversalCount The traversal count of the topic before the job has been written
+     */
+    private void indexJob(final JobImpl job, final long traversalCount) {
+        // make the job visible to findJobs before the resource event arrives
+        this.statisticsManager.getJobIndex().changed(job.getResourcePath());
+        if ( this.configuration.isLocalJob(job.getResourcePath()) ) {
+            final Map<String, Object> properties = new HashMap<String, Object>(job.getProperties());
+            properties.put(JobImpl.PROPERTY_RESOURCE_PATH, job.getResourcePath());
+            this.configuration.getPendingJobIndex().add(new JobImpl(job.getTopic(), job.getId(), properties), traversalCount);
+        }
+    }
+
     /**
      * @see org.apache.sling.event.jobs.JobManager#retryJobById(java.lang.String)
      */
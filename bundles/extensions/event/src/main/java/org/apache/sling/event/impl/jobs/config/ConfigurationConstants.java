@@ -33,6 +33,9 @@ public abstract class ConfigurationConstants {
     public static final boolean DEFAULT_KEEP_JOBS = false;
     public static final int DEFAULT_THREAD_POOL_SIZE = 0;
     public static final boolean DEFAULT_PREFER_RUN_ON_CREATION_INSTANCE = false;
+    public static final String DEFAULT_EXECUTION_MODE = "THREAD_POOL";
+    public static final boolean DEFAULT_ADAPTIVE_PARALLEL = false;
+    public static final int DEFAULT_MIN_PARALLEL = 1;
 
     public static final String PROP_NAME = "queue.name";
     public static final String PROP_TYPE = "queue.type";
@@ -44,5 +47,8 @@ public abstract class ConfigurationConstants {
     public static final String PROP_KEEP_JOBS = "queue.keepJobs";
     public static final String PROP_THREAD_POOL_SIZE = "queue.threadPoolSize";
     public static final String PROP_PREFER_RUN_ON_CREATION_INSTANCE = "queue.preferRunOnCreationInstance";
+    public static final String PROP_EXECUTION_MODE = "queue.executionMode";
+    public static final String PROP_ADAPTIVE_PARALLEL = "queue.adaptiveParallel";
+    public static final String PROP_MIN_PARALLEL = "queue.minParallel";
 
 }
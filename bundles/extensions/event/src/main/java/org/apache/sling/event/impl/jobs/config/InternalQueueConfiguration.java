@@ -70,6 +70,16 @@ import org.slf4j.LoggerFactory;
                         + "Positive integer values specify number of processors to use.  Can be greater than number of processors. "
                         + "A decimal number between 0.0 and 1.0 is treated as a fraction of available processors. "
                         + "For example 0.5 means half of the available processors. For ordered queue types this value is ignored (always enforced to be 1)."),
+    @Property(name=ConfigurationConstants.PROP_ADAPTIVE_PARALLEL,
+              boolValue=ConfigurationConstants.DEFAULT_ADAPTIVE_PARALLEL,
+              label="Adaptive Parallel Jobs",
+              description="If enabled, the number of parallel jobs is adjusted at runtime between the minimum "
+                        + "and the maximum number of parallel jobs. The number is increased while jobs are processed "
+                        + "in time and decreased if jobs fail, get slower or wait for a thread. Not used for ordered queues."),
+    @Property(name=ConfigurationConstants.PROP_MIN_PARALLEL,
+              intValue=ConfigurationConstants.DEFAULT_MIN_PARALLEL,
+              label="Minimum Parallel Jobs",
+              description="The minimum number of parallel jobs if the number of parallel jobs is adaptive."),
     @Property(name=ConfigurationConstants.PROP_RETRIES,
               intValue=ConfigurationConstants.DEFAULT_RETRIES,
               label="Maximum Retries",
@@ -108,6 +118,17 @@ import org.slf4j.LoggerFactory;
               description="Optional configuration value for a thread pool to be used by "
                         + "this queue. If this is value has a positive number of threads configuration, this queue uses "
                         + "an own thread pool with the configured number of threads."),
+    @Property(name=ConfigurationConstants.PROP_EXECUTION_MODE,
+              value=ConfigurationConstants.DEFAULT_EXECUTION_MODE,
+              options={@PropertyOption(name="THREAD_POOL",value="Thread Pool"),
+                       @PropertyOption(name="FORK_JOIN",value="Fork Join Pool"),
+                       @PropertyOption(name="VIRTUAL_THREADS",value="Virtual Threads")},
+              label="Execution Mode",
+              description="How the jobs of this queue are executed. By default a thread pool is used. "
+                        + "A work stealing fork join pool with as many threads as parallel jobs can be used "
+                        + "instead, or virtual threads, which suit consumers blocking on I/O. If the JVM "
+                        + "does not support virtual threads, a fork join pool is used. The maximum number of "
+                        + "parallel jobs applies to all modes."),
     @Property(name=Constants.SERVICE_RANKING,
               intValue=0,
               propertyPrivate=false,
@@ -161,6 +182,24 @@ public class InternalQueueConfiguration
     /** Prefer creation instance. */
     private boolean preferCreationInstance;
 
+    /** The execution mode. */
+    private ExecutionMode executionMode;
+
+    /** Whether the number of parallel jobs is adaptive. */
+    private boolean adaptiveParallel;
+
+    /** The minimum number of parallel jobs for the adaptive mode. */
+    private int minParallelProcesses;
+
+    /**
+     * How the jobs of a queue are executed.
+     */
+    public enum ExecutionMode {
+        THREAD_POOL,     // thread pool from the thread pool manager
+        FORK_JOIN,       // work stealing fork join pool
+        VIRTUAL_THREADS  // a virtual thread per job
+    }
+
     private String pid;
 
     /**
@@ -224,6 +263,10 @@ public class InternalQueueConfiguration
         if ( this.type == Type.ORDERED ) {
             this.maxParallelProcesses = 1;
         }
+        this.adaptiveParallel = this.type != Type.ORDERED
+                && PropertiesUtil.toBoolean(params.get(ConfigurationConstants.PROP_ADAPTIVE_PARALLEL), ConfigurationConstants.DEFAULT_ADAPTIVE_PARALLEL);
+        this.minParallelProcesses = Math.max(1, Math.min(this.maxParallelProcesses,
+                PropertiesUtil.toInteger(params.get(ConfigurationConstants.PROP_MIN_PARALLEL), ConfigurationConstants.DEFAULT_MIN_PARALLEL)));
         final String[] topicsParam = PropertiesUtil.toStringArray(params.get(ConfigurationConstants.PROP_TOPICS));
         this.matchers = TopicMatcherHelper.buildMatchers(topicsParam);
         if ( this.matchers == null ) {
@@ -235,6 +278,12 @@ public class InternalQueueConfiguration
         this.serviceRanking = PropertiesUtil.toInteger(params.get(Constants.SERVICE_RANKING), 0);
         this.ownThreadPoolSize = PropertiesUtil.toInteger(params.get(ConfigurationConstants.PROP_THREAD_POOL_SIZE), ConfigurationConstants.DEFAULT_THREAD_POOL_SIZE);
         this.preferCreationInstance = PropertiesUtil.toBoolean(params.get(ConfigurationConstants.PROP_PREFER_RUN_ON_CREATION_INSTANCE), ConfigurationConstants.DEFAULT_PREFER_RUN_ON_CREATION_INSTANCE);
+        try {
+            this.executionMode = ExecutionMode.valueOf(PropertiesUtil.toString(params.get(ConfigurationConstants.PROP_EXECUTION_MODE), ConfigurationConstants.DEFAULT_EXECUTION_MODE));
+        } catch ( final IllegalArgumentException iae) {
+            logger.warn("Invalid value for queue execution mode. Using default instead of : {}", params.get(ConfigurationConstants.PROP_EXECUTION_MODE));
+            this.executionMode = ExecutionMode.valueOf(ConfigurationConstants.DEFAULT_EXECUTION_MODE);
+        }
         this.pid = (String)params.get(Constants.SERVICE_PID);
         this.valid = this.checkIsValid();
     }
@@ -368,6 +417,27 @@ public class InternalQueueConfiguration
         return this.preferCreationInstance;
     }
 
+    /**
+     * Is the number of parallel jobs adjusted at runtime?
+     */
+    public boolean isAdaptiveParallel() {
+        return this.adaptiveParallel;
+    }
+
+    /**
+     * The minimum number of parallel jobs if adaptive.
+     */
+    public int getMinParallel() {
+        return this.minParallelProcesses;
+    }
+
+    /**
+     * The execution mode of the queue.
+     */
+    public ExecutionMode getExecutionMode() {
+        return this.executionMode;
+    }
+
     @Override
     public String toString() {
         return "Queue-Configuration(" + this.hashCode() + ") : {" +
@@ -375,11 +445,14 @@ public class InternalQueueConfiguration
             ", type=" + this.type +
             ", topics=" + (this.matchers == null ? "[]" : Arrays.toString(this.matchers)) +
             ", maxParallelProcesses=" + this.maxParallelProcesses +
+            ", adaptiveParallel=" + this.adaptiveParallel +
+            ", minParallelProcesses=" + this.minParallelProcesses +
             ", retries=" + this.retries +
             ", retryDelayInMs=" + this.retryDelay +
             ", keepJobs=" + this.keepJobs +
             ", preferRunOnCreationInstance=" + this.preferCreationInstance +
             ", ownThreadPoolSize=" + this.ownThreadPoolSize +
+            ", executionMode=" + this.executionMode +
             ", serviceRanking=" + this.serviceRanking +
             ", pid=" + this.pid +
             ", isValid=" + this.isValid() + "}";
@@ -47,6 +47,7 @@ import org.apache.sling.discovery.commons.InitDelayingTopologyEventListener;
 import org.apache.sling.discovery.TopologyEvent.Type;
 import org.apache.sling.event.impl.EnvironmentComponent;
 import org.apache.sling.event.impl.jobs.Utility;
+import org.apache.sling.event.impl.jobs.queues.PendingJobIndex;
 import org.apache.sling.event.impl.jobs.tasks.CheckTopologyTask;
 import org.apache.sling.event.impl.jobs.tasks.FindUnfinishedJobsTask;
 import org.apache.sling.event.impl.jobs.tasks.UpgradeTask;
@@ -348,6 +349,16 @@ public class JobManagerConfiguration {
         return this.localJobsPath;
     }
 
+    /** Jobs of this instance which have not been started yet. */
+    private final PendingJobIndex pendingJobIndex = new PendingJobIndex();
+
+    /**
+     * Get the index of the jobs of this instance which have not been started yet.
+     */
+    public PendingJobIndex getPendingJobIndex() {
+        return this.pendingJobIndex;
+    }
+
     /** Counter for jobs without an id. */
     private final AtomicLong jobCounter = new AtomicLong(0);
 
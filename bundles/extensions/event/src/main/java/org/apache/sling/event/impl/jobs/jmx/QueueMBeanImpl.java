@@ -17,20 +17,35 @@
  */
 package org.apache.sling.event.impl.jobs.jmx;
 
+import org.apache.sling.event.impl.jobs.queues.ConcurrencyLimiter;
+import org.apache.sling.event.impl.jobs.queues.JobQueueImpl;
+import org.apache.sling.event.impl.jobs.queues.QueueExecutor;
 import org.apache.sling.event.jobs.Queue;
 import org.apache.sling.event.jobs.Statistics;
 
 /**
  * An MBean that provides statistics from
  */
-public class QueueMBeanImpl extends AbstractJobStatistics {
+public class QueueMBeanImpl extends AbstractJobStatistics implements QueueStatisticsMBean {
 
     private final String name;
 
     private final Statistics statistics;
 
+    private final ConcurrencyLimiter limiter;
+
+    private final QueueExecutor executor;
+
     public QueueMBeanImpl(Queue queue) {
+        super(QueueStatisticsMBean.class);
         this.name = queue.getName();
+        if (queue instanceof JobQueueImpl) {
+            this.limiter = ((JobQueueImpl) queue).getConcurrencyLimiter();
+            this.executor = ((JobQueueImpl) queue).getExecutor();
+        } else {
+            this.limiter = null;
+            this.executor = null;
+        }
         if (queue instanceof Statistics) {
             this.statistics = (Statistics) queue;
         } else {
@@ -47,4 +62,49 @@ public class QueueMBeanImpl extends AbstractJobStatistics {
     public String getName() {
         return name;
     }
+
+    @Override
+    public int getParallelLimit() {
+        return limiter == null ? -1 : limiter.getLimit();
+    }
+
+    @Override
+    public int getMinParallelLimit() {
+        return limiter == null ? -1 : limiter.getMinLimit();
+    }
+
+    @Override
+    public int getMaxParallelLimit() {
+        return limiter == null ? -1 : limiter.getMaxLimit();
+    }
+
+    @Override
+    public boolean isAdaptiveParallel() {
+        return limiter != null && limiter.isAdaptive();
+    }
+
+    @Override
+    public String getExecutionMode() {
+        return executor == null ? null : executor.getExecutionMode().name();
+    }
+
+    @Override
+    public long getNumberOfExecutedJobs() {
+        return executor == null ? -1 : executor.getExecutedCount();
+    }
+
+    @Override
+    public long getAverageExecutorWaitTime() {
+        return executor == null ? -1 : executor.getAverageWaitTime();
+    }
+
+    @Override
+    public long getMaxExecutorWaitTime() {
+        return executor == null ? -1 : executor.getMaxWaitTime();
+    }
+
+    @Override
+    public long getAverageExecutionTime() {
+        return executor == null ? -1 : executor.getAverageExecutionTime();
+    }
 }
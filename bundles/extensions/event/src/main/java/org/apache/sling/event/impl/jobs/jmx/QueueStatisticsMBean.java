@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.jmx;
+
+import org.apache.sling.event.jobs.jmx.StatisticsMBean;
+
+/**
+ * The statistics of a queue, including the limits for parallel jobs
+ * and the metrics of the executor running the jobs.
+ */
+public interface QueueStatisticsMBean extends StatisticsMBean {
+
+    /**
+     * The current limit of parallel jobs, -1 if unknown.
+     */
+    int getParallelLimit();
+
+    /**
+     * The minimum limit of parallel jobs, -1 if unknown.
+     */
+    int getMinParallelLimit();
+
+    /**
+     * The maximum limit of parallel jobs, -1 if unknown.
+     */
+    int getMaxParallelLimit();
+
+    /**
+     * Whether the limit of parallel jobs is adjusted at runtime.
+     */
+    boolean isAdaptiveParallel();
+
+    /**
+     * The execution mode of the queue, {@code null} if unknown.
+     */
+    String getExecutionMode();
+
+    /**
+     * The number of jobs run by the executor, -1 if unknown.
+     */
+    long getNumberOfExecutedJobs();
+
+    /**
+     * The average time in milliseconds a job waited for the executor, -1 if unknown.
+     */
+    long getAverageExecutorWaitTime();
+
+    /**
+     * The maximum time in milliseconds a job waited for the executor, -1 if unknown.
+     */
+    long getMaxExecutorWaitTime();
+
+    /**
+     * The average time in milliseconds the executor took to run a job, -1 if unknown.
+     */
+    long getAverageExecutionTime();
+}
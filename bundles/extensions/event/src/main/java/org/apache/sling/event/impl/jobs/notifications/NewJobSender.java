@@ -27,6 +27,7 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.sling.api.SlingConstants;
 import org.apache.sling.event.impl.jobs.config.JobManagerConfiguration;
+import org.apache.sling.event.impl.jobs.queues.PendingJobIndex;
 import org.apache.sling.event.jobs.Job;
 import org.apache.sling.event.jobs.NotificationConstants;
 import org.osgi.framework.BundleContext;
@@ -41,7 +42,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This component receives resource added events and sends a job
- * created event.
+ * created event. It also keeps the pending job index informed
+ * about jobs which are not indexed and about removed jobs.
  */
 @Component
 public class NewJobSender implements EventHandler {
@@ -69,7 +71,9 @@ public class NewJobSender implements EventHandler {
         final Dictionary<String, Object> properties = new Hashtable<String, Object>();
         properties.put(Constants.SERVICE_DESCRIPTION, "Apache Sling Job Topic Manager Event Handler");
         properties.put(Constants.SERVICE_VENDOR, "The Apache Software Foundation");
-        properties.put(EventConstants.EVENT_TOPIC, SlingConstants.TOPIC_RESOURCE_ADDED);
+        properties.put(EventConstants.EVENT_TOPIC, new String[] {
+                SlingConstants.TOPIC_RESOURCE_ADDED,
+                SlingConstants.TOPIC_RESOURCE_REMOVED});
         properties.put(EventConstants.EVENT_FILTER,
                 "(" + SlingConstants.PROPERTY_PATH + "=" +
                       this.configuration.getLocalJobsPath() + "/*)");
@@ -92,7 +96,19 @@ public class NewJobSender implements EventHandler {
     public void handleEvent(final Event event) {
         logger.debug("Received event {}", event);
         final String path = (String) event.getProperty(SlingConstants.PROPERTY_PATH);
-        if ( this.configuration.isLocalJob(path) ) {
+        if ( SlingConstants.TOPIC_RESOURCE_REMOVED.equals(event.getTopic()) ) {
+            if ( this.configuration.isLocalJob(path) ) {
+                final int topicStart = this.configuration.getLocalJobsPath().length() + 1;
+                final int topicEnd = path.indexOf('/', topicStart);
+                if ( topicEnd != -1 && path.indexOf("_", topicEnd + 1) != -1 ) {
+                    // a job or a resource below a job
+                    this.configuration.getPendingJobIndex().remove(path);
+                } else {
+                    // a topic or date folder
+                    this.configuration.getPendingJobIndex().removeTree(path);
+                }
+            }
+        } else if ( this.configuration.isLocalJob(path) ) {
             // get topic and id from path
             final int topicStart = this.configuration.getLocalJobsPath().length() + 1;
             final int topicEnd = path.indexOf('/', topicStart);
@@ -101,6 +117,13 @@ public class NewJobSender implements EventHandler {
                 final String jobId = path.substring(topicEnd + 1);
 
                 if ( path.indexOf("_", topicEnd + 1) != -1 ) {
+                    final PendingJobIndex index = this.configuration.getPendingJobIndex();
+                    if ( !index.contains(path) ) {
+                        // the job has not been written by this instance or it
+                        // has already been taken, its topic needs to be traversed
+                        index.markUnindexed(topic);
+                    }
+
                     // only job id and topic are guaranteed
                     final Dictionary<String, Object> properties = new Hashtable<String, Object>();
                     properties.put(NotificationConstants.NOTIFICATION_PROPERTY_JOB_ID, jobId);
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.queues;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The concurrency limiter limits the number of jobs a queue processes in parallel.
+ * <p>
+ * With a static limit, this is the maximum number of parallel jobs of the queue
+ * configuration. In adaptive mode the limit is adjusted between a minimum and
+ * this maximum using additive increase / multiplicative decrease: the limit is
+ * increased by one after a full window of healthy jobs (as many as the current
+ * limit) and decreased by a quarter if a job fails, if a job waited too long
+ * for a thread (the thread pool is saturated) or if the processing time of a
+ * job exceeds the latency baseline of the queue by the tolerated factor.
+ * The baseline is the exponentially weighted moving average of the processing
+ * times of the successful jobs.
+ * <p>
+ * The permits are handed out by a fair semaphore, a decrease removes permits
+ * from it and an increase adds one again.
+ */
+public class ConcurrencyLimiter {
+
+    /** Factor by which the processing time might exceed the baseline. */
+    private static final double LATENCY_TOLERANCE = 2.0;
+
+    /** Processing times below this value never count as too slow. */
+    private static final long MIN_LATENCY_THRESHOLD = 10;
+
+    /** Waiting longer than this for a thread means the thread pool is saturated. */
+    private static final long SATURATION_WAIT_TIME = 1000;
+
+    /** Factor applied to the limit on a decrease. */
+    private static final double DECREASE_FACTOR = 0.75;
+
+    /** Weight of a new processing time in the baseline average. */
+    private static final double BASELINE_WEIGHT = 0.1;
+
+    private final boolean adaptive;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    /** The permits for processing jobs. */
+    private final LimitSemaphore permits;
+
+    /** The number of jobs currently processed. */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /** The current limit - changed while holding this. */
+    private volatile int limit;
+
+    /** The latency baseline in ms, negative if unknown - guarded by this. */
+    private double baseline = -1;
+
+    /** Healthy jobs since the last change of the limit - guarded by this. */
+    private int healthyJobs;
+
+    /** Jobs finished since the last decrease - guarded by this. */
+    private int jobsSinceDecrease;
+
+    /**
+     * Create a static limiter.
+     * @param maxLimit The limit
+     */
+    public ConcurrencyLimiter(final int maxLimit) {
+        this(false, maxLimit, maxLimit);
+    }
+
+    /**
+     * Create a limiter.
+     * @param adaptive Whether the limit is adjusted
+     * @param minLimit The minimum limit in adaptive mode
+     * @param maxLimit The maximum limit
+     */
+    public ConcurrencyLimiter(final boolean adaptive, final int minLimit, final int maxLimit) {
+        this.adaptive = adaptive;
+        this.maxLimit = maxLimit;
+        this.minLimit = Math.max(1, Math.min(minLimit, maxLimit));
+        this.limit = maxLimit;
+        this.jobsSinceDecrease = maxLimit;
+        this.permits = new LimitSemaphore(maxLimit);
+    }
+
+    /**
+     * Fair semaphore which can remove permits.
+     */
+    private static final class LimitSemaphore extends Semaphore {
+
+        private static final long serialVersionUID = 1L;
+
+        LimitSemaphore(final int permits) {
+            super(permits, true);
+        }
+
+        void remove(final int count) {
+            this.reducePermits(count);
+        }
+    }
+
+    /**
+     * Try to start a job.
+     * @return {@code true} if the job can be started, in that case {@link #release()} must be called.
+     */
+    public boolean tryAcquire() {
+        if ( this.permits.tryAcquire() ) {
+            this.active.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A job is not processed anymore.
+     */
+    public void release() {
+        this.active.decrementAndGet();
+        this.permits.release();
+    }
+
+    /**
+     * Inform the limiter about a processed job.
+     * For asynchronously processed jobs this is called once the job is finished.
+     * @param waitTime The time in ms the job waited for a thread
+     * @param processingTime The processing time in ms
+     * @param failed Whether the job failed or needs to be retried
+     */
+    public void jobFinished(final long waitTime, final long processingTime, final boolean failed) {
+        if ( !this.adaptive ) {
+            return;
+        }
+        synchronized ( this ) {
+            this.jobsSinceDecrease++;
+            final boolean tooSlow = this.baseline >= 0
+                    && processingTime > MIN_LATENCY_THRESHOLD
+                    && processingTime > this.baseline * LATENCY_TOLERANCE;
+            if ( !failed ) {
+                if ( this.baseline < 0 ) {
+                    this.baseline = processingTime;
+                } else {
+                    this.baseline += (processingTime - this.baseline) * BASELINE_WEIGHT;
+                }
+            }
+
+            if ( failed || tooSlow || waitTime > SATURATION_WAIT_TIME ) {
+                this.healthyJobs = 0;
+                // decrease at most once per window to react to a single overload only once
+                if ( this.jobsSinceDecrease >= this.limit ) {
+                    this.jobsSinceDecrease = 0;
+                    final int newLimit = Math.max(this.minLimit, (int)(this.limit * DECREASE_FACTOR));
+                    if ( newLimit < this.limit ) {
+                        this.permits.remove(this.limit - newLimit);
+                        this.limit = newLimit;
+                    }
+                }
+            } else {
+                this.healthyJobs++;
+                if ( this.healthyJobs >= this.limit ) {
+                    this.healthyJobs = 0;
+                    if ( this.limit < this.maxLimit ) {
+                        this.limit++;
+                        this.permits.release();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Is the limit adjusted at runtime?
+     */
+    public boolean isAdaptive() {
+        return this.adaptive;
+    }
+
+    /**
+     * The current limit.
+     */
+    public int getLimit() {
+        return this.limit;
+    }
+
+    public int getMinLimit() {
+        return this.minLimit;
+    }
+
+    public int getMaxLimit() {
+        return this.maxLimit;
+    }
+
+    /**
+     * The number of jobs currently processed.
+     */
+    public int getActiveCount() {
+        return this.active.get();
+    }
+}
@@ -23,7 +23,6 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -32,8 +31,6 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.sling.api.resource.PersistenceException;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
-import org.apache.sling.commons.threads.ThreadPool;
-import org.apache.sling.event.impl.EventingThreadPool;
 import org.apache.sling.event.impl.jobs.InternalJobState;
 import org.apache.sling.event.impl.jobs.JobHandler;
 import org.apache.sling.event.impl.jobs.JobImpl;
@@ -82,7 +79,8 @@ public class JobQueueImpl
     /** The map of events we're processing. */
     private final Map<String, JobHandler> processingJobsLists = new HashMap<String, JobHandler>();
 
-    private final ThreadPool threadPool;
+    /** The executor running the jobs. */
+    private final QueueExecutor executor;
 
     /** Async counter. */
     private final AtomicInteger asyncCounter = new AtomicInteger();
@@ -102,8 +100,8 @@ public class JobQueueImpl
     /** The job cache. */
     private final QueueJobCache cache;
 
-    /** Semaphore for handling the max number of jobs. */
-    private final Semaphore available;
+    /** Limiter for handling the max number of jobs. */
+    private final ConcurrencyLimiter available;
 
     /** Guard for having only one thread executing start jobs. */
     private final AtomicBoolean startJobsGuard = new AtomicBoolean(false);
@@ -147,19 +145,15 @@ public class JobQueueImpl
                         final InternalQueueConfiguration config,
                         final QueueServices services,
                         final QueueJobCache cache) {
-        if ( config.getOwnThreadPoolSize() > 0 ) {
-            this.threadPool = new EventingThreadPool(services.threadPoolManager, config.getOwnThreadPoolSize());
-        } else {
-            this.threadPool = services.eventingThreadPool;
-        }
+        this.executor = new QueueExecutor(config, services);
         this.queueName = name;
         this.configuration = config;
         this.services = services;
         this.logger = LoggerFactory.getLogger(this.getClass().getName() + '.' + name);
         this.running = true;
         this.cache = cache;
-        this.available = new Semaphore(config.getMaxParallel(), true);
-        logger.info("Starting job queue {}", queueName);
+        this.available = new ConcurrencyLimiter(config.isAdaptiveParallel(), config.getMinParallel(), config.getMaxParallel());
+        logger.info("Starting job queue {} using {}", queueName, this.executor.getExecutionMode());
         logger.debug("Configuration for job queue={}", configuration);
     }
 
@@ -179,6 +173,20 @@ public class JobQueueImpl
         return this.queueName;
     }
 
+    /**
+     * Get the executor running the jobs.
+     */
+    public QueueExecutor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Get the limiter for the number of parallel jobs.
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return this.available;
+    }
+
     /**
      * @see org.apache.sling.event.jobs.Queue#getStatistics()
      */
@@ -202,10 +210,10 @@ public class JobQueueImpl
                             this.services.statisticsManager, this, this.doFullCacheSearch.getAndSet(false));
                     if ( handler != null ) {
                         started = true;
-                        this.threadPool.execute(new Runnable() {
+                        this.executor.execute(new QueueExecutor.Task() {
 
                             @Override
-                            public void run() {
+                            public void run(final long waitTime) {
                                 // update thread priority and name
                                 final Thread currentThread = Thread.currentThread();
                                 final String oldName = currentThread.getName();
@@ -224,7 +232,7 @@ public class JobQueueImpl
                                 }
 
                                 try {
-                                    startJob(handler);
+                                    startJob(handler, waitTime);
                                 } finally {
                                     currentThread.setPriority(oldPriority);
                                     currentThread.setName(oldName);
@@ -249,7 +257,7 @@ public class JobQueueImpl
         }
     }
 
-    private void startJob(final JobHandler handler) {
+    private void startJob(final JobHandler handler, final long waitTime) {
         try {
             this.closeMarker.set(false);
             try {
@@ -281,6 +289,9 @@ public class JobQueueImpl
                     @Override
                     public void finished(final JobState state) {
                         services.jobConsumerManager.unregisterListener(job.getId());
+                        available.jobFinished(waitTime,
+                                System.currentTimeMillis() - handler.started,
+                                state == Job.JobState.QUEUED || state == Job.JobState.ERROR);
                         finishedJob(job.getId(), state, true);
                         asyncCounter.decrementAndGet();
                     }
@@ -320,6 +331,9 @@ public class JobQueueImpl
                         if ( result.getMessage() != null ) {
                            job.setProperty(Job.PROPERTY_RESULT_MESSAGE, result.getMessage());
                         }
+                        this.available.jobFinished(waitTime,
+                                System.currentTimeMillis() - handler.started,
+                                resultState == Job.JobState.QUEUED || resultState == Job.JobState.ERROR);
                         this.finishedJob(job.getId(), resultState, false);
                     }
                 }
@@ -372,7 +386,7 @@ public class JobQueueImpl
         return !this.isSuspended()
             && this.asyncCounter.get() == 0
             && this.waitCounter.get() == 0
-            && this.available.availablePermits() == this.configuration.getMaxParallel();
+            && this.available.getActiveCount() == 0;
     }
 
     /**
@@ -386,9 +400,7 @@ public class JobQueueImpl
         synchronized ( this.processingJobsLists ) {
             this.processingJobsLists.clear();
         }
-        if ( this.configuration.getOwnThreadPoolSize() > 0 ) {
-            ((EventingThreadPool)this.threadPool).release();
-        }
+        this.executor.release();
 
         this.logger.info("Stopped job queue {}", this.queueName);
     }
@@ -632,8 +644,10 @@ public class JobQueueImpl
                 ", suspendedSince=" + this.suspendedSince.get() +
                 ", asyncJobs=" + this.asyncCounter.get() +
                 ", waitCount=" + this.waitCounter.get() +
-                ", jobCount=" + String.valueOf(this.configuration.getMaxParallel() - this.available.availablePermits() +
-                (this.configuration.getType() == Type.ORDERED ? ", isSleepingUntil=" + this.isSleepingUntil : ""));
+                ", jobCount=" + String.valueOf(this.available.getActiveCount() +
+                (this.available.isAdaptive() ? ", parallelLimit=" + this.available.getLimit() : "") +
+                (this.configuration.getType() == Type.ORDERED ? ", isSleepingUntil=" + this.isSleepingUntil : "")) +
+                ", " + this.executor;
     }
 
     /**
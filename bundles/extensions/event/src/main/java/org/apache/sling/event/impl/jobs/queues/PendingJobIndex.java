@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.queues;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.sling.event.impl.jobs.JobImpl;
+
+/**
+ * In memory index of the jobs assigned to this instance which have not been
+ * started yet. The index is partitioned by topic, each partition keeps its
+ * jobs in the order of the queue, so the next job of a topic can be taken
+ * without traversing the job resources.
+ * <p>
+ * The index is filled when a job is written by the job manager of this
+ * instance. Jobs written by other instances and jobs which already exist when
+ * the instance starts are still found by the {@link QueueJobCache} traversing
+ * the resource tree: if the resource added event is received for a job which
+ * is not indexed, the topic is marked to be traversed.
+ * <p>
+ * A job might be loaded by a traversal of its topic between being written and
+ * being indexed. Therefore a job is only indexed if no traversal of its topic
+ * has been started since the job has been written. Otherwise the topic is
+ * marked to be traversed again, which finds the job if it has not been loaded.
+ */
+public class PendingJobIndex {
+
+    /** The maximum number of jobs kept per topic. */
+    private static final int DEFAULT_MAX_JOBS_PER_TOPIC = 10000;
+
+    /** Partitions by topic. */
+    private final ConcurrentMap<String, Partition> partitions = new ConcurrentHashMap<String, Partition>();
+
+    /** All indexed jobs by resource path. */
+    private final Map<String, JobImpl> jobsByPath = new ConcurrentHashMap<String, JobImpl>();
+
+    private final int maxJobsPerTopic;
+
+    public PendingJobIndex() {
+        this(DEFAULT_MAX_JOBS_PER_TOPIC);
+    }
+
+    public PendingJobIndex(final int maxJobsPerTopic) {
+        this.maxJobsPerTopic = maxJobsPerTopic;
+    }
+
+    /**
+     * The jobs of a single topic.
+     */
+    private static final class Partition {
+
+        /** The jobs in queue order. */
+        final TreeSet<JobImpl> jobs = new TreeSet<JobImpl>();
+
+        /** Set if the topic contains jobs which are not indexed. */
+        boolean overflow;
+
+        /** The number of traversals started. */
+        long traversals;
+
+        /** The number of traversals in progress. */
+        int activeTraversals;
+    }
+
+    private Partition getPartition(final String topic) {
+        Partition p = this.partitions.get(topic);
+        if ( p == null ) {
+            final Partition newPartition = new Partition();
+            p = this.partitions.putIfAbsent(topic, newPartition);
+            if ( p == null ) {
+                p = newPartition;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Get the number of traversals started for a topic. This must be called
+     * before a job of the topic is written and passed to {@link #add(JobImpl, long)}.
+     * @param topic The topic
+     * @return The traversal count
+     */
+    public long getTraversalCount(final String topic) {
+        final Partition p = this.getPartition(topic);
+        synchronized ( p ) {
+            return p.traversals;
+        }
+    }
+
+    /**
+     * Add a job which has not been started yet.
+     * @param job The job
+     * @param traversalCount The traversal count of the topic before the job has been written
+     * @return {@code true} if the job is indexed.
+     */
+    public boolean add(final JobImpl job, final long traversalCount) {
+        final Partition p = this.getPartition(job.getTopic());
+        synchronized ( p ) {
+            if ( this.jobsByPath.containsKey(job.getResourcePath()) ) {
+                return false;
+            }
+            if ( p.activeTraversals > 0 || p.traversals != traversalCount
+                 || p.jobs.size() >= this.maxJobsPerTopic ) {
+                // the job might have been loaded by a traversal or the partition is full
+                p.overflow = true;
+                return false;
+            }
+            p.jobs.add(job);
+            this.jobsByPath.put(job.getResourcePath(), job);
+        }
+        return true;
+    }
+
+    /**
+     * Is the job with the given resource path indexed?
+     * @param path The resource path of the job
+     * @return {@code true} if the job is indexed
+     */
+    public boolean contains(final String path) {
+        return this.jobsByPath.containsKey(path);
+    }
+
+    /**
+     * Take the next jobs of a topic.
+     * @param topic The topic
+     * @param max The maximum number of jobs to take
+     * @return The jobs in queue order, might be empty.
+     */
+    public List<JobImpl> poll(final String topic, final int max) {
+        final List<JobImpl> result = new ArrayList<JobImpl>();
+        final Partition p = this.partitions.get(topic);
+        if ( p != null ) {
+            synchronized ( p ) {
+                while ( result.size() < max && !p.jobs.isEmpty() ) {
+                    final JobImpl job = p.jobs.pollFirst();
+                    this.jobsByPath.remove(job.getResourcePath());
+                    result.add(job);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inform the index that a traversal of the topic starts.
+     * Jobs loaded by the traversal must be passed to {@link #handled(JobImpl)}
+     * and the end of the traversal to {@link #traversalFinished(String)}.
+     * @param topic The topic
+     */
+    public void traversalStarted(final String topic) {
+        final Partition p = this.getPartition(topic);
+        synchronized ( p ) {
+            p.traversals++;
+            p.activeTraversals++;
+        }
+    }
+
+    /**
+     * Inform the index that a traversal of the topic has finished.
+     * @param topic The topic
+     */
+    public void traversalFinished(final String topic) {
+        final Partition p = this.getPartition(topic);
+        synchronized ( p ) {
+            if ( p.activeTraversals > 0 ) {
+                p.activeTraversals--;
+            }
+        }
+    }
+
+    /**
+     * Inform the index that a job has been loaded by a traversal.
+     * The job is removed from the index.
+     * @param job The job
+     */
+    public void handled(final JobImpl job) {
+        final Partition p = this.getPartition(job.getTopic());
+        synchronized ( p ) {
+            final JobImpl indexed = this.jobsByPath.remove(job.getResourcePath());
+            if ( indexed != null ) {
+                p.jobs.remove(indexed);
+            }
+        }
+    }
+
+    /**
+     * Inform the index that the topic contains a job which is not indexed,
+     * e.g. as it has been written by another instance.
+     * @param topic The topic
+     */
+    public void markUnindexed(final String topic) {
+        final Partition p = this.getPartition(topic);
+        synchronized ( p ) {
+            p.overflow = true;
+        }
+    }
+
+    /**
+     * Remove the job with the given resource path.
+     * @param path The resource path of the removed job
+     */
+    public void remove(final String path) {
+        final JobImpl job = this.jobsByPath.get(path);
+        if ( job != null ) {
+            final Partition p = this.getPartition(job.getTopic());
+            synchronized ( p ) {
+                if ( this.jobsByPath.remove(path) != null ) {
+                    p.jobs.remove(job);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all jobs below the path of a removed folder.
+     * @param path The removed path
+     */
+    public void removeTree(final String path) {
+        final String prefix = path.concat("/");
+        for(final Partition p : this.partitions.values()) {
+            synchronized ( p ) {
+                final Iterator<JobImpl> iter = p.jobs.iterator();
+                while ( iter.hasNext() ) {
+                    final JobImpl job = iter.next();
+                    if ( job.getResourcePath().startsWith(prefix) ) {
+                        iter.remove();
+                        this.jobsByPath.remove(job.getResourcePath());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Does the index contain jobs for the topic?
+     * @param topic The topic
+     * @return {@code true} if there is at least one job.
+     */
+    public boolean hasJobs(final String topic) {
+        final Partition p = this.partitions.get(topic);
+        if ( p != null ) {
+            synchronized ( p ) {
+                return !p.jobs.isEmpty();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check and reset whether the topic contains jobs which are not indexed.
+     * If so, the topic needs to be traversed to find those jobs.
+     * @param topic The topic
+     * @return {@code true} if jobs have not been indexed
+     */
+    public boolean resetOverflow(final String topic) {
+        final Partition p = this.partitions.get(topic);
+        if ( p != null ) {
+            synchronized ( p ) {
+                final boolean result = p.overflow;
+                p.overflow = false;
+                return result;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The topics with indexed jobs.
+     */
+    public Set<String> getTopics() {
+        final Set<String> topics = new HashSet<String>();
+        for(final JobImpl job : this.jobsByPath.values()) {
+            topics.add(job.getTopic());
+        }
+        return topics;
+    }
+
+    /**
+     * The number of indexed jobs.
+     */
+    public int size() {
+        return this.jobsByPath.size();
+    }
+
+    /**
+     * Remove all jobs, e.g. if the topology changes.
+     * The traversal counts are kept for the jobs currently being written.
+     */
+    public void clear() {
+        for(final Partition p : this.partitions.values()) {
+            synchronized ( p ) {
+                for(final JobImpl job : p.jobs) {
+                    this.jobsByPath.remove(job.getResourcePath());
+                }
+                p.jobs.clear();
+                p.overflow = false;
+            }
+        }
+    }
+}
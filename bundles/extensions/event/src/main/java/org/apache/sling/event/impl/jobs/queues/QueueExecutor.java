@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.queues;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.sling.commons.threads.ThreadPool;
+import org.apache.sling.event.impl.EventingThreadPool;
+import org.apache.sling.event.impl.jobs.config.InternalQueueConfiguration;
+import org.apache.sling.event.impl.jobs.config.InternalQueueConfiguration.ExecutionMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The queue executor runs the jobs of a queue, depending on the
+ * {@link ExecutionMode} of the queue configuration, either on a thread pool,
+ * on a work stealing fork join pool or on virtual threads.
+ * The number of parallel jobs is limited by the queue, not by the executor.
+ * <p>
+ * The executor measures for each job the time between submitting and starting
+ * it (wait time) and the time it took to run it (execution time).
+ * <p>
+ * Jobs usually block on I/O, on a fork join pool they are therefore run as a
+ * {@link ForkJoinPool.ManagedBlocker}, so the pool can compensate blocked workers.
+ */
+public class QueueExecutor {
+
+    /** Logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueueExecutor.class);
+
+    /** The thread pool, if the thread pool mode is used. */
+    private final ThreadPool threadPool;
+
+    /** Whether the thread pool has been created for this executor. */
+    private final boolean ownThreadPool;
+
+    /** The executor service for fork join or virtual threads. */
+    private final ExecutorService executorService;
+
+    /** The execution mode in use. */
+    private final ExecutionMode mode;
+
+    private final AtomicLong executedCount = new AtomicLong();
+
+    private final AtomicLong totalWaitTime = new AtomicLong();
+
+    private final AtomicLong totalExecutionTime = new AtomicLong();
+
+    private final AtomicLong maxWaitTime = new AtomicLong();
+
+    /**
+     * Create a new executor for the queue.
+     * @param config The queue configuration
+     * @param services The queue services
+     */
+    public QueueExecutor(final InternalQueueConfiguration config, final QueueServices services) {
+        ExecutionMode executionMode = config.getExecutionMode();
+        ExecutorService service = null;
+        if ( executionMode == ExecutionMode.VIRTUAL_THREADS ) {
+            service = createVirtualThreadExecutor();
+            if ( service == null ) {
+                LOGGER.warn("Virtual threads are not supported by this JVM, using a fork join pool for queue {}", config.getName());
+                executionMode = ExecutionMode.FORK_JOIN;
+            }
+        }
+        if ( executionMode == ExecutionMode.FORK_JOIN ) {
+            service = new ForkJoinPool(Math.max(1, config.getMaxParallel()),
+                    ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+                    null,
+                    true);
+        }
+        this.mode = executionMode;
+        this.executorService = service;
+        if ( service != null ) {
+            this.threadPool = null;
+            this.ownThreadPool = false;
+        } else if ( config.getOwnThreadPoolSize() > 0 ) {
+            this.threadPool = new EventingThreadPool(services.threadPoolManager, config.getOwnThreadPoolSize());
+            this.ownThreadPool = true;
+        } else {
+            this.threadPool = services.eventingThreadPool;
+            this.ownThreadPool = false;
+        }
+    }
+
+    /**
+     * Create an executor starting a virtual thread per task, if supported by the JVM.
+     * @return The executor or {@code null}
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            final Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch ( final NoSuchMethodException nsme ) {
+            return null;
+        } catch ( final Exception e ) {
+            LOGGER.debug("Unable to create virtual thread executor", e);
+            return null;
+        }
+    }
+
+    /**
+     * The execution mode in use. This might differ from the configured mode
+     * if virtual threads are not supported.
+     */
+    public ExecutionMode getExecutionMode() {
+        return this.mode;
+    }
+
+    /**
+     * A task run by the executor, which gets the time it waited for the executor.
+     */
+    public interface Task {
+
+        /**
+         * Run the task.
+         * @param waitTime The time in milliseconds the task waited for the executor
+         */
+        void run(long waitTime);
+    }
+
+    /**
+     * Execute a job.
+     * @param runnable The job runnable
+     */
+    public void execute(final Runnable runnable) {
+        this.execute(new Task() {
+
+            @Override
+            public void run(final long waitTime) {
+                runnable.run();
+            }
+        });
+    }
+
+    /**
+     * Execute a job.
+     * @param job The job task
+     */
+    public void execute(final Task job) {
+        final long submitted = System.currentTimeMillis();
+        final Runnable task = new Runnable() {
+
+            @Override
+            public void run() {
+                final long started = System.currentTimeMillis();
+                final Runnable runnable = new Runnable() {
+
+                    @Override
+                    public void run() {
+                        job.run(started - submitted);
+                    }
+                };
+                try {
+                    if ( mode == ExecutionMode.FORK_JOIN ) {
+                        runBlocking(runnable);
+                    } else {
+                        runnable.run();
+                    }
+                } finally {
+                    jobExecuted(started - submitted, System.currentTimeMillis() - started);
+                }
+            }
+        };
+        if ( this.executorService != null ) {
+            this.executorService.execute(task);
+        } else {
+            this.threadPool.execute(task);
+        }
+    }
+
+    /**
+     * Run a job on a fork join worker as a managed blocker.
+     */
+    private static void runBlocking(final Runnable runnable) {
+        final ForkJoinPool.ManagedBlocker blocker = new ForkJoinPool.ManagedBlocker() {
+
+            private volatile boolean done;
+
+            @Override
+            public boolean block() {
+                try {
+                    runnable.run();
+                } finally {
+                    done = true;
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return done;
+            }
+        };
+        try {
+            ForkJoinPool.managedBlock(blocker);
+        } catch ( final InterruptedException ie ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void jobExecuted(final long waitTime, final long executionTime) {
+        this.executedCount.incrementAndGet();
+        this.totalWaitTime.addAndGet(waitTime);
+        this.totalExecutionTime.addAndGet(executionTime);
+        long max = this.maxWaitTime.get();
+        while ( waitTime > max && !this.maxWaitTime.compareAndSet(max, waitTime) ) {
+            max = this.maxWaitTime.get();
+        }
+    }
+
+    /**
+     * The number of executed jobs.
+     */
+    public long getExecutedCount() {
+        return this.executedCount.get();
+    }
+
+    /**
+     * The average time in milliseconds a job waited for the executor.
+     */
+    public long getAverageWaitTime() {
+        final long count = this.executedCount.get();
+        return count == 0 ? 0 : this.totalWaitTime.get() / count;
+    }
+
+    /**
+     * The maximum time in milliseconds a job waited for the executor.
+     */
+    public long getMaxWaitTime() {
+        return this.maxWaitTime.get();
+    }
+
+    /**
+     * The average time in milliseconds it took to execute a job.
+     * For asynchronous jobs, this is only the time until the consumer returned.
+     */
+    public long getAverageExecutionTime() {
+        final long count = this.executedCount.get();
+        return count == 0 ? 0 : this.totalExecutionTime.get() / count;
+    }
+
+    /**
+     * Release the resources of this executor.
+     */
+    public void release() {
+        if ( this.executorService != null ) {
+            this.executorService.shutdown();
+        } else if ( this.ownThreadPool ) {
+            ((EventingThreadPool)this.threadPool).release();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "mode=" + this.mode +
+                ", executedJobs=" + this.getExecutedCount() +
+                ", averageWaitTime=" + this.getAverageWaitTime() +
+                ", maxWaitTime=" + this.getMaxWaitTime() +
+                ", averageExecutionTime=" + this.getAverageExecutionTime();
+    }
+}
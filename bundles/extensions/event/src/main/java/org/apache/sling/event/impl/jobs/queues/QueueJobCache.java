@@ -48,6 +48,11 @@ import org.slf4j.LoggerFactory;
 /**
  * The queue job cache caches jobs per queue based on the topics the queue is actively
  * processing.
+ * <p>
+ * New jobs are taken from the {@link PendingJobIndex}. The job resources of a topic
+ * are only traversed when the queue is created, on a full scan, if more jobs than
+ * the preload limit are found by a traversal or if the topic contains jobs which
+ * are not indexed.
  */
 public class QueueJobCache {
 
@@ -116,6 +121,15 @@ public class QueueJobCache {
                 result = this.topicsWithNewJobs.isEmpty();
             }
         }
+        if ( result ) {
+            final PendingJobIndex index = this.configuration.getPendingJobIndex();
+            for(final String topic : this.topics) {
+                if ( index.hasJobs(topic) ) {
+                    result = false;
+                    break;
+                }
+            }
+        }
         return result;
     }
 
@@ -131,7 +145,9 @@ public class QueueJobCache {
         final Set<String> checkingTopics = new HashSet<String>();
         checkingTopics.addAll(this.topics);
         if ( !checkingTopics.isEmpty() ) {
-            this.loadJobs(queueName, checkingTopics, statisticsManager);
+            final Map<String, List<JobImpl>> topicCache = new HashMap<String, List<JobImpl>>();
+            this.loadJobs(queueName, checkingTopics, statisticsManager, topicCache);
+            orderTopics(topicCache);
         }
     }
 
@@ -140,6 +156,8 @@ public class QueueJobCache {
      * This method is potentially called concurrently, and
      * {@link #reschedule(String, JobHandler, StatisticsManager)} and {@link #handleNewTopics(Set)}
      * can be called concurrently.
+     * If the cache is empty, jobs are loaded by traversing the topics with new jobs
+     * and taken from the pending job index for all other topics.
      * @param jobConsumerManager The job consumer manager
      * @param statisticsManager The statistics manager
      * @param queue The queue
@@ -166,8 +184,15 @@ public class QueueJobCache {
                         if ( doFull ) {
                             checkingTopics.addAll(this.topics);
                         }
+                        final Map<String, List<JobImpl>> topicCache = new HashMap<String, List<JobImpl>>();
                         if ( !checkingTopics.isEmpty() ) {
-                            this.loadJobs(queue.getName(), checkingTopics, statisticsManager);
+                            this.loadJobs(queue.getName(), checkingTopics, statisticsManager, topicCache);
+                        }
+                        // indexed jobs of the other topics are ordered together with the loaded jobs
+                        this.loadIndexedJobs(queue.getName(), checkingTopics, statisticsManager, topicCache);
+                        if ( !topicCache.isEmpty() ) {
+                            orderTopics(topicCache);
+                            logger.debug("Loaded {} jobs", this.cache.size());
                         }
                     }
 
@@ -204,13 +229,13 @@ public class QueueJobCache {
     /**
      * Load the next N x numberOf(topics) jobs
      * @param checkingTopics The set of topics to check.
+     * @param topicCache The topic based cache which is filled with the jobs
      */
     private void loadJobs( final String queueName, final Set<String> checkingTopics,
-            final StatisticsManager statisticsManager) {
+            final StatisticsManager statisticsManager,
+            final Map<String, List<JobImpl>> topicCache) {
         logger.debug("Starting jobs loading from {}...", checkingTopics);
 
-        final Map<String, List<JobImpl>> topicCache = new HashMap<String, List<JobImpl>>();
-
         final ResourceResolver resolver = this.configuration.createResourceResolver();
         try {
             final Resource baseResource = resolver.getResource(this.configuration.getLocalJobsPath());
@@ -227,9 +252,39 @@ public class QueueJobCache {
         } finally {
             resolver.close();
         }
-        orderTopics(topicCache);
 
-        logger.debug("Finished jobs loading {}", this.cache.size());
+        logger.debug("Finished jobs loading for {} topics", topicCache.size());
+    }
+
+    /**
+     * Load the next N x numberOf(topics) jobs from the pending job index.
+     * @param loadedTopics The topics which have just been loaded by a traversal
+     * @param topicCache The topic based cache which is filled with the jobs
+     */
+    private void loadIndexedJobs(final String queueName,
+            final Set<String> loadedTopics,
+            final StatisticsManager statisticsManager,
+            final Map<String, List<JobImpl>> topicCache) {
+        final PendingJobIndex index = this.configuration.getPendingJobIndex();
+        for(final String topic : this.topics) {
+            if ( loadedTopics.contains(topic) ) {
+                // the traversal has loaded the oldest jobs of the topic
+                continue;
+            }
+            final List<JobImpl> list = index.poll(topic, maxPreloadLimit);
+            if ( !list.isEmpty() ) {
+                for(int i = 0; i < list.size(); i++) {
+                    statisticsManager.jobQueued(queueName, topic);
+                }
+                topicCache.put(topic, list);
+            }
+            if ( index.resetOverflow(topic) ) {
+                // jobs have been rejected by the index, they need to be loaded from the resource tree
+                synchronized ( this.topicsWithNewJobs ) {
+                    this.topicsWithNewJobs.add(topic);
+                }
+            }
+        }
     }
 
     /**
@@ -274,32 +329,38 @@ public class QueueJobCache {
 
         final AtomicBoolean scanTopic = new AtomicBoolean(false);
 
-        JobTopicTraverser.traverse(logger, topicResource, new JobTopicTraverser.JobCallback() {
-
-            @Override
-            public boolean handle(final JobImpl job) {
-                if ( job.getProcessingStarted() == null && !job.hasReadErrors() ) {
-                    list.add(job);
-                    statisticsManager.jobQueued(queueName, topic);
-                    if ( list.size() == maxPreloadLimit ) {
-                        scanTopic.set(true);
-                    }
-                } else if ( job.getProcessingStarted() != null ) {
-                    logger.debug("Ignoring job {} - processing already started.", job);
-                } else {
-                    // error reading job
-                    scanTopic.set(true);
-                    if ( job.isReadErrorRecoverable() ) {
-                        logger.debug("Ignoring job {} due to recoverable read errors.", job);
+        configuration.getPendingJobIndex().traversalStarted(topic);
+        try {
+            JobTopicTraverser.traverse(logger, topicResource, new JobTopicTraverser.JobCallback() {
+
+                @Override
+                public boolean handle(final JobImpl job) {
+                    if ( job.getProcessingStarted() == null && !job.hasReadErrors() ) {
+                        list.add(job);
+                        configuration.getPendingJobIndex().handled(job);
+                        statisticsManager.jobQueued(queueName, topic);
+                        if ( list.size() == maxPreloadLimit ) {
+                            scanTopic.set(true);
+                        }
+                    } else if ( job.getProcessingStarted() != null ) {
+                        logger.debug("Ignoring job {} - processing already started.", job);
                     } else {
-                        logger.debug("Failing job {} due to unrecoverable read errors.", job);
-                        final JobHandler handler = new JobHandler(job, null, configuration);
-                        handler.finished(JobState.ERROR, true, null);
+                        // error reading job
+                        scanTopic.set(true);
+                        if ( job.isReadErrorRecoverable() ) {
+                            logger.debug("Ignoring job {} due to recoverable read errors.", job);
+                        } else {
+                            logger.debug("Failing job {} due to unrecoverable read errors.", job);
+                            final JobHandler handler = new JobHandler(job, null, configuration);
+                            handler.finished(JobState.ERROR, true, null);
+                        }
                     }
+                    return list.size() < maxPreloadLimit;
                 }
-                return list.size() < maxPreloadLimit;
-            }
-        });
+            });
+        } finally {
+            configuration.getPendingJobIndex().traversalFinished(topic);
+        }
         if ( scanTopic.get() ) {
             synchronized ( this.topicsWithNewJobs ) {
                 this.topicsWithNewJobs.add(topic);
@@ -316,8 +377,14 @@ public class QueueJobCache {
      */
     public void handleNewTopics(final Set<String> topics) {
         logger.debug("Update cache to handle new event for topics {}", topics);
+        final PendingJobIndex index = this.configuration.getPendingJobIndex();
         synchronized ( this.topicsWithNewJobs ) {
-            this.topicsWithNewJobs.addAll(topics);
+            for(final String topic : topics) {
+                // the new jobs of indexed topics are taken from the index
+                if ( !index.hasJobs(topic) ) {
+                    this.topicsWithNewJobs.add(topic);
+                }
+            }
         }
         this.topics.addAll(topics);
     }
@@ -301,6 +301,8 @@ public class QueueManager
         // check if we're still active
         final JobManagerConfiguration config = this.configuration;
         if ( config != null ) {
+            // the jobs might be assigned to other instances now
+            config.getPendingJobIndex().clear();
             final List<Job> rescheduleList = this.configuration.clearJobRetryList();
             for(final Job j : rescheduleList) {
                 final JobHandler jh = new JobHandler((JobImpl)j, null, this.configuration);
@@ -0,0 +1,722 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.stats;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.jackrabbit.util.ISO8601;
+import org.apache.sling.api.SlingConstants;
+import org.apache.sling.api.resource.QuerySyntaxException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceUtil;
+import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.event.impl.jobs.JobImpl;
+import org.apache.sling.event.impl.jobs.Utility;
+import org.apache.sling.event.impl.jobs.config.JobManagerConfiguration;
+import org.apache.sling.event.impl.support.ResourceHelper;
+import org.apache.sling.event.jobs.Job;
+import org.apache.sling.event.jobs.Job.JobState;
+import org.apache.sling.event.jobs.JobManager.QueryType;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The job index keeps topic, state and the creation or finish date of all jobs
+ * in memory to answer {@link org.apache.sling.event.jobs.JobManager#findJobs(QueryType, String, long, Map...)}
+ * for a topic and a query type without querying the whole job tree. Templates
+ * are matched against the jobs read for the candidates selected from the index.
+ * <p>
+ * The index is loaded with a single query when it is used for the first time
+ * and reloaded once an hour. In between, the resource events for the job tree
+ * and the jobs added by this instance mark the changed paths, which are read
+ * again before the next search.
+ * <p>
+ * Searches only hold the read lock while selecting the paths of the candidates,
+ * the jobs are read afterwards. The reload query is run without holding the
+ * lock, searches use the previous entries until the new ones are swapped in.
+ */
+public class JobIndex implements EventHandler {
+
+    /** The time after which the index is loaded again. */
+    private static final long RELOAD_INTERVAL = TimeUnit.HOURS.toMillis(1);
+
+    /** The minimum number of candidates selected at once when matching templates. */
+    private static final long MIN_TEMPLATE_BATCH = 100;
+
+    /** Logger. */
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /** The job manager configuration. */
+    private final JobManagerConfiguration configuration;
+
+    /** Paths changed since the last search, tracked once the index is used. */
+    private final Set<String> changedPaths = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /** Whether changes are tracked. */
+    private volatile boolean active;
+
+    /** Whether the index is currently reloaded. */
+    private volatile boolean reloading;
+
+    /** Time of the last load, 0 if not loaded. */
+    private volatile long loadTime;
+
+    /** Only one search loads or refreshes the index. */
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    /** Guards the entries and the buckets. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** All entries by path - guarded by lock. */
+    private NavigableMap<String, Entry> entries = new TreeMap<String, Entry>();
+
+    /** The entries by topic and state - guarded by lock. */
+    private Map<String, Map<JobState, TreeSet<Entry>>> buckets = new HashMap<String, Map<JobState, TreeSet<Entry>>>();
+
+    /** Unfinished jobs are returned in the order of creation. */
+    private static final Comparator<Entry> CREATED_ORDER = new Comparator<Entry>() {
+
+        @Override
+        public int compare(final Entry o1, final Entry o2) {
+            if ( o1.time != o2.time ) {
+                return o1.time < o2.time ? -1 : 1;
+            }
+            return o1.path.compareTo(o2.path);
+        }
+    };
+
+    /** Finished jobs are returned starting with the last finished one. */
+    private static final Comparator<Entry> FINISHED_ORDER = new Comparator<Entry>() {
+
+        @Override
+        public int compare(final Entry o1, final Entry o2) {
+            if ( o1.time != o2.time ) {
+                return o1.time > o2.time ? -1 : 1;
+            }
+            return o1.path.compareTo(o2.path);
+        }
+    };
+
+    /**
+     * The indexed information of a job: the creation date of an unfinished job
+     * or the finish date of a finished job and the bucket containing the entry.
+     */
+    private static final class Entry {
+
+        final String path;
+
+        final long time;
+
+        /** The bucket of the entry - guarded by lock. */
+        TreeSet<Entry> bucket;
+
+        Entry(final String path, final long time) {
+            this.path = path;
+            this.time = time;
+        }
+    }
+
+    /**
+     * The topic and state of a job read from the resource tree.
+     */
+    private static final class Update {
+
+        final String topic;
+
+        final JobState state;
+
+        final Entry entry;
+
+        Update(final String topic, final JobState state, final Entry entry) {
+            this.topic = topic;
+            this.state = state;
+            this.entry = entry;
+        }
+    }
+
+    public JobIndex(final JobManagerConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Mark the changed resources of the job tree.
+     * @see org.osgi.service.event.EventHandler#handleEvent(org.osgi.service.event.Event)
+     */
+    @Override
+    public void handleEvent(final Event event) {
+        final String path = (String) event.getProperty(SlingConstants.PROPERTY_PATH);
+        if ( path != null ) {
+            this.changed(path);
+        }
+    }
+
+    /**
+     * Mark a path as changed, it is read again before the next search.
+     * This is used for the jobs added by this instance, so they are
+     * found right away and not only after the resource event.
+     * @param path The path of the job or of a removed folder
+     */
+    public void changed(final String path) {
+        if ( this.active ) {
+            this.changedPaths.add(path);
+        }
+    }
+
+    /** The comparison of a template entry. */
+    private enum Operation {
+        LESS,
+        LESS_OR_EQUALS,
+        EQUALS,
+        GREATER_OR_EQUALS,
+        GREATER
+    }
+
+    /**
+     * A parsed template: all of its properties must match. The property names
+     * might be prefixed with an operation, an unprefixed name is compared for
+     * equality.
+     */
+    private static final class Template {
+
+        private final List<String> names = new ArrayList<String>();
+
+        private final List<Operation> operations = new ArrayList<Operation>();
+
+        private final List<Object> values = new ArrayList<Object>();
+
+        /**
+         * Parse the templates, empty templates are skipped.
+         */
+        static List<Template> parse(final Map<String, Object>... templates) {
+            final List<Template> result = new ArrayList<Template>();
+            if ( templates != null ) {
+                for(final Map<String, Object> template : templates) {
+                    if ( template == null || template.size() == 0 ) {
+                        continue;
+                    }
+                    final Template t = new Template();
+                    for(final Map.Entry<String, Object> current : template.entrySet()) {
+                        final String key = current.getKey();
+                        final char firstChar = key.length() > 0 ? key.charAt(0) : 0;
+                        final char secondChar = key.length() > 1 ? key.charAt(1) : 0;
+                        if ( firstChar == '=' ) {
+                            t.add(key.substring(1), Operation.EQUALS, current.getValue());
+                        } else if ( firstChar == '<' && secondChar == '=' ) {
+                            t.add(key.substring(2), Operation.LESS_OR_EQUALS, current.getValue());
+                        } else if ( firstChar == '<' ) {
+                            t.add(key.substring(1), Operation.LESS, current.getValue());
+                        } else if ( firstChar == '>' && secondChar == '=' ) {
+                            t.add(key.substring(2), Operation.GREATER_OR_EQUALS, current.getValue());
+                        } else if ( firstChar == '>' ) {
+                            t.add(key.substring(1), Operation.GREATER, current.getValue());
+                        } else {
+                            t.add(key, Operation.EQUALS, current.getValue());
+                        }
+                    }
+                    result.add(t);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Check whether the job matches one of the templates. A job matches
+         * if there are no templates.
+         */
+        static boolean matches(final List<Template> templates, final Job job) {
+            if ( templates.isEmpty() ) {
+                return true;
+            }
+            for(final Template t : templates) {
+                if ( t.matches(job) ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void add(final String name, final Operation op, final Object value) {
+            this.names.add(name);
+            this.operations.add(op);
+            this.values.add(value);
+        }
+
+        private boolean matches(final Job job) {
+            for(int i = 0; i < this.names.size(); i++) {
+                final Object value = job.getProperty(this.names.get(i));
+                if ( !matches(value, this.operations.get(i), this.values.get(i)) ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * A multi value property matches if one of its values matches.
+         */
+        private static boolean matches(final Object value, final Operation op, final Object expected) {
+            if ( value == null || expected == null ) {
+                return false;
+            }
+            if ( value instanceof Object[] ) {
+                for(final Object v : (Object[])value) {
+                    if ( matches(v, op, expected) ) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            final Integer result = compare(value, expected);
+            if ( result == null ) {
+                return false;
+            }
+            switch ( op ) {
+                case LESS : return result < 0;
+                case LESS_OR_EQUALS : return result <= 0;
+                case GREATER : return result > 0;
+                case GREATER_OR_EQUALS : return result >= 0;
+                default : return result == 0;
+            }
+        }
+
+        /**
+         * Compare the value of the job with the template value. Like in a query
+         * the template value is converted to the type of the property.
+         * @return The comparison result or {@code null} if the value can't be converted
+         */
+        private static Integer compare(final Object value, final Object expected) {
+            if ( value instanceof Calendar ) {
+                final Calendar other;
+                if ( expected instanceof Calendar ) {
+                    other = (Calendar)expected;
+                } else if ( expected instanceof Date ) {
+                    other = Calendar.getInstance();
+                    other.setTime((Date)expected);
+                } else {
+                    other = ISO8601.parse(expected.toString());
+                }
+                if ( other == null ) {
+                    return null;
+                }
+                return ((Calendar)value).compareTo(other);
+            }
+            if ( value instanceof Number ) {
+                if ( (value instanceof Long || value instanceof Integer)
+                     && (expected instanceof Long || expected instanceof Integer) ) {
+                    final long l1 = ((Number)value).longValue();
+                    final long l2 = ((Number)expected).longValue();
+                    return l1 < l2 ? -1 : (l1 == l2 ? 0 : 1);
+                }
+                try {
+                    final double other = expected instanceof Number ? ((Number)expected).doubleValue()
+                            : Double.parseDouble(expected.toString());
+                    return Double.compare(((Number)value).doubleValue(), other);
+                } catch ( final NumberFormatException nfe ) {
+                    return null;
+                }
+            }
+            if ( value instanceof Boolean ) {
+                return ((Boolean)value).compareTo(Boolean.valueOf(expected.toString()));
+            }
+            return value.toString().compareTo(expected.toString());
+        }
+    }
+
+    /**
+     * Find jobs.
+     * @param resolver The resource resolver used to read the index and the jobs
+     * @param type The query type
+     * @param topic The topic or {@code null} for all topics
+     * @param limit The maximum number of jobs, a value lower than 1 means no limit
+     * @param templates The templates, a job matching one of them is returned
+     * @return The jobs
+     * @see org.apache.sling.event.jobs.JobManager#findJobs(QueryType, String, long, Map...)
+     */
+    public List<Job> find(final ResourceResolver resolver,
+            final QueryType type,
+            final String topic,
+            final long limit,
+            final Map<String, Object>... templates) {
+        this.update(resolver);
+
+        final List<Template> matchers = Template.parse(templates);
+        final List<Job> result = new ArrayList<Job>();
+        Entry last = null;
+        while ( true ) {
+            final long max;
+            if ( limit < 1 ) {
+                max = -1;
+            } else if ( matchers.isEmpty() ) {
+                max = limit - result.size();
+            } else {
+                max = Math.max(limit - result.size(), MIN_TEMPLATE_BATCH);
+            }
+            final List<Entry> candidates = this.select(type, topic, last, max);
+            if ( candidates.isEmpty() ) {
+                break;
+            }
+            for(final Entry entry : candidates) {
+                final JobImpl job = Utility.readJob(logger, resolver.getResource(entry.path));
+                if ( job != null && Template.matches(matchers, job) ) {
+                    result.add(job);
+                    if ( limit > 0 && result.size() >= limit ) {
+                        break;
+                    }
+                }
+            }
+            // without a limit all candidates are selected at once,
+            // with a limit select more if some jobs have been removed meanwhile
+            // or did not match the templates
+            if ( limit < 1 || result.size() >= limit ) {
+                break;
+            }
+            last = candidates.get(candidates.size() - 1);
+        }
+        return result;
+    }
+
+    /**
+     * Select the entries for a search.
+     * @param type The query type
+     * @param topic The topic or {@code null}
+     * @param last The last entry of the previous selection or {@code null}
+     * @param max The maximum number of entries or -1
+     * @return The selected entries in search order
+     */
+    private List<Entry> select(final QueryType type, final String topic, final Entry last, final long max) {
+        final boolean isHistoryQuery = type != QueryType.ALL
+                && type != QueryType.ACTIVE
+                && type != QueryType.QUEUED;
+        final Set<JobState> states = getStates(type);
+
+        final List<Entry> result = new ArrayList<Entry>();
+        this.lock.readLock().lock();
+        try {
+            final List<Iterator<Entry>> candidates = new ArrayList<Iterator<Entry>>();
+            for(final Map.Entry<String, Map<JobState, TreeSet<Entry>>> topicBuckets : this.buckets.entrySet()) {
+                if ( topic != null && !topic.equals(topicBuckets.getKey()) ) {
+                    continue;
+                }
+                for(final JobState state : states) {
+                    final TreeSet<Entry> set = topicBuckets.getValue().get(state);
+                    if ( set != null ) {
+                        final Iterator<Entry> i = (last == null ? set : set.tailSet(last, false)).iterator();
+                        if ( i.hasNext() ) {
+                            candidates.add(i);
+                        }
+                    }
+                }
+            }
+            final Iterator<Entry> iter = merge(candidates, isHistoryQuery ? FINISHED_ORDER : CREATED_ORDER);
+            while ( iter.hasNext() && (max < 0 || result.size() < max) ) {
+                result.add(iter.next());
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Load or refresh the index.
+     */
+    private void update(final ResourceResolver resolver) {
+        if ( this.loadTime != 0 && this.reloading ) {
+            // use the current entries until the reload is finished
+            return;
+        }
+        this.updateLock.lock();
+        try {
+            if ( this.loadTime == 0 || System.currentTimeMillis() - this.loadTime > RELOAD_INTERVAL ) {
+                this.load(resolver);
+            } else {
+                this.refresh(resolver);
+            }
+        } finally {
+            this.updateLock.unlock();
+        }
+    }
+
+    /**
+     * Load all jobs. The entries are collected without holding the
+     * lock and replace the current entries afterwards.
+     */
+    private void load(final ResourceResolver resolver) {
+        logger.debug("Loading job index...");
+        final long startTime = System.currentTimeMillis();
+        this.reloading = true;
+        try {
+            this.active = true;
+            this.changedPaths.clear();
+
+            final NavigableMap<String, Entry> newEntries = new TreeMap<String, Entry>();
+            final Map<String, Map<JobState, TreeSet<Entry>>> newBuckets = new HashMap<String, Map<JobState, TreeSet<Entry>>>();
+            final StringBuilder buf = new StringBuilder(64);
+            buf.append("/jcr:root");
+            buf.append(this.configuration.getJobsBasePathWithSlash());
+            buf.append("/element(*,");
+            buf.append(ResourceHelper.RESOURCE_TYPE_JOB);
+            buf.append(")");
+            try {
+                final Iterator<Resource> iter = resolver.findResources(buf.toString(), "xpath");
+                while ( iter.hasNext() ) {
+                    final Resource jobResource = iter.next();
+                    // changed resources are read again by the refresh
+                    if ( this.configuration.isJob(jobResource.getPath())
+                         && !this.changedPaths.contains(jobResource.getPath()) ) {
+                        final Update update = this.read(jobResource);
+                        if ( update != null ) {
+                            put(newEntries, newBuckets, update);
+                        }
+                    }
+                }
+            } catch (final QuerySyntaxException qse) {
+                logger.warn("Query syntax wrong " + buf.toString(), qse);
+            }
+
+            this.lock.writeLock().lock();
+            try {
+                this.entries = newEntries;
+                this.buckets = newBuckets;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+            this.loadTime = startTime;
+        } finally {
+            this.reloading = false;
+        }
+        this.refresh(resolver);
+        logger.debug("Loaded {} jobs into the job index", this.size());
+    }
+
+    /**
+     * Update the index for the changed paths. The resources are
+     * read before the lock is acquired.
+     */
+    private void refresh(final ResourceResolver resolver) {
+        // a null value marks a removed path
+        final Map<String, Update> updates = new LinkedHashMap<String, Update>();
+        final Iterator<String> iter = this.changedPaths.iterator();
+        while ( iter.hasNext() ) {
+            final String path = iter.next();
+            iter.remove();
+            final Resource rsrc = resolver.getResource(path);
+            if ( rsrc == null ) {
+                updates.put(path, null);
+            } else if ( ResourceHelper.RESOURCE_TYPE_JOB.equals(rsrc.getResourceType()) ) {
+                final Update update = this.read(rsrc);
+                if ( update != null ) {
+                    updates.put(path, update);
+                }
+            }
+        }
+        if ( updates.isEmpty() ) {
+            return;
+        }
+        this.lock.writeLock().lock();
+        try {
+            for(final Map.Entry<String, Update> current : updates.entrySet()) {
+                if ( current.getValue() != null ) {
+                    put(this.entries, this.buckets, current.getValue());
+                } else {
+                    // the path might be a removed folder containing jobs
+                    final String path = current.getKey();
+                    remove(this.entries, path);
+                    final List<String> childPaths = new ArrayList<String>(
+                            this.entries.subMap(path + '/', path + '/' + Character.MAX_VALUE).keySet());
+                    for(final String childPath : childPaths) {
+                        remove(this.entries, childPath);
+                    }
+                }
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Read the indexed information of a job resource.
+     * @return The information or {@code null} if the job can't be indexed
+     */
+    private Update read(final Resource jobResource) {
+        final ValueMap vm = ResourceUtil.getValueMap(jobResource);
+        final String topic = vm.get(ResourceHelper.PROPERTY_JOB_TOPIC, String.class);
+        final Calendar created = vm.get(Job.PROPERTY_JOB_CREATED, Calendar.class);
+        if ( topic == null || created == null ) {
+            return null;
+        }
+        final String finishedState = vm.get(JobImpl.PROPERTY_FINISHED_STATE, String.class);
+        final JobState state;
+        final long time;
+        if ( finishedState != null ) {
+            try {
+                state = JobState.valueOf(finishedState);
+            } catch ( final IllegalArgumentException iae ) {
+                logger.debug("Ignoring job with unknown state {} : {}", finishedState, jobResource.getPath());
+                return null;
+            }
+            final Calendar finished = vm.get(Job.PROPERTY_FINISHED_DATE, Calendar.class);
+            time = finished == null ? 0 : finished.getTimeInMillis();
+        } else {
+            state = vm.get(Job.PROPERTY_JOB_STARTED_TIME) != null ? JobState.ACTIVE : JobState.QUEUED;
+            time = created.getTimeInMillis();
+        }
+        return new Update(topic, state, new Entry(jobResource.getPath(), time));
+    }
+
+    /**
+     * Add or replace the entry of a job.
+     */
+    private static void put(final NavigableMap<String, Entry> entries,
+            final Map<String, Map<JobState, TreeSet<Entry>>> buckets,
+            final Update update) {
+        remove(entries, update.entry.path);
+        Map<JobState, TreeSet<Entry>> stateBuckets = buckets.get(update.topic);
+        if ( stateBuckets == null ) {
+            stateBuckets = new HashMap<JobState, TreeSet<Entry>>();
+            buckets.put(update.topic, stateBuckets);
+        }
+        TreeSet<Entry> set = stateBuckets.get(update.state);
+        if ( set == null ) {
+            final boolean unfinished = update.state == JobState.QUEUED || update.state == JobState.ACTIVE;
+            set = new TreeSet<Entry>(unfinished ? CREATED_ORDER : FINISHED_ORDER);
+            stateBuckets.put(update.state, set);
+        }
+        update.entry.bucket = set;
+        set.add(update.entry);
+        entries.put(update.entry.path, update.entry);
+    }
+
+    /**
+     * Remove the entry for the path. Empty buckets are kept, there
+     * is at most one per topic and state.
+     */
+    private static void remove(final NavigableMap<String, Entry> entries, final String path) {
+        final Entry old = entries.remove(path);
+        if ( old != null ) {
+            old.bucket.remove(old);
+        }
+    }
+
+    /**
+     * Get the states of the jobs returned for a query type.
+     */
+    private static Set<JobState> getStates(final QueryType type) {
+        switch ( type ) {
+            case ALL : return EnumSet.of(JobState.QUEUED, JobState.ACTIVE);
+            case ACTIVE : return EnumSet.of(JobState.ACTIVE);
+            case QUEUED : return EnumSet.of(JobState.QUEUED);
+            case HISTORY : return EnumSet.of(JobState.SUCCEEDED, JobState.STOPPED, JobState.GIVEN_UP, JobState.ERROR, JobState.DROPPED);
+            case CANCELLED : return EnumSet.of(JobState.STOPPED, JobState.GIVEN_UP, JobState.ERROR, JobState.DROPPED);
+            default : return EnumSet.of(JobState.valueOf(type.name()));
+        }
+    }
+
+    /**
+     * Merge sorted iterators.
+     */
+    private static Iterator<Entry> merge(final List<Iterator<Entry>> iterators, final Comparator<Entry> comparator) {
+        if ( iterators.size() == 1 ) {
+            return iterators.get(0);
+        }
+        final PriorityQueue<Head> heads = new PriorityQueue<Head>(Math.max(1, iterators.size()), new Comparator<Head>() {
+
+            @Override
+            public int compare(final Head o1, final Head o2) {
+                return comparator.compare(o1.entry, o2.entry);
+            }
+        });
+        for(final Iterator<Entry> i : iterators) {
+            heads.add(new Head(i));
+        }
+        return new Iterator<Entry>() {
+
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Entry next() {
+                final Head head = heads.poll();
+                final Entry result = head.entry;
+                if ( head.iterator.hasNext() ) {
+                    head.entry = head.iterator.next();
+                    heads.add(head);
+                }
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * The current entry of an iterator taking part in a merge.
+     */
+    private static final class Head {
+
+        final Iterator<Entry> iterator;
+
+        Entry entry;
+
+        Head(final Iterator<Entry> iterator) {
+            this.iterator = iterator;
+            this.entry = iterator.next();
+        }
+    }
+
+    /**
+     * The number of indexed jobs.
+     */
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.entries.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+}
@@ -18,20 +18,31 @@
  */
 package org.apache.sling.event.impl.jobs.stats;
 
+import java.util.Dictionary;
+import java.util.Hashtable;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.sling.api.SlingConstants;
 import org.apache.sling.event.impl.jobs.InternalJobState;
 import org.apache.sling.event.impl.jobs.config.JobManagerConfiguration;
 import org.apache.sling.event.jobs.Statistics;
 import org.apache.sling.event.jobs.TopicStatistics;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
 
 /**
  * The statistics manager keeps track of all statistics related tasks.
+ * In addition it maintains the {@link JobIndex} used for searching jobs.
  */
 @Component
 @Service(value=StatisticsManager.class)
@@ -61,6 +72,52 @@ public class StatisticsManager {
     /** Statistics per queue. */
     private final ConcurrentMap<String, Statistics> queueStatistics = new ConcurrentHashMap<String, Statistics>();
 
+    /** The job index. */
+    private volatile JobIndex jobIndex;
+
+    /** Service registration for the job index event handler. */
+    private volatile ServiceRegistration eventHandlerRegistration;
+
+    /**
+     * Activate this component.
+     * Register the job index for the resource events of the job tree.
+     */
+    @Activate
+    protected void activate(final BundleContext bundleContext) {
+        this.jobIndex = new JobIndex(this.configuration);
+        final Dictionary<String, Object> properties = new Hashtable<String, Object>();
+        properties.put(Constants.SERVICE_DESCRIPTION, "Apache Sling Job Index Event Handler");
+        properties.put(Constants.SERVICE_VENDOR, "The Apache Software Foundation");
+        properties.put(EventConstants.EVENT_TOPIC, new String[] {
+                SlingConstants.TOPIC_RESOURCE_ADDED,
+                SlingConstants.TOPIC_RESOURCE_CHANGED,
+                SlingConstants.TOPIC_RESOURCE_REMOVED});
+        properties.put(EventConstants.EVENT_FILTER,
+                "(" + SlingConstants.PROPERTY_PATH + "=" +
+                      this.configuration.getJobsBasePathWithSlash() + "*)");
+        this.eventHandlerRegistration = bundleContext.registerService(EventHandler.class.getName(), this.jobIndex, properties);
+    }
+
+    /**
+     * Deactivate this component.
+     * Unregister the event handler.
+     */
+    @Deactivate
+    protected void deactivate() {
+        if ( this.eventHandlerRegistration != null ) {
+            this.eventHandlerRegistration.unregister();
+            this.eventHandlerRegistration = null;
+        }
+    }
+
+    /**
+     * Get the job index.
+     * @return The job index.
+     */
+    public JobIndex getJobIndex() {
+        return this.jobIndex;
+    }
+
     /**
      * Get the global statistics.
      * @return The global statistics.
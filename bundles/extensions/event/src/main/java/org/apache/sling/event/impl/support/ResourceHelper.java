@@ -273,6 +273,23 @@ public abstract class ResourceHelper {
                         true);
     }
 
+    /**
+     * Creates or gets the resource at the given path without committing.
+     * The caller has to commit the changes.
+     * @param resolver The resource resolver to use for creation
+     * @param path     The full path to be created
+     * @param props    The resource properties of the final resource to create
+     */
+    public static Resource getOrCreateUncommittedResource(final ResourceResolver resolver,
+            final String path, final Map<String, Object> props)
+    throws PersistenceException {
+       return getOrCreateResource(resolver,
+                        path,
+                        props,
+                        ResourceHelper.RESOURCE_TYPE_FOLDER,
+                        false);
+    }
+
     /**
      * Creates or gets the resource at the given path.
      * This is a copy of Sling's API ResourceUtil method to avoid a dependency on the latest
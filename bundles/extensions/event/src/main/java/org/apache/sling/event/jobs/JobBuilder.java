@@ -55,6 +55,31 @@ public interface JobBuilder {
      */
     Job add(final List<String> errors);
 
+    /**
+     * Add several jobs with the topic of this builder at once.
+     * The properties set with {@link #properties(Map)} are used for all jobs and
+     * can be overridden by the properties of a single job.
+     * @param props The properties of each job, an entry might be {@code null}.
+     * @return A list with the jobs in the order of the properties; for a job
+     *         which could not be added the list contains {@code null}.
+     * @see JobManager#addJobs(String, List)
+     * @since 2.1
+     */
+    List<Job> addAll(final List<Map<String, Object>> props);
+
+    /**
+     * Add several jobs with the topic of this builder at once.
+     * The properties set with {@link #properties(Map)} are used for all jobs and
+     * can be overridden by the properties of a single job.
+     * @param props The properties of each job, an entry might be {@code null}.
+     * @param errors Optional list which will be filled with error messages.
+     * @return A list with the jobs in the order of the properties; for a job
+     *         which could not be added the list contains {@code null}.
+     * @see JobManager#addJobs(String, List)
+     * @since 2.1
+     */
+    List<Job> addAll(final List<Map<String, Object>> props, final List<String> errors);
+
     /**
      * Schedule the job
      * @return A schedule builder to schedule the jobs
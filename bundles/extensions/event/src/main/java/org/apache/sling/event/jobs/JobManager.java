@@ -19,6 +19,7 @@
 package org.apache.sling.event.jobs;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import aQute.bnd.annotation.ProviderType;
@@ -105,6 +106,22 @@ public interface JobManager {
      */
     Job addJob(String topic, Map<String, Object> properties);
 
+    /**
+     * Add several new jobs of the same topic.
+     *
+     * This behaves like calling {@link #addJob(String, Map)} for each entry of the list,
+     * however the jobs are persisted with a few commits only. As for a single job, a
+     * {@link NotificationConstants#TOPIC_JOB_ADDED} notification is sent for each job.
+     *
+     * @param topic The required job topic.
+     * @param properties The properties of each job, an entry might be {@code null}.
+     *                   The properties must be serializable.
+     * @return A list with the new jobs in the order of the properties; for a job which
+     *         could not be created the list contains {@code null}.
+     * @since 2.1
+     */
+    List<Job> addJobs(String topic, List<Map<String, Object>> properties);
+
     /**
      * Return a job based on the unique id.
      *
@@ -17,7 +17,7 @@
  * under the License.
  */
 
-@Version("2.0.0")
+@Version("2.1.0")
 package org.apache.sling.event.jobs;
 
 import aQute.bnd.annotation.Version;
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.queues;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ConcurrencyLimiterTest {
+
+    @Test public void testStaticLimit() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.jobFinished(0, 10, true);
+        assertEquals(2, limiter.getLimit());
+        limiter.release();
+        assertEquals(1, limiter.getActiveCount());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test public void testDecreaseOnFailure() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(true, 2, 8);
+        assertEquals(8, limiter.getLimit());
+        limiter.jobFinished(0, 10, true);
+        assertEquals(6, limiter.getLimit());
+        // only one decrease per window
+        limiter.jobFinished(0, 10, true);
+        assertEquals(6, limiter.getLimit());
+        for(int i = 0; i < 20; i++) {
+            for(int j = 0; j < limiter.getLimit(); j++) {
+                limiter.jobFinished(0, 10, true);
+            }
+        }
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test public void testDecreaseOnSaturationAndLatency() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(true, 1, 8);
+        limiter.jobFinished(5000, 10, false);
+        assertEquals(6, limiter.getLimit());
+        for(int j = 0; j < 6; j++) {
+            limiter.jobFinished(0, 20, false);
+        }
+        // a full window of healthy jobs
+        assertEquals(7, limiter.getLimit());
+        // processing gets much slower than the baseline
+        limiter.jobFinished(0, 1000, false);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test public void testIncrease() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(true, 1, 4);
+        limiter.jobFinished(0, 10, true);
+        assertEquals(3, limiter.getLimit());
+        for(int i = 0; i < 3; i++) {
+            limiter.jobFinished(0, 10, false);
+        }
+        assertEquals(4, limiter.getLimit());
+        for(int i = 0; i < 100; i++) {
+            limiter.jobFinished(0, 10, false);
+        }
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test public void testPermitsFollowLimit() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(true, 1, 4);
+        for(int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        limiter.jobFinished(0, 10, true);
+        assertEquals(3, limiter.getLimit());
+        // four jobs are still running, one has to finish before the next one starts
+        limiter.release();
+        assertFalse(limiter.tryAcquire());
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+        assertEquals(3, limiter.getActiveCount());
+    }
+
+    @Test public void testBaselineFollowsProcessingTime() {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(true, 1, 8);
+        for(int i = 0; i < 10; i++) {
+            limiter.jobFinished(0, 10, false);
+        }
+        // the processing time settles at a higher level
+        for(int i = 0; i < 100; i++) {
+            limiter.jobFinished(0, 100, false);
+        }
+        final int limit = limiter.getLimit();
+        limiter.jobFinished(0, 150, false);
+        assertTrue(limiter.getLimit() >= limit);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.queues;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.event.impl.jobs.JobImpl;
+import org.apache.sling.event.jobs.Job;
+import org.junit.Test;
+
+public class PendingJobIndexTest {
+
+    private final Calendar now = Calendar.getInstance();
+
+    private JobImpl createJob(final String topic, final String id) {
+        final Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put(Job.PROPERTY_JOB_CREATED, now);
+        properties.put(JobImpl.PROPERTY_RESOURCE_PATH, "/var/eventing/jobs/assigned/id/" + topic + "/" + id);
+        return new JobImpl(topic, id, properties);
+    }
+
+    @Test public void testPollInCreationOrder() {
+        final PendingJobIndex index = new PendingJobIndex();
+        assertTrue(index.add(createJob("a", "job_3"), 0));
+        assertTrue(index.add(createJob("a", "job_1"), 0));
+        assertTrue(index.add(createJob("b", "job_2"), 0));
+        assertFalse(index.add(createJob("a", "job_1"), 0));
+        assertEquals(3, index.size());
+        assertTrue(index.hasJobs("a"));
+
+        final List<JobImpl> jobs = index.poll("a", 10);
+        assertEquals(2, jobs.size());
+        assertEquals("job_1", jobs.get(0).getId());
+        assertEquals("job_3", jobs.get(1).getId());
+        assertFalse(index.hasJobs("a"));
+        assertEquals(1, index.size());
+        assertFalse(index.contains(jobs.get(0).getResourcePath()));
+    }
+
+    @Test public void testHandledJobs() {
+        final PendingJobIndex index = new PendingJobIndex();
+        final JobImpl job = createJob("a", "job_1");
+        index.add(job, 0);
+        index.handled(createJob("a", "job_1"));
+        assertFalse(index.hasJobs("a"));
+        assertEquals(0, index.poll("a", 10).size());
+    }
+
+    @Test public void testTraversalDuringWrite() {
+        final PendingJobIndex index = new PendingJobIndex();
+        final long count = index.getTraversalCount("a");
+
+        // a traversal in progress might load the job
+        index.traversalStarted("a");
+        assertFalse(index.add(createJob("a", "job_1"), count));
+        assertTrue(index.resetOverflow("a"));
+
+        // a traversal run while the job has been written might have loaded it
+        index.traversalFinished("a");
+        assertFalse(index.add(createJob("a", "job_1"), count));
+        assertTrue(index.resetOverflow("a"));
+
+        assertTrue(index.add(createJob("a", "job_1"), index.getTraversalCount("a")));
+        assertFalse(index.resetOverflow("a"));
+    }
+
+    @Test public void testRemove() {
+        final PendingJobIndex index = new PendingJobIndex();
+        final JobImpl job = createJob("a", "job_1");
+        index.add(job, 0);
+        index.add(createJob("a", "job_2"), 0);
+        index.add(createJob("b", "job_3"), 0);
+
+        index.remove(job.getResourcePath());
+        assertFalse(index.contains(job.getResourcePath()));
+        assertEquals(2, index.size());
+
+        // a folder is not removed as a job
+        index.remove("/var/eventing/jobs/assigned/id/a");
+        assertEquals(2, index.size());
+
+        index.removeTree("/var/eventing/jobs/assigned/id/a");
+        assertFalse(index.hasJobs("a"));
+        assertTrue(index.hasJobs("b"));
+        assertEquals(1, index.size());
+    }
+
+    @Test public void testMarkUnindexed() {
+        final PendingJobIndex index = new PendingJobIndex();
+        index.markUnindexed("a");
+        assertTrue(index.resetOverflow("a"));
+        assertFalse(index.resetOverflow("a"));
+    }
+
+    @Test public void testOverflow() {
+        final PendingJobIndex index = new PendingJobIndex(2);
+        assertTrue(index.add(createJob("a", "job_1"), 0));
+        assertTrue(index.add(createJob("a", "job_2"), 0));
+        assertFalse(index.add(createJob("a", "job_3"), 0));
+        assertTrue(index.resetOverflow("a"));
+        assertFalse(index.resetOverflow("a"));
+        assertEquals(1, index.poll("a", 1).size());
+        assertTrue(index.add(createJob("a", "job_3"), 0));
+    }
+}
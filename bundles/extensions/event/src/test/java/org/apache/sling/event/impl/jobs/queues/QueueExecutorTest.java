@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.queues;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.event.impl.jobs.config.ConfigurationConstants;
+import org.apache.sling.event.impl.jobs.config.InternalQueueConfiguration;
+import org.apache.sling.event.impl.jobs.config.InternalQueueConfiguration.ExecutionMode;
+import org.junit.Test;
+
+public class QueueExecutorTest {
+
+    private InternalQueueConfiguration createConfiguration(final String mode) {
+        final Map<String, Object> p = new HashMap<String, Object>();
+        p.put(ConfigurationConstants.PROP_NAME, "QueueExecutorTest");
+        p.put(ConfigurationConstants.PROP_TOPICS, new String[] {"a"});
+        p.put(ConfigurationConstants.PROP_MAX_PARALLEL, 2);
+        p.put(ConfigurationConstants.PROP_EXECUTION_MODE, mode);
+        return InternalQueueConfiguration.fromConfiguration(p);
+    }
+
+    private void runJobs(final QueueExecutor executor) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(3);
+        for(int i = 0; i < 3; i++) {
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.release();
+    }
+
+    @Test public void testConfiguration() {
+        assertEquals(ExecutionMode.THREAD_POOL, createConfiguration(null).getExecutionMode());
+        assertEquals(ExecutionMode.THREAD_POOL, createConfiguration("unknown").getExecutionMode());
+        assertEquals(ExecutionMode.FORK_JOIN, createConfiguration("FORK_JOIN").getExecutionMode());
+    }
+
+    @Test public void testForkJoin() throws Exception {
+        final QueueExecutor executor = new QueueExecutor(createConfiguration("FORK_JOIN"), new QueueServices());
+        assertEquals(ExecutionMode.FORK_JOIN, executor.getExecutionMode());
+        runJobs(executor);
+        // the counters are updated after the runnable returned
+        final long end = System.currentTimeMillis() + 10000;
+        while ( executor.getExecutedCount() < 3 && System.currentTimeMillis() < end ) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, executor.getExecutedCount());
+        assertTrue(executor.getAverageWaitTime() >= 0);
+        assertTrue(executor.getMaxWaitTime() >= executor.getAverageWaitTime());
+    }
+
+    @Test public void testForkJoinBlockingJobs() throws Exception {
+        final QueueExecutor executor = new QueueExecutor(createConfiguration("FORK_JOIN"), new QueueServices());
+        // more blocked jobs than workers, the pool compensates the blocked workers
+        final CountDownLatch started = new CountDownLatch(3);
+        final CountDownLatch finished = new CountDownLatch(3);
+        for(int i = 0; i < 3; i++) {
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    started.countDown();
+                    try {
+                        if ( started.await(10, TimeUnit.SECONDS) ) {
+                            finished.countDown();
+                        }
+                    } catch ( final InterruptedException ie ) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+        assertTrue(finished.await(20, TimeUnit.SECONDS));
+        executor.release();
+    }
+
+    @Test public void testVirtualThreads() throws Exception {
+        final QueueExecutor executor = new QueueExecutor(createConfiguration("VIRTUAL_THREADS"), new QueueServices());
+        // falls back to a fork join pool if virtual threads are not supported
+        assertNotEquals(ExecutionMode.THREAD_POOL, executor.getExecutionMode());
+        runJobs(executor);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.event.impl.jobs.stats;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.api.SlingConstants;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.event.impl.jobs.JobImpl;
+import org.apache.sling.event.impl.jobs.config.JobManagerConfiguration;
+import org.apache.sling.event.impl.support.ResourceHelper;
+import org.apache.sling.event.jobs.Job;
+import org.apache.sling.event.jobs.JobManager.QueryType;
+import org.apache.sling.testing.mock.sling.junit.SlingContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.osgi.service.event.Event;
+
+public class JobIndexTest {
+
+    private static final String BASE_PATH = "/var/eventing/jobs/";
+
+    @Rule
+    public final SlingContext ctx = new SlingContext();
+
+    private final List<Resource> jobResources = new ArrayList<Resource>();
+
+    private ResourceResolver resolver;
+
+    private JobIndex index;
+
+    @Before
+    public void setup() {
+        final JobManagerConfiguration configuration = Mockito.mock(JobManagerConfiguration.class);
+        Mockito.when(configuration.getJobsBasePathWithSlash()).thenReturn(BASE_PATH);
+        Mockito.when(configuration.isJob(Mockito.anyString())).thenReturn(true);
+
+        resolver = Mockito.mock(ResourceResolver.class);
+        Mockito.when(resolver.findResources(Mockito.anyString(), Mockito.eq("xpath"))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(final InvocationOnMock invocation) {
+                return new ArrayList<Resource>(jobResources).iterator();
+            }
+        });
+        Mockito.when(resolver.getResource(Mockito.anyString())).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(final InvocationOnMock invocation) {
+                return ctx.resourceResolver().getResource((String)invocation.getArguments()[0]);
+            }
+        });
+        index = new JobIndex(configuration);
+    }
+
+    private Resource createJob(final String topic, final int counter, final String finishedState, final Map<String, Object> props) {
+        final String jobId = "2015/1/1/1/1/job_" + counter;
+        final Map<String, Object> properties = new HashMap<String, Object>(props);
+        final Calendar created = Calendar.getInstance();
+        created.setTimeInMillis(1000 * counter);
+        properties.put(ResourceResolver.PROPERTY_RESOURCE_TYPE, ResourceHelper.RESOURCE_TYPE_JOB);
+        properties.put(ResourceHelper.PROPERTY_JOB_TOPIC, topic);
+        properties.put(ResourceHelper.PROPERTY_JOB_ID, jobId);
+        properties.put(Job.PROPERTY_JOB_CREATED, created);
+        if ( finishedState != null ) {
+            final Calendar finished = Calendar.getInstance();
+            finished.setTimeInMillis(1000 * counter + 500);
+            properties.put(JobImpl.PROPERTY_FINISHED_STATE, finishedState);
+            properties.put(Job.PROPERTY_FINISHED_DATE, finished);
+        }
+        final Resource rsrc = ctx.create().resource(BASE_PATH + topic + "/" + counter, properties);
+        jobResources.add(rsrc);
+        return rsrc;
+    }
+
+    private List<String> ids(final List<Job> jobs) {
+        final List<String> ids = new ArrayList<String>();
+        for(final Job job : jobs) {
+            ids.add(job.getId().substring(job.getId().lastIndexOf('/') + 1));
+        }
+        return ids;
+    }
+
+    @Test public void testFind() {
+        final Map<String, Object> empty = Collections.emptyMap();
+        createJob("a", 3, null, empty);
+        createJob("b", 1, null, empty);
+        createJob("a", 2, null, empty);
+        createJob("a", 4, "SUCCEEDED", empty);
+        createJob("b", 5, "ERROR", empty);
+
+        assertEquals(Collections.singletonList("job_1"), ids(index.find(resolver, QueryType.ALL, null, 1)));
+        assertEquals(Arrays.asList("job_1", "job_2", "job_3"), ids(index.find(resolver, QueryType.QUEUED, null, -1)));
+        assertEquals(Arrays.asList("job_2", "job_3"), ids(index.find(resolver, QueryType.ALL, "a", -1)));
+        assertEquals(Arrays.asList("job_5", "job_4"), ids(index.find(resolver, QueryType.HISTORY, null, -1)));
+        assertEquals(Collections.singletonList("job_5"), ids(index.find(resolver, QueryType.CANCELLED, null, -1)));
+        assertEquals(0, index.find(resolver, QueryType.ACTIVE, null, -1).size());
+        assertEquals(5, index.size());
+    }
+
+    @Test public void testChanges() throws Exception {
+        final Map<String, Object> empty = Collections.emptyMap();
+        createJob("a", 1, null, empty);
+        assertEquals(1, index.find(resolver, QueryType.QUEUED, "a", -1).size());
+
+        // a new job is only found after the event
+        final Resource rsrc = createJob("a", 2, null, empty);
+        assertEquals(1, index.find(resolver, QueryType.QUEUED, "a", -1).size());
+        index.handleEvent(new Event(SlingConstants.TOPIC_RESOURCE_ADDED,
+                Collections.singletonMap(SlingConstants.PROPERTY_PATH, rsrc.getPath())));
+        assertEquals(2, index.find(resolver, QueryType.QUEUED, "a", -1).size());
+
+        // removing the topic folder removes all jobs
+        ctx.resourceResolver().delete(ctx.resourceResolver().getResource(BASE_PATH + "a"));
+        index.handleEvent(new Event(SlingConstants.TOPIC_RESOURCE_REMOVED,
+                Collections.singletonMap(SlingConstants.PROPERTY_PATH, BASE_PATH + "a")));
+        assertEquals(0, index.find(resolver, QueryType.ALL, null, -1).size());
+        assertEquals(0, index.size());
+    }
+
+    @Test public void testChangedByJobManager() {
+        final Map<String, Object> empty = Collections.emptyMap();
+        createJob("a", 1, null, empty);
+        assertEquals(1, index.find(resolver, QueryType.QUEUED, "a", -1).size());
+
+        // a job added by this instance is found without waiting for the event
+        final Resource rsrc = createJob("a", 2, null, empty);
+        index.changed(rsrc.getPath());
+        assertEquals(Arrays.asList("job_1", "job_2"), ids(index.find(resolver, QueryType.QUEUED, "a", -1)));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test public void testTemplates() {
+        final Map<String, Object> empty = Collections.emptyMap();
+        createJob("a", 1, null, Collections.<String, Object>singletonMap("prop", "x"));
+        createJob("a", 2, null, Collections.<String, Object>singletonMap("prop", "y"));
+        createJob("b", 3, null, Collections.<String, Object>singletonMap("prop", "x"));
+        createJob("b", 4, null, Collections.<String, Object>singletonMap("count", 5L));
+        createJob("b", 5, null, empty);
+
+        assertEquals(Arrays.asList("job_1", "job_3"), ids(index.find(resolver, QueryType.ALL, null, -1,
+                Collections.<String, Object>singletonMap("prop", "x"))));
+        assertEquals(Collections.singletonList("job_3"), ids(index.find(resolver, QueryType.ALL, "b", -1,
+                Collections.<String, Object>singletonMap("prop", "x"))));
+        assertEquals(Arrays.asList("job_2", "job_4"), ids(index.find(resolver, QueryType.ALL, null, 2,
+                Collections.<String, Object>singletonMap("count", 5L),
+                Collections.<String, Object>singletonMap(">prop", "x"))));
+        assertEquals(Collections.singletonList("job_4"), ids(index.find(resolver, QueryType.ALL, null, -1,
+                Collections.<String, Object>singletonMap(">count", "4"))));
+        assertEquals(0, index.find(resolver, QueryType.ALL, null, -1,
+                Collections.<String, Object>singletonMap("<count", 5)).size());
+        // empty templates match all jobs
+        assertEquals(5, index.find(resolver, QueryType.ALL, null, -1, empty).size());
+    }
+
+    @Test public void testLimitWithRemovedJobs() throws Exception {
+        final Map<String, Object> empty = Collections.emptyMap();
+        final Resource first = createJob("a", 1, null, empty);
+        createJob("a", 2, null, empty);
+        createJob("a", 3, null, empty);
+        assertEquals(3, index.find(resolver, QueryType.ALL, null, -1).size());
+
+        // the removed job is skipped and the next one is selected
+        ctx.resourceResolver().delete(first);
+        assertEquals(Arrays.asList("job_2", "job_3"), ids(index.find(resolver, QueryType.ALL, null, 2)));
+    }
+}
@@ -66,4 +66,14 @@ public @interface Model {
      */
     public String[] resourceType() default {};
 
+    /**
+     * Whether the model created from a request is cached and returned again for subsequent adaptations of the same
+     * request object to the same type. The cached models are stored in a request attribute, so they live as long as
+     * the request. Models adapted from other adaptables, like resources, are not cached. Only models which do not
+     * depend on anything but the adaptable should be cached.
+     *
+     * @return {@code true} if the model should be cached per adaptable, {@code false} otherwise (default)
+     */
+    public boolean cache() default false;
+
 }
@@ -32,15 +32,18 @@ import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
+import javax.servlet.ServletRequest;
 
 import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.commons.lang.StringUtils;
@@ -184,6 +187,14 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
     // Use threadlocal to count recursive invocations and break recursing if a max. limit is reached (to avoid cyclic dependencies)
     private ThreadLocal<ThreadInvocationCounter> invocationCountThreadLocal;
 
+    // Models created with @Model(cache = true) from a request are stored in this request attribute,
+    // keyed by the identity of the adaptable as request wrappers share the attributes of the wrapped request
+    private static final String REQUEST_CACHE_ATTRIBUTE = ModelAdapterFactory.class.getName() + ".cache";
+
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    private final AtomicLong cacheMisses = new AtomicLong();
+
     public <AdapterType> AdapterType getAdapter(Object adaptable, Class<AdapterType> type) {
         Result<AdapterType> result = internalCreateModel(adaptable, type);
         if (!result.wasSuccessful()) {
@@ -295,6 +306,12 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
                 String msg = String.format("Adaptables (%s) are not acceptable for the model class: %s", StringUtils.join(declaredAdaptable), modelClass.getType());
                 return new Result<ModelType>(new InvalidAdaptableException(msg)); 
             } else {
+                if (modelAnnotation.cache() && adaptable instanceof ServletRequest) {
+                    ModelType cachedModel = getCachedModel((ServletRequest) adaptable, requestedType);
+                    if (cachedModel != null) {
+                        return new Result<ModelType>(cachedModel);
+                    }
+                }
                 RuntimeException t = validateModel(adaptable, modelClass.getType(), modelAnnotation);
                 if (t != null) {
                     return new Result<ModelType>(t);
@@ -315,6 +332,9 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
                         return new Result<ModelType>(new ModelClassException(msg, e));
                     }
                 }
+                if (modelAnnotation.cache() && adaptable instanceof ServletRequest && result.wasSuccessful()) {
+                    putCachedModel((ServletRequest) adaptable, requestedType, result.getValue());
+                }
             }
             return result;
         } finally {
@@ -322,6 +342,52 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
         }
     }
     
+    @SuppressWarnings("unchecked")
+    private <ModelType> ModelType getCachedModel(ServletRequest request, Class<ModelType> requestedType) {
+        Map<Object, Map<Class<?>, Object>> requestCache = getRequestCache(request, false);
+        if (requestCache != null) {
+            Object model = null;
+            synchronized (requestCache) {
+                Map<Class<?>, Object> adaptableCache = requestCache.get(request);
+                if (adaptableCache != null) {
+                    model = adaptableCache.get(requestedType);
+                }
+            }
+            if (model != null) {
+                cacheHits.incrementAndGet();
+                return (ModelType) model;
+            }
+        }
+        cacheMisses.incrementAndGet();
+        return null;
+    }
+
+    private void putCachedModel(ServletRequest request, Class<?> requestedType, Object model) {
+        Map<Object, Map<Class<?>, Object>> requestCache = getRequestCache(request, true);
+        synchronized (requestCache) {
+            Map<Class<?>, Object> adaptableCache = requestCache.get(request);
+            if (adaptableCache == null) {
+                adaptableCache = new HashMap<Class<?>, Object>();
+                requestCache.put(request, adaptableCache);
+            }
+            adaptableCache.put(requestedType, model);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Map<Class<?>, Object>> getRequestCache(ServletRequest request, boolean create) {
+        Object attribute = request.getAttribute(REQUEST_CACHE_ATTRIBUTE);
+        if (attribute instanceof Map) {
+            return (Map<Object, Map<Class<?>, Object>>) attribute;
+        }
+        if (!create) {
+            return null;
+        }
+        Map<Object, Map<Class<?>, Object>> requestCache = new IdentityHashMap<Object, Map<Class<?>, Object>>();
+        request.setAttribute(REQUEST_CACHE_ATTRIBUTE, requestCache);
+        return requestCache;
+    }
+
     private <ModelType> RuntimeException validateModel(Object adaptable, Class<ModelType> modelType, Model modelAnnotation) {
         if (modelAnnotation.validation() != ValidationStrategy.DISABLED) {
             if (modelValidation == null) {
@@ -1030,6 +1096,14 @@ public class ModelAdapterFactory implements AdapterFactory, Runnable, ModelFacto
         return adapterImplementations.getImplementationPickers();
     }
 
+    long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
     @Override
     public boolean isModelAvailableForRequest(@Nonnull SlingHttpServletRequest request) {
         return adapterImplementations.getModelClassForRequest(request) != null;
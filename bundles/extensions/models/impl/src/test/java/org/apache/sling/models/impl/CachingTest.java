@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.models.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.wrappers.SlingHttpServletRequestWrapper;
+import org.apache.sling.models.testmodels.classes.CachedModel;
+import org.apache.sling.models.testmodels.classes.UncachedModel;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.ComponentContext;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingTest {
+
+    @Mock
+    private ComponentContext componentCtx;
+
+    @Mock
+    private BundleContext bundleContext;
+
+    @Mock
+    private Resource resource;
+
+    private SlingHttpServletRequest request;
+
+    ModelAdapterFactory factory = new ModelAdapterFactory();
+
+    @Before
+    public void setup() {
+        when(componentCtx.getBundleContext()).thenReturn(bundleContext);
+        when(componentCtx.getProperties()).thenReturn(new Hashtable<String, Object>());
+        factory.activate(componentCtx);
+        // no injectors are necessary
+        factory.adapterImplementations.addClassesAsAdapterAndImplementation(CachedModel.class, UncachedModel.class);
+        request = mockRequest();
+    }
+
+    private SlingHttpServletRequest mockRequest() {
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        SlingHttpServletRequest mockRequest = mock(SlingHttpServletRequest.class);
+        when(mockRequest.getAttribute(anyString())).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return attributes.get(invocation.getArguments()[0]);
+            }
+        });
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                attributes.put((String) invocation.getArguments()[0], invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(mockRequest).setAttribute(anyString(), any());
+        return mockRequest;
+    }
+
+    @Test
+    public void testCachedModel() {
+        int counter = CachedModel.getPostConstructCounter();
+        CachedModel model = factory.getAdapter(request, CachedModel.class);
+        assertSame(model, factory.getAdapter(request, CachedModel.class));
+        assertSame(model, factory.createModel(request, CachedModel.class));
+        assertEquals(counter + 1, CachedModel.getPostConstructCounter());
+        assertEquals(2, factory.getCacheHits());
+
+        // another request gets its own model
+        assertNotSame(model, factory.getAdapter(mockRequest(), CachedModel.class));
+        assertEquals(counter + 2, CachedModel.getPostConstructCounter());
+    }
+
+    @Test
+    public void testCachedModelOfWrappedRequest() {
+        CachedModel model = factory.getAdapter(request, CachedModel.class);
+        // the wrapper shares the attributes, but is a different adaptable
+        SlingHttpServletRequest wrapper = new SlingHttpServletRequestWrapper(request);
+        CachedModel wrapperModel = factory.getAdapter(wrapper, CachedModel.class);
+        assertNotSame(model, wrapperModel);
+        assertSame(wrapperModel, factory.getAdapter(wrapper, CachedModel.class));
+        assertSame(model, factory.getAdapter(request, CachedModel.class));
+    }
+
+    @Test
+    public void testResourceNotCached() {
+        int counter = CachedModel.getPostConstructCounter();
+        CachedModel model = factory.getAdapter(resource, CachedModel.class);
+        assertNotSame(model, factory.getAdapter(resource, CachedModel.class));
+        assertEquals(counter + 2, CachedModel.getPostConstructCounter());
+    }
+
+    @Test
+    public void testUncachedModel() {
+        int counter = UncachedModel.getPostConstructCounter();
+        UncachedModel model = factory.getAdapter(request, UncachedModel.class);
+        assertNotSame(model, factory.getAdapter(request, UncachedModel.class));
+        assertEquals(counter + 2, UncachedModel.getPostConstructCounter());
+    }
+}
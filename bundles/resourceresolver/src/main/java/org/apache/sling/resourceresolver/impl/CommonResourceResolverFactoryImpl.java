@@ -373,6 +373,11 @@ public class CommonResourceResolverFactoryImpl implements ResourceResolverFactor
         return this.activator.hasVanityPathPrecedence();
     }
 
+    @Override
+    public int getMapCacheSize() {
+        return this.activator.getMapCacheSize();
+    }
+
     @Override
     public List<VanityPathConfig> getVanityPathConfig() {
         final String[] includes = this.activator.getVanityPathWhiteList();
@@ -410,6 +415,10 @@ public class CommonResourceResolverFactoryImpl implements ResourceResolverFactor
         return activator.getResourceProviderTracker();
     }
 
+    public boolean isLookupCacheEnabled() {
+        return activator.isLookupCacheEnabled();
+    }
+
     /**
      * Extension of a weak reference to be able to get the control object
      * that is used for cleaning up.
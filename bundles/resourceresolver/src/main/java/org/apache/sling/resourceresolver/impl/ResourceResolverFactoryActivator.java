@@ -248,6 +248,23 @@ public class ResourceResolverFactoryActivator {
                       " will have precedence over existing /etc/map mapping")
     private static final String PROP_VANITY_PATH_PRECEDENCE = "resource.resolver.vanity.precedence";
 
+    private static final int DEFAULT_MAP_CACHE_SIZE = 10000;
+    @Property(intValue = DEFAULT_MAP_CACHE_SIZE,
+              label = "Map Cache Size",
+              description = "The maximum number of ResourceResolver.map results which are cached. " +
+                            "The cache is only used if alias resolution is optimized. A value of 0 " +
+                            "disables the cache.")
+    private static final String PROP_MAP_CACHE_SIZE = "resource.resolver.map.cache.size";
+
+    private static final boolean DEFAULT_ENABLE_LOOKUP_CACHE = false;
+    @Property(boolValue = DEFAULT_ENABLE_LOOKUP_CACHE,
+              label = "Enable Resource Lookup Cache",
+              description = "If enabled, each resource resolver caches the resources and the non existing " +
+                            "resources it looked up in the resource search path until it is modified, committed, " +
+                            "reverted or refreshed. Resource providers can opt out by setting the " +
+                            "provider.cacheable property to false.")
+    private static final String PROP_ENABLE_LOOKUP_CACHE = "resource.resolver.lookup.cache";
+
     private static final boolean DEFAULT_PARANOID_PROVIDER_HANDLING = false;
     @Property(boolValue = DEFAULT_PARANOID_PROVIDER_HANDLING,
               label = "Paranoid Provider Handling",
@@ -329,6 +346,12 @@ public class ResourceResolverFactoryActivator {
     /** vanity paths will have precedence over existing /etc/map mapping? */
     private volatile boolean vanityPathPrecedence = DEFAULT_VANITY_PATH_PRECEDENCE;
 
+    /** max number of cached map results */
+    private volatile int mapCacheSize = DEFAULT_MAP_CACHE_SIZE;
+
+    /** per resolver resource lookup cache enabled? */
+    private volatile boolean enableLookupCache = DEFAULT_ENABLE_LOOKUP_CACHE;
+
     /** log the place where a resource resolver is closed */
     private volatile boolean logResourceResolverClosing = DEFAULT_LOG_RESOURCE_RESOLVER_CLOSING;
 
@@ -409,6 +432,14 @@ public class ResourceResolverFactoryActivator {
         return this.vanityPathPrecedence;
     }
 
+    public int getMapCacheSize() {
+        return this.mapCacheSize;
+    }
+
+    public boolean isLookupCacheEnabled() {
+        return this.enableLookupCache;
+    }
+
     public long getMaxCachedVanityPathEntries() {
         return this.maxCachedVanityPathEntries;
     }
@@ -531,6 +562,8 @@ public class ResourceResolverFactoryActivator {
         this.vanityBloomFilterMaxBytes = PropertiesUtil.toInteger(properties.get(PROP_VANITY_BLOOM_FILTER_MAX_BYTES), DEFAULT_VANITY_BLOOM_FILTER_MAX_BYTES);
 
         this.vanityPathPrecedence = PropertiesUtil.toBoolean(properties.get(PROP_VANITY_PATH_PRECEDENCE), DEFAULT_VANITY_PATH_PRECEDENCE);
+        this.mapCacheSize = PropertiesUtil.toInteger(properties.get(PROP_MAP_CACHE_SIZE), DEFAULT_MAP_CACHE_SIZE);
+        this.enableLookupCache = PropertiesUtil.toBoolean(properties.get(PROP_ENABLE_LOOKUP_CACHE), DEFAULT_ENABLE_LOOKUP_CACHE);
         this.logResourceResolverClosing = PropertiesUtil.toBoolean(properties.get(PROP_LOG_RESOURCE_RESOLVER_CLOSING),
             DEFAULT_LOG_RESOURCE_RESOLVER_CLOSING);
         this.paranoidProviderHandling = PropertiesUtil.toBoolean(properties.get(PROP_PARANOID_PROVIDER_HANDLING), DEFAULT_PARANOID_PROVIDER_HANDLING);
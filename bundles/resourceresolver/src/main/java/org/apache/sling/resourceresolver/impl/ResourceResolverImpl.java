@@ -60,6 +60,7 @@ import org.apache.sling.resourceresolver.impl.helper.StarResource;
 import org.apache.sling.resourceresolver.impl.helper.URI;
 import org.apache.sling.resourceresolver.impl.helper.URIException;
 import org.apache.sling.resourceresolver.impl.mapping.MapEntry;
+import org.apache.sling.resourceresolver.impl.mapping.MapResultCache;
 import org.apache.sling.resourceresolver.impl.params.ParsedParameters;
 import org.apache.sling.resourceresolver.impl.providers.ResourceProviderStorageProvider;
 import org.slf4j.Logger;
@@ -149,7 +150,10 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
             final Map<String, Object> authenticationInfo,
             final boolean isAdmin)
     throws LoginException {
-        final ResourceResolverControl control = new ResourceResolverControl(isAdmin, authenticationInfo, resourceProviderTracker);
+        // only the search path is cached, content paths might be modified
+        // without the resolver noticing, see ResourceResolverControl
+        final ResourceResolverControl control = new ResourceResolverControl(isAdmin, authenticationInfo, resourceProviderTracker,
+                this.factory.isLookupCacheEnabled() ? this.factory.getSearchPath() : null);
 
         this.context.getProviderManager().authenticateAll(resourceProviderTracker.getResourceProviderStorage().getAuthRequiredHandlers(), control);
 
@@ -465,9 +469,50 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
 
         }
 
+        // results for the same path are the same for all resource resolvers
+        // of the same user unless namespace mangling depends on a missing session
+        final MapResultCache mapResultCache = factory.getMapEntries().getMapResultCache();
+        MapResultCache.Key cacheKey = null;
+        long cacheGeneration = 0;
+        if (mapResultCache != null && (!factory.isMangleNamespacePrefixes() || getSession() != null)) {
+            if (request != null) {
+                cacheKey = new MapResultCache.Key(request.getScheme(), request.getServerName(), request.getServerPort(),
+                        request.getContextPath(), getUserID(), mappedPath);
+            } else {
+                cacheKey = new MapResultCache.Key(null, null, -1, null, getUserID(), mappedPath);
+            }
+            final String cached = mapResultCache.get(cacheKey);
+            if (cached != null) {
+                logger.debug("map: Returning cached URL {} as mapping for path {}", cached, resourcePath);
+                return fragmentQuery != null ? cached.concat(fragmentQuery) : cached;
+            }
+            cacheGeneration = mapResultCache.getGeneration();
+        }
+
         ParsedParameters parsed = new ParsedParameters(mappedPath);
         final Resource res = resolveInternal(parsed.getRawPath(), parsed.getParameters());
 
+        mappedPath = mapInternal(request, res, mappedPath, resourcePath, schemehostport, schemePrefix);
+
+        if (cacheKey != null) {
+            mapResultCache.put(cacheKey, res != null ? res.getPath() : null, mappedPath, cacheGeneration);
+        }
+
+        // reappend fragment and/or query
+        if (fragmentQuery != null) {
+            mappedPath = mappedPath.concat(fragmentQuery);
+        }
+
+        return mappedPath;
+    }
+
+    /**
+     * Applies the aliases of the resource and the map entries to the path
+     * and mangles the namespaces. This is the part of the map operation
+     * which may be cached.
+     */
+    private String mapInternal(final HttpServletRequest request, final Resource res, String mappedPath,
+            final String resourcePath, final String schemehostport, final String schemePrefix) {
         if (res != null) {
 
             // keep, what we might have cut off in internal resolution
@@ -612,11 +657,6 @@ public class ResourceResolverImpl extends SlingAdaptable implements ResourceReso
 
         logger.debug("map: Returning URL {} as mapping for path {}", mappedPath, resourcePath);
 
-        // reappend fragment and/or query
-        if (fragmentQuery != null) {
-            mappedPath = mappedPath.concat(fragmentQuery);
-        }
-
         return mappedPath;
     }
 
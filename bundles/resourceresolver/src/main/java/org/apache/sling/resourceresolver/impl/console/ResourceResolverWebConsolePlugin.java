@@ -48,6 +48,8 @@ import org.apache.sling.resourceresolver.impl.helper.URI;
 import org.apache.sling.resourceresolver.impl.helper.URIException;
 import org.apache.sling.resourceresolver.impl.mapping.MapEntries;
 import org.apache.sling.resourceresolver.impl.mapping.MapEntry;
+import org.apache.sling.resourceresolver.impl.mapping.MapResultCache;
+import org.apache.sling.resourceresolver.impl.mapping.ResolveIndex;
 import org.apache.sling.spi.resource.provider.ResourceProvider;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
@@ -141,6 +143,28 @@ public class ResourceResolverWebConsolePlugin extends HttpServlet {
         pw.print(resolverFactory.getMapRoot());
         pw.print("</td>");
         pw.println("</tr>");
+        pw.println("<tr class='content'>");
+        pw.println("<td class='content'>Resolve Index</td>");
+        pw.print("<td class='content' colspan='2'>");
+        final ResolveIndex resolveIndex = mapEntries.getResolveIndex();
+        pw.print(resolveIndex.getEntries().size() + " entries, "
+                + resolveIndex.getFallbackSize() + " without literal prefix");
+        pw.print("</td>");
+        pw.println("</tr>");
+        pw.println("<tr class='content'>");
+        pw.println("<td class='content'>Map Cache</td>");
+        pw.print("<td class='content' colspan='2'>");
+        final MapResultCache mapResultCache = mapEntries.getMapResultCache();
+        if (mapResultCache == null) {
+            pw.print("Disabled");
+        } else {
+            pw.print(mapResultCache.getSize() + " of " + mapResultCache.getMaxSize() + " entries, "
+                    + mapResultCache.getHits() + " hits, " + mapResultCache.getMisses() + " misses, "
+                    + mapResultCache.getEvictions() + " evictions, " + mapResultCache.getInvalidations()
+                    + " invalidations");
+        }
+        pw.print("</td>");
+        pw.println("</tr>");
 
         separatorHtml(pw);
 
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
@@ -41,8 +42,10 @@ import org.apache.sling.api.resource.LoginException;
 import org.apache.sling.api.resource.PersistenceException;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceMetadata;
 import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.apache.sling.api.resource.ResourceUtil;
+import org.apache.sling.api.resource.ResourceWrapper;
 import org.apache.sling.api.resource.SyntheticResource;
 import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.api.resource.path.PathBuilder;
@@ -86,16 +89,59 @@ public class ResourceResolverControl {
 
     private final Map<ResourceProviderHandler, Object> authenticatedProviders;
 
+    /**
+     * The resource lookup cache or {@code null} if disabled. A path mapped
+     * to {@code null} marks a resource which does not exist.
+     */
+    private final Map<String, Resource> lookupCache;
+
+    /**
+     * The paths below which lookups are cached, each ending with a slash.
+     * <p>
+     * Content paths, including the paths probed by the
+     * {@code ResourcePathIterator} while resolving a request path, are not
+     * cached: they are written through the JCR session or an adapted
+     * {@code Node} of the same resource resolver as well as by other sessions.
+     * Those changes do not pass through this class and the resource change
+     * events are delivered asynchronously, so neither can invalidate the cache
+     * before a following lookup of the same request. A cached miss of a probe
+     * would then hide a resource created a moment before. The search path is
+     * written by deployments, not during request processing, and is looked
+     * up for every script resolution, so it is cached.
+     */
+    private final String[] lookupCachePaths;
+
+    /** The provider storage the lookup cache has been filled from. */
+    private ResourceProviderStorage lookupCacheStorage;
+
     /**
      * Create a new resource resolver context.
      */
     public ResourceResolverControl(final boolean isAdmin,
             final Map<String, Object> authenticationInfo,
             final ResourceProviderStorageProvider resourceProviderTracker) {
+        this(isAdmin, authenticationInfo, resourceProviderTracker, null);
+    }
+
+    /**
+     * Create a new resource resolver context.
+     * @param lookupCachePaths The paths, each ending with a slash, below which the results of
+     *                         {@link #getResource(ResourceResolverContext, String, Resource, Map, boolean)}
+     *                         are cached until the resource resolver is modified, committed or refreshed.
+     *                         Modifications done through other objects, like a JCR session, are not tracked,
+     *                         therefore only paths which are usually not modified by the users of the resource
+     *                         resolver, like the search path, should be cached. {@code null} disables the cache.
+     */
+    public ResourceResolverControl(final boolean isAdmin,
+            final Map<String, Object> authenticationInfo,
+            final ResourceProviderStorageProvider resourceProviderTracker,
+            final String[] lookupCachePaths) {
         this.authenticatedProviders = new IdentityHashMap<ResourceProviderHandler, Object>();
         this.authenticationInfo = authenticationInfo;
         this.isAdmin = isAdmin;
         this.resourceProviderTracker = resourceProviderTracker;
+        this.lookupCachePaths = lookupCachePaths;
+        this.lookupCache = lookupCachePaths != null && lookupCachePaths.length > 0 ? new HashMap<String, Resource>() : null;
     }
 
     /**
@@ -139,12 +185,14 @@ public class ResourceResolverControl {
             }
         }
         this.authenticatedProviders.clear();
+        this.clearLookupCache();
     }
 
     /**
      * Refreshes all refreshable providers.
      */
     public void refresh(@Nonnull final ResourceResolverContext context) {
+        this.clearLookupCache();
         for (final AuthenticatedResourceProvider p : context.getProviderManager().getAllUsedRefreshable()) {
             p.refresh();
         }
@@ -213,11 +261,28 @@ public class ResourceResolverControl {
             return null; // path must be absolute
         }
 
-        final AuthenticatedResourceProvider provider = this.getBestMatchingProvider(context, path);
-        if ( provider != null ) {
-            final Resource resourceCandidate = provider.getResource(path, parent, parameters);
-            if (resourceCandidate != null) {
-                return resourceCandidate;
+        // parameters (like a version) might select a different resource,
+        // therefore only plain lookups are cached
+        final boolean useLookupCache = this.lookupCache != null && (parameters == null || parameters.isEmpty())
+                && isLookupCachePath(path);
+        if ( useLookupCache && this.isLookupCached(path) ) {
+            final Resource cached = this.lookupCache.get(path);
+            if ( cached != null ) {
+                return new LookupCacheResource(cached);
+            }
+        } else {
+            final Node<ResourceProviderHandler> node = getResourceProviderStorage().getTree().getBestMatchingNode(path);
+            final AuthenticatedResourceProvider provider = this.getProvider(context, node);
+            if ( provider != null ) {
+                final Resource resourceCandidate = provider.getResource(path, parent, parameters);
+                if ( useLookupCache && node.getValue().getInfo().isCacheable() ) {
+                    this.lookupCache.put(path, resourceCandidate);
+                    if ( resourceCandidate != null ) {
+                        return new LookupCacheResource(resourceCandidate);
+                    }
+                } else if (resourceCandidate != null) {
+                    return resourceCandidate;
+                }
             }
         }
 
@@ -240,6 +305,43 @@ public class ResourceResolverControl {
         return getResourceProviderStorage().getTree().getNode(fullPath) != null;
     }
 
+    /**
+     * Checks whether lookups of the path are cached.
+     */
+    private boolean isLookupCachePath(final String path) {
+        for (final String cachePath : this.lookupCachePaths) {
+            if ( path.startsWith(cachePath) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the lookup cache contains an entry for the path. If the
+     * set of resource providers changed since the cache has been filled, the
+     * cache is cleared first.
+     */
+    private boolean isLookupCached(final String path) {
+        final ResourceProviderStorage storage = getResourceProviderStorage();
+        if ( this.lookupCacheStorage != storage ) {
+            this.lookupCache.clear();
+            this.lookupCacheStorage = storage;
+            return false;
+        }
+        return this.lookupCache.containsKey(path);
+    }
+
+    /**
+     * Clears the lookup cache, this is done whenever the resources seen by
+     * this resolver might have changed.
+     */
+    private void clearLookupCache() {
+        if ( this.lookupCache != null ) {
+            this.lookupCache.clear();
+        }
+    }
+
     /**
      * This method asks all matching resource providers for the children iterators,
      * merges them, adds {@link SyntheticResource}s (see
@@ -363,6 +465,7 @@ public class ResourceResolverControl {
     public Resource create(final ResourceResolverContext context,
             final String path, final Map<String, Object> properties)
     throws PersistenceException {
+        this.clearLookupCache();
         final AuthenticatedResourceProvider provider = getBestMatchingModifiableProvider(context, path);
         if ( provider != null ) {
             final Resource creationResultResource = provider.create(context.getResourceResolver(), path, properties);
@@ -385,6 +488,7 @@ public class ResourceResolverControl {
      *             If deletion fails
      */
     public void delete(final ResourceResolverContext context, final Resource resource) throws PersistenceException {
+        this.clearLookupCache();
         final String path = resource.getPath();
         final AuthenticatedResourceProvider provider = getBestMatchingModifiableProvider(context, path);
         if ( provider != null ) {
@@ -398,6 +502,7 @@ public class ResourceResolverControl {
      * Revert changes on all modifiable ResourceProviders.
      */
     public void revert(final ResourceResolverContext context) {
+        this.clearLookupCache();
         for (final AuthenticatedResourceProvider p : context.getProviderManager().getAllUsedModifiable()) {
             p.revert();
         }
@@ -407,6 +512,7 @@ public class ResourceResolverControl {
      * Commit changes on all modifiable ResourceProviders.
      */
     public void commit(final ResourceResolverContext context) throws PersistenceException {
+        this.clearLookupCache();
         for (final AuthenticatedResourceProvider p : context.getProviderManager().getAllUsedModifiable()) {
             p.commit();
         }
@@ -571,6 +677,7 @@ public class ResourceResolverControl {
      */
     public Resource copy(final ResourceResolverContext context,
             final String srcAbsPath, final String destAbsPath) throws PersistenceException {
+        this.clearLookupCache();
         final AuthenticatedResourceProvider optimizedSourceProvider = checkSourceAndDest(context, srcAbsPath, destAbsPath);
         if ( optimizedSourceProvider != null && optimizedSourceProvider.copy(srcAbsPath, destAbsPath) ) {
             return this.getResource(context, destAbsPath + '/' + ResourceUtil.getName(srcAbsPath), null, null, false);
@@ -599,6 +706,7 @@ public class ResourceResolverControl {
      */
     public Resource move(final ResourceResolverContext context,
             String srcAbsPath, String destAbsPath) throws PersistenceException {
+        this.clearLookupCache();
         final AuthenticatedResourceProvider optimizedSourceProvider = checkSourceAndDest(context, srcAbsPath, destAbsPath);
         if ( optimizedSourceProvider != null && optimizedSourceProvider.move(srcAbsPath, destAbsPath) ) {
             return this.getResource(context, destAbsPath + '/' + ResourceUtil.getName(srcAbsPath), null, null, false);
@@ -630,8 +738,17 @@ public class ResourceResolverControl {
      */
     private @CheckForNull AuthenticatedResourceProvider getBestMatchingProvider(final ResourceResolverContext context,
             final String path) {
+        final Node<ResourceProviderHandler> node = resourceProviderTracker.getResourceProviderStorage().getTree().getBestMatchingNode(path);
+        return getProvider(context, node);
+    }
+
+    /**
+     * @param node The node of the provider tree
+     * @return The provider of the node or {@code null}
+     */
+    private @CheckForNull AuthenticatedResourceProvider getProvider(final ResourceResolverContext context,
+            final Node<ResourceProviderHandler> node) {
         try {
-            final Node<ResourceProviderHandler> node = resourceProviderTracker.getResourceProviderStorage().getTree().getBestMatchingNode(path);
             return node == null ? null : context.getProviderManager().getOrCreateProvider(node.getValue(), this);
         } catch ( final LoginException le ) {
             // ignore
@@ -783,4 +900,26 @@ public class ResourceResolverControl {
     public void clearAuthenticatedProviders() {
         this.authenticatedProviders.clear();
     }
+
+    /**
+     * Wrapper for a resource served from the lookup cache. The cached resource
+     * itself is never handed out, as the resource resolver modifies and
+     * finally locks the metadata of the resources it returns. Each wrapper
+     * gets its own copy of the original metadata instead.
+     */
+    private static final class LookupCacheResource extends ResourceWrapper {
+
+        private final ResourceMetadata metadata;
+
+        public LookupCacheResource(final Resource resource) {
+            super(resource);
+            this.metadata = new ResourceMetadata();
+            this.metadata.putAll(resource.getResourceMetadata());
+        }
+
+        @Override
+        public ResourceMetadata getResourceMetadata() {
+            return this.metadata;
+        }
+    }
 }
@@ -50,6 +50,8 @@ public interface MapConfigurationProvider extends ResourceResolverFactory {
     
     boolean hasVanityPathPrecedence();
 
+    int getMapCacheSize();
+
     public class VanityPathConfig implements Comparable<VanityPathConfig> {
         public final boolean isExclude;
         public final String prefix;
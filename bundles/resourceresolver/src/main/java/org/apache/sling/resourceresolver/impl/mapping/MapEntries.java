@@ -47,6 +47,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
+import javax.management.NotCompliantMBeanException;
+import javax.management.StandardMBean;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.sling.api.SlingConstants;
@@ -88,6 +90,10 @@ public class MapEntries implements EventHandler {
 
     private static final int VANITY_BLOOM_FILTER_MAX_ENTRIES = 10000000;
 
+    private static final String VANITY_INDEX_NAME = "vanityIndex.dat";
+
+    private static final String VANITY_INDEX_JOURNAL_NAME = "vanityIndex.journal";
+
     /** Key for the global list. */
     private static final String GLOBAL_LIST_KEY = "*";
 
@@ -110,6 +116,8 @@ public class MapEntries implements EventHandler {
 
     private Map<String, List<MapEntry>> resolveMapsMap;
 
+    private volatile ResolveIndex resolveIndex = ResolveIndex.EMPTY;
+
     private Collection<MapEntry> mapMaps;
 
     private Map <String,List <String>> vanityTargets;
@@ -118,6 +126,10 @@ public class MapEntries implements EventHandler {
 
     private ServiceRegistration registration;
 
+    private ServiceRegistration mapResultCacheRegistration;
+
+    private final MapResultCache mapResultCache;
+
     private EventAdmin eventAdmin;
 
     private final ReentrantLock initializing = new ReentrantLock();
@@ -142,6 +154,8 @@ public class MapEntries implements EventHandler {
 
     private byte[] vanityBloomFilter;
 
+    private volatile VanityPathIndex vanityPathIndex;
+
     private Timer timer;
 
     private boolean updateBloomFilterFile = false;
@@ -167,6 +181,7 @@ public class MapEntries implements EventHandler {
         this.vanityPathPrecedence = false;
         this.vanityCounter = new AtomicLong(0);
         this.vanityBloomFilterFile = null;
+        this.mapResultCache = null;
     }
 
     @SuppressWarnings({ "unchecked", "deprecation" })
@@ -189,6 +204,13 @@ public class MapEntries implements EventHandler {
         this.vanityTargets = Collections.<String,List <String>>emptyMap();
         this.aliasMap = Collections.<String, Map<String, String>>emptyMap();
 
+        // map results can only be cached if the aliases are kept in the alias map
+        if (this.enableOptimizeAliasResolution && factory.getMapCacheSize() > 0) {
+            this.mapResultCache = new MapResultCache(factory.getMapCacheSize());
+        } else {
+            this.mapResultCache = null;
+        }
+
         doInit();
 
         final Dictionary<String, String> props = new Hashtable<String, String>();
@@ -198,8 +220,26 @@ public class MapEntries implements EventHandler {
         props.put(Constants.SERVICE_VENDOR, "The Apache Software Foundation");
         this.registration = bundleContext.registerService(EventHandler.class.getName(), this, props);
 
+        if (this.mapResultCache != null) {
+            try {
+                final Dictionary<String, String> mbeanProps = new Hashtable<String, String>();
+                mbeanProps.put("jmx.objectname", "org.apache.sling:type=resourceresolver,service=MapResultCache");
+                this.mapResultCacheRegistration = bundleContext.registerService(MapResultCacheMBean.class.getName(),
+                        new MapResultCacheMBeanImpl(this.mapResultCache), mbeanProps);
+            } catch (final Throwable t) {
+                log.debug("Unable to register map result cache mbean", t);
+            }
+        }
+
         this.vanityCounter = new AtomicLong(0);
         this.vanityBloomFilterFile = bundleContext.getDataFile(VANITY_BLOOM_FILTER_NAME);
+        if (this.enabledVanityPaths && !isAllVanityPathEntriesCached()) {
+            final File indexFile = bundleContext.getDataFile(VANITY_INDEX_NAME);
+            final File journalFile = bundleContext.getDataFile(VANITY_INDEX_JOURNAL_NAME);
+            if (indexFile != null && journalFile != null) {
+                this.vanityPathIndex = new VanityPathIndex(indexFile, journalFile);
+            }
+        }
         initializeVanityPaths();
     }
 
@@ -230,6 +270,10 @@ public class MapEntries implements EventHandler {
 
             doUpdateConfiguration();
 
+            if (this.mapResultCache != null) {
+                this.mapResultCache.clear();
+            }
+
             sendChangeEvent();
         } catch (final Exception e) {
 
@@ -283,8 +327,18 @@ public class MapEntries implements EventHandler {
                 timer = new Timer();
                 timer.schedule(new BloomFilterTask(), 60 * 1000);
 
-                final Map<String, List<String>> vanityTargets = this
-                        .loadVanityPaths(createVanityBloomFilter);
+                final VanityPathIndex index = this.vanityPathIndex;
+                final Map<String, List<String>> vanityTargets;
+                if (index != null && index.open()) {
+                    vanityTargets = this.loadVanityPathsFromIndex(index, createVanityBloomFilter);
+                } else {
+                    vanityTargets = this.loadVanityPaths(createVanityBloomFilter);
+                    if (index != null) {
+                        // missing or corrupt index, rebuild it in the background
+                        index.startRebuild();
+                        timer.schedule(new VanityPathIndexTask(index), 0);
+                    }
+                }
                 this.vanityTargets = vanityTargets;
             }
         } finally {
@@ -449,17 +503,27 @@ public class MapEntries implements EventHandler {
         // sort global list and add to map
         Collections.sort(globalResolveMap);
         resolveMapsMap.put(GLOBAL_LIST_KEY, globalResolveMap);
+        // publish the compiled index used for lookups
+        this.resolveIndex = new ResolveIndex(globalResolveMap);
         this.mapMaps = Collections.unmodifiableSet(new TreeSet<MapEntry>(newMapMaps.values()));
+        if (this.mapResultCache != null) {
+            this.mapResultCache.clear();
+        }
     }
 
     private void doAddVanity(String path) {
         Resource resource = resolver.getResource(path);
+        final List<VanityPathIndex.Entry> entries;
         if (isAllVanityPathEntriesCached() || vanityCounter.longValue() < maxCachedVanityPathEntries) {
             // fill up the cache and the bloom filter
-            loadVanityPath(resource, resolveMapsMap, vanityTargets, true, true);
+            entries = loadVanityPath(resource, resolveMapsMap, vanityTargets, true, true);
         } else {
             // fill up the bloom filter
-            loadVanityPath(resource, resolveMapsMap, vanityTargets, false, true);
+            entries = loadVanityPath(resource, resolveMapsMap, vanityTargets, false, true);
+        }
+        final VanityPathIndex index = this.vanityPathIndex;
+        if (index != null) {
+            index.add(entries);
         }
         updateBloomFilterFile = true;
     }
@@ -493,6 +557,26 @@ public class MapEntries implements EventHandler {
         if (vanityCounter.longValue() > 0) {
             vanityCounter.addAndGet(-2);
         }
+        final VanityPathIndex index = this.vanityPathIndex;
+        if (index != null) {
+            index.remove(actualContentPath);
+        }
+    }
+
+    /**
+     * Remove the vanity paths of a removed tree from the index
+     * @param actualContentPath The already converted path of the tree
+     */
+    private void doRemoveVanityTree(final String actualContentPath) {
+        this.initializing.lock();
+        try {
+            final VanityPathIndex index = this.vanityPathIndex;
+            if (index != null) {
+                index.removeTree(actualContentPath);
+            }
+        } finally {
+            this.initializing.unlock();
+        }
     }
 
     private void doUpdateVanityOrder(String path, boolean deletion) {
@@ -524,6 +608,11 @@ public class MapEntries implements EventHandler {
                 }
             }
         }
+        final VanityPathIndex index = this.vanityPathIndex;
+        if (index != null) {
+            index.remove(actualContentPath);
+            index.add(getVanityPathEntries(resource));
+        }
     }
 
     private void doUpdateRedirectStatus(String path) {
@@ -535,11 +624,13 @@ public class MapEntries implements EventHandler {
     }
 
     private void doAddAlias(String path) {
+        invalidateMapResults(path);
         Resource resource = resolver.getResource(path);
         loadAlias(resource, this.aliasMap);
     }
 
     private void doUpdateAlias(String path, boolean nodeDeletion) {
+        invalidateMapResults(path);
         if (nodeDeletion){
             if (path.endsWith("/jcr:content")) {
                 path =  path.substring(0, path.length() - "/jcr:content".length());
@@ -575,6 +666,7 @@ public class MapEntries implements EventHandler {
     }
 
     private void doRemoveAlias(String path, boolean nodeDeletion) {
+        invalidateMapResults(path);
         String resourceName = null;
         if (nodeDeletion) {
             if (!"/".equals(path)){
@@ -611,10 +703,33 @@ public class MapEntries implements EventHandler {
         }
     }
 
+    /**
+     * Removes the cached map results depending on the alias of the resource
+     * at the given path (or of its parent for a jcr:content resource): the
+     * results of the resource and of all its descendants as well as the
+     * results of all paths below its parent, which might resolve through
+     * the alias.
+     */
+    private void invalidateMapResults(final String path) {
+        if (this.mapResultCache != null) {
+            final String actualContentPath = getActualContentPath(path);
+            final String parentPath = ResourceUtil.getParent(actualContentPath);
+            this.mapResultCache.invalidate(parentPath != null ? parentPath : actualContentPath);
+        }
+    }
+
     public boolean isOptimizeAliasResolutionEnabled() {
         return this.enableOptimizeAliasResolution;
     }
 
+    /**
+     * Returns the cache for map results or <code>null</code> if map results
+     * are not cached.
+     */
+    public MapResultCache getMapResultCache() {
+        return this.mapResultCache;
+    }
+
     /**
      * Cleans up this class.
      */
@@ -625,11 +740,22 @@ public class MapEntries implements EventHandler {
            log.error("Error while saving bloom filter to disk", e);
         }
 
+        final VanityPathIndex index = this.vanityPathIndex;
+        if (index != null) {
+            this.vanityPathIndex = null;
+            index.close();
+        }
+
         if (this.registration != null) {
             this.registration.unregister();
             this.registration = null;
         }
 
+        if (this.mapResultCacheRegistration != null) {
+            this.mapResultCacheRegistration.unregister();
+            this.mapResultCacheRegistration = null;
+        }
+
         /*
          * Cooperation with doInit: The same lock as used by doInit is acquired
          * thus preventing doInit from running and waiting for a concurrent
@@ -689,6 +815,8 @@ public class MapEntries implements EventHandler {
     /**
      * Calculate the resolve maps. As the entries have to be sorted by pattern
      * length, we have to create a new list containing all relevant entries.
+     * Only the global entries which may match the request path according to
+     * the current {@link ResolveIndex} snapshot are considered.
      */
     public Iterator<MapEntry> getResolveMapsIterator(final String requestPath) {
         String key = null;
@@ -698,7 +826,14 @@ public class MapEntries implements EventHandler {
             key = requestPath.substring(secondIndex);
         }
 
-        return new MapEntryIterator(key, resolveMapsMap, vanityPathPrecedence);
+        return new MapEntryIterator(key, resolveMapsMap, resolveIndex.getCandidates(requestPath), vanityPathPrecedence);
+    }
+
+    /**
+     * This is for the web console plugin
+     */
+    public ResolveIndex getResolveIndex() {
+        return resolveIndex;
     }
 
     public Collection<MapEntry> getMapMaps() {
@@ -755,9 +890,19 @@ public class MapEntries implements EventHandler {
 
         boolean wasResolverRefreshed = false;
 
+        // a resource added or removed changes the resolution of the
+        // paths cached for map
+        if (this.mapResultCache != null && (SlingConstants.TOPIC_RESOURCE_REMOVED.equals(event.getTopic())
+                || SlingConstants.TOPIC_RESOURCE_ADDED.equals(event.getTopic()))) {
+            this.mapResultCache.invalidate(path);
+        }
+
         //removal of a node is handled differently
         if (SlingConstants.TOPIC_RESOURCE_REMOVED.equals(event.getTopic())) {
             final String actualContentPath = getActualContentPath(path);
+            if (this.vanityPathIndex != null) {
+                doRemoveVanityTree(actualContentPath);
+            }
             for (final String target : this.vanityTargets.keySet()) {
                 if (target.startsWith(actualContentPath)) {
                     wasResolverRefreshed = doRemoveAttributes(path, new String [] {PROP_VANITY_PATH}, true, wasResolverRefreshed);
@@ -861,6 +1006,21 @@ public class MapEntries implements EventHandler {
 
         Map<String, List<MapEntry>> entryMap = new HashMap<String, List<MapEntry>>();
 
+        final VanityPathIndex index = this.vanityPathIndex;
+        if (index != null && index.isReady()) {
+            // lookup in the persisted index instead of querying
+            for (final VanityPathIndex.Entry entry : index.get(vanityPath)) {
+                if (maxCachedVanityPathEntriesStartup || vanityCounter.longValue() < maxCachedVanityPathEntries) {
+                    addVanityPathEntry(entry, resolveMapsMap, vanityTargets, true, false);
+                    entryMap = resolveMapsMap;
+                } else {
+                    final Map <String, List<String>> targetPaths = new HashMap <String, List<String>>();
+                    addVanityPathEntry(entry, entryMap, targetPaths, true, false);
+                }
+            }
+            return entryMap;
+        }
+
         // sling:VanityPath (uppercase V) is the mixin name
         // sling:vanityPath (lowercase) is the property name
         final String queryString = "SELECT sling:vanityPath, sling:redirect, sling:redirectStatus FROM sling:VanityPath WHERE sling:vanityPath ="
@@ -1145,20 +1305,79 @@ public class MapEntries implements EventHandler {
                 loadVanityPath(resource, resolveMapsMap, targetPaths, false,
                         createVanityBloomFilter);
             }
-
         }
 
+        return targetPaths;
+    }
+
+    /**
+     * Load vanity paths from the persisted vanity path index
+     */
+    private Map <String, List<String>> loadVanityPathsFromIndex(final VanityPathIndex index, boolean createVanityBloomFilter) {
+        final Map <String, List<String>> targetPaths = new ConcurrentHashMap <String, List<String>>();
+        final Iterator<VanityPathIndex.Entry> i = index.getEntries();
+
+        while (i.hasNext() && (createVanityBloomFilter || vanityCounter.longValue() < maxCachedVanityPathEntries)) {
+            final VanityPathIndex.Entry entry = i.next();
+            // fill up the cache and the bloom filter or only the bloom filter
+            addVanityPathEntry(entry, resolveMapsMap, targetPaths,
+                    vanityCounter.longValue() < maxCachedVanityPathEntries, createVanityBloomFilter);
+        }
 
         return targetPaths;
     }
 
+    /**
+     * Rebuild the persisted vanity path index from a query of all vanity paths
+     */
+    @SuppressWarnings("deprecation")
+    private void rebuildVanityPathIndex(final VanityPathIndex index) {
+        final String queryString = "SELECT sling:vanityPath, sling:redirect, sling:redirectStatus FROM sling:VanityPath WHERE sling:vanityPath IS NOT NULL";
+        final List<VanityPathIndex.Entry> entries = new ArrayList<VanityPathIndex.Entry>();
+        ResourceResolver queryResolver = null;
+        try {
+            queryResolver = factory.getAdministrativeResourceResolver(null);
+            final Iterator<Resource> i = queryResolver.findResources(queryString, "sql");
+            while (i.hasNext() && this.vanityPathIndex == index) {
+                entries.addAll(getVanityPathEntries(i.next()));
+            }
+            if (this.vanityPathIndex == index) {
+                index.rebuild(entries);
+                log.debug("Rebuilt vanity path index with {} entries", entries.size());
+            }
+        } catch (final Exception e) {
+            log.error("Unable to persist vanity path index, falling back to queries", e);
+            if (this.vanityPathIndex == index) {
+                this.vanityPathIndex = null;
+            }
+            index.close();
+        } finally {
+            if (queryResolver != null) {
+                queryResolver.close();
+            }
+        }
+    }
+
     /**
      * Load vanity path given a resource
+     *
+     * @return the vanity path definitions of the resource
      */
-    private void loadVanityPath(final Resource resource, final Map<String, List<MapEntry>> entryMap, final Map <String, List<String>> targetPaths, boolean addToCache, boolean newVanity) {
+    private List<VanityPathIndex.Entry> loadVanityPath(final Resource resource, final Map<String, List<MapEntry>> entryMap, final Map <String, List<String>> targetPaths, boolean addToCache, boolean newVanity) {
+        final List<VanityPathIndex.Entry> entries = getVanityPathEntries(resource);
+        for (final VanityPathIndex.Entry entry : entries) {
+            addVanityPathEntry(entry, entryMap, targetPaths, addToCache, newVanity);
+        }
+        return entries;
+    }
 
-        if (!isValidVanityPath(resource)) {
-            return;
+    /**
+     * Get the vanity path definitions of a resource
+     */
+    private List<VanityPathIndex.Entry> getVanityPathEntries(final Resource resource) {
+        final List<VanityPathIndex.Entry> entries = new ArrayList<VanityPathIndex.Entry>();
+        if (resource == null || !isValidVanityPath(resource)) {
+            return entries;
         }
 
         final ValueMap props = resource.adaptTo(ValueMap.class);
@@ -1173,7 +1392,6 @@ public class MapEntries implements EventHandler {
         for (final String pVanityPath : pVanityPaths) {
             final String[] result = this.getVanityPathDefinition(pVanityPath);
             if (result != null) {
-                final String url = result[0] + result[1];
                 // redirect target is the node providing the
                 // sling:vanityPath
                 // property (or its parent if the node is called
@@ -1184,8 +1402,6 @@ public class MapEntries implements EventHandler {
                 } else {
                     redirectTarget = resource;
                 }
-                final String redirect = redirectTarget.getPath();
-                final String redirectName = redirectTarget.getName();
 
                 // whether the target is attained by a external redirect or
                 // by an internal redirect is defined by the sling:redirect
@@ -1194,46 +1410,59 @@ public class MapEntries implements EventHandler {
                         PROP_REDIRECT_EXTERNAL_REDIRECT_STATUS, factory.getDefaultVanityPathRedirectStatus())
                         : -1;
 
-                final String checkPath = result[1];
-
-                boolean addedEntry;
-                if (addToCache) {
-                    if (redirectName.indexOf('.') > -1) {
-                        // 1. entry with exact match
-                        this.addEntry(entryMap, checkPath, getMapEntry(url + "$", status, false, vanityOrder, redirect));
-
-                        final int idx = redirectName.lastIndexOf('.');
-                        final String extension = redirectName.substring(idx + 1);
+                entries.add(new VanityPathIndex.Entry(result[1], result[0], redirectTarget.getPath(), vanityOrder, status));
+            }
+        }
+        return entries;
+    }
 
-                        // 2. entry with extension
-                        addedEntry = this.addEntry(entryMap, checkPath, getMapEntry(url + "\\." + extension, status, false, vanityOrder, redirect));
-                    } else {
-                        // 1. entry with exact match
-                        this.addEntry(entryMap, checkPath, getMapEntry(url + "$", status, false, vanityOrder, redirect + ".html"));
+    /**
+     * Add a single vanity path definition to the resolve map
+     */
+    private void addVanityPathEntry(final VanityPathIndex.Entry vanityPathEntry, final Map<String, List<MapEntry>> entryMap, final Map <String, List<String>> targetPaths, boolean addToCache, boolean newVanity) {
+        final String checkPath = vanityPathEntry.getVanityPath();
+        final String url = vanityPathEntry.getPrefix() + checkPath;
+        final String redirect = vanityPathEntry.getTarget();
+        final String redirectName = ResourceUtil.getName(redirect);
+        final int status = vanityPathEntry.getStatus();
+        final long vanityOrder = vanityPathEntry.getOrder();
+
+        boolean addedEntry;
+        if (addToCache) {
+            if (redirectName.indexOf('.') > -1) {
+                // 1. entry with exact match
+                this.addEntry(entryMap, checkPath, getMapEntry(url + "$", status, false, vanityOrder, redirect));
+
+                final int idx = redirectName.lastIndexOf('.');
+                final String extension = redirectName.substring(idx + 1);
+
+                // 2. entry with extension
+                addedEntry = this.addEntry(entryMap, checkPath, getMapEntry(url + "\\." + extension, status, false, vanityOrder, redirect));
+            } else {
+                // 1. entry with exact match
+                this.addEntry(entryMap, checkPath, getMapEntry(url + "$", status, false, vanityOrder, redirect + ".html"));
 
-                        // 2. entry with match supporting selectors and extension
-                        addedEntry = this.addEntry(entryMap, checkPath, getMapEntry(url + "(\\..*)", status, false, vanityOrder, redirect + "$1"));
-                    }
-                    if (addedEntry) {
-                        // 3. keep the path to return
-                        this.updateTargetPaths(targetPaths, redirect, checkPath);
-                        //increment only if the instance variable
-                        if (entryMap == resolveMapsMap) {
-                            vanityCounter.addAndGet(2);
-                        }
+                // 2. entry with match supporting selectors and extension
+                addedEntry = this.addEntry(entryMap, checkPath, getMapEntry(url + "(\\..*)", status, false, vanityOrder, redirect + "$1"));
+            }
+            if (addedEntry) {
+                // 3. keep the path to return
+                this.updateTargetPaths(targetPaths, redirect, checkPath);
+                //increment only if the instance variable
+                if (entryMap == resolveMapsMap) {
+                    vanityCounter.addAndGet(2);
+                }
 
-                        if (newVanity) {
-                            // update bloom filter
-                            BloomFilterUtils.add(vanityBloomFilter, checkPath);
-                        }
-                    }
-                } else {
-                    if (newVanity) {
-                        // update bloom filter
-                        BloomFilterUtils.add(vanityBloomFilter, checkPath);
-                    }
+                if (newVanity) {
+                    // update bloom filter
+                    BloomFilterUtils.add(vanityBloomFilter, checkPath);
                 }
             }
+        } else {
+            if (newVanity) {
+                // update bloom filter
+                BloomFilterUtils.add(vanityBloomFilter, checkPath);
+            }
         }
     }
 
@@ -1436,10 +1665,11 @@ public class MapEntries implements EventHandler {
 
         private boolean vanityPathPrecedence;
 
-        public MapEntryIterator(final String startKey, final Map<String, List<MapEntry>> resolveMapsMap, final boolean vanityPathPrecedence) {
+        public MapEntryIterator(final String startKey, final Map<String, List<MapEntry>> resolveMapsMap,
+                final List<MapEntry> globalCandidates, final boolean vanityPathPrecedence) {
             this.key = startKey;
             this.resolveMapsMap = resolveMapsMap;
-            this.globalListIterator = this.resolveMapsMap.get(GLOBAL_LIST_KEY).iterator();
+            this.globalListIterator = globalCandidates.iterator();
             this.vanityPathPrecedence = vanityPathPrecedence;
             this.seek();
         }
@@ -1562,6 +1792,65 @@ public class MapEntries implements EventHandler {
         return mapEntry;
     }
 
+    static final class MapResultCacheMBeanImpl extends StandardMBean implements MapResultCacheMBean {
+
+        private final MapResultCache cache;
+
+        MapResultCacheMBeanImpl(final MapResultCache cache) throws NotCompliantMBeanException {
+            super(MapResultCacheMBean.class);
+            this.cache = cache;
+        }
+
+        @Override
+        public int getCacheSize() {
+            return cache.getSize();
+        }
+
+        @Override
+        public int getMaximumCacheSize() {
+            return cache.getMaxSize();
+        }
+
+        @Override
+        public long getHitCount() {
+            return cache.getHits();
+        }
+
+        @Override
+        public long getMissCount() {
+            return cache.getMisses();
+        }
+
+        @Override
+        public long getEvictionCount() {
+            return cache.getEvictions();
+        }
+
+        @Override
+        public long getInvalidationCount() {
+            return cache.getInvalidations();
+        }
+
+        @Override
+        public void flushCache() {
+            cache.clear();
+        }
+    }
+
+    final class VanityPathIndexTask extends TimerTask {
+
+        private final VanityPathIndex index;
+
+        VanityPathIndexTask(final VanityPathIndex index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            rebuildVanityPathIndex(this.index);
+        }
+    }
+
     final class BloomFilterTask extends TimerTask {
         @Override
         public void run() {
@@ -0,0 +1,349 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.mapping;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The <code>MapResultCache</code> caches the results of
+ * <code>ResourceResolver.map</code> calls. It is owned by {@link MapEntries}
+ * which invalidates it whenever the alias map, the map entries or the
+ * resources change.
+ * <p>
+ * Entries are keyed by the request scheme, host, port and context path, by
+ * the user of the resource resolver and by the path passed to map, so a
+ * result can be returned without resolving the path again. The resolution
+ * depends on the resources the user may read, so results are only shared
+ * amongst the resource resolvers of the same user. The path of the resource
+ * the path resolved to is kept with the result.
+ * <p>
+ * The cache is bounded and approximates a least recently used order with two
+ * segments: new results are added to the current segment, results found in
+ * the previous segment are moved to the current one. Once the current segment
+ * is full, the previous segment is dropped and the current segment becomes the
+ * previous one.
+ * <p>
+ * Invalidating a path does not traverse the cache: it increments the
+ * generation of the cache and records the path in a log of the last
+ * {@link #INVALIDATION_LOG_SIZE} invalidations. Each result keeps the
+ * generation it has last been checked at. When it is read, it is checked
+ * against the paths invalidated since and dropped if it depends on one of
+ * them or if the log does not reach back far enough. A result is only cached
+ * if it does not depend on a path invalidated since the computation started,
+ * see {@link #getGeneration()}.
+ */
+public class MapResultCache {
+
+    /** The number of invalidations results are checked against lazily. */
+    static final int INVALIDATION_LOG_SIZE = 256;
+
+    private final int maxSize;
+
+    private final int segmentSize;
+
+    /** Guards the rotation of the segments and the invalidations. */
+    private final Object lock = new Object();
+
+    private volatile ConcurrentMap<Key, Result> current = new ConcurrentHashMap<Key, Result>();
+
+    private volatile ConcurrentMap<Key, Result> previous = new ConcurrentHashMap<Key, Result>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /** The invalidated paths by generation, written before the generation is incremented. */
+    private final AtomicReferenceArray<String> invalidatedPaths = new AtomicReferenceArray<String>(INVALIDATION_LOG_SIZE);
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public MapResultCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.segmentSize = Math.max(1, maxSize / 2);
+    }
+
+    /**
+     * Returns the cached result or <code>null</code>.
+     */
+    public String get(final Key key) {
+        ConcurrentMap<Key, Result> segment = current;
+        Result result = segment.get(key);
+        boolean found = result != null;
+        if (!found) {
+            segment = previous;
+            result = segment.get(key);
+        }
+        if (result != null && !isValid(key, result)) {
+            segment.remove(key, result);
+            result = null;
+        }
+        if (result != null) {
+            if (!found) {
+                // keep recently used results
+                add(key, result);
+            }
+            hits.incrementAndGet();
+            return result.mappedPath;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Returns the current generation of the cache. It must be fetched before
+     * the result to be cached is computed and passed to
+     * {@link #put(Key, String, String, long)}.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Caches the result unless it depends on a path invalidated since the
+     * given generation has been retrieved.
+     *
+     * @param key The key
+     * @param resourcePath The path of the resolved resource or <code>null</code>
+     * @param mappedPath The result of the map call
+     * @param startGeneration The generation before the result has been computed
+     */
+    public void put(final Key key, final String resourcePath, final String mappedPath, final long startGeneration) {
+        final long latest = generation.get();
+        if (isValid(key.path, resourcePath, startGeneration, latest)) {
+            add(key, new Result(resourcePath, mappedPath, latest));
+        }
+    }
+
+    private void add(final Key key, final Result result) {
+        ConcurrentMap<Key, Result> segment = current;
+        if (segment.size() >= segmentSize) {
+            segment = rotate();
+        }
+        segment.put(key, result);
+    }
+
+    /**
+     * Drops the previous segment if the current one is full.
+     * @return The current segment
+     */
+    private ConcurrentMap<Key, Result> rotate() {
+        synchronized (lock) {
+            if (current.size() >= segmentSize) {
+                evictions.addAndGet(previous.size());
+                previous = current;
+                current = new ConcurrentHashMap<Key, Result>();
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Checks the result against the paths invalidated since it has been
+     * checked last.
+     */
+    private boolean isValid(final Key key, final Result result) {
+        final long checked = result.generation;
+        final long latest = generation.get();
+        if (checked == latest) {
+            return true;
+        }
+        if (!isValid(key.path, result.resourcePath, checked, latest)) {
+            return false;
+        }
+        result.generation = latest;
+        return true;
+    }
+
+    /**
+     * Checks whether a result depends on one of the paths invalidated after
+     * the first and up to the last given generation.
+     */
+    private boolean isValid(final String requestPath, final String resourcePath, final long from, final long to) {
+        if (to - from > INVALIDATION_LOG_SIZE) {
+            return false;
+        }
+        for (long g = from + 1; g <= to; g++) {
+            final String path = invalidatedPaths.get((int) (g % INVALIDATION_LOG_SIZE));
+            if (path == null || dependsOn(requestPath, resourcePath, path)) {
+                return false;
+            }
+        }
+        // the log entries might have been overwritten while being checked
+        return generation.get() - from <= INVALIDATION_LOG_SIZE;
+    }
+
+    /**
+     * Whether a result depends on the resource at the given path: the result
+     * for this resource or its descendants or the result of a path whose
+     * resolution might find this resource, that is the path itself, the paths
+     * below it and the paths with selectors or extensions.
+     */
+    private static boolean dependsOn(final String requestPath, final String resourcePath, final String path) {
+        final String prefix = path.endsWith("/") ? path : path.concat("/");
+        return isResolvedFrom(requestPath, path, prefix)
+                || (resourcePath != null && (resourcePath.equals(path) || resourcePath.startsWith(prefix)));
+    }
+
+    private static boolean isResolvedFrom(final String requestPath, final String path, final String prefix) {
+        if (!requestPath.startsWith(path)) {
+            return false;
+        }
+        return requestPath.length() == path.length() || requestPath.charAt(path.length()) == '.'
+                || requestPath.startsWith(prefix);
+    }
+
+    /**
+     * Invalidates all results depending on the resource at the given path.
+     * The results are dropped when they are read next.
+     */
+    public void invalidate(final String path) {
+        invalidations.incrementAndGet();
+        synchronized (lock) {
+            final long next = generation.get() + 1;
+            invalidatedPaths.set((int) (next % INVALIDATION_LOG_SIZE), path);
+            generation.set(next);
+        }
+    }
+
+    /**
+     * Removes all results.
+     */
+    public void clear() {
+        // the root invalidates the results being computed
+        invalidate("/");
+        synchronized (lock) {
+            current.clear();
+            previous.clear();
+        }
+    }
+
+    public int getSize() {
+        return current.size() + previous.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * A cached result together with the path of the resolved resource.
+     */
+    private static final class Result {
+
+        private final String resourcePath;
+
+        private final String mappedPath;
+
+        /** The generation the result has last been checked at. */
+        private volatile long generation;
+
+        Result(final String resourcePath, final String mappedPath, final long generation) {
+            this.resourcePath = resourcePath;
+            this.mappedPath = mappedPath;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * The cache key: the request properties, the user of the resource
+     * resolver and the path passed to map.
+     */
+    public static final class Key {
+
+        private final String scheme;
+
+        private final String host;
+
+        private final int port;
+
+        private final String contextPath;
+
+        private final String userId;
+
+        private final String path;
+
+        private final int hashCode;
+
+        public Key(final String scheme, final String host, final int port, final String contextPath,
+                final String userId, final String path) {
+            this.scheme = scheme;
+            this.host = host;
+            this.port = port;
+            this.contextPath = contextPath;
+            this.userId = userId;
+            this.path = path;
+
+            int h = path.hashCode();
+            h = 31 * h + (userId == null ? 0 : userId.hashCode());
+            h = 31 * h + (scheme == null ? 0 : scheme.hashCode());
+            h = 31 * h + (host == null ? 0 : host.hashCode());
+            h = 31 * h + port;
+            this.hashCode = 31 * h + (contextPath == null ? 0 : contextPath.hashCode());
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return hashCode == other.hashCode && port == other.port
+                    && path.equals(other.path)
+                    && equals(userId, other.userId)
+                    && equals(scheme, other.scheme)
+                    && equals(host, other.host)
+                    && equals(contextPath, other.contextPath);
+        }
+
+        private static boolean equals(final String a, final String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.mapping;
+
+/**
+ * This is the management interface for the cache of
+ * <code>ResourceResolver.map</code> results.
+ */
+public interface MapResultCacheMBean {
+
+    /**
+     * Get the current number of cached results
+     *
+     * @return the cache size
+     */
+    int getCacheSize();
+
+    /**
+     * Get the maximum configured number of cached results
+     *
+     * @return the maximum configured size
+     */
+    int getMaximumCacheSize();
+
+    /**
+     * Get the number of lookups answered from the cache
+     *
+     * @return the number of hits
+     */
+    long getHitCount();
+
+    /**
+     * Get the number of lookups not answered from the cache
+     *
+     * @return the number of misses
+     */
+    long getMissCount();
+
+    /**
+     * Get the number of entries evicted because the cache was full
+     *
+     * @return the number of evictions
+     */
+    long getEvictionCount();
+
+    /**
+     * Get the number of invalidations caused by mapping changes
+     *
+     * @return the number of invalidations
+     */
+    long getInvalidationCount();
+
+    /**
+     * Flush the cache.
+     */
+    void flushCache();
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.mapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The <code>ResolveIndex</code> is an immutable snapshot of the global
+ * resolve map entries (the <code>/etc/map</code> entries and the configured
+ * virtual URLs and mappings) compiled into a path segment trie.
+ * <p>
+ * Every entry is anchored at the start of the request path, so the literal
+ * prefix of its pattern (everything up to the first regular expression
+ * construct) must be a prefix of any request path it can match. Entries are
+ * stored at the trie node for the complete segments of that literal prefix.
+ * Entries without a usable literal prefix - e.g. the
+ * {@link MapEntries#ANY_SCHEME_HOST} entries or patterns using alternation -
+ * are kept at the root node and act as the regular expression fallback list.
+ * <p>
+ * {@link #getCandidates(String)} returns the entries which might match a
+ * request path in the same order as the sorted global list, so iterating the
+ * candidates yields exactly the same first match as iterating the full list.
+ * <p>
+ * Instances are never modified after construction and are published by
+ * {@link MapEntries} through a volatile field, so lookups do not require any
+ * locking.
+ */
+public class ResolveIndex {
+
+    public static final ResolveIndex EMPTY = new ResolveIndex(Collections.<MapEntry> emptyList());
+
+    private static final Comparator<IndexedEntry> POSITION_ORDER = new Comparator<IndexedEntry>() {
+        @Override
+        public int compare(final IndexedEntry o1, final IndexedEntry o2) {
+            return o1.position < o2.position ? -1 : (o1.position == o2.position ? 0 : 1);
+        }
+    };
+
+    private final Node root = new Node();
+
+    private final List<MapEntry> entries;
+
+    private final int fallbackSize;
+
+    /**
+     * Creates the index for the given global resolve entries.
+     *
+     * @param sortedEntries The global resolve entries in their resolution
+     *            order. The list is copied.
+     */
+    public ResolveIndex(final List<MapEntry> sortedEntries) {
+        this.entries = Collections.unmodifiableList(new ArrayList<MapEntry>(sortedEntries));
+        for (int i = 0; i < this.entries.size(); i++) {
+            final MapEntry entry = this.entries.get(i);
+            final String prefix = getLiteralPrefix(entry.getPattern());
+
+            Node node = root;
+            int start = 0;
+            int slash = prefix.indexOf('/');
+            while (slash != -1) {
+                node = node.getOrCreateChild(prefix.substring(start, slash));
+                start = slash + 1;
+                slash = prefix.indexOf('/', start);
+            }
+            node.entries.add(new IndexedEntry(i, prefix, entry));
+        }
+        this.fallbackSize = root.entries.size();
+    }
+
+    /**
+     * Returns the entries which may match the given request path, in their
+     * resolution order. Entries not returned are guaranteed not to match.
+     */
+    public List<MapEntry> getCandidates(final String requestPath) {
+        if (this.entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<IndexedEntry> found = new ArrayList<IndexedEntry>();
+        Node node = root;
+        int start = 0;
+        while (node != null) {
+            for (final IndexedEntry entry : node.entries) {
+                if (requestPath.startsWith(entry.prefix)) {
+                    found.add(entry);
+                }
+            }
+
+            final int slash = requestPath.indexOf('/', start);
+            if (slash == -1 || node.children == null) {
+                break;
+            }
+            node = node.children.get(requestPath.substring(start, slash));
+            start = slash + 1;
+        }
+
+        Collections.sort(found, POSITION_ORDER);
+        final List<MapEntry> result = new ArrayList<MapEntry>(found.size());
+        for (final IndexedEntry entry : found) {
+            result.add(entry.entry);
+        }
+        return result;
+    }
+
+    /**
+     * Returns all entries of this index in their resolution order.
+     */
+    public List<MapEntry> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * Returns the number of entries which have no literal prefix and thus
+     * have to be tried for every request path.
+     */
+    public int getFallbackSize() {
+        return this.fallbackSize;
+    }
+
+    /**
+     * Returns the literal prefix of the given regular expression, which is
+     * assumed to be anchored at the start of the input with a leading
+     * <code>^</code>. The prefix ends before the first character having a
+     * special meaning. An empty string is returned if the pattern is not
+     * anchored or contains an alternation, as in these cases no prefix can
+     * be guaranteed.
+     */
+    static String getLiteralPrefix(final String pattern) {
+        if (!pattern.startsWith("^") || hasAlternation(pattern)) {
+            return "";
+        }
+
+        final StringBuilder prefix = new StringBuilder();
+        for (int i = 1; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (c == '\\') {
+                // escaped character: only non alphanumerical ones are literals
+                if (i + 1 < pattern.length() && !Character.isLetterOrDigit(pattern.charAt(i + 1))) {
+                    i++;
+                    if (isQuantifier(pattern, i + 1)) {
+                        break;
+                    }
+                    prefix.append(pattern.charAt(i));
+                    continue;
+                }
+                break;
+            } else if (".[]()^$|".indexOf(c) >= 0 || isQuantifier(pattern, i)) {
+                break;
+            } else if (isQuantifier(pattern, i + 1)) {
+                // the character is optional or repeated
+                break;
+            }
+            prefix.append(c);
+        }
+        return prefix.toString();
+    }
+
+    private static boolean isQuantifier(final String pattern, final int index) {
+        if (index >= pattern.length()) {
+            return false;
+        }
+        final char c = pattern.charAt(index);
+        return c == '?' || c == '*' || c == '+' || c == '{';
+    }
+
+    private static boolean hasAlternation(final String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '|') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Node {
+
+        private final List<IndexedEntry> entries = new ArrayList<IndexedEntry>();
+
+        private Map<String, Node> children;
+
+        Node getOrCreateChild(final String segment) {
+            if (children == null) {
+                children = new HashMap<String, Node>();
+            }
+            Node child = children.get(segment);
+            if (child == null) {
+                child = new Node();
+                children.put(segment, child);
+            }
+            return child;
+        }
+    }
+
+    private static final class IndexedEntry {
+
+        private final int position;
+
+        private final String prefix;
+
+        private final MapEntry entry;
+
+        IndexedEntry(final int position, final String prefix, final MapEntry entry) {
+            this.position = position;
+            this.prefix = prefix;
+            this.entry = entry;
+        }
+    }
+}
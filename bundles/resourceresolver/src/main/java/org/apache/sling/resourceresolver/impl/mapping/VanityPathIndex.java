@@ -0,0 +1,813 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.mapping;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The <code>VanityPathIndex</code> is a persisted index of all vanity path
+ * definitions, used by {@link MapEntries} if not all vanity paths are kept in
+ * memory.
+ * <p>
+ * The index consists of a sorted, memory mapped data file and a journal. The
+ * data file contains the entries sorted by vanity path together with a second
+ * offset table sorted by target path, so lookups by vanity path and by target
+ * (sub)tree are binary searches in the mapped file. Changes are appended to the
+ * journal and kept in an in-memory overlay holding the complete current state
+ * of every modified target. Once the journal exceeds {@link #COMPACT_THRESHOLD}
+ * operations the overlay is merged into a new data file.
+ * <p>
+ * Lookups are lock free: the mapped file is published together with its
+ * overlay through a volatile field. The overlay consists of concurrent maps
+ * which are modified in place, every target is replaced as a whole.
+ * Modifications are synchronized.
+ * <p>
+ * An existing index is reopened on start without querying the repository; it
+ * is only rebuilt by a query if the data file is missing or corrupt. While it
+ * is rebuilt, the changes are recorded and applied to the rebuilt index, see
+ * {@link #startRebuild()}. Like the vanity bloom filter the index is only
+ * updated through observation. Changes done while the bundle is not active
+ * are not seen, deleting the data file forces the index to be rebuilt on the
+ * next start.
+ */
+public class VanityPathIndex {
+
+    /** Number of journal operations after which the index is compacted. */
+    static final int COMPACT_THRESHOLD = 10000;
+
+    private static final int MAGIC = 0x534c5649;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 12;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Comparator<Entry> KEY_ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(final Entry o1, final Entry o2) {
+            final int result = o1.getVanityPath().compareTo(o2.getVanityPath());
+            return result != 0 ? result : o1.getTarget().compareTo(o2.getTarget());
+        }
+    };
+
+    /** default log */
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final File dataFile;
+
+    private final File journalFile;
+
+    private volatile State state = new State(DataFile.EMPTY);
+
+    /** Whether the index is complete, i.e. has been opened or rebuilt. */
+    private volatile boolean ready;
+
+    private DataOutputStream journal;
+
+    private int journalOperations;
+
+    /** The targets modified since a rebuild started, <code>null</code> if not rebuilding. */
+    private Map<String, List<Entry>> rebuildChanges;
+
+    /** The trees removed since a rebuild started, <code>null</code> if not rebuilding. */
+    private List<String> rebuildRemovedTrees;
+
+    private boolean closed;
+
+    public VanityPathIndex(final File dataFile, final File journalFile) {
+        this.dataFile = dataFile;
+        this.journalFile = journalFile;
+    }
+
+    /**
+     * Opens the persisted index: maps the data file and replays the journal.
+     *
+     * @return <code>false</code> if there is no valid data file and the index
+     *         has to be rebuilt
+     */
+    public synchronized boolean open() {
+        if (!this.dataFile.exists()) {
+            return false;
+        }
+        try {
+            final State newState = new State(DataFile.open(this.dataFile));
+            this.journalOperations = replayJournal(newState);
+            this.state = newState;
+            this.journal = openJournal();
+        } catch (final IOException e) {
+            log.warn("Unable to open vanity path index " + this.dataFile + ", rebuilding it", e);
+            return false;
+        }
+        this.ready = true;
+        if (this.journalOperations >= COMPACT_THRESHOLD) {
+            try {
+                compact();
+            } catch (final IOException e) {
+                log.error("Unable to compact vanity path index " + this.dataFile, e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> if the index is complete and can be used
+     * for lookups instead of querying the repository.
+     */
+    public boolean isReady() {
+        return this.ready;
+    }
+
+    /**
+     * Starts recording the changes to the index, such that they can be
+     * applied to the entries passed to {@link #rebuild(Collection)}, which
+     * have been read by a query started after this call.
+     */
+    public synchronized void startRebuild() {
+        this.rebuildChanges = new LinkedHashMap<String, List<Entry>>();
+        this.rebuildRemovedTrees = new ArrayList<String>();
+    }
+
+    /**
+     * Replaces the complete index with the given entries, e.g. after the
+     * vanity paths have been loaded by a repository query. The changes
+     * recorded since {@link #startRebuild()} are applied on top.
+     */
+    public synchronized void rebuild(final Collection<Entry> entries) throws IOException {
+        if (this.closed) {
+            return;
+        }
+        final Map<String, List<Entry>> changes = this.rebuildChanges;
+        final List<String> removedTrees = this.rebuildRemovedTrees;
+        this.rebuildChanges = null;
+        this.rebuildRemovedTrees = null;
+        if (removedTrees != null && !removedTrees.isEmpty()) {
+            final List<Entry> remaining = new ArrayList<Entry>(entries.size());
+            for (final Entry entry : entries) {
+                if (!isInTree(entry.getTarget(), removedTrees)) {
+                    remaining.add(entry);
+                }
+            }
+            write(remaining);
+        } else {
+            write(entries);
+        }
+        this.ready = true;
+        if (changes != null) {
+            for (final Map.Entry<String, List<Entry>> change : changes.entrySet()) {
+                set(change.getKey(), change.getValue());
+            }
+        }
+    }
+
+    /**
+     * Closes the journal. The persisted index is kept for the next start,
+     * the index must not be used afterwards.
+     */
+    public synchronized void close() {
+        this.closed = true;
+        this.ready = false;
+        this.rebuildChanges = null;
+        this.rebuildRemovedTrees = null;
+        closeJournal();
+    }
+
+    /**
+     * Returns all entries for the given vanity path.
+     */
+    public List<Entry> get(final String vanityPath) {
+        final State current = this.state;
+        final List<Entry> result = new ArrayList<Entry>();
+        for (final Entry entry : current.data.getByVanityPath(vanityPath)) {
+            if (!current.overlay.containsKey(entry.getTarget())) {
+                result.add(entry);
+            }
+        }
+        final Set<String> targets = current.overlayTargets.get(vanityPath);
+        if (targets != null) {
+            for (final String target : targets) {
+                final List<Entry> entries = current.overlay.get(target);
+                if (entries != null) {
+                    for (final Entry entry : entries) {
+                        if (entry.getVanityPath().equals(vanityPath)) {
+                            result.add(entry);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns an iterator over all entries of the index, not in any
+     * particular order.
+     */
+    public Iterator<Entry> getEntries() {
+        final State current = this.state;
+        final Iterator<Entry> dataIterator = current.data.iterator();
+        final Iterator<List<Entry>> overlayIterator = current.overlay.values().iterator();
+        return new Iterator<Entry>() {
+
+            private Iterator<Entry> overlayEntries = Collections.<Entry> emptyList().iterator();
+
+            private Entry next = seek();
+
+            private Entry seek() {
+                while (dataIterator.hasNext()) {
+                    final Entry entry = dataIterator.next();
+                    if (!current.overlay.containsKey(entry.getTarget())) {
+                        return entry;
+                    }
+                }
+                while (!overlayEntries.hasNext() && overlayIterator.hasNext()) {
+                    overlayEntries = overlayIterator.next().iterator();
+                }
+                return overlayEntries.hasNext() ? overlayEntries.next() : null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Entry next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                final Entry result = next;
+                next = seek();
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Adds the entries to the index.
+     */
+    public synchronized void add(final List<Entry> entries) {
+        for (final Entry entry : entries) {
+            final List<Entry> current = getByTarget(entry.getTarget());
+            final List<Entry> updated = new ArrayList<Entry>(current.size() + 1);
+            for (final Entry e : current) {
+                if (!e.getVanityPath().equals(entry.getVanityPath()) || !e.getPrefix().equals(entry.getPrefix())) {
+                    updated.add(e);
+                }
+            }
+            updated.add(entry);
+            set(entry.getTarget(), updated);
+        }
+    }
+
+    /**
+     * Removes all entries for the given target.
+     */
+    public synchronized void remove(final String target) {
+        // while rebuilding the target might only be part of the new entries
+        if (this.rebuildChanges != null || !getByTarget(target).isEmpty()) {
+            set(target, Collections.<Entry> emptyList());
+        }
+    }
+
+    /**
+     * Removes all entries for the given target and all targets below it.
+     */
+    public synchronized void removeTree(final String path) {
+        if (this.rebuildRemovedTrees != null) {
+            this.rebuildRemovedTrees.add(path);
+        }
+        final State current = this.state;
+        final Set<String> targets = new HashSet<String>();
+        for (final Entry entry : current.data.getByTargetTree(path)) {
+            targets.add(entry.getTarget());
+        }
+        for (final Map.Entry<String, List<Entry>> overlayEntry : current.overlay.entrySet()) {
+            if (isInTree(overlayEntry.getKey(), path) && !overlayEntry.getValue().isEmpty()) {
+                targets.add(overlayEntry.getKey());
+            }
+        }
+        for (final String target : targets) {
+            remove(target);
+        }
+    }
+
+    /**
+     * Returns the number of journal operations not yet merged into the data
+     * file.
+     */
+    public synchronized int getJournalSize() {
+        return this.journalOperations;
+    }
+
+    private List<Entry> getByTarget(final String target) {
+        final State current = this.state;
+        final List<Entry> entries = current.overlay.get(target);
+        if (entries != null) {
+            return entries;
+        }
+        return current.data.getByTarget(target);
+    }
+
+    private void set(final String target, final List<Entry> entries) {
+        if (this.closed) {
+            return;
+        }
+        final List<Entry> unmodifiable = Collections.unmodifiableList(entries);
+        if (this.rebuildChanges != null) {
+            this.rebuildChanges.put(target, unmodifiable);
+        }
+        final State current = this.state;
+        current.set(target, unmodifiable);
+        if (this.journal != null) {
+            try {
+                writeOperation(this.journal, target, entries);
+                this.journal.flush();
+                this.journalOperations++;
+                if (this.journalOperations >= COMPACT_THRESHOLD) {
+                    compact();
+                }
+            } catch (final IOException e) {
+                log.error("Unable to update vanity path index journal " + this.journalFile, e);
+            }
+        }
+    }
+
+    /**
+     * Merges the journal into a new data file.
+     */
+    private void compact() throws IOException {
+        log.debug("Compacting vanity path index {}", this.dataFile);
+        final List<Entry> entries = new ArrayList<Entry>();
+        final Iterator<Entry> i = getEntries();
+        while (i.hasNext()) {
+            entries.add(i.next());
+        }
+        write(entries);
+    }
+
+    /**
+     * Writes a new data file with the given entries and resets the journal.
+     */
+    private void write(final Collection<Entry> entries) throws IOException {
+        closeJournal();
+        final List<Entry> sorted = new ArrayList<Entry>(entries);
+        Collections.sort(sorted, KEY_ORDER);
+        this.state = new State(DataFile.write(this.dataFile, sorted));
+        if (this.journalFile.exists() && !this.journalFile.delete()) {
+            throw new IOException("Unable to delete vanity path index journal " + this.journalFile);
+        }
+        this.journalOperations = 0;
+        this.journal = openJournal();
+    }
+
+    private int replayJournal(final State target) throws IOException {
+        if (!this.journalFile.exists()) {
+            return 0;
+        }
+        final byte[] content = new byte[(int) this.journalFile.length()];
+        final DataInputStream in = new DataInputStream(new FileInputStream(this.journalFile));
+        try {
+            in.readFully(content);
+        } finally {
+            in.close();
+        }
+
+        int operations = 0;
+        int validLength = 0;
+        final ByteArrayInputStream bytes = new ByteArrayInputStream(content);
+        final DataInputStream data = new DataInputStream(bytes);
+        try {
+            while (bytes.available() > 0) {
+                final String path = data.readUTF();
+                final int count = data.readInt();
+                final List<Entry> entries = new ArrayList<Entry>(count);
+                for (int n = 0; n < count; n++) {
+                    entries.add(new Entry(data.readUTF(), data.readUTF(), path, data.readLong(), data.readInt()));
+                }
+                target.set(path, Collections.unmodifiableList(entries));
+                operations++;
+                validLength = content.length - bytes.available();
+            }
+        } catch (final EOFException e) {
+            // incomplete last operation, e.g. after a crash
+            log.warn("Ignoring incomplete vanity path index journal entry in {}", this.journalFile);
+            final RandomAccessFile file = new RandomAccessFile(this.journalFile, "rw");
+            try {
+                file.setLength(validLength);
+            } finally {
+                file.close();
+            }
+        }
+        return operations;
+    }
+
+    private DataOutputStream openJournal() throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.journalFile, true)));
+    }
+
+    private void closeJournal() {
+        if (this.journal != null) {
+            try {
+                this.journal.close();
+            } catch (final IOException e) {
+                log.error("Unable to close vanity path index journal " + this.journalFile, e);
+            }
+            this.journal = null;
+        }
+    }
+
+    private static void writeOperation(final DataOutputStream out, final String target, final List<Entry> entries)
+            throws IOException {
+        out.writeUTF(target);
+        out.writeInt(entries.size());
+        for (final Entry entry : entries) {
+            out.writeUTF(entry.getVanityPath());
+            out.writeUTF(entry.getPrefix());
+            out.writeLong(entry.getOrder());
+            out.writeInt(entry.getStatus());
+        }
+    }
+
+    private static boolean isInTree(final String target, final List<String> paths) {
+        for (final String path : paths) {
+            if (isInTree(target, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isInTree(final String target, final String path) {
+        return target.equals(path) || target.startsWith(path.endsWith("/") ? path : path.concat("/"));
+    }
+
+    /**
+     * A single vanity path definition: the vanity path (without extension),
+     * the scheme/host prefix of the resolve entry, the target resource path
+     * as well as the order and redirect status.
+     */
+    public static final class Entry {
+
+        private final String vanityPath;
+
+        private final String prefix;
+
+        private final String target;
+
+        private final long order;
+
+        private final int status;
+
+        public Entry(final String vanityPath, final String prefix, final String target, final long order,
+                final int status) {
+            this.vanityPath = vanityPath;
+            this.prefix = prefix;
+            this.target = target;
+            this.order = order;
+            this.status = status;
+        }
+
+        public String getVanityPath() {
+            return vanityPath;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public long getOrder() {
+            return order;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public String toString() {
+            return "VanityPathIndex.Entry: " + prefix + vanityPath + " -> " + target + ", order:" + order
+                    + ", status:" + status;
+        }
+    }
+
+    /**
+     * The mapped data file together with the overlay of modified targets.
+     */
+    private static final class State {
+
+        private final DataFile data;
+
+        private final Map<String, List<Entry>> overlay = new ConcurrentHashMap<String, List<Entry>>();
+
+        private final Map<String, Set<String>> overlayTargets = new ConcurrentHashMap<String, Set<String>>();
+
+        State(final DataFile data) {
+            this.data = data;
+        }
+
+        /**
+         * Replaces the entries of a target. The vanity paths of the new
+         * entries are registered before the entries are published, such
+         * that concurrent lookups find them.
+         */
+        void set(final String target, final List<Entry> entries) {
+            for (final Entry entry : entries) {
+                Set<String> targets = overlayTargets.get(entry.getVanityPath());
+                if (targets == null) {
+                    targets = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                    overlayTargets.put(entry.getVanityPath(), targets);
+                }
+                targets.add(target);
+            }
+            final List<Entry> previous = overlay.put(target, entries);
+            // prune the vanity paths no longer pointing to the target
+            if (previous != null) {
+                for (final Entry entry : previous) {
+                    if (!containsVanityPath(entries, entry.getVanityPath())) {
+                        final Set<String> targets = overlayTargets.get(entry.getVanityPath());
+                        if (targets != null) {
+                            targets.remove(target);
+                            if (targets.isEmpty()) {
+                                overlayTargets.remove(entry.getVanityPath());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private static boolean containsVanityPath(final List<Entry> entries, final String vanityPath) {
+            for (final Entry entry : entries) {
+                if (entry.getVanityPath().equals(vanityPath)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The memory mapped, read only data file. The file starts with a header
+     * (magic, version, entry count) followed by two tables of record offsets,
+     * the first one sorted by vanity path and the second one sorted by target,
+     * and the records themselves.
+     */
+    private static final class DataFile {
+
+        static final DataFile EMPTY = new DataFile(ByteBuffer.allocate(HEADER_SIZE), 0);
+
+        private final ByteBuffer buffer;
+
+        private final int count;
+
+        private DataFile(final ByteBuffer buffer, final int count) {
+            this.buffer = buffer;
+            this.count = count;
+        }
+
+        static DataFile open(final File file) throws IOException {
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                final FileChannel channel = raf.getChannel();
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                    throw new IOException("Invalid vanity path index " + file);
+                }
+                return new DataFile(buffer, buffer.getInt(8));
+            } finally {
+                raf.close();
+            }
+        }
+
+        static DataFile write(final File file, final List<Entry> sortedEntries) throws IOException {
+            final int count = sortedEntries.size();
+            final int tablesSize = 8 * count;
+            final int[] offsets = new int[count];
+
+            final File tmp = new File(file.getPath() + ".tmp");
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                out.write(new byte[HEADER_SIZE + tablesSize]);
+                for (int i = 0; i < count; i++) {
+                    offsets[i] = out.size();
+                    final Entry entry = sortedEntries.get(i);
+                    writeString(out, entry.getVanityPath());
+                    writeString(out, entry.getPrefix());
+                    writeString(out, entry.getTarget());
+                    out.writeLong(entry.getOrder());
+                    out.writeInt(entry.getStatus());
+                }
+            } finally {
+                out.close();
+            }
+
+            final Integer[] byTarget = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                byTarget[i] = i;
+            }
+            Arrays.sort(byTarget, new Comparator<Integer>() {
+                @Override
+                public int compare(final Integer o1, final Integer o2) {
+                    return sortedEntries.get(o1).getTarget().compareTo(sortedEntries.get(o2).getTarget());
+                }
+            });
+
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + tablesSize);
+            header.putInt(MAGIC).putInt(VERSION).putInt(count);
+            for (int i = 0; i < count; i++) {
+                header.putInt(offsets[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                header.putInt(offsets[byTarget[i]]);
+            }
+            header.flip();
+            final RandomAccessFile raf = new RandomAccessFile(tmp, "rw");
+            try {
+                raf.getChannel().write(header, 0);
+            } finally {
+                raf.close();
+            }
+
+            if (file.exists() && !file.delete() || !tmp.renameTo(file)) {
+                throw new IOException("Unable to replace vanity path index " + file);
+            }
+            return open(file);
+        }
+
+        private static void writeString(final DataOutputStream out, final String value) throws IOException {
+            final byte[] bytes = value.getBytes(UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        List<Entry> getByVanityPath(final String vanityPath) {
+            final List<Entry> result = new ArrayList<Entry>(2);
+            for (int i = lowerBound(0, vanityPath); i < count; i++) {
+                final int offset = keyOffset(i);
+                if (!readString(offset).equals(vanityPath)) {
+                    break;
+                }
+                result.add(readEntry(offset));
+            }
+            return result;
+        }
+
+        List<Entry> getByTarget(final String target) {
+            final List<Entry> result = new ArrayList<Entry>(2);
+            for (int i = lowerBound(1, target); i < count; i++) {
+                final Entry entry = readEntry(targetOffset(i));
+                if (!entry.getTarget().equals(target)) {
+                    break;
+                }
+                result.add(entry);
+            }
+            return result;
+        }
+
+        List<Entry> getByTargetTree(final String path) {
+            final List<Entry> result = new ArrayList<Entry>();
+            for (int i = lowerBound(1, path); i < count; i++) {
+                final Entry entry = readEntry(targetOffset(i));
+                if (!entry.getTarget().startsWith(path)) {
+                    break;
+                }
+                if (isInTree(entry.getTarget(), path)) {
+                    result.add(entry);
+                }
+            }
+            return result;
+        }
+
+        Iterator<Entry> iterator() {
+            return new Iterator<Entry>() {
+
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < count;
+                }
+
+                @Override
+                public Entry next() {
+                    if (index >= count) {
+                        throw new NoSuchElementException();
+                    }
+                    return readEntry(keyOffset(index++));
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        /**
+         * Binary search for the first index in the given table (0: vanity
+         * path, 1: target) whose value is not less than the given value.
+         */
+        private int lowerBound(final int table, final String value) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                final String current;
+                if (table == 0) {
+                    current = readString(keyOffset(mid));
+                } else {
+                    current = readEntry(targetOffset(mid)).getTarget();
+                }
+                if (current.compareTo(value) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int keyOffset(final int index) {
+            return buffer.getInt(HEADER_SIZE + 4 * index);
+        }
+
+        private int targetOffset(final int index) {
+            return buffer.getInt(HEADER_SIZE + 4 * count + 4 * index);
+        }
+
+        private String readString(final int offset) {
+            final int length = buffer.getInt(offset);
+            final byte[] bytes = new byte[length];
+            final ByteBuffer view = buffer.duplicate();
+            view.position(offset + 4);
+            view.get(bytes);
+            return new String(bytes, UTF_8);
+        }
+
+        private Entry readEntry(final int offset) {
+            int position = offset;
+            final String vanityPath = readString(position);
+            position += 4 + buffer.getInt(position);
+            final String prefix = readString(position);
+            position += 4 + buffer.getInt(position);
+            final String target = readString(position);
+            position += 4 + buffer.getInt(position);
+            return new Entry(vanityPath, prefix, target, buffer.getLong(position), buffer.getInt(position + 8));
+        }
+    }
+}
@@ -30,6 +30,15 @@ import org.slf4j.LoggerFactory;
  */
 public class ResourceProviderInfo implements Comparable<ResourceProviderInfo> {
 
+    /**
+     * If a resource provider sets this property to {@code false}, the resources
+     * it returns are never kept in the resource lookup cache of a resource
+     * resolver. This should be done by providers returning resources which
+     * might change without the resource resolver being modified or refreshed.
+     * The default is {@code true}.
+     */
+    public static final String PROPERTY_CACHEABLE = "provider.cacheable";
+
     private static final Logger logger = LoggerFactory.getLogger(ResourceProviderInfo.class);
 
     private final ServiceReference ref;
@@ -50,6 +59,8 @@ public class ResourceProviderInfo implements Comparable<ResourceProviderInfo> {
 
     private final boolean attributable;
 
+    private final boolean cacheable;
+
     public ResourceProviderInfo(final ServiceReference ref) {
         this.ref = ref;
         this.path = PropertiesUtil.toString(ref.getProperty(ResourceProvider.PROPERTY_ROOT), "");
@@ -67,6 +78,7 @@ public class ResourceProviderInfo implements Comparable<ResourceProviderInfo> {
         this.adaptable = PropertiesUtil.toBoolean(ref.getProperty(ResourceProvider.PROPERTY_ADAPTABLE), false);
         this.refreshable = PropertiesUtil.toBoolean(ref.getProperty(ResourceProvider.PROPERTY_REFRESHABLE), false);
         this.attributable = PropertiesUtil.toBoolean(ref.getProperty(ResourceProvider.PROPERTY_ATTRIBUTABLE), false);
+        this.cacheable = PropertiesUtil.toBoolean(ref.getProperty(PROPERTY_CACHEABLE), true);
     }
 
     public boolean isValid() {
@@ -125,6 +137,10 @@ public class ResourceProviderInfo implements Comparable<ResourceProviderInfo> {
         return attributable;
     }
 
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
     public String getName() {
         return this.name;
     }
@@ -28,12 +28,15 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Dictionary;
 import java.util.HashMap;
+import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -63,6 +66,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
 
 @SuppressWarnings("unchecked")
 public class ResourceResolverControlTest {
@@ -83,11 +88,12 @@ public class ResourceResolverControlTest {
     private Resource subProviderResource;
     private Resource somethingResource;
     private ResourceResolverContext context;
+    private BundleContext bc;
 
     @Before
     public void prepare() throws Exception {
 
-        BundleContext bc = MockOsgi.newBundleContext();
+        bc = MockOsgi.newBundleContext();
 
         Fixture fixture = new Fixture(bc);
 
@@ -426,6 +432,123 @@ public class ResourceResolverControlTest {
         assertThat("query result count", count, Matchers.equalTo(1));
     }
 
+    private ResourceResolverControl newCachingControl(final List<ResourceProviderHandler> handlers, final String... cachePaths) {
+        final ResourceProviderStorage storage = new ResourceProviderStorage(handlers);
+        return new ResourceResolverControl(false, authInfo, new ResourceProviderStorageProvider() {
+
+            @Override
+            public ResourceProviderStorage getResourceProviderStorage() {
+                return storage;
+            }
+        }, cachePaths);
+    }
+
+    /**
+     * Verifies that found and missing resources are only looked up once when
+     * the lookup cache is enabled and that the cache is cleared on refresh
+     */
+    @Test
+    public void getResource_lookupCache() {
+        final ResourceResolverControl control = newCachingControl(handlers, "/");
+
+        assertThat(control.getResource(context, "/something", null, null, false).getPath(), equalTo("/something"));
+        assertThat(control.getResource(context, "/something", null, null, false).getPath(), equalTo("/something"));
+        assertThat(control.getResource(context, "/nothing", null, null, false), nullValue());
+        assertThat(control.getResource(context, "/nothing", null, null, false), nullValue());
+        assertTrue(ResourceUtil.isSyntheticResource(control.getResource(context, "/some", null, null, false)));
+
+        verify(rootProvider).getResource(mockContext(), Mockito.eq("/something"), (ResourceContext) Mockito.any(), (Resource) Mockito.any());
+        verify(rootProvider).getResource(mockContext(), Mockito.eq("/nothing"), (ResourceContext) Mockito.any(), (Resource) Mockito.any());
+
+        control.refresh(context);
+        control.getResource(context, "/something", null, null, false);
+        verify(rootProvider, times(2)).getResource(mockContext(), Mockito.eq("/something"), (ResourceContext) Mockito.any(), (Resource) Mockito.any());
+    }
+
+    /**
+     * Verifies that every cache hit gets its own resource metadata
+     */
+    @Test
+    public void getResource_lookupCacheCopiesMetadata() {
+        final ResourceResolverControl control = newCachingControl(handlers, "/");
+
+        final Resource first = control.getResource(context, "/something", null, null, false);
+        first.getResourceMetadata().setResolutionPath("/something");
+        first.getResourceMetadata().lock();
+
+        final Resource second = control.getResource(context, "/something", null, null, false);
+        assertThat(second.getResourceMetadata().getResolutionPath(), nullValue());
+        second.getResourceMetadata().setResolutionPath("/something");
+    }
+
+    /**
+     * Verifies that modifications clear the lookup cache
+     */
+    @Test
+    public void getResource_lookupCacheClearedOnModification() throws PersistenceException {
+        final ResourceResolverControl control = newCachingControl(handlers, "/");
+
+        final Resource other = newMockResource("/other");
+        when(rootProvider.create(mockContext(), Mockito.eq("/other"), Mockito.anyMap())).thenReturn(other);
+
+        assertThat(control.getResource(context, "/other", null, null, false), nullValue());
+        control.create(context, "/other", Collections.<String, Object> emptyMap());
+        configureResourceAt(rootProvider, "/other");
+        assertThat(control.getResource(context, "/other", null, null, false), notNullValue());
+    }
+
+    /**
+     * Verifies that commit clears the lookup cache
+     */
+    @Test
+    public void getResource_lookupCacheClearedOnCommit() throws PersistenceException {
+        final ResourceResolverControl control = newCachingControl(handlers, "/");
+
+        control.getResource(context, "/something", null, null, false);
+        control.commit(context);
+        control.getResource(context, "/something", null, null, false);
+        verify(rootProvider, times(2)).getResource(mockContext(), Mockito.eq("/something"), (ResourceContext) Mockito.any(), (Resource) Mockito.any());
+    }
+
+    /**
+     * Verifies that only lookups below the lookup cache paths are cached
+     */
+    @Test
+    public void getResource_lookupCacheScopedToPaths() {
+        final ResourceResolverControl control = newCachingControl(handlers, "/some/");
+
+        control.getResource(context, "/something", null, null, false);
+        control.getResource(context, "/something", null, null, false);
+        verify(rootProvider, times(2)).getResource(mockContext(), Mockito.eq("/something"), (ResourceContext) Mockito.any(), (Resource) Mockito.any());
+
+        control.getResource(context, "/some/path/object", null, null, false);
+        control.getResource(context, "/some/path/object", null, null, false);
+        verify(subProvider).getResource(mockContext(), Mockito.eq("/some/path/object"), (ResourceContext) Mockito.any(), (Resource) Mockito.any());
+    }
+
+    /**
+     * Verifies that resources of non cacheable providers are not cached
+     */
+    @Test
+    public void getResource_lookupCacheNotCacheable() throws InvalidSyntaxException {
+        final ResourceProvider<Object> provider = mock(ResourceProvider.class);
+        final Dictionary<String, Object> props = new Hashtable<String, Object>();
+        props.put(ResourceProvider.PROPERTY_ROOT, "/dynamic");
+        props.put(ResourceProviderInfo.PROPERTY_CACHEABLE, false);
+        bc.registerService(ResourceProvider.class.getName(), provider, props);
+        final ServiceReference ref = bc.getServiceReferences(ResourceProvider.class.getName(),
+                "(" + ResourceProvider.PROPERTY_ROOT + "=/dynamic)")[0];
+        final ResourceProviderHandler handler = new ResourceProviderHandler(bc, new ResourceProviderInfo(ref));
+        handler.activate();
+        configureResourceAt(provider, "/dynamic/object");
+
+        final ResourceResolverControl control = newCachingControl(Arrays.asList(handlers.get(0), handlers.get(1), handler), "/");
+
+        assertThat(control.getResource(context, "/dynamic/object", null, null, false), notNullValue());
+        assertThat(control.getResource(context, "/dynamic/object", null, null, false), notNullValue());
+        verify(provider, times(2)).getResource(mockContext(), Mockito.eq("/dynamic/object"), (ResourceContext) Mockito.any(), (Resource) Mockito.any());
+    }
+
     /**
      * Simple test-only QueryLanguageProvider
      *
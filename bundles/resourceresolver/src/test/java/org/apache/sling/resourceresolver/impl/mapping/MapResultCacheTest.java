@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class MapResultCacheTest {
+
+    private static MapResultCache.Key key(final String host, final String path) {
+        return new MapResultCache.Key("http", host, 80, "", "anonymous", path);
+    }
+
+    @Test public void test_get_and_put() {
+        final MapResultCache cache = new MapResultCache(10);
+        assertNull(cache.get(key("localhost", "/content/a")));
+        cache.put(key("localhost", "/content/a"), "/content/a", "/a", cache.getGeneration());
+        assertEquals("/a", cache.get(key("localhost", "/content/a")));
+        assertNull(cache.get(key("otherhost", "/content/a")));
+        assertNull(cache.get(new MapResultCache.Key("http", "localhost", 80, "", "admin", "/content/a")));
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test public void test_invalidate_subtree() {
+        final MapResultCache cache = new MapResultCache(10);
+        cache.put(key("localhost", "/content/a"), "/content/a", "/a", cache.getGeneration());
+        cache.put(key("localhost", "/content/a/b"), "/content/a/b", "/a/b", cache.getGeneration());
+        cache.put(key("localhost", "/content/ab"), "/content/ab", "/ab", cache.getGeneration());
+        cache.invalidate("/content/a");
+        assertNull(cache.get(key("localhost", "/content/a")));
+        assertNull(cache.get(key("localhost", "/content/a/b")));
+        assertEquals("/ab", cache.get(key("localhost", "/content/ab")));
+    }
+
+    @Test public void test_invalidate_resolution() {
+        final MapResultCache cache = new MapResultCache(10);
+        // resolved to /content/a with selectors and extension
+        cache.put(key("localhost", "/content/a.b.html"), "/content/a", "/a.b.html", cache.getGeneration());
+        // resolved through an alias
+        cache.put(key("localhost", "/content/alias"), "/content/c", "/alias", cache.getGeneration());
+        // not resolved
+        cache.put(key("localhost", "/content/d"), null, "/d", cache.getGeneration());
+
+        // adding /content/a.b changes the resolution of /content/a.b.html
+        cache.invalidate("/content/a.b");
+        assertNull(cache.get(key("localhost", "/content/a.b.html")));
+
+        cache.invalidate("/content/c");
+        assertNull(cache.get(key("localhost", "/content/alias")));
+
+        assertEquals("/d", cache.get(key("localhost", "/content/d")));
+        cache.invalidate("/content/d");
+        assertNull(cache.get(key("localhost", "/content/d")));
+    }
+
+    @Test public void test_outdated_results_are_not_cached() {
+        final MapResultCache cache = new MapResultCache(10);
+        final long generation = cache.getGeneration();
+        cache.invalidate("/content");
+        cache.put(key("localhost", "/content/a"), "/content/a", "/a", generation);
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test public void test_invalidation_log() {
+        final MapResultCache cache = new MapResultCache(10);
+        cache.put(key("localhost", "/content/a"), "/content/a", "/a", cache.getGeneration());
+        cache.put(key("localhost", "/content/b"), "/content/b", "/b", cache.getGeneration());
+        for (int i = 0; i < MapResultCache.INVALIDATION_LOG_SIZE; i++) {
+            cache.invalidate("/content/other" + i);
+        }
+        // checked against all logged invalidations
+        assertEquals("/a", cache.get(key("localhost", "/content/a")));
+
+        cache.invalidate("/content/other");
+        // checked since the last read
+        assertEquals("/a", cache.get(key("localhost", "/content/a")));
+        // the log does not reach back to the last check
+        assertNull(cache.get(key("localhost", "/content/b")));
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test public void test_bounded_size() {
+        final MapResultCache cache = new MapResultCache(10);
+        for (int i = 0; i < 100; i++) {
+            cache.put(key("localhost", "/content/" + i), "/content/" + i, "/" + i, cache.getGeneration());
+        }
+        assertTrue(cache.getSize() <= 10);
+        assertEquals(100 - cache.getSize(), cache.getEvictions());
+        cache.clear();
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test public void test_recently_used_results_are_kept() {
+        final MapResultCache cache = new MapResultCache(10);
+        cache.put(key("localhost", "/content/used"), "/content/used", "/used", cache.getGeneration());
+        for (int i = 0; i < 100; i++) {
+            cache.put(key("localhost", "/content/" + i), "/content/" + i, "/" + i, cache.getGeneration());
+            assertEquals("/used", cache.get(key("localhost", "/content/used")));
+        }
+    }
+}
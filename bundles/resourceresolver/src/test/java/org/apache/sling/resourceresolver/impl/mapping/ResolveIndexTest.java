@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ResolveIndexTest {
+
+    @Test public void test_literal_prefix() {
+        assertEquals("http/localhost", ResolveIndex.getLiteralPrefix("^http/localhost.80/"));
+        assertEquals("http/sling.apache.org.80/", ResolveIndex.getLiteralPrefix("^http/sling\\.apache\\.org\\.80/"));
+        assertEquals("", ResolveIndex.getLiteralPrefix("^" + MapEntries.ANY_SCHEME_HOST + "/content"));
+        assertEquals("", ResolveIndex.getLiteralPrefix("^http/a|https/b"));
+        assertEquals("", ResolveIndex.getLiteralPrefix("http/localhost"));
+        assertEquals("http/local", ResolveIndex.getLiteralPrefix("^http/locals?/"));
+        assertEquals("http/", ResolveIndex.getLiteralPrefix("^http/\\d+"));
+        assertEquals("http/", ResolveIndex.getLiteralPrefix("^http/(?i)host"));
+    }
+
+    @Test public void test_candidates_keep_resolution_order() {
+        final List<MapEntry> entries = new ArrayList<MapEntry>();
+        entries.add(new MapEntry("^http/localhost.80/content/site/", -1, false, 0, "/content/site/"));
+        entries.add(new MapEntry("^http/example.com.80/", -1, false, 0, "/content/example/"));
+        entries.add(new MapEntry("^" + MapEntries.ANY_SCHEME_HOST + "/virtual$", -1, false, 0, "/content/virtual"));
+        entries.add(new MapEntry("^http/localhost.80/", -1, false, 0, "/content/"));
+        Collections.sort(entries);
+
+        final ResolveIndex index = new ResolveIndex(entries);
+        assertEquals(4, index.getEntries().size());
+        assertEquals(1, index.getFallbackSize());
+
+        final String requestPath = "http/localhost.80/content/site/page.html";
+        final List<MapEntry> expected = new ArrayList<MapEntry>();
+        for (final MapEntry entry : entries) {
+            if (entry.getPattern().startsWith("^http/localhost") || entry.getPattern().contains("virtual")) {
+                expected.add(entry);
+            }
+        }
+        assertEquals(expected, index.getCandidates(requestPath));
+
+        // all entries not returned must not match
+        for (final MapEntry entry : entries) {
+            if (!index.getCandidates(requestPath).contains(entry)) {
+                assertEquals(null, entry.replace(requestPath));
+            }
+        }
+    }
+
+    @Test public void test_candidates_fallback_only() {
+        final List<MapEntry> entries = new ArrayList<MapEntry>();
+        entries.add(new MapEntry("^http/localhost.80/", -1, false, 0, "/content/"));
+        entries.add(new MapEntry("^" + MapEntries.ANY_SCHEME_HOST + "/virtual$", -1, false, 0, "/content/virtual"));
+
+        final ResolveIndex index = new ResolveIndex(entries);
+        final List<MapEntry> candidates = index.getCandidates("https/other.443/virtual");
+        assertEquals(1, candidates.size());
+        assertTrue(candidates.get(0).getPattern().endsWith("/virtual$"));
+        assertTrue(ResolveIndex.EMPTY.getCandidates("http/localhost.80/").isEmpty());
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.resourceresolver.impl.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VanityPathIndexTest {
+
+    private File dataFile;
+
+    private File journalFile;
+
+    private VanityPathIndex index;
+
+    @Before
+    public void setup() throws IOException {
+        dataFile = File.createTempFile("vanityIndex", ".dat");
+        dataFile.delete();
+        journalFile = new File(dataFile.getPath() + ".journal");
+        index = new VanityPathIndex(dataFile, journalFile);
+    }
+
+    @After
+    public void tearDown() {
+        index.close();
+        dataFile.delete();
+        journalFile.delete();
+    }
+
+    private static VanityPathIndex.Entry entry(final String vanityPath, final String target) {
+        return new VanityPathIndex.Entry(vanityPath, "^" + MapEntries.ANY_SCHEME_HOST, target, 0, -1);
+    }
+
+    @Test public void test_rebuild_and_lookup() throws IOException {
+        assertFalse(dataFile.exists());
+        final List<VanityPathIndex.Entry> entries = new ArrayList<VanityPathIndex.Entry>();
+        for (int i = 0; i < 100; i++) {
+            entries.add(entry("/vanity" + i, "/content/page" + i));
+        }
+        entries.add(entry("/vanity5", "/content/other"));
+        Collections.shuffle(entries);
+        index.rebuild(entries);
+
+        assertTrue(dataFile.exists());
+        assertEquals(1, index.get("/vanity42").size());
+        assertEquals("/content/page42", index.get("/vanity42").get(0).getTarget());
+        assertEquals(2, index.get("/vanity5").size());
+        assertTrue(index.get("/unknown").isEmpty());
+    }
+
+    @Test public void test_overlay() throws IOException {
+        index.rebuild(Arrays.asList(entry("/a", "/content/a"), entry("/b", "/content/b"),
+                entry("/c", "/content/tree/c"), entry("/d", "/content/treetop")));
+        index.add(Collections.singletonList(entry("/a2", "/content/a")));
+        index.remove("/content/b");
+        index.removeTree("/content/tree");
+        index.add(Collections.singletonList(entry("/e", "/content/e")));
+        assertEquals(4, index.getJournalSize());
+        assertEquals(1, index.get("/a").size());
+        assertEquals(1, index.get("/a2").size());
+        assertTrue(index.get("/b").isEmpty());
+        assertTrue(index.get("/c").isEmpty());
+        assertEquals(1, index.get("/d").size());
+        assertEquals(1, index.get("/e").size());
+        assertEquals(4, count(index.getEntries()));
+    }
+
+    @Test public void test_overlay_vanity_path_moved() throws IOException {
+        index.rebuild(Collections.<VanityPathIndex.Entry> emptyList());
+        index.add(Collections.singletonList(entry("/old", "/content/a")));
+        index.remove("/content/a");
+        index.add(Collections.singletonList(entry("/new", "/content/a")));
+        assertTrue(index.get("/old").isEmpty());
+        assertEquals(1, index.get("/new").size());
+        assertEquals(1, count(index.getEntries()));
+    }
+
+    @Test public void test_compaction() throws IOException {
+        index.rebuild(Collections.singletonList(entry("/a", "/content/a")));
+        for (int i = 0; i < VanityPathIndex.COMPACT_THRESHOLD; i++) {
+            index.add(Collections.singletonList(entry("/vanity" + i, "/content/page" + i)));
+        }
+        assertEquals(0, index.getJournalSize());
+        assertEquals(1, index.get("/a").size());
+        assertEquals("/content/page42", index.get("/vanity42").get(0).getTarget());
+        assertEquals(VanityPathIndex.COMPACT_THRESHOLD + 1, count(index.getEntries()));
+    }
+
+    @Test public void test_reopen() throws IOException {
+        assertFalse(index.open());
+        index.rebuild(Arrays.asList(entry("/a", "/content/a"), entry("/b", "/content/b")));
+        index.remove("/content/b");
+        index.add(Collections.singletonList(entry("/c", "/content/c")));
+        index.close();
+        assertTrue(dataFile.exists());
+
+        index = new VanityPathIndex(dataFile, journalFile);
+        assertFalse(index.isReady());
+        assertTrue(index.open());
+        assertTrue(index.isReady());
+        assertEquals(2, index.getJournalSize());
+        assertEquals(1, index.get("/a").size());
+        assertTrue(index.get("/b").isEmpty());
+        assertEquals(1, index.get("/c").size());
+        assertEquals(2, count(index.getEntries()));
+    }
+
+    @Test public void test_open_corrupt_data_file() throws IOException {
+        final FileOutputStream out = new FileOutputStream(dataFile);
+        try {
+            out.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+        } finally {
+            out.close();
+        }
+        assertFalse(index.open());
+        assertFalse(index.isReady());
+    }
+
+    @Test public void test_changes_during_rebuild() throws IOException {
+        index.startRebuild();
+        index.add(Collections.singletonList(entry("/new", "/content/new")));
+        index.remove("/content/b");
+        index.removeTree("/content/tree");
+        assertFalse(index.isReady());
+
+        // entries read by a query started before the changes
+        index.rebuild(Arrays.asList(entry("/a", "/content/a"), entry("/b", "/content/b"),
+                entry("/c", "/content/tree/c")));
+        assertTrue(index.isReady());
+        assertEquals(1, index.get("/a").size());
+        assertTrue(index.get("/b").isEmpty());
+        assertTrue(index.get("/c").isEmpty());
+        assertEquals(1, index.get("/new").size());
+        assertEquals(2, count(index.getEntries()));
+    }
+
+    private static int count(final Iterator<VanityPathIndex.Entry> i) {
+        int count = 0;
+        while (i.hasNext()) {
+            i.next();
+            count++;
+        }
+        return count;
+    }
+}
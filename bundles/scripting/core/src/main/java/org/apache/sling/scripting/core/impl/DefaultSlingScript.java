@@ -377,7 +377,8 @@ class DefaultSlingScript implements SlingScript, Servlet, ServletConfig {
                 if (cachedScript == null) {
                     ScriptNameAwareReader snReader = new ScriptNameAwareReader(reader, scriptName);
                     CompiledScript compiledScript = ((Compilable) scriptEngine).compile(snReader);
-                    cachedScript = new CachedScriptImpl(scriptName, compiledScript);
+                    cachedScript = new CachedScriptImpl(scriptName, compiledScript,
+                            scriptResource.getResourceMetadata().getContentLength());
                     scriptCache.putScript(cachedScript);
                     LOGGER.debug("Adding {} to the script cache.", scriptName);
                 } else {
@@ -21,7 +21,9 @@ package org.apache.sling.scripting.core.impl;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -39,6 +41,7 @@ import org.apache.felix.webconsole.WebConsoleConstants;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
 import org.apache.sling.scripting.api.ScriptCache;
+import org.apache.sling.scripting.core.impl.helper.ScriptCachePartition;
 import org.osgi.framework.Constants;
 
 @Component
@@ -85,6 +88,7 @@ public class ScriptCacheConsolePlugin extends AbstractWebConsolePlugin {
             List<String> scripts = new ArrayList<String>(scriptCacheImpl.getCachedScripts());
             StringBuilder sb = new StringBuilder();
             sb.append("<script type='text/javascript' src='").append(RESOURCES).append("/").append(SCRIPTCACHE_JS).append("'></script>");
+            appendStatistics(sb, scriptCacheImpl.getBounds(), scriptCacheImpl.getPartitions());
             sb.append("<div id='cached-scripts' class='ui-widget statline'>");
             if (scripts.size() > 0) {
                 Collections.sort(scripts);
@@ -107,6 +111,40 @@ public class ScriptCacheConsolePlugin extends AbstractWebConsolePlugin {
         }
     }
 
+    private void appendStatistics(StringBuilder sb, ScriptCachePartition.Bounds bounds, Collection<ScriptCachePartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        List<ScriptCachePartition> sorted = new ArrayList<ScriptCachePartition>(partitions);
+        Collections.sort(sorted, new Comparator<ScriptCachePartition>() {
+            @Override
+            public int compare(ScriptCachePartition p1, ScriptCachePartition p2) {
+                return p1.getName().compareTo(p2.getName());
+            }
+        });
+        sb.append("<div id='cache-statistics' class='ui-widget statline'>");
+        sb.append("<p class='ui-widget-header'>Cache Statistics: ").append(bounds.getEntries()).append(" / ").append(bounds.getMaxEntries())
+                .append(" scripts, weight ").append(bounds.getWeight()).append(" / ").append(bounds.getMaxWeight()).append("</p>");
+        sb.append("<table class='nicetable ui-widget-content'>");
+        sb.append("<tr><th>Script Engine</th><th>Scripts</th><th>Weight</th><th>Hits</th><th>Misses</th><th>Hit Ratio</th>")
+                .append("<th>Evictions</th></tr>");
+        int i = 0;
+        for (ScriptCachePartition partition : sorted) {
+            long requests = partition.getHits() + partition.getMisses();
+            sb.append("<tr class='").append(i++ % 2 == 0 ? "even" : "odd").append(" ui-state-default'>");
+            sb.append("<td>").append(partition.getName()).append("</td>");
+            sb.append("<td>").append(partition.size()).append("</td>");
+            sb.append("<td>").append(partition.getWeight()).append("</td>");
+            sb.append("<td>").append(partition.getHits()).append("</td>");
+            sb.append("<td>").append(partition.getMisses()).append("</td>");
+            sb.append("<td>").append(requests == 0 ? "-" : (100 * partition.getHits() / requests) + "%").append("</td>");
+            sb.append("<td>").append(partition.getEvictions()).append("</td>");
+            sb.append("</tr>");
+        }
+        sb.append("</table>");
+        sb.append("</div>");
+    }
+
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         if (request.getRequestURI().endsWith(RESOURCES + "/" + SCRIPTCACHE_JS)) {
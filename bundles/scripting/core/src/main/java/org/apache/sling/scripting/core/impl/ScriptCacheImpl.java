@@ -19,15 +19,16 @@
 
 package org.apache.sling.scripting.core.impl;
 
-import java.lang.ref.SoftReference;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Dictionary;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.script.Compilable;
 import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
@@ -48,11 +49,10 @@ import org.apache.sling.api.resource.LoginException;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.apache.sling.commons.osgi.PropertiesUtil;
-import org.apache.sling.commons.threads.ThreadPool;
-import org.apache.sling.commons.threads.ThreadPoolManager;
 import org.apache.sling.scripting.api.CachedScript;
 import org.apache.sling.scripting.api.ScriptCache;
-import org.apache.sling.scripting.core.impl.helper.CachingMap;
+import org.apache.sling.scripting.core.impl.helper.CachedScriptImpl;
+import org.apache.sling.scripting.core.impl.helper.ScriptCachePartition;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.component.ComponentContext;
@@ -72,8 +72,14 @@ import org.slf4j.LoggerFactory;
                 name = ScriptCacheImpl.PROP_CACHE_SIZE,
                 intValue = ScriptCacheImpl.DEFAULT_CACHE_SIZE,
                 label = "Cache Size",
-                description = "The Cache Size defines the maximum number of compiled script references that will be stored in the cache's" +
-                        " internal map."
+                description = "The Cache Size defines the maximum number of compiled scripts that will be stored in the cache."
+        ),
+        @Property(
+                name = ScriptCacheImpl.PROP_CACHE_MAX_WEIGHT,
+                longValue = ScriptCacheImpl.DEFAULT_CACHE_MAX_WEIGHT,
+                label = "Cache Weight",
+                description = "The maximum weight of the compiled scripts stored in the cache. The weight of a script is the size of" +
+                        " its source in bytes."
         ),
         @Property(
                 name = ScriptCacheImpl.PROP_ADDITIONAL_EXTENSIONS,
@@ -94,7 +100,8 @@ import org.slf4j.LoggerFactory;
 @SuppressWarnings("unused")
 /**
  * The {@code ScriptCache} stores information about {@link CompiledScript} instances evaluated by various {@link ScriptEngine}s that
- * implement the {@link Compilable} interface.
+ * implement the {@link Compilable} interface. The scripts of each script engine are stored in a separate {@link ScriptCachePartition};
+ * the size and weight bounds apply to all partitions together.
  */
 public class ScriptCacheImpl implements EventHandler, ScriptCache {
 
@@ -102,10 +109,21 @@ public class ScriptCacheImpl implements EventHandler, ScriptCache {
 
     public static final int DEFAULT_CACHE_SIZE = 65536;
     public static final String PROP_CACHE_SIZE = "org.apache.sling.scripting.cache.size";
+    public static final long DEFAULT_CACHE_MAX_WEIGHT = 64 * 1024 * 1024;
+    public static final String PROP_CACHE_MAX_WEIGHT = "org.apache.sling.scripting.cache.max_weight";
     public static final String PROP_ADDITIONAL_EXTENSIONS = "org.apache.sling.scripting.cache.additional_extensions";
 
+    /**
+     * The weight of scripts whose source size is not known.
+     */
+    static final long DEFAULT_SCRIPT_WEIGHT = 4096;
+
     private BundleContext bundleContext;
-    private Map<String, SoftReference<CachedScript>> internalMap;
+    private final ConcurrentMap<String, ScriptCachePartition> partitions = new ConcurrentHashMap<String, ScriptCachePartition>();
+    private final ConcurrentMap<String, String> engineNames = new ConcurrentHashMap<String, String>();
+    private volatile int maxEntries = DEFAULT_CACHE_SIZE;
+    private volatile long maxWeight = DEFAULT_CACHE_MAX_WEIGHT;
+    private volatile ScriptCachePartition.Bounds bounds = new ScriptCachePartition.Bounds(DEFAULT_CACHE_SIZE, DEFAULT_CACHE_MAX_WEIGHT);
     private ServiceRegistration eventHandlerServiceRegistration = null;
     private Set<String> extensions = new HashSet<String>();
     private String[] additionalExtensions = new String[]{};
@@ -115,119 +133,103 @@ public class ScriptCacheImpl implements EventHandler, ScriptCache {
     @Reference(policy = ReferencePolicy.STATIC)
     private ResourceResolverFactory rrf = null;
 
-    @Reference
-    private ThreadPoolManager threadPoolManager = null;
-
-    private ThreadPool threadPool;
-    private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
-    private final Lock readLock = rwl.readLock();
-    private final Lock writeLock = rwl.writeLock();
     boolean active = false;
 
-    public ScriptCacheImpl() {
-        internalMap = new CachingMap<CachedScript>(DEFAULT_CACHE_SIZE);
-    }
-
     @Override
     public CachedScript getScript(String scriptPath) {
-        readLock.lock();
-        SoftReference<CachedScript> reference = null;
-        try {
-            reference = internalMap.get(scriptPath);
-        } finally {
-            readLock.unlock();
-        }
-        return reference != null ? reference.get() : null;
+        return getPartition(scriptPath).get(scriptPath);
     }
 
     @Override
     public void putScript(CachedScript script) {
-        writeLock.lock();
-        try {
-            for (String searchPath : searchPaths) {
-                if (script.getScriptPath().startsWith(searchPath)) {
-                    SoftReference<CachedScript> reference = new SoftReference<CachedScript>(script);
-                    internalMap.put(script.getScriptPath(), reference);
-                    break;
-                }
+        for (String searchPath : searchPaths) {
+            if (script.getScriptPath().startsWith(searchPath)) {
+                getPartition(script.getScriptPath()).put(script, getWeight(script));
+                break;
             }
-        } finally {
-            writeLock.unlock();
         }
     }
 
     @Override
     public void clear() {
-        writeLock.lock();
-        try {
-            internalMap.clear();
-        } finally {
-            writeLock.unlock();
+        for (ScriptCachePartition partition : partitions.values()) {
+            partition.clear();
         }
     }
 
     @Override
     public boolean removeScript(String scriptPath) {
-        writeLock.lock();
-        try {
-            SoftReference<CachedScript> reference = internalMap.remove(scriptPath);
-            if (reference != null) {
-                return true;
-            }
-            return false;
-        } finally {
-            writeLock.unlock();
-        }
+        ScriptCachePartition partition = partitions.get(getPartitionName(scriptPath));
+        return partition != null && partition.remove(scriptPath);
     }
 
     @Override
     public void handleEvent(final Event event) {
-        /**
-         * since the events trigger a synchronised map operation (remove in this case) we should handle events asynchronously so that we
-         * don't block event processing
-         */
+        // removing a script doesn't lock the cache, so the event can be handled right away
         final String topic = event.getTopic();
         if (SlingConstants.TOPIC_RESOURCE_CHANGED.equals(topic) || SlingConstants.TOPIC_RESOURCE_REMOVED.equals(topic)) {
-            Runnable eventTask = new Runnable() {
-                @Override
-                public void run() {
-                    String path = (String) event.getProperty(SlingConstants.PROPERTY_PATH);
-                    writeLock.lock();
-                    try {
-                        internalMap.remove(path);
-                        LOGGER.debug("Detected script change for {} - removed entry from the cache.", path);
-                    } finally {
-                        writeLock.unlock();
-                    }
-                }
-            };
-            threadPool.execute(eventTask);
+            String path = (String) event.getProperty(SlingConstants.PROPERTY_PATH);
+            if (path != null && removeScript(path)) {
+                LOGGER.debug("Detected script change for {} - removed entry from the cache.", path);
+            }
         }
     }
 
     protected Set<String> getCachedScripts() {
-        readLock.lock();
-        try {
-            return internalMap.keySet();
-        } finally {
-            readLock.unlock();
+        Set<String> scripts = new HashSet<String>();
+        for (ScriptCachePartition partition : partitions.values()) {
+            scripts.addAll(partition.getScriptPaths());
         }
+        return scripts;
+    }
+
+    protected Collection<ScriptCachePartition> getPartitions() {
+        return new ArrayList<ScriptCachePartition>(partitions.values());
+    }
+
+    protected ScriptCachePartition.Bounds getBounds() {
+        return bounds;
+    }
+
+    private ScriptCachePartition getPartition(String scriptPath) {
+        String name = getPartitionName(scriptPath);
+        ScriptCachePartition partition = partitions.get(name);
+        if (partition == null) {
+            partition = new ScriptCachePartition(name, bounds);
+            ScriptCachePartition existing = partitions.putIfAbsent(name, partition);
+            if (existing != null) {
+                partition = existing;
+            }
+        }
+        return partition;
+    }
+
+    /**
+     * Returns the name of the script engine for the extension of the script or the extension if no script engine is known for it.
+     */
+    private String getPartitionName(String scriptPath) {
+        int slash = scriptPath.lastIndexOf('/');
+        int dot = scriptPath.lastIndexOf('.');
+        String extension = dot > slash ? scriptPath.substring(dot + 1) : "";
+        String engineName = engineNames.get(extension);
+        return engineName != null ? engineName : extension;
+    }
+
+    private static long getWeight(CachedScript script) {
+        if (script instanceof CachedScriptImpl && ((CachedScriptImpl) script).getWeight() > 0) {
+            return ((CachedScriptImpl) script).getWeight();
+        }
+        return DEFAULT_SCRIPT_WEIGHT;
     }
 
     @Activate
     @SuppressWarnings("unused")
     protected void activate(ComponentContext componentContext) {
-        threadPool = threadPoolManager.get("Script Cache Thread Pool");
         bundleContext = componentContext.getBundleContext();
         Dictionary properties = componentContext.getProperties();
         additionalExtensions = PropertiesUtil.toStringArray(properties.get(PROP_ADDITIONAL_EXTENSIONS));
-        int newMaxCacheSize = PropertiesUtil.toInteger(properties.get(PROP_CACHE_SIZE), DEFAULT_CACHE_SIZE);
-        if (newMaxCacheSize != DEFAULT_CACHE_SIZE) {
-            // change the map only if there's a configuration change regarding the cache's max size
-            CachingMap<CachedScript> newMap = new CachingMap<CachedScript>(newMaxCacheSize);
-            newMap.putAll(internalMap);
-            internalMap = newMap;
-        }
+        maxEntries = PropertiesUtil.toInteger(properties.get(PROP_CACHE_SIZE), DEFAULT_CACHE_SIZE);
+        maxWeight = PropertiesUtil.toLong(properties.get(PROP_CACHE_MAX_WEIGHT), DEFAULT_CACHE_MAX_WEIGHT);
         ResourceResolver resolver = null;
         try {
             resolver = rrf.getAdministrativeResourceResolver(null);
@@ -244,15 +246,16 @@ public class ScriptCacheImpl implements EventHandler, ScriptCache {
     }
 
     @SuppressWarnings("unchecked")
-    private void configureCache() {
-        writeLock.lock();
+    private synchronized void configureCache() {
         ResourceResolver adminResolver = null;
         try {
             if (eventHandlerServiceRegistration != null) {
                 eventHandlerServiceRegistration.unregister();
                 eventHandlerServiceRegistration = null;
             }
-            internalMap.clear();
+            // the partitions are created again with the current bounds
+            bounds = new ScriptCachePartition.Bounds(maxEntries, maxWeight);
+            partitions.clear();
             extensions.addAll(Arrays.asList(additionalExtensions));
             if (extensions.size() > 0) {
                 adminResolver = rrf.getAdministrativeResourceResolver(null);
@@ -275,22 +278,17 @@ public class ScriptCacheImpl implements EventHandler, ScriptCache {
             if (adminResolver != null) {
                 adminResolver.close();
             }
-            writeLock.unlock();
         }
     }
 
     @Deactivate
     @SuppressWarnings("unused")
     protected void deactivate(ComponentContext componentContext) {
-        internalMap.clear();
+        partitions.clear();
         if (eventHandlerServiceRegistration != null) {
             eventHandlerServiceRegistration.unregister();
             eventHandlerServiceRegistration = null;
         }
-        if (threadPool != null) {
-            threadPoolManager.release(threadPool);
-            threadPool = null;
-        }
         active = false;
     }
 
@@ -302,6 +300,7 @@ public class ScriptCacheImpl implements EventHandler, ScriptCache {
              */
             for (String extension : scriptEngineFactory.getExtensions()) {
                 extensions.add(extension);
+                engineNames.put(extension, scriptEngineFactory.getEngineName());
             }
             if (active) {
                 configureCache();
@@ -312,6 +311,7 @@ public class ScriptCacheImpl implements EventHandler, ScriptCache {
     protected void unbindScriptEngineFactory(ScriptEngineFactory scriptEngineFactory, Map<String, Object> properties) {
         for (String extension : scriptEngineFactory.getExtensions()) {
             extensions.remove(extension);
+            engineNames.remove(extension);
         }
         if (active) {
             configureCache();
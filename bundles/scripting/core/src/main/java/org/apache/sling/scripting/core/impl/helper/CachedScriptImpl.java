@@ -27,10 +27,19 @@ public class CachedScriptImpl implements CachedScript {
 
     private String scriptPath;
     private CompiledScript compiledScript;
+    private long weight;
 
     public CachedScriptImpl(String scriptPath, CompiledScript compiledScript) {
+        this(scriptPath, compiledScript, -1);
+    }
+
+    /**
+     * @param weight the weight of the script in the cache, usually the size of the script source; a negative value if unknown
+     */
+    public CachedScriptImpl(String scriptPath, CompiledScript compiledScript, long weight) {
         this.scriptPath = scriptPath;
         this.compiledScript = compiledScript;
+        this.weight = weight;
     }
 
     public String getScriptPath() {
@@ -40,4 +49,8 @@ public class CachedScriptImpl implements CachedScript {
     public CompiledScript getCompiledScript() {
         return compiledScript;
     }
+
+    public long getWeight() {
+        return weight;
+    }
 }
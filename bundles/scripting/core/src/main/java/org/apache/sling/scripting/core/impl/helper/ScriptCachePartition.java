@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.scripting.core.impl.helper;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.sling.scripting.api.CachedScript;
+
+/**
+ * <p>
+ * The {@code ScriptCachePartition} holds the {@link CachedScript}s of one script engine. Scripts are kept with strong references in a
+ * {@link ConcurrentHashMap}, so the garbage collector never clears them and memory pressure doesn't cause the scripts to be compiled
+ * again; only the eviction described below removes scripts. Neither reads nor writes take a lock, a cache hit only marks the entry as
+ * referenced.
+ * </p>
+ * <p>
+ * All partitions of a cache share one {@link Bounds} instance, which limits the number of scripts and the sum of the script weights over
+ * all partitions. Once a bound is exceeded, the inserting thread evicts at most {@link #MAX_EVICTIONS_PER_PUT} scripts from the partition
+ * which holds the most, such that a script engine with many scripts cannot push the scripts of another engine out of the cache. A
+ * partition evicts with the clock algorithm: a hand moves over the entries, spares the referenced ones once and evicts the first entry
+ * which was not referenced since the hand passed it last. The hand inspects at most {@link #MAX_SCAN} entries per eviction, so an insert
+ * never walks the whole partition; the bounds may therefore be exceeded for a short time.
+ * </p>
+ */
+public class ScriptCachePartition {
+
+    /**
+     * The maximum number of scripts evicted by a single insert.
+     */
+    static final int MAX_EVICTIONS_PER_PUT = 4;
+
+    /**
+     * The maximum number of entries inspected by the clock hand for a single eviction.
+     */
+    static final int MAX_SCAN = 32;
+
+    private final String name;
+    private final Bounds bounds;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private final AtomicLong weight = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final Lock handLock = new ReentrantLock();
+    private Iterator<Entry> hand;
+
+    /**
+     * Creates a partition.
+     *
+     * @param name   the name of the partition, usually the name of the script engine
+     * @param bounds the bounds shared by all partitions of the cache
+     */
+    public ScriptCachePartition(String name, Bounds bounds) {
+        this.name = name;
+        this.bounds = bounds;
+        bounds.partitions.add(this);
+    }
+
+    public CachedScript get(String scriptPath) {
+        Entry entry = entries.get(scriptPath);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        hits.incrementAndGet();
+        return entry.script;
+    }
+
+    public void put(CachedScript script, long scriptWeight) {
+        Entry entry = new Entry(script.getScriptPath(), script, Math.max(1, scriptWeight));
+        Entry old = entries.put(entry.scriptPath, entry);
+        if (old == null) {
+            bounds.entries.incrementAndGet();
+            add(entry.weight);
+        } else {
+            add(entry.weight - old.weight);
+        }
+        bounds.evict();
+    }
+
+    public boolean remove(String scriptPath) {
+        Entry entry = entries.get(scriptPath);
+        return entry != null && remove(entry);
+    }
+
+    public void clear() {
+        for (Entry entry : entries.values()) {
+            remove(entry);
+        }
+    }
+
+    private boolean remove(Entry entry) {
+        if (entries.remove(entry.scriptPath, entry)) {
+            bounds.entries.decrementAndGet();
+            add(-entry.weight);
+            return true;
+        }
+        return false;
+    }
+
+    private void add(long delta) {
+        weight.addAndGet(delta);
+        bounds.weight.addAndGet(delta);
+    }
+
+    /**
+     * Evicts one script, unless another thread is already evicting from this partition.
+     *
+     * @return {@code true} if a script was removed
+     */
+    boolean evictOne() {
+        if (!handLock.tryLock()) {
+            return false;
+        }
+        try {
+            Entry candidate = null;
+            for (int scanned = 0; scanned < MAX_SCAN; scanned++) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = entries.values().iterator();
+                    if (!hand.hasNext()) {
+                        return false;
+                    }
+                }
+                candidate = hand.next();
+                if (candidate.referenced) {
+                    candidate.referenced = false;
+                } else if (remove(candidate)) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+            }
+            // all inspected entries were referenced, evict the last one to bound the work of the insert
+            if (candidate != null && remove(candidate)) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        } finally {
+            handLock.unlock();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Set<String> getScriptPaths() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getWeight() {
+        return weight.get();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * The bounds of a script cache, shared by all its partitions.
+     */
+    public static final class Bounds {
+
+        private final int maxEntries;
+        private final long maxWeight;
+        private final AtomicInteger entries = new AtomicInteger();
+        private final AtomicLong weight = new AtomicLong();
+        private final Collection<ScriptCachePartition> partitions = new CopyOnWriteArrayList<ScriptCachePartition>();
+
+        /**
+         * @param maxEntries the maximum number of scripts in all partitions
+         * @param maxWeight  the maximum sum of the script weights in all partitions
+         */
+        public Bounds(int maxEntries, long maxWeight) {
+            this.maxEntries = maxEntries;
+            this.maxWeight = maxWeight;
+        }
+
+        private void evict() {
+            for (int i = 0; i < MAX_EVICTIONS_PER_PUT; i++) {
+                boolean tooManyEntries = entries.get() > maxEntries;
+                if (!tooManyEntries && weight.get() <= maxWeight) {
+                    return;
+                }
+                ScriptCachePartition largest = null;
+                for (ScriptCachePartition partition : partitions) {
+                    if (largest == null || (tooManyEntries ? partition.size() > largest.size()
+                            : partition.getWeight() > largest.getWeight())) {
+                        largest = partition;
+                    }
+                }
+                if (largest == null || !largest.evictOne()) {
+                    return;
+                }
+            }
+        }
+
+        public int getEntries() {
+            return entries.get();
+        }
+
+        public long getWeight() {
+            return weight.get();
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public long getMaxWeight() {
+            return maxWeight;
+        }
+    }
+
+    private static final class Entry {
+        private final String scriptPath;
+        private final CachedScript script;
+        private final long weight;
+        private volatile boolean referenced;
+
+        Entry(String scriptPath, CachedScript script, long weight) {
+            this.scriptPath = scriptPath;
+            this.script = script;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.scripting.core.impl.helper;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Test of ScriptCachePartition.
+ */
+public class ScriptCachePartitionTest {
+
+    private static CachedScriptImpl script(String path) {
+        return new CachedScriptImpl(path, null);
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        ScriptCachePartition partition = new ScriptCachePartition("test", new ScriptCachePartition.Bounds(10, 1000));
+        assertNull(partition.get("/apps/a.test"));
+        CachedScriptImpl a = script("/apps/a.test");
+        partition.put(a, 10);
+        assertSame(a, partition.get("/apps/a.test"));
+        assertSame(a, partition.get("/apps/a.test"));
+        assertEquals(2, partition.getHits());
+        assertEquals(1, partition.getMisses());
+    }
+
+    @Test
+    public void testWeight() {
+        ScriptCachePartition.Bounds bounds = new ScriptCachePartition.Bounds(10, 1000);
+        ScriptCachePartition partition = new ScriptCachePartition("test", bounds);
+        partition.put(script("/apps/a.test"), 10);
+        partition.put(script("/apps/b.test"), 20);
+        partition.put(script("/apps/a.test"), 30);
+        assertEquals(50, partition.getWeight());
+        assertEquals(50, bounds.getWeight());
+        assertEquals(2, bounds.getEntries());
+        assertTrue(partition.remove("/apps/b.test"));
+        assertFalse(partition.remove("/apps/b.test"));
+        assertEquals(30, partition.getWeight());
+        partition.clear();
+        assertEquals(0, partition.getWeight());
+        assertEquals(0, partition.size());
+        assertEquals(0, bounds.getWeight());
+        assertEquals(0, bounds.getEntries());
+    }
+
+    @Test
+    public void testEvictionByWeight() {
+        ScriptCachePartition partition = new ScriptCachePartition("test", new ScriptCachePartition.Bounds(100, 100));
+        for (int i = 0; i < 5; i++) {
+            partition.put(script("/apps/" + i + ".test"), 20);
+        }
+        // reference the first script, such that the clock spares it
+        partition.get("/apps/0.test");
+        partition.put(script("/apps/5.test"), 20);
+
+        assertEquals(100, partition.getWeight());
+        assertEquals(1, partition.getEvictions());
+        assertNotNull(partition.get("/apps/0.test"));
+        assertEquals(5, partition.size());
+    }
+
+    @Test
+    public void testEvictionBySize() {
+        ScriptCachePartition partition = new ScriptCachePartition("test", new ScriptCachePartition.Bounds(10, Long.MAX_VALUE));
+        for (int i = 0; i < 11; i++) {
+            partition.put(script("/apps/" + i + ".test"), 1);
+        }
+        assertEquals(10, partition.size());
+        assertEquals(1, partition.getEvictions());
+    }
+
+    @Test
+    public void testIncrementalEviction() {
+        ScriptCachePartition partition = new ScriptCachePartition("test", new ScriptCachePartition.Bounds(100, 100));
+        for (int i = 0; i < 10; i++) {
+            partition.put(script("/apps/" + i + ".test"), 10);
+        }
+        // a single insert evicts a bounded number of scripts, the following inserts continue the eviction
+        partition.put(script("/apps/large.test"), 100);
+        assertEquals(ScriptCachePartition.MAX_EVICTIONS_PER_PUT, partition.getEvictions());
+        assertTrue(partition.getWeight() > 100);
+        partition.put(script("/apps/small.test"), 1);
+        assertTrue(partition.getWeight() <= 100);
+    }
+
+    @Test
+    public void testBoundsSharedByPartitions() {
+        ScriptCachePartition.Bounds bounds = new ScriptCachePartition.Bounds(10, Long.MAX_VALUE);
+        ScriptCachePartition large = new ScriptCachePartition("large", bounds);
+        ScriptCachePartition small = new ScriptCachePartition("small", bounds);
+        for (int i = 0; i < 2; i++) {
+            small.put(script("/apps/" + i + ".small"), 1);
+        }
+        for (int i = 0; i < 8; i++) {
+            large.put(script("/apps/" + i + ".large"), 1);
+        }
+        assertEquals(0, large.getEvictions() + small.getEvictions());
+
+        // the partition holding the most scripts gives way, also for inserts into other partitions
+        small.put(script("/apps/2.small"), 1);
+        large.put(script("/apps/8.large"), 1);
+        assertEquals(10, bounds.getEntries());
+        assertEquals(2, large.getEvictions());
+        assertEquals(0, small.getEvictions());
+        assertEquals(3, small.size());
+    }
+}
@@ -25,6 +25,7 @@ import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.util.Dictionary;
+import java.util.Set;
 
 import javax.script.Bindings;
 import javax.script.ScriptContext;
@@ -60,6 +61,7 @@ import org.apache.sling.commons.compiler.JavaCompiler;
 import org.apache.sling.commons.osgi.PropertiesUtil;
 import org.apache.sling.scripting.api.AbstractScriptEngineFactory;
 import org.apache.sling.scripting.api.AbstractSlingScriptEngine;
+import org.apache.sling.scripting.jsp.jasper.compiler.JspDependencyGraph;
 import org.apache.sling.scripting.jsp.jasper.compiler.JspRuntimeContext;
 import org.apache.sling.scripting.jsp.jasper.compiler.JspRuntimeContext.JspFactoryHandler;
 import org.apache.sling.scripting.jsp.jasper.runtime.AnnotationProcessor;
@@ -130,6 +132,9 @@ public class JspScriptEngineFactory
 
     private JspRuntimeContext jspRuntimeContext;
 
+    /** The dependency graph, shared by the renewed runtime contexts. */
+    private JspDependencyGraph dependencyGraph;
+
     private JspServletOptions options;
 
     private JspServletContext jspServletContext;
@@ -343,6 +348,8 @@ public class JspScriptEngineFactory
 
             this.tldLocationsCache = new SlingTldLocationsCache(componentContext.getBundleContext());
 
+            this.dependencyGraph = new JspDependencyGraph();
+
             // prepare some classes
             ioProvider = new SlingIOProvider(this.classLoaderWriter, this.javaCompiler);
 
@@ -383,6 +390,8 @@ public class JspScriptEngineFactory
             jspRuntimeContext = null;
         }
 
+        this.dependencyGraph.clear();
+
         ioProvider = null;
         this.jspFactoryHandler.destroy();
         this.jspFactoryHandler = null;
@@ -589,7 +598,7 @@ public class JspScriptEngineFactory
                 if ( this.jspRuntimeContext == null ) {
                     // Initialize the JSP Runtime Context
                     this.jspRuntimeContext = new JspRuntimeContext(slingServletContext,
-                            options, ioProvider);
+                            options, ioProvider, dependencyGraph);
                 }
             }
         }
@@ -625,9 +634,12 @@ public class JspScriptEngineFactory
     @Override
     public void handleEvent(final Event event) {
         final String path = (String)event.getProperty(SlingConstants.PROPERTY_PATH);
-        if ( path != null ) {
+        final JspDependencyGraph graph = this.dependencyGraph;
+        if ( path != null && graph != null ) {
+            // the graph outlives the context, so it is updated even if there is no context
+            final Set<String> invalidated = graph.invalidate(path);
             final JspRuntimeContext rctxt = this.jspRuntimeContext;
-            if ( rctxt != null && rctxt.handleModification(path) ) {
+            if ( rctxt != null && rctxt.handleModification(invalidated) ) {
                 renewJspRuntimeContext();
             }
         }
@@ -704,6 +716,7 @@ public class JspScriptEngineFactory
             if ( req.getMethod().equals("POST") ) {
                 final JspRuntimeContext rctxt = this.jspRuntimeContext;
                 this.classLoaderWriter.delete("/org/apache/jsp");
+                this.dependencyGraph.clear();
                 if ( rctxt != null ) {
                     renewJspRuntimeContext();
                 }
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.scripting.jsp.jasper.compiler;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The <code>JspDependencyGraph</code> tracks the compile time dependencies
+ * of the JSPs and tag files - the included files and the used tag files -
+ * together with the JSPs and tag files whose compiled classes are known
+ * to be current.
+ *
+ * A JSP is marked current once its class has been checked or compiled. It
+ * is no longer current as soon as the JSP itself or one of its direct or
+ * indirect dependencies is modified. The graph outlives the
+ * {@link JspRuntimeContext}, so the wrappers of a renewed context don't
+ * have to compare the time stamps of the JSPs, their dependencies and their
+ * classes again.
+ */
+public final class JspDependencyGraph {
+
+    /**
+     * Maps dependencies to the using jsps and tag files.
+     */
+    private final ConcurrentMap<String, Set<String>> dependents = new ConcurrentHashMap<String, Set<String>>();
+
+    /**
+     * The jsps and tag files with a current class.
+     */
+    private final Set<String> current = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * The jsps and tag files whose class is checked or compiled, but which
+     * are not marked current yet.
+     */
+    private final Set<String> checking = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * Incremented on every modification of a tracked path: a current jsp or
+     * tag file, one being checked or a dependency.
+     */
+    private final AtomicLong modificationCount = new AtomicLong();
+
+    /**
+     * Add the dependencies of a jsp or tag file.
+     */
+    public void addDependencies(final String jspUri, final List<String> deps) {
+        if ( deps != null ) {
+            for(final String dep : deps) {
+                Set<String> set = this.dependents.get(dep);
+                if ( set == null ) {
+                    set = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                    final Set<String> existing = this.dependents.putIfAbsent(dep, set);
+                    if ( existing != null ) {
+                        set = existing;
+                    }
+                }
+                set.add(jspUri);
+            }
+        }
+    }
+
+    /**
+     * Get the current modification count. It has to be taken before
+     * checking or compiling the class of a jsp or tag file, which is then
+     * marked current with {@link #markCurrent(String, long)}. Until then,
+     * modifications of the jsp or tag file are tracked.
+     */
+    public long getModificationCount(final String jspUri) {
+        if ( !this.current.contains(jspUri) ) {
+            this.checking.add(jspUri);
+        }
+        return this.modificationCount.get();
+    }
+
+    /**
+     * Check whether the class of a jsp or tag file is known to be current.
+     */
+    public boolean isCurrent(final String jspUri) {
+        return this.current.contains(jspUri);
+    }
+
+    /**
+     * Mark the class of a jsp or tag file as current, unless a modification
+     * has been handled since the modification count has been taken.
+     */
+    public void markCurrent(final String jspUri, final long modificationCount) {
+        this.current.add(jspUri);
+        // a concurrent modification might have missed the mark
+        if ( this.modificationCount.get() != modificationCount ) {
+            this.current.remove(jspUri);
+        }
+        this.checking.remove(jspUri);
+    }
+
+    /**
+     * Handle a modification.
+     * @param path The modified path
+     * @return The path itself and all jsps and tag files depending
+     *         directly or indirectly on it. None of them is current anymore.
+     */
+    public Set<String> invalidate(final String path) {
+        if ( !this.current.contains(path) && !this.dependents.containsKey(path)
+             && !this.checking.contains(path) ) {
+            // nothing depends on the path, so checks in progress are not affected
+            return Collections.singleton(path);
+        }
+        this.modificationCount.incrementAndGet();
+
+        final Set<String> result = new HashSet<String>();
+        final LinkedList<String> queue = new LinkedList<String>();
+        queue.add(path);
+        while ( !queue.isEmpty() ) {
+            final String p = queue.removeFirst();
+            if ( result.add(p) ) {
+                this.current.remove(p);
+                // the dependencies are added again once the users are recompiled
+                final Set<String> users = this.dependents.remove(p);
+                if ( users != null ) {
+                    queue.addAll(users);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Forget all dependencies and current classes.
+     */
+    public void clear() {
+        this.modificationCount.incrementAndGet();
+        this.current.clear();
+        this.checking.clear();
+        this.dependents.clear();
+    }
+}
@@ -24,11 +24,8 @@ import java.security.CodeSource;
 import java.security.PermissionCollection;
 import java.security.Policy;
 import java.security.cert.Certificate;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
@@ -200,12 +197,15 @@ public final class JspRuntimeContext {
      * Loads in any previously generated dependencies from file.
      *
      * @param context ServletContext for web application
+     * @param dependencyGraph The dependency graph, which might be shared with previous contexts
      */
-    public JspRuntimeContext(ServletContext context, Options options, final IOProvider ioProvider) {
+    public JspRuntimeContext(ServletContext context, Options options, final IOProvider ioProvider,
+            final JspDependencyGraph dependencyGraph) {
 
         this.context = context;
         this.options = options;
         this.ioProvider = ioProvider;
+        this.dependencyGraph = dependencyGraph;
 
         if (Constants.IS_SECURITY_ENABLED) {
             initSecurity();
@@ -227,9 +227,9 @@ public final class JspRuntimeContext {
     private final ConcurrentHashMap<String, JspServletWrapper> jsps = new ConcurrentHashMap<String, JspServletWrapper>();
 
     /**
-     * Maps dependencies to the using jsp.
+     * Maps dependencies to the using jsps and tracks the current jsps.
      */
-    private final Map<String, Set<String>> depToJsp = new HashMap<String, Set<String>>();
+    private final JspDependencyGraph dependencyGraph;
 
     /**
      * Locks for loading tag files.
@@ -239,43 +239,25 @@ public final class JspRuntimeContext {
     // ------------------------------------------------------ Public Methods
 
     public void addJspDependencies(final JspServletWrapper jsw, final List<String> deps) {
-        if ( deps != null ) {
-            final String jspUri = jsw.getJspUri();
-            synchronized ( depToJsp ) {
-                for(final String dep : deps) {
-                    Set<String> set = depToJsp.get(dep);
-                    if ( set == null ) {
-                        set = new HashSet<String>();
-                        depToJsp.put(dep, set);
-                    }
-                    set.add(jspUri);
-                }
-            }
-        }
+        dependencyGraph.addDependencies(jsw.getJspUri(), deps);
     }
 
     /**
      * Handle jsp modifications
+     * The wrappers of the jsp itself and of all jsps and tag files
+     * depending directly or indirectly on it are invalidated.
+     * @param jspUris The jsps and tag files returned by
+     *        {@link JspDependencyGraph#invalidate(String)} for the modification
      */
-    public boolean handleModification(final String scriptName) {
+    public boolean handleModification(final Set<String> jspUris) {
         if ( log.isDebugEnabled() ) {
-            log.debug("Handling modification " + scriptName);
+            log.debug("Handling modification " + jspUris);
         }
 
-        JspServletWrapper wrapper = jsps.remove(scriptName);
-
-        // first check if jsps contains this
-        boolean removed = this.invalidate(wrapper);
-
-        final Set<String> deps;
-        synchronized ( depToJsp ) {
-            deps = depToJsp.remove(scriptName);
-        }
-        if ( deps != null ) {
-            for(final String dep : deps) {
-                wrapper = jsps.remove(dep);
-                removed |= this.invalidate(wrapper);
-            }
+        boolean removed = false;
+        for(final String jspUri : jspUris) {
+            final JspServletWrapper wrapper = jsps.remove(jspUri);
+            removed |= this.invalidate(wrapper);
         }
         return removed;
     }
@@ -346,9 +328,6 @@ public final class JspRuntimeContext {
             servlets.next().destroy(false);
         }
         jsps.clear();
-        synchronized ( depToJsp ) {
-            depToJsp.clear();
-        }
     }
 
     /**
@@ -358,6 +337,13 @@ public final class JspRuntimeContext {
         return ioProvider;
     }
 
+    /**
+     * Returns the {@link JspDependencyGraph} of this context.
+     */
+    public JspDependencyGraph getDependencyGraph() {
+        return dependencyGraph;
+    }
+
     // -------------------------------------------------------- Private Methods
 
     /**
@@ -53,6 +53,7 @@ import org.apache.sling.scripting.jsp.jasper.JspCompilationContext;
 import org.apache.sling.scripting.jsp.jasper.Options;
 import org.apache.sling.scripting.jsp.jasper.compiler.ErrorDispatcher;
 import org.apache.sling.scripting.jsp.jasper.compiler.JavacErrorDetail;
+import org.apache.sling.scripting.jsp.jasper.compiler.JspDependencyGraph;
 import org.apache.sling.scripting.jsp.jasper.compiler.JspRuntimeContext;
 import org.apache.sling.scripting.jsp.jasper.compiler.Localizer;
 import org.apache.sling.scripting.jsp.jasper.runtime.AnnotationProcessor;
@@ -254,17 +255,34 @@ public class JspServletWrapper {
         if ( this.tagFileClass == null ) {
             synchronized (this) {
                 if ( this.tagFileClass == null ) {
-                    if ( log.isDebugEnabled() ) {
-                        log.debug("Compiling tagfile " + jspUri);
-                    }
-                    this.compileException = ctxt.compile();
-                    if ( compileException != null ) {
-                        throw compileException;
+                    final JspDependencyGraph graph = ctxt.getRuntimeContext().getDependencyGraph();
+                    final long modificationCount = graph.getModificationCount(jspUri);
+                    // prototypes are always compiled
+                    boolean compile = ctxt.isPrototypeMode() || !graph.isCurrent(jspUri);
+                    if ( !compile ) {
+                        if ( log.isDebugEnabled() ) {
+                            log.debug("Loading current tagfile " + jspUri);
+                        }
+                        try {
+                            this.tagFileClass = this.ctxt.load();
+                        } catch (final JasperException je) {
+                            // the class has been removed in the meantime
+                            compile = true;
+                        }
                     }
-                    if ( log.isDebugEnabled() ) {
-                        log.debug("Loading tagfile " + jspUri);
+                    if ( compile ) {
+                        if ( log.isDebugEnabled() ) {
+                            log.debug("Compiling tagfile " + jspUri);
+                        }
+                        this.compileException = ctxt.compile();
+                        if ( compileException != null ) {
+                            throw compileException;
+                        }
+                        if ( log.isDebugEnabled() ) {
+                            log.debug("Loading tagfile " + jspUri);
+                        }
+                        this.tagFileClass = this.ctxt.load();
                     }
-                    this.tagFileClass = this.ctxt.load();
                     try {
                         final Object tag = this.tagFileClass.newInstance();
                         // update dependents
@@ -282,6 +300,9 @@ public class JspServletWrapper {
                     } catch (final Throwable t) {
                         // ignore
                     }
+                    if ( compile && !ctxt.isPrototypeMode() ) {
+                        graph.markCurrent(jspUri, modificationCount);
+                    }
                 }
             }
         }
@@ -415,10 +436,25 @@ public class JspServletWrapper {
      * - compile it if it either hasn't been compiled yet or is out dated
      * - load the servlet
      *
+     * If the class is known to be current from the dependency graph,
+     * the time stamps are not checked.
      */
     private void prepareServlet(final HttpServletRequest request,
             final HttpServletResponse response)
     throws IOException, ServletException {
+        final JspDependencyGraph graph = ctxt.getRuntimeContext().getDependencyGraph();
+        final long modificationCount = graph.getModificationCount(this.jspUri);
+        if ( graph.isCurrent(this.jspUri) ) {
+            try {
+                this.theServlet = this.loadServlet();
+                return;
+            } catch (final JasperException je) {
+                // the class has been removed in the meantime
+                if ( log.isDebugEnabled() ) {
+                    log.debug("Unable to load current servlet " + this.jspUri, je);
+                }
+            }
+        }
         if ( isOutDated() ) {
             // Compile...
             if ( log.isDebugEnabled() ) {
@@ -432,6 +468,7 @@ public class JspServletWrapper {
 
         // (Re)load servlet class file
         this.theServlet = this.loadServlet();
+        graph.markCurrent(this.jspUri, modificationCount);
     }
 
     /**
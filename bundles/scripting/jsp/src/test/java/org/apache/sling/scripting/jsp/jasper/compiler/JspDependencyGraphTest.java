@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.scripting.jsp.jasper.compiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+public class JspDependencyGraphTest {
+
+    private final JspDependencyGraph graph = new JspDependencyGraph();
+
+    @Test
+    public void testTransitiveInvalidate() {
+        graph.addDependencies("/apps/a.jsp", Arrays.asList("/apps/b.jsp"));
+        graph.addDependencies("/apps/b.jsp", Arrays.asList("/apps/tags/c.tag"));
+        graph.addDependencies("/apps/d.jsp", Arrays.asList("/apps/other.jsp"));
+        for (final String jspUri : Arrays.asList("/apps/a.jsp", "/apps/b.jsp", "/apps/tags/c.tag", "/apps/d.jsp")) {
+            graph.markCurrent(jspUri, graph.getModificationCount(jspUri));
+        }
+
+        assertEquals(new HashSet<String>(Arrays.asList("/apps/tags/c.tag", "/apps/b.jsp", "/apps/a.jsp")),
+                graph.invalidate("/apps/tags/c.tag"));
+        assertFalse(graph.isCurrent("/apps/a.jsp"));
+        assertFalse(graph.isCurrent("/apps/b.jsp"));
+        assertFalse(graph.isCurrent("/apps/tags/c.tag"));
+        assertTrue(graph.isCurrent("/apps/d.jsp"));
+
+        // the dependencies are only known again once the users are recompiled
+        assertEquals(new HashSet<String>(Arrays.asList("/apps/b.jsp")), graph.invalidate("/apps/b.jsp"));
+    }
+
+    @Test
+    public void testInvalidateWithCycle() {
+        graph.addDependencies("/apps/a.jsp", Arrays.asList("/apps/b.jsp"));
+        graph.addDependencies("/apps/b.jsp", Arrays.asList("/apps/a.jsp"));
+        assertEquals(new HashSet<String>(Arrays.asList("/apps/a.jsp", "/apps/b.jsp")), graph.invalidate("/apps/a.jsp"));
+    }
+
+    @Test
+    public void testMarkCurrentAfterModification() {
+        final long count = graph.getModificationCount("/apps/a.jsp");
+        // the jsp is modified while its class is checked
+        graph.invalidate("/apps/a.jsp");
+        graph.markCurrent("/apps/a.jsp", count);
+        assertFalse(graph.isCurrent("/apps/a.jsp"));
+
+        graph.markCurrent("/apps/a.jsp", graph.getModificationCount("/apps/a.jsp"));
+        assertTrue(graph.isCurrent("/apps/a.jsp"));
+    }
+
+    @Test
+    public void testUntrackedModification() {
+        graph.addDependencies("/apps/a.jsp", Arrays.asList("/apps/b.jsp"));
+        final long count = graph.getModificationCount("/apps/a.jsp");
+        // a path nothing depends on does not affect the check of the jsp
+        assertEquals(new HashSet<String>(Arrays.asList("/apps/other.txt")), graph.invalidate("/apps/other.txt"));
+        graph.markCurrent("/apps/a.jsp", count);
+        assertTrue(graph.isCurrent("/apps/a.jsp"));
+        assertEquals(count, graph.getModificationCount("/apps/a.jsp"));
+    }
+
+    @Test
+    public void testClear() {
+        graph.addDependencies("/apps/a.jsp", Arrays.asList("/apps/b.jsp"));
+        graph.markCurrent("/apps/a.jsp", graph.getModificationCount("/apps/a.jsp"));
+        final long count = graph.getModificationCount("/apps/a.jsp");
+
+        graph.clear();
+        assertFalse(graph.isCurrent("/apps/a.jsp"));
+        assertTrue(graph.getModificationCount("/apps/a.jsp") != count);
+        // the dependencies are gone as well
+        assertEquals(new HashSet<String>(Arrays.asList("/apps/b.jsp")), graph.invalidate("/apps/b.jsp"));
+
+        graph.markCurrent("/apps/a.jsp", count);
+        assertFalse("A class checked before the clear is not current.", graph.isCurrent("/apps/a.jsp"));
+    }
+}
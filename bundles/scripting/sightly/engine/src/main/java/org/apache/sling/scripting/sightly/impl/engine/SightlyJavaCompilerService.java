@@ -61,6 +61,12 @@ public class SightlyJavaCompilerService {
 
     public static final Pattern PACKAGE_DECL_PATTERN = Pattern.compile("(\\s*)package\\s+([a-zA-Z_$][a-zA-Z\\d_$]*\\.?)+;");
 
+    /**
+     * The extension of the file written next to a generated class, which holds the last modified date of the script the class was
+     * generated from.
+     */
+    private static final String SOURCE_LAST_MODIFIED_EXTENSION = ".sourceLastModified";
+
     @Reference
     private ClassLoaderWriter classLoaderWriter = null;
 
@@ -124,13 +130,98 @@ public class SightlyJavaCompilerService {
      * @return object instance of the class to compile
      */
     public Object compileSource(SourceIdentifier sourceIdentifier, String sourceCode) {
+        return compileSource(sourceIdentifier, sourceCode, 0);
+    }
+
+    /**
+     * Compiles a class generated from a script and records the last modified date of the script with the class, such that the class can be
+     * reused as long as the script doesn't change, see {@link #getPrecompiledInstance(SourceIdentifier, long)}.
+     *
+     * @param sourceIdentifier   the source identifier of the script
+     * @param sourceCode         the source code generated from the script
+     * @param sourceLastModified the last modified date of the script the source code was generated from; if unknown ({@code <= 0}) the
+     *                           class will not be reused
+     * @return object instance of the class to compile
+     */
+    public Object compileSource(SourceIdentifier sourceIdentifier, String sourceCode, long sourceLastModified) {
+        String sourceLastModifiedPath = getSourceLastModifiedPath(sourceIdentifier);
+        // the recorded date no longer applies once the class is replaced
+        classLoaderWriter.delete(sourceLastModifiedPath);
         try {
-            return internalCompileSource(sourceIdentifier, sourceCode);
+            Object instance = internalCompileSource(sourceIdentifier, sourceCode);
+            if (sourceLastModified > 0) {
+                OutputStream os = classLoaderWriter.getOutputStream(sourceLastModifiedPath);
+                try {
+                    IOUtils.write(Long.toString(sourceLastModified), os, "UTF-8");
+                } finally {
+                    IOUtils.closeQuietly(os);
+                }
+            }
+            return instance;
         } catch (Exception e) {
             throw new SightlyException(e);
         }
     }
 
+    /**
+     * Returns an instance of the class previously generated for a script, provided the script didn't change since. This allows
+     * reusing the classes persisted by the {@link ClassLoaderWriter}, e.g. the ones generated by the {@link SightlyPrecompiler}, instead of
+     * compiling the script again.
+     *
+     * @param sourceIdentifier   the source identifier of the script
+     * @param sourceLastModified the last modified date of the script
+     * @return an instance of the generated class or {@code null} if there's no up-to-date class for the script
+     */
+    public Object getPrecompiledInstance(SourceIdentifier sourceIdentifier, long sourceLastModified) {
+        if (!isPrecompiled(sourceIdentifier, sourceLastModified)) {
+            return null;
+        }
+        String fqcn = sourceIdentifier.getFullyQualifiedClassName();
+        try {
+            return classLoaderWriter.getClassLoader().loadClass(fqcn).newInstance();
+        } catch (Exception e) {
+            LOG.debug("Unable to load precompiled class " + fqcn + ".", e);
+        } catch (LinkageError e) {
+            LOG.debug("Unable to load precompiled class " + fqcn + ".", e);
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the class generated for a script exists and was generated from the current version of the script. The last modified date
+     * of the script is compared to the one recorded when the class was compiled, not to the date of the class file, as the script could be
+     * saved while it is compiled and the clocks of the repository and of the class storage may differ.
+     *
+     * @param sourceIdentifier   the source identifier of the script
+     * @param sourceLastModified the last modified date of the script; if unknown ({@code <= 0}) the class is never considered up-to-date
+     * @return {@code true} if the generated class is up-to-date, {@code false} otherwise
+     */
+    public boolean isPrecompiled(SourceIdentifier sourceIdentifier, long sourceLastModified) {
+        if (sourceLastModified <= 0) {
+            return false;
+        }
+        String classPath = "/" + sourceIdentifier.getFullyQualifiedClassName().replaceAll("\\.", "/") + ".class";
+        if (classLoaderWriter.getLastModified(classPath) <= 0) {
+            return false;
+        }
+        InputStream is = null;
+        try {
+            is = classLoaderWriter.getInputStream(getSourceLastModifiedPath(sourceIdentifier));
+            return is != null && Long.parseLong(IOUtils.toString(is, "UTF-8").trim()) == sourceLastModified;
+        } catch (IOException e) {
+            // no date was recorded for the class
+            return false;
+        } catch (NumberFormatException e) {
+            return false;
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    private String getSourceLastModifiedPath(SourceIdentifier sourceIdentifier) {
+        return "/" + sourceIdentifier.getFullyQualifiedClassName().replaceAll("\\.", "/") + SOURCE_LAST_MODIFIED_EXTENSION;
+    }
+
     private Object internalCompileSource(SourceIdentifier sourceIdentifier, String sourceCode) throws Exception {
         String fqcn = sourceIdentifier.getFullyQualifiedClassName();
         if (sightlyEngineConfiguration.keepGenerated()) {
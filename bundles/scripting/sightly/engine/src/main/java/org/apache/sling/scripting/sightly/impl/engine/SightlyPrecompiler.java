@@ -0,0 +1,527 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.sling.scripting.sightly.impl.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Properties;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.apache.sling.commons.classloader.ClassLoaderWriter;
+import org.apache.sling.commons.classloader.DynamicClassLoaderManager;
+import org.apache.sling.commons.osgi.PropertiesUtil;
+import org.apache.sling.scripting.sightly.compiler.CompilationResult;
+import org.apache.sling.scripting.sightly.compiler.CompilationUnit;
+import org.apache.sling.scripting.sightly.compiler.CompilerMessage;
+import org.apache.sling.scripting.sightly.compiler.SightlyCompiler;
+import org.apache.sling.scripting.sightly.impl.engine.compiled.SourceIdentifier;
+import org.apache.sling.scripting.sightly.java.compiler.JavaClassBackendCompiler;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@code SightlyPrecompiler} compiles Sightly scripts ahead of time, such that the first request rendering a script doesn't have to
+ * compile it. Scripts are compiled when they are added or changed in the search paths (e.g. by installing a content package), when a bundle
+ * providing scripts through the {@code Sling-Bundle-Resources} header is started, when the engine starts and on demand through JMX.
+ * <p>
+ * The scripts are compiled in parallel by a bounded number of threads and the generated classes are written through the
+ * {@link ClassLoaderWriter}, so they survive restarts. A script is only compiled if its class is missing or was generated from another version of the script. The
+ * {@link SightlyScriptEngine} uses the class of a script as long as the precompiler didn't see the script change since, see
+ * {@link #getScriptLastModified(String)}.
+ */
+@Component(
+        metatype = true,
+        label = "Apache Sling Scripting Sightly Precompiler",
+        description = "Compiles Sightly scripts ahead of time and keeps the generated classes up-to-date."
+)
+@Service({SightlyPrecompiler.class, SightlyPrecompilerMBean.class, ResourceChangeListener.class})
+@Properties({
+        @Property(name = "jmx.objectname", value = "org.apache.sling.scripting.sightly:type=Precompiler", propertyPrivate = true),
+        @Property(name = ResourceChangeListener.PATHS, value = "glob:**/*.html", propertyPrivate = true),
+        @Property(name = ResourceChangeListener.CHANGES, value = {"ADDED", "CHANGED", "REMOVED"}, propertyPrivate = true),
+        @Property(
+                name = SightlyPrecompiler.SCR_PROP_NAME_ENABLED,
+                boolValue = SightlyPrecompiler.SCR_PROP_DEFAULT_ENABLED,
+                label = "Precompile Scripts",
+                description = "If enabled, scripts are compiled when they are added or changed, when bundles providing scripts are " +
+                        "started and when the engine starts. If disabled, scripts are only precompiled on demand through JMX."
+        ),
+        @Property(
+                name = SightlyPrecompiler.SCR_PROP_NAME_THREADS,
+                intValue = SightlyPrecompiler.SCR_PROP_DEFAULT_THREADS,
+                label = "Precompilation Threads",
+                description = "The maximum number of scripts compiled in parallel."
+        ),
+        @Property(
+                name = SightlyPrecompiler.SCR_PROP_NAME_DELAY,
+                longValue = SightlyPrecompiler.SCR_PROP_DEFAULT_DELAY,
+                label = "Precompilation Delay",
+                description = "The time in milliseconds to wait for further changes before compiling changed scripts, such that the " +
+                        "scripts of a content package are compiled in a single run."
+        )
+})
+public class SightlyPrecompiler implements SightlyPrecompilerMBean, ResourceChangeListener, ExternalResourceChangeListener, BundleListener {
+
+    public static final String SCR_PROP_NAME_ENABLED = "org.apache.sling.scripting.sightly.precompile";
+    public static final boolean SCR_PROP_DEFAULT_ENABLED = false;
+
+    public static final String SCR_PROP_NAME_THREADS = "org.apache.sling.scripting.sightly.precompile.threads";
+    public static final int SCR_PROP_DEFAULT_THREADS = 2;
+
+    public static final String SCR_PROP_NAME_DELAY = "org.apache.sling.scripting.sightly.precompile.delay";
+    public static final long SCR_PROP_DEFAULT_DELAY = 1000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(SightlyPrecompiler.class);
+
+    private static final String BUNDLE_RESOURCES_HEADER = "Sling-Bundle-Resources";
+
+    private static final String SCRIPT_EXTENSION = "." + SightlyScriptEngineFactory.EXTENSION;
+
+    /**
+     * Pending path standing for all the search paths, which are only known once a resource resolver is available.
+     */
+    private static final String ALL_SEARCH_PATHS = "*";
+
+    private static final Map<String, Object> AUTHENTICATION_INFO =
+            Collections.<String, Object>singletonMap(ResourceResolverFactory.SUBSERVICE, "precompiler");
+
+    @Reference
+    private ResourceResolverFactory resourceResolverFactory = null;
+
+    @Reference
+    private DynamicClassLoaderManager dynamicClassLoaderManager = null;
+
+    @Reference
+    private SightlyCompiler sightlyCompiler = null;
+
+    @Reference
+    private SightlyJavaCompilerService sightlyJavaCompilerService = null;
+
+    @Reference
+    private SightlyEngineConfiguration sightlyEngineConfiguration = null;
+
+    /**
+     * The last modified dates of the scripts whose classes were generated or found up-to-date by the precompiler, removed as soon as a
+     * script changes.
+     */
+    private final Map<String, Long> precompiledScripts = new ConcurrentHashMap<>();
+
+    private final Set<String> pendingPaths = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * The number of scheduled runs and compilations which haven't finished yet; the current run ends when it drops to 0.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger scripts = new AtomicInteger();
+    private final AtomicInteger compiledScripts = new AtomicInteger();
+    private final AtomicInteger upToDateScripts = new AtomicInteger();
+    private final AtomicInteger failedScripts = new AtomicInteger();
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+    private volatile long runStart;
+    private volatile long runEnd;
+
+    private volatile ScheduledExecutorService executor;
+    private BundleContext bundleContext;
+    private boolean enabled;
+    private long delay;
+
+    /**
+     * Returns the last modified date of a script as seen by the precompiler, provided the script didn't change since. A class generated for
+     * the script which is not older than this date is up-to-date.
+     *
+     * @param scriptPath the path of the script
+     * @return the last modified date or 0 if the script wasn't precompiled or changed since
+     */
+    public long getScriptLastModified(String scriptPath) {
+        Long lastModified = precompiledScripts.get(scriptPath);
+        return lastModified != null ? lastModified : 0;
+    }
+
+    /**
+     * Called by the {@link SightlyScriptEngineFactory} once the classes generated by previous engine versions were removed.
+     */
+    void engineStarted() {
+        if (enabled) {
+            precompileAll();
+        }
+    }
+
+    @Override
+    public void precompileAll() {
+        schedule(ALL_SEARCH_PATHS, 0);
+    }
+
+    @Override
+    public void precompile(String path) {
+        if (StringUtils.isNotEmpty(path)) {
+            schedule(path, 0);
+        }
+    }
+
+    @Override
+    public void onChange(@Nonnull List<ResourceChange> changes) {
+        for (ResourceChange change : changes) {
+            String path = change.getPath();
+            precompiledScripts.remove(path);
+            if (change.getType() == ResourceChange.ChangeType.REMOVED) {
+                failures.remove(path);
+            } else if (enabled) {
+                schedule(path, delay);
+            }
+        }
+    }
+
+    @Override
+    public void bundleChanged(BundleEvent event) {
+        if (event.getType() != BundleEvent.STARTED && event.getType() != BundleEvent.STOPPED) {
+            return;
+        }
+        Object header = event.getBundle().getHeaders().get(BUNDLE_RESOURCES_HEADER);
+        if (header == null) {
+            return;
+        }
+        for (String entry : StringUtils.split(header.toString(), ',')) {
+            String root = StringUtils.substringBefore(entry, ";").trim();
+            if (root.length() == 0) {
+                continue;
+            }
+            // the bundle's scripts are not reported as resource changes
+            Iterator<String> iterator = precompiledScripts.keySet().iterator();
+            while (iterator.hasNext()) {
+                if (isBelow(iterator.next(), root)) {
+                    iterator.remove();
+                }
+            }
+            if (enabled && event.getType() == BundleEvent.STARTED) {
+                schedule(root, delay);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return inFlight.get() > 0;
+    }
+
+    @Override
+    public int getScripts() {
+        return scripts.get();
+    }
+
+    @Override
+    public int getCompiledScripts() {
+        return compiledScripts.get();
+    }
+
+    @Override
+    public int getUpToDateScripts() {
+        return upToDateScripts.get();
+    }
+
+    @Override
+    public int getFailedScripts() {
+        return failedScripts.get();
+    }
+
+    @Override
+    public int getProgress() {
+        int total = scripts.get();
+        if (total == 0) {
+            return isRunning() ? 0 : 100;
+        }
+        return (int) ((compiledScripts.get() + upToDateScripts.get() + failedScripts.get()) * 100L / total);
+    }
+
+    @Override
+    public long getDuration() {
+        long start = runStart;
+        if (start == 0) {
+            return 0;
+        }
+        return (isRunning() ? System.currentTimeMillis() : runEnd) - start;
+    }
+
+    @Override
+    public String[] getFailures() {
+        List<String> result = new ArrayList<>(failures.size());
+        for (Map.Entry<String, String> failure : failures.entrySet()) {
+            result.add(failure.getKey() + ": " + failure.getValue());
+        }
+        Collections.sort(result);
+        return result.toArray(new String[result.size()]);
+    }
+
+    @Activate
+    protected void activate(ComponentContext componentContext) {
+        Dictionary properties = componentContext.getProperties();
+        enabled = PropertiesUtil.toBoolean(properties.get(SCR_PROP_NAME_ENABLED), SCR_PROP_DEFAULT_ENABLED);
+        delay = Math.max(0, PropertiesUtil.toLong(properties.get(SCR_PROP_NAME_DELAY), SCR_PROP_DEFAULT_DELAY));
+        int threads = Math.max(1, PropertiesUtil.toInteger(properties.get(SCR_PROP_NAME_THREADS), SCR_PROP_DEFAULT_THREADS));
+        executor = new ScheduledThreadPoolExecutor(threads, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(@Nonnull Runnable runnable) {
+                Thread thread = new Thread(runnable, "Sightly Precompiler #" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        bundleContext = componentContext.getBundleContext();
+        bundleContext.addBundleListener(this);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        bundleContext.removeBundleListener(this);
+        bundleContext = null;
+        executor.shutdownNow();
+        executor = null;
+        pendingPaths.clear();
+        precompiledScripts.clear();
+    }
+
+    //---------------------------------- private -----------------------------------
+    private void schedule(String path, long delayMillis) {
+        pendingPaths.add(path);
+        ScheduledExecutorService currentExecutor = executor;
+        if (currentExecutor != null && flushScheduled.compareAndSet(false, true)) {
+            try {
+                currentExecutor.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        flush();
+                    }
+                }, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // deactivated in the meantime
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Collects the scripts below the pending paths and submits the ones whose classes are not up-to-date for compilation. The scripts are
+     * read here, as resource resolvers must not be shared by the compiling threads.
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        if (inFlight.getAndIncrement() == 0) {
+            startRun();
+        }
+        ResourceResolver resolver = null;
+        try {
+            resolver = resourceResolverFactory.getServiceResourceResolver(AUTHENTICATION_INFO);
+            String[] searchPaths = resolver.getSearchPath();
+            List<String> paths = new ArrayList<>(pendingPaths);
+            pendingPaths.removeAll(paths);
+            if (paths.remove(ALL_SEARCH_PATHS)) {
+                Collections.addAll(paths, searchPaths);
+            }
+            List<Resource> scriptResources = new ArrayList<>();
+            for (String path : paths) {
+                Resource resource = resolver.getResource(path);
+                if (resource != null) {
+                    collectScripts(resource, searchPaths, scriptResources);
+                }
+            }
+            for (Resource scriptResource : scriptResources) {
+                submit(scriptResource);
+            }
+        } catch (LoginException e) {
+            LOG.error("Unable to obtain a resource resolver for precompiling Sightly scripts.", e);
+        } finally {
+            if (resolver != null) {
+                resolver.close();
+            }
+            finished();
+        }
+    }
+
+    private void collectScripts(Resource resource, String[] searchPaths, List<Resource> scriptResources) {
+        if (resource.getName().endsWith(SCRIPT_EXTENSION)) {
+            if (isInSearchPath(resource.getPath(), searchPaths)) {
+                scriptResources.add(resource);
+            }
+            return;
+        }
+        for (Resource child : resource.getChildren()) {
+            collectScripts(child, searchPaths, scriptResources);
+        }
+    }
+
+    private void submit(Resource scriptResource) {
+        final String path = scriptResource.getPath();
+        final long lastModified = scriptResource.getResourceMetadata().getModificationTime();
+        SourceIdentifier sourceIdentifier = new SourceIdentifier(sightlyEngineConfiguration, path);
+        if (sightlyJavaCompilerService.isPrecompiled(sourceIdentifier, lastModified)) {
+            scripts.incrementAndGet();
+            upToDateScripts.incrementAndGet();
+            precompiledScripts.put(path, lastModified);
+            return;
+        }
+        InputStream inputStream = scriptResource.adaptTo(InputStream.class);
+        if (inputStream == null) {
+            // not a file, e.g. a folder with a .html name
+            return;
+        }
+        final String source;
+        try {
+            source = IOUtils.toString(inputStream, "UTF-8");
+        } catch (IOException e) {
+            LOG.error("Unable to read Sightly script " + path + ".", e);
+            return;
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+        scripts.incrementAndGet();
+        inFlight.incrementAndGet();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    compile(path, source, lastModified);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // deactivated in the meantime
+            finished();
+        }
+    }
+
+    private void compile(final String path, final String source, long lastModified) {
+        ClassLoader old = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(dynamicClassLoaderManager.getDynamicClassLoader());
+        try {
+            CompilationUnit compilationUnit = new CompilationUnit() {
+                @Override
+                public String getScriptName() {
+                    return path;
+                }
+
+                @Override
+                public Reader getScriptReader() {
+                    return new StringReader(source);
+                }
+            };
+            JavaClassBackendCompiler javaClassBackendCompiler = new JavaClassBackendCompiler();
+            CompilationResult result = sightlyCompiler.compile(compilationUnit, javaClassBackendCompiler);
+            for (CompilerMessage warning : result.getWarnings()) {
+                LOG.warn("Script {} {}:{}: {}", new Object[] {warning.getScriptName(), warning.getLine(), warning.getColumn(),
+                        warning.getMessage()});
+            }
+            if (result.getErrors().size() > 0) {
+                CompilerMessage error = result.getErrors().get(0);
+                failed(path, error.getLine() + ":" + error.getColumn() + ": " + error.getMessage());
+                return;
+            }
+            SourceIdentifier sourceIdentifier = new SourceIdentifier(sightlyEngineConfiguration, path);
+            sightlyJavaCompilerService.compileSource(sourceIdentifier, javaClassBackendCompiler.build(sourceIdentifier), lastModified);
+            if (lastModified > 0) {
+                precompiledScripts.put(path, lastModified);
+            }
+            failures.remove(path);
+            compiledScripts.incrementAndGet();
+        } catch (Exception e) {
+            LOG.debug("Unable to precompile Sightly script " + path + ".", e);
+            failed(path, e.getMessage());
+        } finally {
+            Thread.currentThread().setContextClassLoader(old);
+            finished();
+        }
+    }
+
+    private void failed(String path, String reason) {
+        LOG.warn("Unable to precompile Sightly script {}: {}", path, reason);
+        failures.put(path, String.valueOf(reason));
+        failedScripts.incrementAndGet();
+    }
+
+    private void startRun() {
+        scripts.set(0);
+        compiledScripts.set(0);
+        upToDateScripts.set(0);
+        failedScripts.set(0);
+        runStart = System.currentTimeMillis();
+    }
+
+    private void finished() {
+        if (inFlight.decrementAndGet() == 0) {
+            runEnd = System.currentTimeMillis();
+            Object[] arguments = new Object[] {runEnd - runStart, compiledScripts.get(), upToDateScripts.get(), failedScripts.get()};
+            if (compiledScripts.get() + failedScripts.get() > 0) {
+                LOG.info("Precompiled Sightly scripts in {}ms: {} compiled, {} up-to-date, {} failed.", arguments);
+            } else {
+                LOG.debug("Precompiled Sightly scripts in {}ms: {} compiled, {} up-to-date, {} failed.", arguments);
+            }
+        }
+    }
+
+    private static boolean isInSearchPath(String path, String[] searchPaths) {
+        for (String searchPath : searchPaths) {
+            if (path.startsWith(searchPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBelow(String path, String root) {
+        return path.equals(root) || path.startsWith(root.endsWith("/") ? root : root + "/");
+    }
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.sling.scripting.sightly.impl.engine;
+
+/**
+ * JMX interface of the {@link SightlyPrecompiler}, allowing to trigger the precompilation of Sightly scripts and to follow its progress.
+ * The counters refer to the current precompilation run or, if none is running, to the last one.
+ */
+public interface SightlyPrecompilerMBean {
+
+    /**
+     * Compiles all scripts from the search paths whose classes are missing or older than the scripts.
+     */
+    void precompileAll();
+
+    /**
+     * Compiles the script identified by the path or, if the path denotes a folder, all the scripts below it, provided their classes are
+     * missing or older than the scripts.
+     *
+     * @param path the path of a script or of a folder
+     */
+    void precompile(String path);
+
+    /**
+     * @return {@code true} if a precompilation run is in progress
+     */
+    boolean isRunning();
+
+    /**
+     * @return the number of scripts found by the run
+     */
+    int getScripts();
+
+    /**
+     * @return the number of scripts compiled by the run
+     */
+    int getCompiledScripts();
+
+    /**
+     * @return the number of scripts whose classes were already up-to-date
+     */
+    int getUpToDateScripts();
+
+    /**
+     * @return the number of scripts which failed to compile
+     */
+    int getFailedScripts();
+
+    /**
+     * @return the share of processed scripts, in percent
+     */
+    int getProgress();
+
+    /**
+     * @return the duration of the run in milliseconds
+     */
+    long getDuration();
+
+    /**
+     * @return the scripts which failed to compile, with the reason of the failure
+     */
+    String[] getFailures();
+}
@@ -30,6 +30,7 @@ import javax.script.ScriptEngineFactory;
 import javax.script.ScriptException;
 
 import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.scripting.SlingBindings;
 import org.apache.sling.api.scripting.SlingScriptHelper;
 import org.apache.sling.scripting.api.AbstractSlingScriptEngine;
@@ -59,15 +60,18 @@ public class SightlyScriptEngine extends AbstractSlingScriptEngine implements Co
     private SightlyCompiler sightlyCompiler;
     private SightlyJavaCompilerService javaCompilerService;
     private final SightlyEngineConfiguration configuration;
+    private final SightlyPrecompiler precompiler;
 
     public SightlyScriptEngine(ScriptEngineFactory scriptEngineFactory,
                                SightlyCompiler sightlyCompiler,
                                SightlyJavaCompilerService javaCompilerService,
-                               SightlyEngineConfiguration configuration) {
+                               SightlyEngineConfiguration configuration,
+                               SightlyPrecompiler precompiler) {
         super(scriptEngineFactory);
         this.sightlyCompiler = sightlyCompiler;
         this.javaCompilerService = javaCompilerService;
         this.configuration = configuration;
+        this.precompiler = precompiler;
     }
 
     @Override
@@ -114,6 +118,13 @@ public class SightlyScriptEngine extends AbstractSlingScriptEngine implements Co
                 sName = getScriptName(scriptContext);
             }
             final String scriptName = sName;
+            SourceIdentifier sourceIdentifier = new SourceIdentifier(configuration, scriptName);
+            long scriptLastModified = getScriptLastModified(scriptContext, scriptName);
+            Object precompiledRenderUnit = javaCompilerService.getPrecompiledInstance(sourceIdentifier, scriptLastModified);
+            if (precompiledRenderUnit instanceof RenderUnit) {
+                LOGGER.debug("Using the precompiled class {} for script {}.", sourceIdentifier.getFullyQualifiedClassName(), scriptName);
+                return new SightlyCompiledScript(this, (RenderUnit) precompiledRenderUnit);
+            }
             CompilationUnit compilationUnit = new CompilationUnit() {
                 @Override
                 public String getScriptName() {
@@ -144,9 +155,8 @@ public class SightlyScriptEngine extends AbstractSlingScriptEngine implements Co
                 CompilerMessage error = result.getErrors().get(0);
                 throw new ScriptException(error.getMessage(), error.getScriptName(), error.getLine(), error.getColumn());
             }
-            SourceIdentifier sourceIdentifier = new SourceIdentifier(configuration, scriptName);
             String javaSourceCode = javaClassBackendCompiler.build(sourceIdentifier);
-            Object renderUnit = javaCompilerService.compileSource(sourceIdentifier, javaSourceCode);
+            Object renderUnit = javaCompilerService.compileSource(sourceIdentifier, javaSourceCode, scriptLastModified);
             if (renderUnit instanceof RenderUnit) {
                 return new SightlyCompiledScript(this, (RenderUnit) renderUnit);
             } else {
@@ -166,6 +176,23 @@ public class SightlyScriptEngine extends AbstractSlingScriptEngine implements Co
         }
     }
 
+    /**
+     * Returns the last modified date of the script, either from the script resource available through the script context or, for scripts
+     * compiled without a context, as seen by the {@link SightlyPrecompiler}.
+     */
+    private long getScriptLastModified(ScriptContext scriptContext, String scriptName) {
+        if (scriptContext != null) {
+            SlingScriptHelper sling = BindingsUtils.getHelper(scriptContext.getBindings(ScriptContext.ENGINE_SCOPE));
+            if (sling != null) {
+                Resource scriptResource = sling.getScript().getScriptResource();
+                if (scriptName.equals(scriptResource.getPath())) {
+                    return scriptResource.getResourceMetadata().getModificationTime();
+                }
+            }
+        }
+        return precompiler.getScriptLastModified(scriptName);
+    }
+
     private String getScriptName(ScriptContext scriptContext) {
         if (scriptContext != null) {
             Bindings bindings = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
@@ -67,6 +67,9 @@ public class SightlyScriptEngineFactory extends AbstractScriptEngineFactory {
     @Reference
     private SightlyJavaCompilerService sightlyJavaCompilerService;
 
+    @Reference
+    private SightlyPrecompiler sightlyPrecompiler;
+
     public final static String SHORT_NAME = "sightly";
 
     public final static String LANGUAGE_NAME = "The Sightly Templating Language";
@@ -94,7 +97,8 @@ public class SightlyScriptEngineFactory extends AbstractScriptEngineFactory {
 
     @Override
     public ScriptEngine getScriptEngine() {
-        return new SightlyScriptEngine(this, sightlyCompiler, sightlyJavaCompilerService, sightlyEngineConfiguration);
+        return new SightlyScriptEngine(this, sightlyCompiler, sightlyJavaCompilerService, sightlyEngineConfiguration,
+                sightlyPrecompiler);
     }
 
     protected ClassLoader getClassLoader() {
@@ -138,5 +142,6 @@ public class SightlyScriptEngineFactory extends AbstractScriptEngineFactory {
                 }
             }
         }
+        sightlyPrecompiler.engineStarted();
     }
 }
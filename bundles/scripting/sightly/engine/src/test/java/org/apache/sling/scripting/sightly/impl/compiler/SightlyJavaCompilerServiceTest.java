@@ -18,6 +18,8 @@
  ******************************************************************************/
 package org.apache.sling.scripting.sightly.impl.compiler;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Map;
@@ -35,6 +37,7 @@ import org.apache.sling.commons.compiler.Options;
 import org.apache.sling.scripting.sightly.impl.engine.ResourceBackedPojoChangeMonitor;
 import org.apache.sling.scripting.sightly.impl.engine.SightlyEngineConfiguration;
 import org.apache.sling.scripting.sightly.impl.engine.SightlyJavaCompilerService;
+import org.apache.sling.scripting.sightly.impl.engine.compiled.SourceIdentifier;
 import org.apache.sling.scripting.sightly.impl.engine.runtime.RenderContextImpl;
 import org.junit.After;
 import org.junit.Before;
@@ -44,6 +47,9 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.powermock.reflect.Whitebox;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -100,6 +106,70 @@ public class SightlyJavaCompilerServiceTest {
         verify(resourceBackedPojoChangeMonitor).clearJavaUseObject(className);
     }
 
+    @Test
+    public void testIsPrecompiled() throws Exception {
+        SightlyEngineConfiguration sightlyEngineConfiguration = mock(SightlyEngineConfiguration.class);
+        when(sightlyEngineConfiguration.getBundleSymbolicName()).thenReturn("org.apache.sling.scripting.sightly");
+        SourceIdentifier sourceIdentifier = new SourceIdentifier(sightlyEngineConfiguration, "/apps/my-project/component/component.html");
+        String classPath = "/org/apache/sling/scripting/sightly/apps/my__002d__project/component/component_html";
+        ClassLoaderWriter clw = Mockito.mock(ClassLoaderWriter.class);
+        // the class file is newer than the script, but it was generated from an older version
+        when(clw.getLastModified(classPath + ".class")).thenReturn(5000L);
+        when(clw.getInputStream(classPath + ".sourceLastModified")).thenAnswer(new Answer<InputStream>() {
+            @Override
+            public InputStream answer(InvocationOnMock invocation) throws Throwable {
+                return IOUtils.toInputStream("1000", "UTF-8");
+            }
+        });
+        String otherClassPath = "/org/apache/sling/scripting/sightly/apps/other/other_html";
+        when(clw.getLastModified(otherClassPath + ".class")).thenReturn(5000L);
+        when(clw.getInputStream(otherClassPath + ".sourceLastModified")).thenThrow(new IOException());
+        Whitebox.setInternalState(compiler, "classLoaderWriter", clw);
+        assertTrue(compiler.isPrecompiled(sourceIdentifier, 1000));
+        assertFalse(compiler.isPrecompiled(sourceIdentifier, 999));
+        assertFalse(compiler.isPrecompiled(sourceIdentifier, 1001));
+        assertFalse("The last modified date of the script is unknown.", compiler.isPrecompiled(sourceIdentifier, 0));
+        assertFalse("No date was recorded for the class.",
+                compiler.isPrecompiled(new SourceIdentifier(sightlyEngineConfiguration, "/apps/other/other.html"), 999));
+        assertNull(compiler.getPrecompiledInstance(sourceIdentifier, 1001));
+        when(clw.getLastModified(classPath + ".class")).thenReturn(-1L);
+        assertFalse("The class was removed.", compiler.isPrecompiled(sourceIdentifier, 1000));
+    }
+
+    @Test
+    public void testCompileSourceRecordsSourceLastModified() throws Exception {
+        SightlyEngineConfiguration sightlyEngineConfiguration = mock(SightlyEngineConfiguration.class);
+        when(sightlyEngineConfiguration.getBundleSymbolicName()).thenReturn("org.apache.sling.scripting.sightly");
+        SourceIdentifier sourceIdentifier = new SourceIdentifier(sightlyEngineConfiguration, "/apps/my-project/component/component.html");
+        String path = "/org/apache/sling/scripting/sightly/apps/my__002d__project/component/component_html.sourceLastModified";
+        JavaCompiler javaCompiler = Mockito.mock(JavaCompiler.class);
+        CompilationResult compilationResult = Mockito.mock(CompilationResult.class);
+        when(compilationResult.getErrors()).thenReturn(new ArrayList<CompilerMessage>());
+        when(javaCompiler.compile(Mockito.any(CompilationUnit[].class), Mockito.any(Options.class))).thenReturn(compilationResult);
+        ClassLoaderWriter clw = Mockito.mock(ClassLoaderWriter.class);
+        ClassLoader classLoader = Mockito.mock(ClassLoader.class);
+        when(clw.getClassLoader()).thenReturn(classLoader);
+        when(classLoader.loadClass(sourceIdentifier.getFullyQualifiedClassName())).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return MockPojo.class;
+            }
+        });
+        ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+        when(clw.getOutputStream(path)).thenReturn(recorded);
+        Whitebox.setInternalState(compiler, "classLoaderWriter", clw);
+        Whitebox.setInternalState(compiler, "javaCompiler", javaCompiler);
+        Whitebox.setInternalState(compiler, "sightlyEngineConfiguration", sightlyEngineConfiguration);
+
+        compiler.compileSource(sourceIdentifier, "DUMMY", 1000);
+        verify(clw).delete(path);
+        assertEquals("1000", recorded.toString("UTF-8"));
+
+        compiler.compileSource(sourceIdentifier, "DUMMY");
+        verify(clw, times(2)).delete(path);
+        verify(clw, times(1)).getOutputStream(path);
+    }
+
     private void getInstancePojoTest(String pojoPath, String className) throws Exception {
         RenderContextImpl renderContext = Mockito.mock(RenderContextImpl.class);
         Resource pojoResource = Mockito.mock(Resource.class);
@@ -38,17 +38,20 @@ import static org.mockito.Mockito.when;
 public class SightlyScriptEngineFactoryTest {
 
     private SightlyEngineConfiguration sightlyEngineConfiguration;
+    private SightlyPrecompiler sightlyPrecompiler;
 
     @Before
     public void setUp() {
         sightlyEngineConfiguration = mock(SightlyEngineConfiguration.class);
         when(sightlyEngineConfiguration.getEngineVersion()).thenReturn("1.0.17-SNAPSHOT");
         when(sightlyEngineConfiguration.getScratchFolder()).thenReturn("/org/apache/sling/scripting/sightly");
+        sightlyPrecompiler = mock(SightlyPrecompiler.class);
     }
 
     @After
     public void tearDown() {
         sightlyEngineConfiguration = null;
+        sightlyPrecompiler = null;
     }
 
     @Test
@@ -59,9 +62,11 @@ public class SightlyScriptEngineFactoryTest {
         when(classLoaderWriter.getOutputStream(SightlyScriptEngineFactory.SIGHTLY_CONFIG_FILE)).thenReturn(outputStream);
         Whitebox.setInternalState(scriptEngineFactory, "classLoaderWriter", classLoaderWriter);
         Whitebox.setInternalState(scriptEngineFactory, "sightlyEngineConfiguration", sightlyEngineConfiguration);
+        Whitebox.setInternalState(scriptEngineFactory, "sightlyPrecompiler", sightlyPrecompiler);
         scriptEngineFactory.activate();
         verify(classLoaderWriter).delete(sightlyEngineConfiguration.getScratchFolder());
         assertEquals("1.0.17-SNAPSHOT", outputStream.toString());
+        verify(sightlyPrecompiler).engineStarted();
     }
 
     @Test
@@ -79,6 +84,7 @@ public class SightlyScriptEngineFactoryTest {
         when(classLoaderWriter.delete(sightlyEngineConfiguration.getScratchFolder())).thenReturn(true);
         Whitebox.setInternalState(scriptEngineFactory, "classLoaderWriter", classLoaderWriter);
         Whitebox.setInternalState(scriptEngineFactory, "sightlyEngineConfiguration", sightlyEngineConfiguration);
+        Whitebox.setInternalState(scriptEngineFactory, "sightlyPrecompiler", sightlyPrecompiler);
         scriptEngineFactory.activate();
         verify(classLoaderWriter).delete(sightlyEngineConfiguration.getScratchFolder());
         assertEquals("1.0.17-SNAPSHOT", outputStream.toString());
@@ -99,6 +105,7 @@ public class SightlyScriptEngineFactoryTest {
         when(classLoaderWriter.getOutputStream(SightlyScriptEngineFactory.SIGHTLY_CONFIG_FILE)).thenReturn(spyOutputStream);
         Whitebox.setInternalState(scriptEngineFactory, "classLoaderWriter", classLoaderWriter);
         Whitebox.setInternalState(scriptEngineFactory, "sightlyEngineConfiguration", sightlyEngineConfiguration);
+        Whitebox.setInternalState(scriptEngineFactory, "sightlyPrecompiler", sightlyPrecompiler);
         scriptEngineFactory.activate();
         verify(classLoaderWriter, never()).delete(sightlyEngineConfiguration.getScratchFolder());
         try {
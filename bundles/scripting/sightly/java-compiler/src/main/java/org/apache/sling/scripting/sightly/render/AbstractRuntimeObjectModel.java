@@ -16,7 +16,6 @@
  ******************************************************************************/
 package org.apache.sling.scripting.sightly.render;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
@@ -290,22 +289,31 @@ public abstract class AbstractRuntimeObjectModel implements RuntimeObjectModel {
             // Working around this limitation: http://docs.oracle.com/javase/7/docs/api/java/lang/Class.html#getFields%28%29
             return ((Object[]) obj).length;
         }
-        Class<?> cls = obj.getClass();
+        AccessorCache.Accessor accessor = AccessorCache.getFieldAccessor(obj.getClass(), property);
+        if (accessor.isAbsent()) {
+            return null;
+        }
         try {
-            Field field = cls.getDeclaredField(property);
-            return field.get(obj);
+            return accessor.get(obj);
         } catch (Exception e) {
             return null;
         }
     }
 
+    /**
+     * Invokes the no-argument method matching the property. The method resolved for a class and a property is cached for
+     * all instances of the object model class, see {@link #findMethod(Class, String)} and
+     * {@link #extractMethodInheritanceChain(Class, Method)}.
+     *
+     * @param obj      the object
+     * @param property the property name
+     * @return the value returned by the method or {@code null}
+     */
     protected Object getObjectNoArgMethod(Object obj, String property) {
-        Class<?> cls = obj.getClass();
-        Method method = findMethod(cls, property);
-        if (method != null) {
-            method = extractMethodInheritanceChain(cls, method);
+        AccessorCache.Accessor accessor = AccessorCache.getMethodAccessor(this, obj.getClass(), property);
+        if (!accessor.isAbsent()) {
             try {
-                return method.invoke(obj);
+                return accessor.get(obj);
             } catch (Exception e) {
                 LOGGER.error("Cannot access method " + property + " on object " + obj.toString(), e);
             }
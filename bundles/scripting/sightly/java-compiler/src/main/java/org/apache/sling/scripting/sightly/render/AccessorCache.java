@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.apache.sling.scripting.sightly.render;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches how a property of a class is accessed by the {@link AbstractRuntimeObjectModel}: through a no-argument method, through a
+ * field or not at all. The accessors are kept per class in a {@link ClassValue}, so they are shared by all requests and do not
+ * prevent the classes from being unloaded. As the method resolution can be customised by overriding
+ * {@link AbstractRuntimeObjectModel#extractMethodInheritanceChain(Class, java.lang.reflect.Method)}, the method accessors are
+ * additionally kept per object model class.
+ */
+final class AccessorCache {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<ClassValue<ConcurrentMap<String, Accessor>>> METHODS =
+            new ClassValue<ClassValue<ConcurrentMap<String, Accessor>>>() {
+        @Override
+        protected ClassValue<ConcurrentMap<String, Accessor>> computeValue(Class<?> modelType) {
+            return new ClassValue<ConcurrentMap<String, Accessor>>() {
+                @Override
+                protected ConcurrentMap<String, Accessor> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+        }
+    };
+
+    private static final ClassValue<ConcurrentMap<String, Accessor>> FIELDS = new ClassValue<ConcurrentMap<String, Accessor>>() {
+        @Override
+        protected ConcurrentMap<String, Accessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private AccessorCache() {
+    }
+
+    /**
+     * Returns the accessor for the no-argument method matching the property, {@link Accessor#ABSENT} if there is no such method.
+     *
+     * @param model the object model resolving the method, only used if the accessor is not cached yet
+     * @param cls   the class of the object
+     * @param property the property name
+     * @return the accessor
+     */
+    static Accessor getMethodAccessor(AbstractRuntimeObjectModel model, Class<?> cls, String property) {
+        ConcurrentMap<String, Accessor> accessors = METHODS.get(model.getClass()).get(cls);
+        Accessor accessor = accessors.get(property);
+        if (accessor == null) {
+            accessor = Accessor.ABSENT;
+            Method method = AbstractRuntimeObjectModel.findMethod(cls, property);
+            if (method != null) {
+                method = model.extractMethodInheritanceChain(cls, method);
+                if (method != null) {
+                    try {
+                        MethodHandle handle = MethodHandles.publicLookup().unreflect(method).asType(GETTER_TYPE);
+                        accessor = new Accessor(method.toString(), handle, null);
+                    } catch (IllegalAccessException e) {
+                        accessor = new Accessor(method.toString(), null, null);
+                    }
+                }
+            }
+            Accessor existing = accessors.putIfAbsent(property, accessor);
+            if (existing != null) {
+                accessor = existing;
+            }
+        }
+        return accessor;
+    }
+
+    /**
+     * Returns the accessor for the field named like the property, {@link Accessor#ABSENT} if there is no such field.
+     *
+     * @param cls      the class of the object
+     * @param property the property name
+     * @return the accessor
+     */
+    static Accessor getFieldAccessor(Class<?> cls, String property) {
+        ConcurrentMap<String, Accessor> accessors = FIELDS.get(cls);
+        Accessor accessor = accessors.get(property);
+        if (accessor == null) {
+            try {
+                Field field = cls.getDeclaredField(property);
+                accessor = new Accessor(field.toString(), null, field);
+            } catch (Exception e) {
+                accessor = Accessor.ABSENT;
+            }
+            Accessor existing = accessors.putIfAbsent(property, accessor);
+            if (existing != null) {
+                accessor = existing;
+            }
+        }
+        return accessor;
+    }
+
+    /**
+     * A resolved way to read a property: a method handle, a field, or nothing.
+     */
+    static final class Accessor {
+
+        static final Accessor ABSENT = new Accessor(null, null, null);
+
+        private final String name;
+
+        private final MethodHandle handle;
+
+        private final Field field;
+
+        private Accessor(String name, MethodHandle handle, Field field) {
+            this.name = name;
+            this.handle = handle;
+            this.field = field;
+        }
+
+        boolean isAbsent() {
+            return name == null;
+        }
+
+        /**
+         * Reads the property of the object.
+         *
+         * @param obj the object
+         * @return the value of the property
+         * @throws Exception if the method or field cannot be accessed; an {@link InvocationTargetException} wrapping anything
+         *                   thrown by the method
+         */
+        Object get(Object obj) throws Exception {
+            if (handle != null) {
+                try {
+                    return (Object) handle.invokeExact(obj);
+                } catch (Throwable t) {
+                    // like Method#invoke, anything thrown by the method is wrapped
+                    throw new InvocationTargetException(t);
+                }
+            }
+            if (field != null) {
+                return field.get(obj);
+            }
+            throw new IllegalAccessException("Cannot access " + name);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.apache.sling.scripting.sightly.render;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AbstractRuntimeObjectModelTest {
+
+    private final AbstractRuntimeObjectModel runtimeObjectModel = new AbstractRuntimeObjectModel() {
+    };
+
+    @Test
+    public void testResolveProperty() {
+        Bean bean = new Bean();
+        // resolve twice to use the cached accessors
+        for (int i = 0; i < 2; i++) {
+            assertEquals("value", runtimeObjectModel.resolveProperty(bean, "value"));
+            assertEquals(true, runtimeObjectModel.resolveProperty(bean, "active"));
+            assertEquals("name", runtimeObjectModel.resolveProperty(bean, "name"));
+            assertEquals("field", runtimeObjectModel.resolveProperty(bean, "field"));
+            assertEquals("fallback", runtimeObjectModel.resolveProperty(bean, "fallback"));
+            assertNull(runtimeObjectModel.resolveProperty(bean, "missing"));
+            assertNull(runtimeObjectModel.resolveProperty(bean, "class"));
+            assertEquals(2, runtimeObjectModel.resolveProperty(new Object[] {1, 2}, "length"));
+        }
+    }
+
+    @Test
+    public void testResolvePropertyOfNonPublicClass() throws Exception {
+        Callable<String> callable = new Callable<String>() {
+            @Override
+            public String call() {
+                return "called";
+            }
+        };
+        assertEquals("called", runtimeObjectModel.resolveProperty(callable, "call"));
+        assertEquals("called", runtimeObjectModel.resolveProperty(callable, "call"));
+    }
+
+    @Test
+    public void testMethodAccessorsPerObjectModel() {
+        AbstractRuntimeObjectModel restrictedModel = new AbstractRuntimeObjectModel() {
+            @Override
+            protected Method extractMethodInheritanceChain(Class type, Method m) {
+                return "getValue".equals(m.getName()) ? null : m;
+            }
+        };
+        Bean bean = new Bean();
+        assertEquals("value", runtimeObjectModel.resolveProperty(bean, "value"));
+        assertNull(restrictedModel.resolveProperty(bean, "value"));
+        assertEquals("value", runtimeObjectModel.resolveProperty(bean, "value"));
+    }
+
+    @Test
+    public void testErrorsAreNotPropagated() {
+        // like with reflection, the error is logged and the property is not resolved
+        assertNull(runtimeObjectModel.resolveProperty(new Bean(), "error"));
+    }
+
+    public static class Bean {
+
+        public String field = "field";
+
+        public String fallback = "fallback";
+
+        public String getValue() {
+            return "value";
+        }
+
+        public boolean isActive() {
+            return true;
+        }
+
+        public String name() {
+            return "name";
+        }
+
+        public String getFallback() {
+            return null;
+        }
+
+        public String getError() {
+            throw new StackOverflowError();
+        }
+    }
+}
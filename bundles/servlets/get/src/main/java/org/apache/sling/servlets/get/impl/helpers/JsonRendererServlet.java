@@ -62,11 +62,25 @@ public class JsonRendererServlet extends SlingSafeMethodsServlet {
     public static final int INDENT_SPACES = 2;
 
     private long maximumResults;
+
+    /** Whether resources are written while traversing the tree */
+    private final boolean streaming;
     
     private final JSONRenderer renderer = new JSONRenderer();
 
     public JsonRendererServlet(long maximumResults) {
+        this(maximumResults, false);
+    }
+
+    /**
+     * @param maximumResults The maximum number of resources to render
+     * @param streaming If {@code true} the resources are written to the
+     *            response while traversing the tree instead of being
+     *            collected in memory first
+     */
+    public JsonRendererServlet(long maximumResults, boolean streaming) {
         this.maximumResults = maximumResults;
+        this.streaming = streaming;
     }
 
     @Override
@@ -89,11 +103,16 @@ public class JsonRendererServlet extends SlingSafeMethodsServlet {
         resp.setContentType(req.getResponseContentType());
         resp.setCharacterEncoding("UTF-8");
 
+        final boolean tidy = isTidy(req);
+        final boolean harray = hasSelector(req, HARRAY);
+        if (streaming) {
+            stream(r, resp, maxRecursionLevels, tidy, harray);
+            return;
+        }
+
         // We check the tree to see if the nr of nodes isn't bigger than the allowed nr.
         boolean allowDump = true;
         int allowedLevel = 0;
-        final boolean tidy = isTidy(req);
-        final boolean harray = hasSelector(req, HARRAY);
         ResourceTraversor traversor = null;
         try {
             traversor = new ResourceTraversor(maxRecursionLevels, maximumResults, r, tidy);
@@ -121,21 +140,53 @@ public class JsonRendererServlet extends SlingSafeMethodsServlet {
 
             } else {
                 // We are not allowed to do the dump.
-                // Send a 300
-                String tidyUrl = (tidy) ? "tidy." : "";
-                resp.setStatus(HttpServletResponse.SC_MULTIPLE_CHOICES);
-                JSONWriter writer = new JSONWriter(resp.getWriter());
-                writer.array();
-                while (allowedLevel >= 0) {
-                    writer.value(r.getResourceMetadata().getResolutionPath() + "." + tidyUrl + allowedLevel + ".json");
-                    allowedLevel--;
-                }
-                writer.endArray();
+                sendMultipleChoices(r, resp, allowedLevel, tidy);
+            }
+        } catch (JSONException je) {
+            reportException(je);
+        }
+    }
+
+    /**
+     * Writes the resources to the response while traversing the tree. The
+     * tree is traversed twice: once to check the number of resources and
+     * once to write them. No JSON representation of the tree is kept in
+     * memory.
+     */
+    private void stream(final Resource r, final SlingHttpServletResponse resp,
+            final int maxRecursionLevels, final boolean tidy, final boolean harray)
+    throws IOException {
+        final JsonResourceStreamer streamer = new JsonResourceStreamer(maxRecursionLevels, maximumResults, r);
+        try {
+            final int allowedLevel = streamer.getAllowedLevel();
+            if (allowedLevel != -1) {
+                sendMultipleChoices(r, resp, allowedLevel, tidy);
+            } else {
+                final JSONWriter writer = new JSONWriter(resp.getWriter());
+                writer.setTidy(tidy);
+                streamer.write(writer, harray);
             }
         } catch (JSONException je) {
             reportException(je);
         }
     }
+
+    /**
+     * Sends a 300 listing the URLs of the levels which may be rendered.
+     */
+    private void sendMultipleChoices(final Resource r, final SlingHttpServletResponse resp,
+            int allowedLevel, final boolean tidy)
+    throws IOException, JSONException {
+        String tidyUrl = (tidy) ? "tidy." : "";
+        resp.setStatus(HttpServletResponse.SC_MULTIPLE_CHOICES);
+        JSONWriter writer = new JSONWriter(resp.getWriter());
+        writer.array();
+        while (allowedLevel >= 0) {
+            writer.value(r.getResourceMetadata().getResolutionPath() + "." + tidyUrl + allowedLevel + ".json");
+            allowedLevel--;
+        }
+        writer.endArray();
+    }
     
     /**
      * Get recursion level from selectors. as per SLING-167: the last selector, if present, gives the recursion level.
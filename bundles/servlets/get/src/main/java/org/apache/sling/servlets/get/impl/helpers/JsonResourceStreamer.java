@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.get.impl.helpers;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceUtil;
+import org.apache.sling.commons.json.JSONArray;
+import org.apache.sling.commons.json.JSONException;
+import org.apache.sling.commons.json.JSONObject;
+import org.apache.sling.commons.json.io.JSONRenderer;
+import org.apache.sling.commons.json.io.JSONWriter;
+import org.apache.sling.commons.json.sling.JsonObjectCreator;
+
+/**
+ * The <code>JsonResourceStreamer</code> writes a resource tree to a
+ * {@link JSONWriter} while traversing it. Unlike the
+ * {@link org.apache.sling.commons.json.sling.ResourceTraversor} it does not
+ * build a JSON tree in memory: only the properties of the resource currently
+ * written and one child iterator per level are kept.
+ * <p>
+ * The maximum number of resources is checked with the same semantics as the
+ * <code>ResourceTraversor</code>: resources are counted level by level and
+ * {@link #getAllowedLevel()} returns the level at which the limit is
+ * exceeded. Counting stops as soon as the limit is exceeded.
+ */
+public class JsonResourceStreamer {
+
+    private final Resource startResource;
+
+    private final int maxRecursionLevels;
+
+    private final long maxResources;
+
+    /**
+     * @param levels recursion levels limit, -1 means no limit
+     * @param maxResources maximum number of resources to write, ignored if levels == 1
+     * @param resource the root resource to write
+     */
+    public JsonResourceStreamer(final int levels, final long maxResources, final Resource resource) {
+        this.maxRecursionLevels = levels;
+        this.maxResources = maxResources;
+        this.startResource = resource;
+    }
+
+    /**
+     * Counts the resources to be written.
+     *
+     * @return -1 if all resources can be written, otherwise the level of the
+     *         resources whose children exceed the maximum number of resources.
+     */
+    public int getAllowedLevel() {
+        // SLING-2320: always allow enumeration of one's children;
+        // DOS-limitation is for deeper traversals.
+        if (maxRecursionLevels == 1 || maxRecursionLevels == 0) {
+            return -1;
+        }
+        // breadth first, so the traversal stops as soon as the limit
+        // is exceeded and never touches more than maxResources + 1 resources
+        long count = 0;
+        int currentLevel = 0;
+        LinkedList<Resource> currentQueue = new LinkedList<Resource>();
+        LinkedList<Resource> nextQueue = new LinkedList<Resource>();
+        currentQueue.add(startResource);
+        while (!currentQueue.isEmpty() || !nextQueue.isEmpty()) {
+            if (currentQueue.isEmpty()) {
+                currentLevel++;
+                currentQueue = nextQueue;
+                nextQueue = new LinkedList<Resource>();
+            }
+            final Resource resource = currentQueue.removeFirst();
+            if (maxRecursionLevels == -1 || currentLevel < maxRecursionLevels) {
+                // the children of the last level are counted but not listed
+                final boolean listGrandChildren = maxRecursionLevels == -1 || currentLevel + 1 < maxRecursionLevels;
+                final Iterator<Resource> children = ResourceUtil.listChildren(resource);
+                while (children.hasNext()) {
+                    final Resource child = children.next();
+                    count++;
+                    if (count > maxResources) {
+                        return currentLevel;
+                    }
+                    if (listGrandChildren) {
+                        nextQueue.addLast(child);
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the resource tree.
+     *
+     * @param writer The writer
+     * @param arraysForChildren Whether children should be written as an array
+     *            instead of child objects
+     * @throws JSONException If writing fails
+     */
+    public void write(final JSONWriter writer, final boolean arraysForChildren) throws JSONException {
+        write(writer, startResource, null, 0, arraysForChildren);
+    }
+
+    private void write(final JSONWriter writer,
+            final Resource resource,
+            final String name,
+            final int currentLevel,
+            final boolean arraysForChildren)
+    throws JSONException {
+        writer.object();
+        if (name != null) {
+            writer.key(JSONRenderer.Options.DEFAULT_CHILD_NAME_KEY);
+            writer.value(name);
+        }
+        final JSONObject properties = JsonObjectCreator.create(resource, 0);
+        final Iterator<String> keys = properties.keys();
+        while (keys.hasNext()) {
+            final String key = keys.next();
+            writer.key(key);
+            writeValue(writer, properties.get(key));
+        }
+
+        if (maxRecursionLevels == -1 || currentLevel < maxRecursionLevels) {
+            final Iterator<Resource> children = ResourceUtil.listChildren(resource);
+            if (arraysForChildren) {
+                if (children.hasNext()) {
+                    writer.key(JSONRenderer.Options.DEFAULT_CHILDREN_KEY);
+                    writer.array();
+                    while (children.hasNext()) {
+                        final Resource child = children.next();
+                        write(writer, child, ResourceUtil.getName(child), currentLevel + 1, true);
+                    }
+                    writer.endArray();
+                }
+            } else {
+                while (children.hasNext()) {
+                    final Resource child = children.next();
+                    writer.key(ResourceUtil.getName(child));
+                    write(writer, child, null, currentLevel + 1, false);
+                }
+            }
+        }
+        writer.endObject();
+    }
+
+    private void writeValue(final JSONWriter writer, final Object value) throws JSONException {
+        if (value instanceof JSONObject) {
+            final JSONObject object = (JSONObject) value;
+            writer.object();
+            final Iterator<String> keys = object.keys();
+            while (keys.hasNext()) {
+                final String key = keys.next();
+                writer.key(key);
+                writeValue(writer, object.get(key));
+            }
+            writer.endObject();
+        } else if (value instanceof JSONArray) {
+            final JSONArray array = (JSONArray) value;
+            writer.array();
+            for (int i = 0; i < array.length(); i++) {
+                writeValue(writer, array.get(i));
+            }
+            writer.endArray();
+        } else {
+            writer.value(value);
+        }
+    }
+}
@@ -17,15 +17,20 @@
 package org.apache.sling.servlets.get.impl.helpers;
 
 import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+import static org.apache.sling.api.servlets.HttpConstants.HEADER_ETAG;
 import static org.apache.sling.api.servlets.HttpConstants.HEADER_IF_MODIFIED_SINCE;
 import static org.apache.sling.api.servlets.HttpConstants.HEADER_LAST_MODIFIED;
 
 import java.io.BufferedInputStream;
 import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
@@ -80,6 +85,8 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
 
     static final int IO_BUFFER_SIZE = 2048;
 
+    static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
     /** default log */
     private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -142,13 +149,24 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
             return;
         }
 
-        // check the last modification time and If-Modified-Since header
+        // check the entity tag and If-None-Match header or, if there is no
+        // such header, the last modification time and If-Modified-Since header
         if (!included) {
-            ResourceMetadata meta = resource.getResourceMetadata();
-            long modifTime = meta.getModificationTime();
-            if (unmodified(request, modifTime)) {
-                response.setStatus(SC_NOT_MODIFIED);
-                return;
+            final String ifNoneMatch = request.getHeader(HEADER_IF_NONE_MATCH);
+            if (ifNoneMatch != null) {
+                final String etag = getETag(resource);
+                if (etag != null && matches(ifNoneMatch, etag)) {
+                    response.setHeader(HEADER_ETAG, etag);
+                    response.setStatus(SC_NOT_MODIFIED);
+                    return;
+                }
+            } else {
+                ResourceMetadata meta = resource.getResourceMetadata();
+                long modifTime = meta.getModificationTime();
+                if (unmodified(request, modifTime)) {
+                    response.setStatus(SC_NOT_MODIFIED);
+                    return;
+                }
             }
         }
 
@@ -163,15 +181,20 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
                 throw new IOException(e);
             }
         }
-        InputStream stream = resource.adaptTo(InputStream.class);
-        if (stream != null) {
+        // binaries backed by a file are read from a channel at the position
+        // of the requested range, otherwise they are read from the resource stream
+        final FileChannel channel = getFileChannel(resource);
+        final InputStream stream = (channel == null) ? resource.adaptTo(InputStream.class) : null;
+        if (channel != null || stream != null) {
             if (isHeadRequest(request)) {
+                closeSilently(channel);
+                closeSilently(stream);
                 setContentLength(response, resource.getResourceMetadata().getContentLength());
                 setHeaders(resource, response);
                 return;
             }
 
-            streamResource(resource, stream, included, request, response);
+            streamResource(resource, channel, stream, included, request, response);
 
         } else {
 
@@ -230,8 +253,92 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
         return false;
     }
 
+    /**
+     * Returns <code>true</code> if the value of an <code>If-None-Match</code>
+     * header contains the given entity tag or is <code>*</code>. Tags are
+     * compared weakly, that is ignoring the <code>W/</code> prefix.
+     */
+    static boolean matches(final String headerValue, String etag) {
+        if (etag.startsWith("W/")) {
+            etag = etag.substring(2);
+        }
+        final StringTokenizer tokenizer = new StringTokenizer(headerValue, ",");
+        while (tokenizer.hasMoreTokens()) {
+            String tag = tokenizer.nextToken().trim();
+            if ("*".equals(tag)) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a weak entity tag for the binary of the resource or
+     * <code>null</code> if the identity of the binary is not known. The tag is
+     * built from the identity of the binary and its length: for resources
+     * adaptable to a <code>File</code> these are the absolute path, the last
+     * modification time and the length of the file; otherwise the resource
+     * path, the modification time and the content length of the resource
+     * metadata are used. As the content itself is not hashed, two versions
+     * written within the resolution of the modification time may get the
+     * same tag, therefore the tag is weak.
+     */
+    static String getETag(final Resource resource) {
+        final String identity;
+        final long length;
+        final File file = resource.adaptTo(File.class);
+        if (file != null && file.isFile()) {
+            identity = file.getAbsolutePath() + ':' + file.lastModified();
+            length = file.length();
+        } else {
+            final ResourceMetadata meta = resource.getResourceMetadata();
+            if (meta.getModificationTime() <= 0 || meta.getContentLength() <= 0) {
+                return null;
+            }
+            identity = resource.getPath() + ':' + meta.getModificationTime();
+            length = meta.getContentLength();
+        }
+
+        // 64 bit FNV-1a hash of the identity
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < identity.length(); i++) {
+            hash ^= identity.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return "W/\"" + Long.toHexString(hash) + '-' + Long.toHexString(length) + "\"";
+    }
+
+    /**
+     * Returns a channel to read the binary of the resource from if the
+     * resource is adaptable to a <code>FileChannel</code> or to a
+     * <code>File</code>, <code>null</code> otherwise. The caller has to close
+     * the channel.
+     */
+    private FileChannel getFileChannel(final Resource resource) {
+        final FileChannel channel = resource.adaptTo(FileChannel.class);
+        if (channel != null) {
+            return channel;
+        }
+        final File file = resource.adaptTo(File.class);
+        if (file != null && file.isFile()) {
+            try {
+                return new FileInputStream(file).getChannel();
+            } catch (IOException ioe) {
+                log.debug("getFileChannel: Cannot open {}, streaming resource", file, ioe);
+            }
+        }
+        return null;
+    }
+
     private void streamResource(final Resource resource,
-            final InputStream stream, final boolean included,
+            final FileChannel channel, final InputStream stream,
+            final boolean included,
             final SlingHttpServletRequest request,
             final SlingHttpServletResponse response) throws IOException {
         // finally stream the resource
@@ -265,10 +372,14 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
                 // return full resource
                 setContentLength(response,
                     resource.getResourceMetadata().getContentLength());
-                byte[] buf = new byte[IO_BUFFER_SIZE];
-                int rd;
-                while ((rd = stream.read(buf)) >= 0) {
-                    out.write(buf, 0, rd);
+                if (channel != null) {
+                    staticCopyRange(channel, out, 0, channel.size());
+                } else {
+                    byte[] buf = new byte[IO_BUFFER_SIZE];
+                    int rd;
+                    while ((rd = stream.read(buf)) >= 0) {
+                        out.write(buf, 0, rd);
+                    }
                 }
 
             } else {
@@ -283,19 +394,24 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
                         + "-" + range.end + "/" + range.length);
                     setContentLength(response, range.end - range.start + 1);
 
-                    copy(stream, out, range);
+                    if (channel != null) {
+                        staticCopyRange(channel, out, range.start, range.end + 1);
+                    } else {
+                        copy(stream, out, range);
+                    }
 
                 } else {
 
                     response.setContentType("multipart/byteranges; boundary="
                         + mimeSeparation);
 
-                    copy(resource, out, ranges.iterator());
+                    copy(resource, channel, out, ranges.iterator());
                 }
 
             }
 
         } finally {
+            closeSilently(channel);
             closeSilently(stream);
         }
     }
@@ -369,6 +485,11 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
             response.setDateHeader(HEADER_LAST_MODIFIED, modifTime);
         }
 
+        final String etag = getETag(resource);
+        if (etag != null) {
+            response.setHeader(HEADER_ETAG, etag);
+        }
+
         final String defaultContentType = "application/octet-stream";
         String contentType = meta.getContentType();
         if (contentType == null || defaultContentType.equals(contentType)) {
@@ -501,11 +622,14 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
      * the face of an exception).
      *
      * @param resource The resource from which to send ranges
+     * @param channel The channel to read the ranges from or
+     *            <code>null</code> to read them from the resource stream
      * @param ostream The output stream to write to
      * @param ranges Iterator of the ranges the client wanted to retrieve
      * @exception IOException if an input/output error occurs
      */
-    private void copy(Resource resource, ServletOutputStream ostream,
+    private void copy(Resource resource, FileChannel channel,
+            ServletOutputStream ostream,
             Iterator<Range> ranges) throws IOException {
 
         String contentType = resource.getResourceMetadata().getContentType();
@@ -513,9 +637,12 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
 
         while ((exception == null) && (ranges.hasNext())) {
 
-            InputStream resourceInputStream = resource.adaptTo(InputStream.class);
-            InputStream istream = new BufferedInputStream(resourceInputStream,
-                IO_BUFFER_SIZE);
+            InputStream istream = null;
+            if (channel == null) {
+                InputStream resourceInputStream = resource.adaptTo(InputStream.class);
+                istream = new BufferedInputStream(resourceInputStream,
+                    IO_BUFFER_SIZE);
+            }
 
             try {
                 Range currentRange = ranges.next();
@@ -532,7 +659,12 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
 
                 // Copy content
                 try {
-                    copy(istream, ostream, currentRange);
+                    if (channel != null) {
+                        staticCopyRange(channel, ostream,
+                            currentRange.start, currentRange.end + 1);
+                    } else {
+                        copy(istream, ostream, currentRange);
+                    }
                 } catch(IOException e) {
                     exception = e;
                 }
@@ -601,11 +733,34 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
         }
     }
 
+    // static, package-private method to make unit testing easier
+    // the range is read at its position, so no bytes are skipped; as the
+    // servlet API only provides an OutputStream, the bytes are still copied
+    // through a buffer
+    static void staticCopyRange(FileChannel channel,
+            OutputStream ostream, long start, long end) throws IOException {
+        final byte buffer[] = new byte[IO_BUFFER_SIZE];
+        final ByteBuffer bb = ByteBuffer.wrap(buffer);
+        long position = start;
+        while (position < end) {
+            bb.clear();
+            bb.limit((int) Math.min(end - position, buffer.length));
+            final int read = channel.read(bb, position);
+            if (read == -1) {
+                // end of file reached
+                break;
+            }
+            position += read;
+            ostream.write(buffer, 0, read);
+        }
+    }
+
     /**
      * Parse the range header.
      *
      * @param request The servlet request we are processing
      * @param response The servlet response we are creating
+     * @param metadata The metadata of the resource
      * @return ArrayList of ranges parsed from the Range header or {@link #FULL}
      *         if the full resource should be returned or <code>null</code> if
      *         an error occurred parsing the header and the request has been
@@ -628,9 +783,8 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
 
             if (headerValueTime == (-1L)) {
 
-                // If the ETag the client gave does not match the entity
-                // etag, then the entire entity is returned.
-                // Sling: no etag support yet, return full range
+                // If-Range requires a strong entity tag, but the entity
+                // tags are weak, so the entire entity is returned.
                 return FULL;
 
             } else if (metadata.getModificationTime() > (headerValueTime + 1000)) {
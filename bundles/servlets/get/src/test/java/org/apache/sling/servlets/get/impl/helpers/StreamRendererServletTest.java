@@ -19,12 +19,20 @@
 package org.apache.sling.servlets.get.impl.helpers;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.util.Random;
 import javax.servlet.ServletContext;
 import junitx.util.PrivateAccessor;
@@ -146,4 +154,74 @@ public class StreamRendererServletTest {
         PrivateAccessor.invoke(streamRendererServlet, "setHeaders", new Class[]{Resource.class, SlingHttpServletResponse.class}, new Object[]{resource, response});
         Mockito.verify(response,Mockito.times(1)).setContentType("application/octet-stream");
     }
+
+    @Test
+    public void testChannelCopyRange() throws IOException {
+        final File file = File.createTempFile("stream", ".bin");
+        try {
+            final byte[] expected = new byte[StreamRendererServlet.IO_BUFFER_SIZE * 3 + 42];
+            new Random(1234).nextBytes(expected);
+            final FileOutputStream fos = new FileOutputStream(file);
+            try {
+                fos.write(expected);
+            } finally {
+                fos.close();
+            }
+
+            final FileChannel channel = new FileInputStream(file).getChannel();
+            try {
+                assertChannelCopyRange(expected, channel, 0, expected.length);
+                assertChannelCopyRange(expected, channel, 0, 1);
+                assertChannelCopyRange(expected, channel, 42, StreamRendererServlet.IO_BUFFER_SIZE * 2);
+                assertChannelCopyRange(expected, channel, expected.length - 1, expected.length);
+            } finally {
+                channel.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private void assertChannelCopyRange(byte[] expected, FileChannel channel, int a, int b) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        StreamRendererServlet.staticCopyRange(channel, output, a, b);
+
+        final byte[] actual = output.toByteArray();
+        assertEquals(b - a, actual.length);
+        for (int i = a; i < b; i++) {
+            assertEquals(expected[i], actual[i - a]);
+        }
+    }
+
+    @Test
+    public void testETag() {
+        final Resource resource = Mockito.mock(Resource.class);
+        final ResourceMetadata meta = new ResourceMetadata();
+        Mockito.when(resource.getPath()).thenReturn("/content/file.bin");
+        Mockito.when(resource.getResourceMetadata()).thenReturn(meta);
+
+        // no identity without modification time and length
+        assertNull(StreamRendererServlet.getETag(resource));
+
+        meta.setModificationTime(1000);
+        meta.setContentLength(42);
+        final String etag = StreamRendererServlet.getETag(resource);
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("W/\"") && etag.endsWith("-2a\""));
+        assertEquals(etag, StreamRendererServlet.getETag(resource));
+
+        meta.setModificationTime(2000);
+        assertFalse(etag.equals(StreamRendererServlet.getETag(resource)));
+    }
+
+    @Test
+    public void testETagMatches() {
+        final String etag = "\"1234-2a\"";
+        assertTrue(StreamRendererServlet.matches(etag, etag));
+        assertTrue(StreamRendererServlet.matches("\"abcd-2a\", " + etag, etag));
+        assertTrue(StreamRendererServlet.matches("W/" + etag, etag));
+        assertTrue(StreamRendererServlet.matches("*", etag));
+        assertTrue(StreamRendererServlet.matches(etag, "W/" + etag));
+        assertFalse(StreamRendererServlet.matches("\"abcd-2a\"", etag));
+    }
 }
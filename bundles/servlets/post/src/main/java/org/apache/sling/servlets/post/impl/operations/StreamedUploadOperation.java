@@ -35,6 +35,8 @@ import javax.jcr.RepositoryException; // required due to AbstractPostOperation s
 import javax.servlet.ServletContext;
 import javax.servlet.http.Part;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
@@ -64,6 +66,7 @@ public class StreamedUploadOperation extends AbstractPostOperation {
     public static final String JCR_DATA = "jcr:data";
     private static final String MT_APP_OCTET = "application/octet-stream";
     private static final String JCR_CONTENT = "jcr:content";
+    private static final String FORM_ENCODING = "_charset_";
     private ServletContext servletContext;
 
     public void setServletContext(final ServletContext servletContext) {
@@ -128,13 +131,33 @@ public class StreamedUploadOperation extends AbstractPostOperation {
             formFields.put(name, values);
         }
         try {
-            values.add(IOUtils.toString(part.getInputStream(),"UTF-8"));
+            values.add(IOUtils.toString(part.getInputStream(), getFormEncoding(formFields)));
         } catch (IOException e) {
             LOG.error("Failed to read form field "+name,e);
         }
     }
 
 
+    /**
+     * Get the encoding of the form fields. This is the value of the _charset_ field if it has been
+     * sent before the field, otherwise UTF-8.
+     * @param formFields the form fields collected so far.
+     * @return the encoding.
+     */
+    private String getFormEncoding(Map<String, List<String>> formFields) {
+        List<String> charset = formFields.get(FORM_ENCODING);
+        if ( charset != null && !charset.isEmpty() ) {
+            try {
+                if ( Charset.isSupported(charset.get(0)) ) {
+                    return charset.get(0);
+                }
+            } catch (IllegalCharsetNameException e) {
+                LOG.debug("Ignoring illegal form encoding {}", charset.get(0));
+            }
+        }
+        return "UTF-8";
+    }
+
     /**
      * Write content to the resource API creating a standard JCR structure of nt:file - nt:resource - jcr:data.
      * This method will commit to the repository to force the repository to read from the input stream and write
@@ -40,7 +40,6 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javax.management.NotCompliantMBeanException;
 import javax.management.StandardMBean;
@@ -87,6 +86,8 @@ import org.apache.sling.servlets.resolver.internal.defaults.DefaultServlet;
 import org.apache.sling.servlets.resolver.internal.helper.AbstractResourceCollector;
 import org.apache.sling.servlets.resolver.internal.helper.NamedScriptResourceCollector;
 import org.apache.sling.servlets.resolver.internal.helper.ResourceCollector;
+import org.apache.sling.servlets.resolver.internal.helper.ScriptIndex;
+import org.apache.sling.servlets.resolver.internal.helper.ServletResolutionCache;
 import org.apache.sling.servlets.resolver.internal.helper.SlingServletConfig;
 import org.apache.sling.servlets.resolver.internal.resource.ServletResourceProvider;
 import org.apache.sling.servlets.resolver.internal.resource.ServletResourceProviderFactory;
@@ -189,13 +190,13 @@ public class SlingServletResolver
     private Servlet fallbackErrorServlet;
 
     /** The script resolution cache. */
-    private Map<AbstractResourceCollector, Servlet> cache;
+    private volatile ServletResolutionCache cache;
 
     /** The cache size. */
     private int cacheSize;
 
-    /** Flag to log warning if cache size exceed only once. */
-    private volatile boolean logCacheSizeWarning;
+    /** The index of the script locations. */
+    private volatile ScriptIndex scriptIndex;
 
     /** Registration as event handler. */
     private ServiceRegistration eventHandlerReg;
@@ -627,7 +628,8 @@ public class SlingServletResolver
     private Servlet getServletInternal(final AbstractResourceCollector locationUtil,
             final SlingHttpServletRequest request,
             final ResourceResolver resolver) {
-        final Servlet scriptServlet = (this.cache != null ? this.cache.get(locationUtil) : null);
+        final ServletResolutionCache cache = this.cache;
+        final Servlet scriptServlet = (cache != null ? cache.get(locationUtil) : null);
         if (scriptServlet != null) {
             if ( LOGGER.isDebugEnabled() ) {
                 LOGGER.debug("Using cached servlet {}", RequestUtil.getServletName(scriptServlet));
@@ -635,7 +637,9 @@ public class SlingServletResolver
             return scriptServlet;
         }
 
-        final Collection<Resource> candidates = locationUtil.getServlets(resolver);
+        final long cacheGeneration = (cache != null ? cache.getGeneration() : 0);
+        final List<String> locations = (cache != null ? new ArrayList<String>() : null);
+        final Collection<Resource> candidates = locationUtil.getServlets(resolver, this.scriptIndex, locations);
 
         if (LOGGER.isDebugEnabled()) {
             if (candidates.isEmpty()) {
@@ -657,14 +661,8 @@ public class SlingServletResolver
                 final boolean isOptingServlet = candidate instanceof OptingServlet;
                 boolean servletAcceptsRequest = !isOptingServlet || (request != null && ((OptingServlet) candidate).accepts(request));
                 if (servletAcceptsRequest) {
-                    if (!hasOptingServlet && !isOptingServlet && this.cache != null) {
-                        if ( this.cache.size() < this.cacheSize ) {
-                            this.cache.put(locationUtil, candidate);
-                        } else if ( this.logCacheSizeWarning ) {
-                            this.logCacheSizeWarning = false;
-                            LOGGER.warn("Script cache has reached its limit of {}. You might want to increase the cache size for the servlet resolver.",
-                                    this.cacheSize);
-                        }
+                    if (!hasOptingServlet && !isOptingServlet && cache != null) {
+                        cache.put(locationUtil, locations, candidate, cacheGeneration);
                     }
                     LOGGER.debug("Using servlet provided by candidate resource {}", candidateResource.getPath());
                     return candidate;
@@ -811,6 +809,7 @@ public class SlingServletResolver
                     resourceResolverFactory.getAdministrativeResourceResolver(this.createAuthenticationInfo(context.getProperties()));
             this.searchPaths = this.sharedScriptResolver.getSearchPath();
             servletResourceProviderFactory = new ServletResourceProviderFactory(servletRoot, this.searchPaths);
+            this.scriptIndex = new ScriptIndex(this.searchPaths);
 
             // register servlets immediately from now on
             this.context = context;
@@ -843,8 +842,7 @@ public class SlingServletResolver
         // create cache - if a cache size is configured
         this.cacheSize = OsgiUtil.toInteger(properties.get(PROP_CACHE_SIZE), DEFAULT_CACHE_SIZE);
         if (this.cacheSize > 5) {
-            this.cache = new ConcurrentHashMap<AbstractResourceCollector, Servlet>(cacheSize);
-            this.logCacheSizeWarning = true;
+            this.cache = new ServletResolutionCache(cacheSize);
         } else {
             this.cacheSize = 0;
         }
@@ -919,6 +917,7 @@ public class SlingServletResolver
         }
 
         this.cache = null;
+        this.scriptIndex = null;
         this.servletResourceProviderFactory = null;
 
         if (this.mbeanRegistration != null) {
@@ -1065,8 +1064,11 @@ public class SlingServletResolver
      */
     @Override
     public void handleEvent(final Event event) {
-        if (this.cache != null) {
+        final ServletResolutionCache cache = this.cache;
+        final ScriptIndex scriptIndex = this.scriptIndex;
+        if (cache != null || scriptIndex != null) {
             boolean flushCache = false;
+            String invalidatePath = null;
 
             // we may receive different events
             final String topic = event.getTopic();
@@ -1084,27 +1086,46 @@ public class SlingServletResolver
                 // this is a resource or resource provider event
 
                 // if the path of the event is a sub path of a search path
-                // we flush the whole cache
+                // we remove all cached servlets which have been resolved
+                // by searching a location at, above or below this path
                 final String path = (String) event.getProperty(SlingConstants.PROPERTY_PATH);
                 if ( path != null ) {
                     int index = 0;
-                    while (!flushCache && index < searchPaths.length) {
+                    while (invalidatePath == null && index < searchPaths.length) {
                         if (path.startsWith(this.searchPaths[index])) {
-                            flushCache = true;
+                            invalidatePath = path;
                         }
                         index++;
                     }
                 }
             }
-            if (flushCache) {
-                flushCache();
+            if (cache != null) {
+                if (flushCache) {
+                    cache.clear();
+                } else if (invalidatePath != null) {
+                    cache.invalidate(invalidatePath);
+                }
+            }
+            if (scriptIndex != null) {
+                if (topic.startsWith("org/apache/sling/api/resource/ResourceProvider/")) {
+                    // a provider might add or remove children anywhere
+                    scriptIndex.clear();
+                } else if (invalidatePath != null) {
+                    scriptIndex.invalidate(invalidatePath);
+                }
             }
         }
     }
 
     private void flushCache() {
-        this.cache.clear();
-        this.logCacheSizeWarning = true;
+        final ServletResolutionCache cache = this.cache;
+        if (cache != null) {
+            cache.clear();
+        }
+        final ScriptIndex scriptIndex = this.scriptIndex;
+        if (scriptIndex != null) {
+            scriptIndex.clear();
+        }
     }
 
     /** The list of property names checked by {@link #getName(ServiceReference)} */
@@ -1399,7 +1420,8 @@ public class SlingServletResolver
 
         @Override
         public int getCacheSize() {
-            return cache != null ? cache.size() : 0;
+            final ServletResolutionCache cache = SlingServletResolver.this.cache;
+            return cache != null ? cache.getSize() : 0;
         }
 
         @Override
@@ -1412,5 +1434,29 @@ public class SlingServletResolver
             return cacheSize;
         }
 
+        @Override
+        public long getHitCount() {
+            final ServletResolutionCache cache = SlingServletResolver.this.cache;
+            return cache != null ? cache.getHits() : 0;
+        }
+
+        @Override
+        public long getMissCount() {
+            final ServletResolutionCache cache = SlingServletResolver.this.cache;
+            return cache != null ? cache.getMisses() : 0;
+        }
+
+        @Override
+        public long getEvictionCount() {
+            final ServletResolutionCache cache = SlingServletResolver.this.cache;
+            return cache != null ? cache.getEvictions() : 0;
+        }
+
+        @Override
+        public long getInvalidationCount() {
+            final ServletResolutionCache cache = SlingServletResolver.this.cache;
+            return cache != null ? cache.getInvalidations() : 0;
+        }
+
     }
 }
@@ -20,6 +20,7 @@ package org.apache.sling.servlets.resolver.internal.helper;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -65,6 +66,29 @@ public abstract class AbstractResourceCollector {
     }
 
     public final Collection<Resource> getServlets(final ResourceResolver resolver) {
+        return getServlets(resolver, null, null);
+    }
+
+    public final Collection<Resource> getServlets(final ResourceResolver resolver, final ScriptIndex index) {
+        return getServlets(resolver, index, null);
+    }
+
+    /**
+     * Returns the ordered collection of servlet and script candidates. If a
+     * script index is given, it is used for all locations it maintains.
+     * <p>
+     * If a list is given, the absolute paths of the searched locations are
+     * added to it. The resolved servlet depends only on resources at or below
+     * these locations and on the resource type resources defining the resource
+     * super types, which are at these locations as well.
+     *
+     * @param resolver The resource resolver
+     * @param index The script index or <code>null</code>
+     * @param searchedLocations The list to add the searched locations to or <code>null</code>
+     * @return The ordered candidates
+     */
+    public final Collection<Resource> getServlets(final ResourceResolver resolver, final ScriptIndex index,
+            final List<String> searchedLocations) {
 
         final SortedSet<Resource> resources = new TreeSet<Resource>();
         final Iterator<String> locations = new LocationIterator(resourceType, resourceSuperType,
@@ -81,8 +105,15 @@ public abstract class AbstractResourceCollector {
             } else {
                 path = location;
             }
-            final Resource locationRes = getResource(resolver, path);
-            getWeightedResources(resources, locationRes);
+            if ( searchedLocations != null ) {
+                searchedLocations.add(path);
+            }
+            if ( index != null && index.isIndexed(path) ) {
+                getWeightedResources(resources, resolver, path, index);
+            } else {
+                final Resource locationRes = getResource(resolver, path);
+                getWeightedResources(resources, locationRes);
+            }
         }
 
         return resources;
@@ -91,6 +122,23 @@ public abstract class AbstractResourceCollector {
     abstract protected void getWeightedResources(final Set<Resource> resources,
                                                  final Resource location);
 
+    /**
+     * Adds the candidates found at the location using the script index. This
+     * implementation does not use the index and gets the candidates from the
+     * location resource.
+     *
+     * @param resources The set of resource to which the candidates are added.
+     * @param resolver The resource resolver
+     * @param location The absolute path of the location
+     * @param index The script index maintaining the location
+     */
+    protected void getWeightedResources(final Set<Resource> resources,
+                                        final ResourceResolver resolver,
+                                        final String location,
+                                        final ScriptIndex index) {
+        getWeightedResources(resources, getResource(resolver, location));
+    }
+
     /**
      * Creates a {@link WeightedResource} and adds it to the set of resources.
      * The number of resources already present in the set is used as the ordinal
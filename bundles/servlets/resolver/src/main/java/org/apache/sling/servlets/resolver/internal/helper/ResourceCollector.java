@@ -27,6 +27,7 @@ import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.request.RequestPathInfo;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceUtil;
 import org.apache.sling.servlets.resolver.internal.ServletResolverConstants;
 import org.apache.sling.servlets.resolver.internal.resource.ServletResourceProviderFactory;
 
@@ -204,62 +205,130 @@ public class ResourceCollector extends AbstractResourceCollector {
                 if (!this.isPathAllowed(child.getPath())) {
                     continue;
                 }
-                String scriptName = child.getName();
-                int lastDot = scriptName.lastIndexOf('.');
-                if (lastDot < 0) {
-                    // no extension in the name, this is not a script
-                    continue;
+                final int[] weight = getScriptWeight(child.getName(), selector, parentName, selIdx);
+                if (weight != null) {
+                    addWeightedResource(resources, child, weight[0], weight[1]);
                 }
+            }
 
-                scriptName = scriptName.substring(0, lastDot);
+            if (selector != null) {
+                current = resolver.getResource(current, selector);
+                parentName = selector;
+                selIdx++;
+            }
+        } while (selector != null && current != null);
 
-                if (isGet
-                    && checkScriptName(scriptName, selector, parentName,
-                        suffExt, null, resources, child, selIdx)) {
-                    continue;
-                }
+        // special treatment for servlets registered with neither a method
+        // name nor extensions and selectors
+        addLocationServlet(resources, location.getResourceResolver(), location.getPath());
+    }
 
-                if (checkScriptName(scriptName, selector, parentName,
-                    suffExtMethod, suffMethod, resources, child, selIdx)) {
-                    continue;
-                }
+    /**
+     * Finds the candidates using the names of the children kept by the
+     * script index. Only the resources of matching scripts are retrieved.
+     */
+    @Override
+    protected void getWeightedResources(final Set<Resource> resources,
+            final ResourceResolver resolver,
+            final String location,
+            final ScriptIndex index) {
+        String currentPath = location;
+        String parentName = ResourceUtil.getName(location);
 
-                // SLING-754: Not technically really correct because
-                // the request extension is only optional in the script
-                // name for HTML methods, but we keep this for backwards
-                // compatibility.
-                if (selector != null
-                    && matches(scriptName, selector, suffMethod)) {
-                    addWeightedResource(resources, child, selIdx + 1,
-                        WeightedResource.WEIGHT_NONE);
-                    continue;
-                }
+        int selIdx = 0;
+        String selector;
+        do {
+            selector = (selIdx < numRequestSelectors)
+                    ? requestSelectors[selIdx]
+                    : null;
 
-                if (scriptName.equals(methodName)) {
-                    addWeightedResource(resources, child, selIdx,
-                        WeightedResource.WEIGHT_NONE);
+            for (final String name : index.getChildNames(resolver, currentPath)) {
+                final String childPath = currentPath + '/' + name;
+                if (!this.isPathAllowed(childPath)) {
                     continue;
                 }
+                final int[] weight = getScriptWeight(name, selector, parentName, selIdx);
+                if (weight != null) {
+                    final Resource child = resolver.getResource(childPath);
+                    if (child != null) {
+                        addWeightedResource(resources, child, weight[0], weight[1]);
+                    }
+                }
             }
 
             if (selector != null) {
-                current = resolver.getResource(current, selector);
+                if (index.hasChild(resolver, currentPath, selector)) {
+                    currentPath = currentPath + '/' + selector;
+                } else {
+                    currentPath = null;
+                }
                 parentName = selector;
                 selIdx++;
             }
-        } while (selector != null && current != null);
+        } while (selector != null && currentPath != null);
 
         // special treatment for servlets registered with neither a method
-        // name nor extensions and selectors
-        addLocationServlet(resources, location);
+        // name nor extensions and selectors, such a servlet is a child of
+        // the parent location
+        final String parentPath = ResourceUtil.getParent(location);
+        if (parentPath == null || !index.isIndexed(parentPath)
+                || index.hasChild(resolver, parentPath, ResourceUtil.getName(location)
+                    + ServletResourceProviderFactory.SERVLET_PATH_EXTENSION)) {
+            addLocationServlet(resources, resolver, location);
+        }
+    }
+
+    /**
+     * Returns the number of matched selectors and the method/prefix weight
+     * of the script with the given name or <code>null</code> if the script
+     * is not suitable to handle the request.
+     */
+    private int[] getScriptWeight(final String name,
+            final String selector, final String parentName,
+            final int selIdx) {
+        final int lastDot = name.lastIndexOf('.');
+        if (lastDot < 0) {
+            // no extension in the name, this is not a script
+            return null;
+        }
+
+        final String scriptName = name.substring(0, lastDot);
+
+        if (isGet) {
+            final int[] weight = checkScriptName(scriptName, selector, parentName,
+                suffExt, null, selIdx);
+            if (weight != null) {
+                return weight;
+            }
+        }
+
+        final int[] weight = checkScriptName(scriptName, selector, parentName,
+            suffExtMethod, suffMethod, selIdx);
+        if (weight != null) {
+            return weight;
+        }
+
+        // SLING-754: Not technically really correct because
+        // the request extension is only optional in the script
+        // name for HTML methods, but we keep this for backwards
+        // compatibility.
+        if (selector != null
+            && matches(scriptName, selector, suffMethod)) {
+            return new int[] {selIdx + 1, WeightedResource.WEIGHT_NONE};
+        }
+
+        if (scriptName.equals(methodName)) {
+            return new int[] {selIdx, WeightedResource.WEIGHT_NONE};
+        }
+        return null;
     }
 
     /**
      * Checks whether the <code>scriptName</code> matches a certain number of
      * combinations of <code>selector</code>, <code>parentName</code>,
      * <code>suffix</code> and <code>htmlSuffix</code>. If a match is found the
-     * {@link #addWeightedResource(Set, Resource, int, int)} method is called to
-     * register the found script resource with appropriate selection weight.
+     * number of matched selectors and the selection weight to be used for
+     * {@link #addWeightedResource(Set, Resource, int, int)} are returned.
      *
      * @param scriptName The name of the script (without the script extension)
      *            to check for compliance.
@@ -273,51 +342,37 @@ public class ResourceCollector extends AbstractResourceCollector {
      * @param htmlSuffix Expected second part of the script name (besides either
      *            the selector or the parent name); may be <code>null</code>;
      *            applicable for GET or HEAD methods only.
-     * @param resources The set of weighted resource to which the new weighted
-     *            resource is added if a match is found.
-     * @param child The resource representing the script
      * @param selIdx The selector weight value
-     * @return <code>true</code> if a match has been found and a weighted
-     *         resource has been added to the <code>resources</code> set.
+     * @return The number of matched selectors and the selection weight or
+     *         <code>null</code> if no match has been found.
      */
-    private boolean checkScriptName(final String scriptName,
+    private int[] checkScriptName(final String scriptName,
             final String selector, final String parentName,
             final String suffix, final String htmlSuffix,
-            final Set<Resource> resources, final Resource child,
             final int selIdx) {
         if (selector != null && matches(scriptName, selector, suffix)) {
-            addWeightedResource(resources, child, selIdx + 1,
-                WeightedResource.WEIGHT_EXTENSION);
-            return true;
+            return new int[] {selIdx + 1, WeightedResource.WEIGHT_EXTENSION};
         }
 
         if (matches(scriptName, parentName, suffix)) {
-            addWeightedResource(resources, child, selIdx,
-                WeightedResource.WEIGHT_EXTENSION
-                    + WeightedResource.WEIGHT_PREFIX);
-            return true;
+            return new int[] {selIdx,
+                WeightedResource.WEIGHT_EXTENSION + WeightedResource.WEIGHT_PREFIX};
         }
 
         if (scriptName.equals(suffix.substring(1))) {
-            addWeightedResource(resources, child, selIdx,
-                WeightedResource.WEIGHT_EXTENSION);
-            return true;
+            return new int[] {selIdx, WeightedResource.WEIGHT_EXTENSION};
         }
 
         if (isDefaultExtension) {
             if (selector != null && matches(scriptName, selector, htmlSuffix)) {
-                addWeightedResource(resources, child, selIdx + 1,
-                    WeightedResource.WEIGHT_NONE);
-                return true;
+                return new int[] {selIdx + 1, WeightedResource.WEIGHT_NONE};
             }
 
             if (matches(scriptName, parentName, htmlSuffix)) {
-                addWeightedResource(resources, child, selIdx,
-                    WeightedResource.WEIGHT_PREFIX);
-                return true;
+                return new int[] {selIdx, WeightedResource.WEIGHT_PREFIX};
             }
         }
-        return false;
+        return null;
     }
 
     private boolean matches(final String scriptName, final String name,
@@ -334,12 +389,11 @@ public class ResourceCollector extends AbstractResourceCollector {
     }
 
     private void addLocationServlet(final Set<Resource> resources,
-            final Resource location) {
-        final String path = location.getPath()
+            final ResourceResolver resolver, final String location) {
+        final String path = location
             + ServletResourceProviderFactory.SERVLET_PATH_EXTENSION;
         if (this.isPathAllowed(path)) {
-            final Resource servlet = location.getResourceResolver().getResource(
-                path);
+            final Resource servlet = resolver.getResource(path);
             if (servlet != null) {
                 addWeightedResource(resources, servlet, 0,
                     WeightedResource.WEIGHT_LAST_RESSORT);
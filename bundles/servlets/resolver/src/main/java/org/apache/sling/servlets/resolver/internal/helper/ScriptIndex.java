@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.resolver.internal.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.SyntheticResource;
+
+/**
+ * The <code>ScriptIndex</code> keeps the names of the children of the
+ * locations searched for scripts in memory. It allows the
+ * {@link ResourceCollector} to find the script candidates of a resource type
+ * without listing the children of each location again and again.
+ * <p>
+ * The index is filled lazily and only for locations below one of the search
+ * paths. It must be invalidated through {@link #invalidate(String)} whenever
+ * a resource below a search path is added, changed or removed.
+ * <p>
+ * As locations are added for every resource type searched, including
+ * locations which do not exist, the index is bounded: it is split into
+ * segments, each of them being a least recently used map guarded by its own
+ * lock. If a segment is full, its least recently used location is removed.
+ */
+public class ScriptIndex {
+
+    /** The default maximum number of locations kept in the index. */
+    public static final int DEFAULT_MAX_SIZE = 2000;
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private static final String[] NO_NAMES = new String[0];
+
+    /** The child names per location. */
+    private final Segment[] segments;
+
+    private final String[] searchPaths;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public ScriptIndex(final String[] searchPaths) {
+        this(searchPaths, DEFAULT_MAX_SIZE);
+    }
+
+    public ScriptIndex(final String[] searchPaths, final int maxSize) {
+        this.searchPaths = searchPaths;
+        // keep at least 16 locations per segment
+        int count = 1;
+        while (count < MAX_SEGMENTS && count * 32 <= maxSize) {
+            count = count * 2;
+        }
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            final int segmentSize = maxSize / count + (i < maxSize % count ? 1 : 0);
+            this.segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    private Segment getSegment(final String path) {
+        int h = path.hashCode();
+        h ^= (h >>> 16);
+        return this.segments[h & (this.segments.length - 1)];
+    }
+
+    /**
+     * Returns whether the location is maintained by this index.
+     */
+    public boolean isIndexed(final String path) {
+        for (final String searchPath : this.searchPaths) {
+            if (path.startsWith(searchPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the names of the children of the location in the order
+     * returned by the resource resolver. If the location is not yet known,
+     * its children are listed using the resource resolver.
+     *
+     * @param resolver The resource resolver used to list the children
+     * @param path The absolute path of a location below a search path
+     * @return The names of the children
+     */
+    public String[] getChildNames(final ResourceResolver resolver, final String path) {
+        final Segment segment = getSegment(path);
+        final long startGeneration = this.generation.get();
+        String[] names;
+        synchronized (segment) {
+            names = segment.get(path);
+        }
+        if (names == null) {
+            Resource location = resolver.getResource(path);
+            if (location == null) {
+                location = new SyntheticResource(resolver, path, "$synthetic$");
+            }
+            final List<String> list = new ArrayList<String>();
+            final Iterator<Resource> children = resolver.listChildren(location);
+            while (children.hasNext()) {
+                list.add(children.next().getName());
+            }
+            names = list.isEmpty() ? NO_NAMES : list.toArray(new String[list.size()]);
+            synchronized (segment) {
+                // an invalidation might have happened concurrently, checking
+                // inside the lock is sufficient as invalidation acquires the
+                // lock of each segment after incrementing
+                if (this.generation.get() == startGeneration) {
+                    segment.put(path, names);
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Returns whether the location has a child with the given name.
+     */
+    public boolean hasChild(final ResourceResolver resolver, final String path, final String name) {
+        return Arrays.asList(this.getChildNames(resolver, path)).contains(name);
+    }
+
+    /**
+     * Removes the locations affected by a change of the resource at the
+     * given path: the parent location and the location itself including
+     * all locations below.
+     */
+    public void invalidate(final String path) {
+        final String prefix = path.endsWith("/") ? path : path.concat("/");
+        final int pos = path.lastIndexOf('/');
+        final String parent = pos > 0 ? path.substring(0, pos) : "/";
+        this.generation.incrementAndGet();
+        for (final Segment segment : this.segments) {
+            synchronized (segment) {
+                segment.remove(parent);
+                final Iterator<String> i = segment.keySet().iterator();
+                while (i.hasNext()) {
+                    final String location = i.next();
+                    if (location.equals(path) || location.startsWith(prefix)) {
+                        i.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all locations.
+     */
+    public void clear() {
+        this.generation.incrementAndGet();
+        for (final Segment segment : this.segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int getSize() {
+        int size = 0;
+        for (final Segment segment : this.segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Segment extends LinkedHashMap<String, String[]> {
+
+        private final int capacity;
+
+        Segment(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, String[]> eldest) {
+            return size() > capacity;
+        }
+    }
+}
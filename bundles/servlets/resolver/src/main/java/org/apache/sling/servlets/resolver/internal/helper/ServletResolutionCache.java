@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.resolver.internal.helper;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.Servlet;
+
+/**
+ * The <code>ServletResolutionCache</code> caches the servlet resolved for
+ * a {@link AbstractResourceCollector}.
+ * <p>
+ * The cache is bounded: it is split into segments, each of them being a
+ * least recently used map guarded by its own lock. If a segment is full,
+ * its least recently used entry is evicted.
+ * <p>
+ * Each entry remembers the locations which have been searched to resolve
+ * the servlet, see {@link AbstractResourceCollector#getServlets(org.apache.sling.api.resource.ResourceResolver, ScriptIndex, List)}. When a
+ * resource changes, only the entries having searched a location at, above or
+ * below the changed path are removed.
+ */
+public class ServletResolutionCache {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+
+    private final int maxSize;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ServletResolutionCache(final int maxSize) {
+        this.maxSize = maxSize;
+        // keep at least 16 entries per segment
+        int count = 1;
+        while (count < MAX_SEGMENTS && count * 32 <= maxSize) {
+            count = count * 2;
+        }
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            final int segmentSize = maxSize / count + (i < maxSize % count ? 1 : 0);
+            this.segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    private Segment getSegment(final AbstractResourceCollector key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return this.segments[h & (this.segments.length - 1)];
+    }
+
+    /**
+     * Returns the cached servlet or <code>null</code>.
+     */
+    public Servlet get(final AbstractResourceCollector key) {
+        final Segment segment = getSegment(key);
+        final Entry entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.servlet;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Returns the current generation of the cache. It must be fetched before
+     * the servlet to be cached is resolved and passed to
+     * {@link #put(AbstractResourceCollector, List, Servlet, long)}.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Caches the servlet resolved by the collector unless the cache has been
+     * invalidated since the given generation has been retrieved.
+     */
+    public void put(final AbstractResourceCollector key, final List<String> locations, final Servlet servlet,
+            final long startGeneration) {
+        final Entry entry = new Entry(servlet, locations.toArray(new String[locations.size()]));
+        final Segment segment = getSegment(key);
+        synchronized (segment) {
+            // checking inside the lock is sufficient as invalidation
+            // acquires the lock of each segment after incrementing
+            if (generation.get() == startGeneration) {
+                segment.put(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries whose resolution searched a location at, above or
+     * below the given path.
+     */
+    public void invalidate(final String path) {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        final String prefix = path.endsWith("/") ? path : path.concat("/");
+        for (final Segment segment : this.segments) {
+            synchronized (segment) {
+                final Iterator<Entry> i = segment.values().iterator();
+                while (i.hasNext()) {
+                    if (i.next().isAffectedBy(path, prefix)) {
+                        i.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        for (final Segment segment : this.segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int getSize() {
+        int size = 0;
+        for (final Segment segment : this.segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    private static final class Entry {
+
+        private final Servlet servlet;
+
+        private final String[] locations;
+
+        Entry(final Servlet servlet, final String[] locations) {
+            this.servlet = servlet;
+            this.locations = locations;
+        }
+
+        boolean isAffectedBy(final String path, final String prefix) {
+            for (final String location : this.locations) {
+                if (location.equals(path) || location.startsWith(prefix) || path.startsWith(location.concat("/"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class Segment extends LinkedHashMap<AbstractResourceCollector, Entry> {
+
+        private final int capacity;
+
+        Segment(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<AbstractResourceCollector, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
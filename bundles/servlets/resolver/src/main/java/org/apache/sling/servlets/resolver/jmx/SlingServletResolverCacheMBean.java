@@ -38,7 +38,37 @@ public interface SlingServletResolverCacheMBean {
     int getMaximumCacheSize();
 
     /**
-     * Flush the servlet resolver cache.
+     * Get the number of servlet resolutions answered from the cache
+     *
+     * @return the number of hits
+     */
+    long getHitCount();
+
+    /**
+     * Get the number of servlet resolutions not answered from the cache
+     *
+     * @return the number of misses
+     */
+    long getMissCount();
+
+    /**
+     * Get the number of entries evicted because the cache was full
+     *
+     * @return the number of evictions
+     */
+    long getEvictionCount();
+
+    /**
+     * Get the number of invalidations caused by changed scripts or
+     * by a flush of the cache
+     *
+     * @return the number of invalidations
+     */
+    long getInvalidationCount();
+
+    /**
+     * Flush the servlet resolver cache together with the index of the
+     * scripts found in the search paths.
      */
     void flushCache();
 
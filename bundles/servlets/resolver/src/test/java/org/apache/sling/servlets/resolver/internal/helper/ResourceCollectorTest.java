@@ -18,9 +18,11 @@
  */
 package org.apache.sling.servlets.resolver.internal.helper;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.sling.api.resource.Resource;
@@ -286,6 +288,18 @@ public class ResourceCollectorTest extends HelperTestBase {
         }
 
         assertFalse(rIter.hasNext());
+
+        // the script index must find the same candidates in the same order
+        final ScriptIndex index = new ScriptIndex(resourceResolver.getSearchPath());
+        assertEquals(getPaths(res), getPaths(lu.getServlets(request.getResourceResolver(), index)));
+    }
+
+    private List<String> getPaths(final Collection<Resource> resources) {
+        final List<String> paths = new ArrayList<String>();
+        for (final Resource r : resources) {
+            paths.add(r.getPath());
+        }
+        return paths;
     }
 
     protected MockResource createScriptResource(String path, String type) {
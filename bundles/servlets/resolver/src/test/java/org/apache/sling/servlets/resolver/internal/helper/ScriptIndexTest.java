@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.resolver.internal.helper;
+
+import java.util.Collection;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.commons.testing.sling.MockResource;
+
+public class ScriptIndexTest extends HelperTestBase {
+
+    private ScriptIndex index;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        index = new ScriptIndex(resourceResolver.getSearchPath());
+    }
+
+    private void addScript(final String path) {
+        resourceResolver.addResource(new MockResource(resourceResolver, path, "nt:file"));
+    }
+
+    public void testIndexedLocations() {
+        assertTrue(index.isIndexed("/apps/foo/bar"));
+        assertTrue(index.isIndexed("/libs/foo/bar"));
+        assertFalse(index.isIndexed("/content/foo"));
+    }
+
+    public void testScriptsAreFoundAfterInvalidation() {
+        addScript("/apps/" + resourceTypePath + "/html.esp");
+        final ResourceCollector collector = ResourceCollector.create(request, null, new String[] {"html"});
+
+        Collection<Resource> candidates = collector.getServlets(resourceResolver, index);
+        assertEquals(1, candidates.size());
+        assertTrue(index.getSize() > 0);
+
+        // without invalidation the new script is not seen
+        final String scriptPath = "/apps/" + resourceTypePath + "/print/html.esp";
+        addScript("/apps/" + resourceTypePath + "/print");
+        addScript(scriptPath);
+        candidates = collector.getServlets(resourceResolver, index);
+        assertEquals(1, candidates.size());
+
+        index.invalidate("/apps/" + resourceTypePath + "/print");
+        index.invalidate(scriptPath);
+        candidates = collector.getServlets(resourceResolver, index);
+        assertEquals(2, candidates.size());
+        assertEquals(scriptPath, candidates.iterator().next().getPath());
+    }
+
+    public void testInvalidateSubtree() {
+        index.getChildNames(resourceResolver, "/apps/foo");
+        index.getChildNames(resourceResolver, "/apps/foo/bar");
+        index.getChildNames(resourceResolver, "/apps/foo/bar/print");
+        index.getChildNames(resourceResolver, "/apps/foobar");
+        assertEquals(4, index.getSize());
+
+        index.invalidate("/apps/foo/bar");
+        assertEquals(1, index.getSize());
+        index.clear();
+        assertEquals(0, index.getSize());
+    }
+
+    public void testBounded() {
+        index = new ScriptIndex(resourceResolver.getSearchPath(), 2);
+        index.getChildNames(resourceResolver, "/apps/foo");
+        index.getChildNames(resourceResolver, "/apps/bar");
+        index.getChildNames(resourceResolver, "/apps/foo");
+        index.getChildNames(resourceResolver, "/apps/baz");
+        assertEquals(2, index.getSize());
+
+        // the least recently used location has been removed
+        index.invalidate("/apps/foo/script.esp");
+        assertEquals(1, index.getSize());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.resolver.internal.helper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.GenericServlet;
+import javax.servlet.Servlet;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.apache.sling.commons.testing.sling.MockResource;
+
+public class ServletResolutionCacheTest extends HelperTestBase {
+
+    private final Servlet servlet = new GenericServlet() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void service(ServletRequest req, ServletResponse res) {
+            // nothing to do
+        }
+    };
+
+    private AbstractResourceCollector collector(final String resourceType) {
+        final MockResource r = new MockResource(resourceResolver, "/content/" + resourceType, resourceType);
+        return ResourceCollector.create(r, "html", null, new String[] {"html"}, "GET", new String[0]);
+    }
+
+    private List<String> locations(final String resourceType) {
+        final List<String> locations = new ArrayList<String>();
+        collector(resourceType).getServlets(resourceResolver, null, locations);
+        return locations;
+    }
+
+    public void testLocations() {
+        final List<String> locations = locations("foo/bar");
+        assertTrue(locations.contains("/apps/foo/bar"));
+        assertTrue(locations.contains("/libs/foo/bar"));
+        assertTrue(locations.contains("/libs/sling/servlet/default"));
+    }
+
+    public void testScopedInvalidation() {
+        final ServletResolutionCache cache = new ServletResolutionCache(100);
+        cache.put(collector("foo/bar"), locations("foo/bar"), servlet, cache.getGeneration());
+        cache.put(collector("foo/baz"), locations("foo/baz"), servlet, cache.getGeneration());
+        assertSame(servlet, cache.get(collector("foo/bar")));
+        assertEquals(1, cache.getHits());
+
+        // unrelated script
+        cache.invalidate("/apps/other/html.jsp");
+        assertEquals(2, cache.getSize());
+
+        // script in a selector folder of foo/bar
+        cache.invalidate("/apps/foo/bar/print/html.jsp");
+        assertNull(cache.get(collector("foo/bar")));
+        assertSame(servlet, cache.get(collector("foo/baz")));
+
+        // common parent folder
+        cache.invalidate("/libs/foo");
+        assertEquals(0, cache.getSize());
+    }
+
+    public void testDefaultServletInvalidatesAll() {
+        final ServletResolutionCache cache = new ServletResolutionCache(100);
+        cache.put(collector("foo/bar"), locations("foo/bar"), servlet, cache.getGeneration());
+        cache.put(collector("foo/baz"), locations("foo/baz"), servlet, cache.getGeneration());
+        cache.invalidate("/libs/sling/servlet/default/GET.jsp");
+        assertEquals(0, cache.getSize());
+    }
+
+    public void testOutdatedResultsAreNotCached() {
+        final ServletResolutionCache cache = new ServletResolutionCache(100);
+        final long generation = cache.getGeneration();
+        cache.invalidate("/apps/foo/bar/html.jsp");
+        cache.put(collector("foo/bar"), locations("foo/bar"), servlet, generation);
+        assertEquals(0, cache.getSize());
+    }
+
+    public void testLeastRecentlyUsedEviction() {
+        final ServletResolutionCache cache = new ServletResolutionCache(10);
+        for (int i = 0; i < 10; i++) {
+            cache.put(collector("foo/type" + i), locations("foo/type" + i), servlet, cache.getGeneration());
+        }
+        assertEquals(10, cache.getSize());
+
+        // touch the first entry, then add more entries
+        assertSame(servlet, cache.get(collector("foo/type0")));
+        cache.put(collector("foo/new"), locations("foo/new"), servlet, cache.getGeneration());
+        assertEquals(10, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+        assertSame(servlet, cache.get(collector("foo/type0")));
+        assertNull(cache.get(collector("foo/type1")));
+    }
+}